@@ -0,0 +1,480 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Represents a Puma number that may be updated atomically, in the manner of
+ * an atomic long.<br/>
+ * <br/>
+ * Since Puma numbers are immutable, every update replaces the Puma number held
+ * by a single compare-and-set of the reference, and an update that fails
+ * because another thread updated the Puma number first is recalculated from
+ * the Puma number held by the other thread. A thread that fails repeatedly
+ * backs off, spinning at first then yielding then parking for exponentially
+ * longer periods, such that heavily contended updates do not waste processors
+ * recalculating results that will be discarded.<br/>
+ * <br/>
+ * Atomic Puma numbers are thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.ConcurrentPumaAdder
+ * @see java.util.concurrent.atomic.AtomicLong
+ */
+public class AtomicPuma extends Number {
+
+	/** The serialization version unique identifier. */
+	private static final long serialVersionUID = 1l;
+
+	/** The number of failed attempts after which a thread stops spinning. */
+	private static final int SPINS = 4;
+
+	/** The number of failed attempts after which a thread stops yielding. */
+	private static final int YIELDS = 8;
+
+	/** The longest period for which a thread parks, in nanoseconds. */
+	private static final long MAXIMUM_PARK_NANOS = 1000000;
+
+	/** Updates the number. */
+	private static final AtomicReferenceFieldUpdater<AtomicPuma, Puma> NUMBER = AtomicReferenceFieldUpdater
+			.newUpdater(AtomicPuma.class, Puma.class, "number");
+
+	/** The number. */
+	private volatile Puma number;
+
+	/**
+	 * Creates an atomic Puma number with a value of zero.
+	 */
+	public AtomicPuma() {
+
+		this(Puma.ZERO);
+
+	}
+
+	/**
+	 * Creates an atomic Puma number with the specified initial value.
+	 * 
+	 * @param initial
+	 *            the initial value.
+	 */
+	public AtomicPuma(Puma initial) {
+
+		number = checkNotNull(initial);
+
+	}
+
+	/**
+	 * Gets the current value.
+	 * 
+	 * @return the value.
+	 */
+	public final Puma get() {
+
+		return number;
+
+	}
+
+	/**
+	 * Sets the value.
+	 * 
+	 * @param value
+	 *            the value.
+	 */
+	public final void set(Puma value) {
+
+		number = checkNotNull(value);
+
+	}
+
+	/**
+	 * Sets the value, and yields the previous value.
+	 * 
+	 * @param value
+	 *            the value.
+	 * @return the previous value.
+	 */
+	public final Puma getAndSet(Puma value) {
+
+		return NUMBER.getAndSet(this, checkNotNull(value));
+
+	}
+
+	/**
+	 * Sets the value to the specified updated value if the current value
+	 * equals the specified expected value.<br/>
+	 * The current value is first compared by reference, which settles the
+	 * comparison whenever the expected value is the Puma number yielded by
+	 * {@link #get()}, and only otherwise compared by value.
+	 * 
+	 * @param expected
+	 *            the expected value.
+	 * @param updated
+	 *            the updated value.
+	 * @return true if the value was updated, false if the current value did
+	 *         not equal the expected value.
+	 */
+	public final boolean compareAndSet(Puma expected, Puma updated) {
+
+		checkNotNull(updated);
+
+		if (NUMBER.compareAndSet(this, expected, updated)) {
+
+			return true;
+
+		}
+
+		int attempts = 0;
+
+		for (;;) {
+
+			Puma current = number;
+
+			if (current != expected
+					&& (expected == null || !current.equals(expected))) {
+
+				return false;
+
+			}
+
+			if (NUMBER.compareAndSet(this, current, updated)) {
+
+				return true;
+
+			}
+
+			backOff(++attempts);
+
+		}
+
+	}
+
+	/**
+	 * Adds the specified Puma number to the current value, and yields the
+	 * previous value.
+	 * 
+	 * @param delta
+	 *            the number.
+	 * @return the previous value.
+	 */
+	public final Puma getAndAdd(Puma delta) {
+
+		checkNotNull(delta);
+
+		int attempts = 0;
+
+		for (;;) {
+
+			Puma current = number;
+
+			if (NUMBER.compareAndSet(this, current, current.add(delta))) {
+
+				return current;
+
+			}
+
+			backOff(++attempts);
+
+		}
+
+	}
+
+	/**
+	 * Adds the specified Puma number to the current value, and yields the
+	 * updated value.
+	 * 
+	 * @param delta
+	 *            the number.
+	 * @return the updated value.
+	 */
+	public final Puma addAndGet(Puma delta) {
+
+		checkNotNull(delta);
+
+		int attempts = 0;
+
+		for (;;) {
+
+			Puma current = number;
+
+			Puma updated = current.add(delta);
+
+			if (NUMBER.compareAndSet(this, current, updated)) {
+
+				return updated;
+
+			}
+
+			backOff(++attempts);
+
+		}
+
+	}
+
+	/**
+	 * Updates the current value with the result of applying the specified
+	 * function, and yields the previous value. The function may be applied
+	 * several times if other threads update the value concurrently, therefore
+	 * the function should be free of side effects.
+	 * 
+	 * @param function
+	 *            the function.
+	 * @return the previous value.
+	 */
+	public final Puma getAndUpdate(UnaryOperator<Puma> function) {
+
+		int attempts = 0;
+
+		for (;;) {
+
+			Puma current = number;
+
+			if (NUMBER.compareAndSet(this, current, checkNotNull(function
+					.apply(current)))) {
+
+				return current;
+
+			}
+
+			backOff(++attempts);
+
+		}
+
+	}
+
+	/**
+	 * Updates the current value with the result of applying the specified
+	 * function, and yields the updated value. The function may be applied
+	 * several times if other threads update the value concurrently, therefore
+	 * the function should be free of side effects.
+	 * 
+	 * @param function
+	 *            the function.
+	 * @return the updated value.
+	 */
+	public final Puma updateAndGet(UnaryOperator<Puma> function) {
+
+		int attempts = 0;
+
+		for (;;) {
+
+			Puma current = number;
+
+			Puma updated = checkNotNull(function.apply(current));
+
+			if (NUMBER.compareAndSet(this, current, updated)) {
+
+				return updated;
+
+			}
+
+			backOff(++attempts);
+
+		}
+
+	}
+
+	/**
+	 * Updates the current value with the result of applying the specified
+	 * function to the current value and the specified Puma number, and yields
+	 * the previous value. The function may be applied several times if other
+	 * threads update the value concurrently, therefore the function should be
+	 * free of side effects.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param function
+	 *            the function.
+	 * @return the previous value.
+	 */
+	public final Puma getAndAccumulate(Puma number,
+			BinaryOperator<Puma> function) {
+
+		int attempts = 0;
+
+		for (;;) {
+
+			Puma current = this.number;
+
+			if (NUMBER.compareAndSet(this, current, checkNotNull(function
+					.apply(current, number)))) {
+
+				return current;
+
+			}
+
+			backOff(++attempts);
+
+		}
+
+	}
+
+	/**
+	 * Updates the current value with the result of applying the specified
+	 * function to the current value and the specified Puma number, and yields
+	 * the updated value. The function may be applied several times if other
+	 * threads update the value concurrently, therefore the function should be
+	 * free of side effects.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param function
+	 *            the function.
+	 * @return the updated value.
+	 */
+	public final Puma accumulateAndGet(Puma number,
+			BinaryOperator<Puma> function) {
+
+		int attempts = 0;
+
+		for (;;) {
+
+			Puma current = this.number;
+
+			Puma updated = checkNotNull(function.apply(current, number));
+
+			if (NUMBER.compareAndSet(this, current, updated)) {
+
+				return updated;
+
+			}
+
+			backOff(++attempts);
+
+		}
+
+	}
+
+	/**
+	 * Yields the current value as an int.
+	 * 
+	 * @return the value.
+	 * @see com.zavazoo.puma.Puma#intValue()
+	 */
+	@Override
+	public int intValue() {
+
+		return number.intValue();
+
+	}
+
+	/**
+	 * Yields the current value as a long.
+	 * 
+	 * @return the value.
+	 * @see com.zavazoo.puma.Puma#longValue()
+	 */
+	@Override
+	public long longValue() {
+
+		return number.longValue();
+
+	}
+
+	/**
+	 * Yields the current value as a float.
+	 * 
+	 * @return the value.
+	 * @see com.zavazoo.puma.Puma#floatValue()
+	 */
+	@Override
+	public float floatValue() {
+
+		return number.floatValue();
+
+	}
+
+	/**
+	 * Yields the current value as a double.
+	 * 
+	 * @return the value.
+	 * @see com.zavazoo.puma.Puma#doubleValue()
+	 */
+	@Override
+	public double doubleValue() {
+
+		return number.doubleValue();
+
+	}
+
+	/**
+	 * Yields a string representation of the current value.
+	 * 
+	 * @return the representation.
+	 */
+	@Override
+	public String toString() {
+
+		return number.toString();
+
+	}
+
+	/**
+	 * Backs off after the specified number of failed attempts to update the
+	 * value.
+	 * 
+	 * @param attempts
+	 *            the number of failed attempts.
+	 */
+	private static void backOff(int attempts) {
+
+		if (attempts <= SPINS) {
+
+			return;
+
+		}
+
+		if (attempts <= YIELDS) {
+
+			Thread.yield();
+
+			return;
+
+		}
+
+		long nanos = 1000L << Math.min(attempts - YIELDS, 10);
+
+		LockSupport.parkNanos(Math.min(nanos, MAXIMUM_PARK_NANOS));
+
+	}
+
+	/**
+	 * Asserts that the specified Puma number is not null.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the number.
+	 */
+	private static Puma checkNotNull(Puma number) {
+
+		if (number == null) {
+
+			throw new NullPointerException("The value must not be null");
+
+		}
+
+		return number;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+/**
+ * Exception used to indicate that a long-running Puma calculation was
+ * abandoned, either because the calculating thread was interrupted or because
+ * the deadline of the calculation passed, which carries the estimate of the
+ * result reached so far if there is one.<br/>
+ * <br/>
+ * The interrupted status of the calculating thread is left set, such that the
+ * interruption remains visible to the caller.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.Puma#power(Puma, int, java.time.Duration)
+ */
+public class CalculationInterruptedException extends RuntimeException {
+
+	/** The serialization version unique identifier. */
+	private static final long serialVersionUID = 1l;
+
+	/** The estimate reached so far, or null. */
+	private Puma partialResult;
+
+	/** Asserts that the deadline passed rather than the thread interrupted. */
+	private boolean deadlineExceeded;
+
+	/**
+	 * Creates a calculation interrupted exception using the specified
+	 * estimate.
+	 * 
+	 * @param partialResult
+	 *            the estimate reached so far, or null.
+	 * @param deadlineExceeded
+	 *            true if the deadline passed, false if the thread was
+	 *            interrupted.
+	 */
+	CalculationInterruptedException(Puma partialResult,
+			boolean deadlineExceeded) {
+
+		super(deadlineExceeded ? "The calculation exceeded its deadline"
+				: "The calculation was interrupted");
+
+		this.partialResult = partialResult;
+		this.deadlineExceeded = deadlineExceeded;
+
+	}
+
+	/**
+	 * Gets the estimate of the result reached so far, or null if there is
+	 * none. The estimate of a root is the latest guess at the root, the
+	 * estimate of a fraction is the latest candidate fraction, and the
+	 * estimate of an expression is the result of the last operation that
+	 * completed.
+	 * 
+	 * @return the estimate.
+	 */
+	public Puma getPartialResult() {
+
+		return partialResult;
+
+	}
+
+	/**
+	 * Asserts that the calculation was abandoned because its deadline passed
+	 * rather than because the thread was interrupted.
+	 * 
+	 * @return true if the deadline passed, false otherwise.
+	 */
+	public boolean deadlineExceeded() {
+
+		return deadlineExceeded;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,767 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.lang.invoke.MethodHandle;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Represents a Puma expression that has been parsed once into a sequence of
+ * Puma instructions, such that the Puma expression may be evaluated any number
+ * of times without parsing the expression again.<br/>
+ * <br/>
+ * A compiled Puma expression may comprise variables as well as Puma numbers,
+ * where a variable is a letter or underscore followed by any letters, digits
+ * or underscores. The Puma numbers bound to the variables are specified upon
+ * evaluation either by name or by position, where the position of each
+ * variable is the order in which the variable first appears within the
+ * expression. For example the expression<br/>
+ * <br/>
+ * ((((I * 1.1) - I) / 3) / S) * s<br/>
+ * <br/>
+ * comprises the variables I, S and s at positions 0, 1 and 2
+ * respectively.<br/>
+ * <br/>
+ * A compiled Puma expression may also be evaluated for every row of a batch of
+ * rows, where the Puma numbers bound to each variable are specified as a
+ * column, in which case the rows are evaluated in parallel.<br/>
+ * <br/>
+ * Compiled Puma expressions are immutable and thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaExpression#compile(String)
+ */
+public final class CompiledPumaExpression {
+
+	/** The expression. */
+	private final String expression;
+
+	/** The instructions, the last of which yields the result. */
+	private final PumaInstruction[] instructions;
+
+	/** The variables in order of first appearance. */
+	private final String[] variables;
+
+	/** The greatest depth of the brackets of the expression. */
+	private final int depth;
+
+	/**
+	 * The method handle that executes the instructions, or null if the
+	 * instructions are interpreted.
+	 */
+	private final MethodHandle handle;
+
+	/**
+	 * Creates a compiled Puma expression using the specified expression,
+	 * instructions, variables and depth, which will be interpreted.
+	 * 
+	 * @param expression
+	 *            the expression.
+	 * @param instructions
+	 *            the instructions.
+	 * @param variables
+	 *            the variables.
+	 * @param depth
+	 *            the greatest depth of the brackets.
+	 */
+	CompiledPumaExpression(String expression, PumaInstruction[] instructions,
+			String[] variables, int depth) {
+
+		this(expression, instructions, variables, depth, null);
+
+	}
+
+	/**
+	 * Creates a compiled Puma expression using the specified expression,
+	 * instructions, variables, depth and method handle.
+	 * 
+	 * @param expression
+	 *            the expression.
+	 * @param instructions
+	 *            the instructions.
+	 * @param variables
+	 *            the variables.
+	 * @param depth
+	 *            the greatest depth of the brackets.
+	 * @param handle
+	 *            the method handle or null.
+	 */
+	private CompiledPumaExpression(String expression,
+			PumaInstruction[] instructions, String[] variables, int depth,
+			MethodHandle handle) {
+
+		this.expression = expression;
+		this.instructions = instructions;
+		this.variables = variables;
+		this.depth = depth;
+		this.handle = handle;
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression using the Puma numbers bound to
+	 * the variables by name within the specified map and yields a Puma number
+	 * that encapsulates the result.
+	 * 
+	 * @param bindings
+	 *            the Puma numbers keyed by variable.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a Puma number.
+	 */
+	public Puma evaluate(Map<String, ? extends Puma> bindings)
+			throws IllegalArgumentException {
+
+		int variablesLength = variables.length;
+
+		Puma[] arguments = new Puma[variablesLength];
+
+		for (int index = 0; index < variablesLength; index++) {
+
+			arguments[index] = bindings.get(variables[index]);
+
+		}
+
+		return execute(arguments);
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression using the Puma numbers resolved
+	 * for the variables by the specified resolver and yields a Puma number that
+	 * encapsulates the result. Each variable is resolved once per evaluation.
+	 * 
+	 * @param resolver
+	 *            the resolver.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a Puma number.
+	 */
+	public Puma evaluate(PumaVariableResolver resolver)
+			throws IllegalArgumentException {
+
+		int variablesLength = variables.length;
+
+		Puma[] arguments = new Puma[variablesLength];
+
+		for (int index = 0; index < variablesLength; index++) {
+
+			arguments[index] = resolver.resolve(variables[index]);
+
+		}
+
+		return execute(arguments);
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression using the specified Puma numbers
+	 * bound to the variables by position and yields a Puma number that
+	 * encapsulates the result.
+	 * 
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if the number of Puma numbers differs from the number of
+	 *                variables or any variable is not bound to a Puma number.
+	 * @see #getVariables()
+	 */
+	public Puma evaluate(Puma... arguments) throws IllegalArgumentException {
+
+		return execute(bind(arguments));
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression using the Puma numbers bound to
+	 * the variables by name within the specified map and yields a Puma number
+	 * that encapsulates the result, abandoning the evaluation if it does not
+	 * complete within the specified timeout.
+	 * 
+	 * @param bindings
+	 *            the Puma numbers keyed by variable.
+	 * @param timeout
+	 *            the timeout.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a Puma number.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout elapses or the current thread is
+	 *                interrupted, carrying the result of the last operation
+	 *                that completed.
+	 */
+	public Puma evaluate(Map<String, ? extends Puma> bindings, Duration timeout)
+			throws IllegalArgumentException, CalculationInterruptedException {
+
+		PumaDeadline previous = PumaDeadline.begin(timeout);
+
+		try {
+
+			return evaluate(bindings);
+
+		} finally {
+
+			PumaDeadline.end(previous);
+
+		}
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression using the specified Puma numbers
+	 * bound to the variables by position and yields a Puma number that
+	 * encapsulates the result, abandoning the evaluation if it does not
+	 * complete within the specified timeout.
+	 * 
+	 * @param timeout
+	 *            the timeout.
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if the number of Puma numbers differs from the number of
+	 *                variables or any variable is not bound to a Puma number.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout elapses or the current thread is
+	 *                interrupted, carrying the result of the last operation
+	 *                that completed.
+	 */
+	public Puma evaluate(Duration timeout, Puma... arguments)
+			throws IllegalArgumentException, CalculationInterruptedException {
+
+		PumaDeadline previous = PumaDeadline.begin(timeout);
+
+		try {
+
+			return evaluate(arguments);
+
+		} finally {
+
+			PumaDeadline.end(previous);
+
+		}
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression within the specified Puma
+	 * context using the specified Puma numbers bound to the variables by
+	 * position and yields a Puma number that encapsulates the result.<br/>
+	 * The evaluation observes the precision, limits and timeout of the Puma
+	 * context.
+	 * 
+	 * @param context
+	 *            the context.
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if the number of Puma numbers differs from the number of
+	 *                variables or any variable is not bound to a Puma number.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout of the context elapses or the current
+	 *                thread is interrupted, carrying the result of the last
+	 *                operation that completed.
+	 */
+	public Puma evaluate(PumaContext context, Puma... arguments)
+			throws IllegalArgumentException, CalculationInterruptedException {
+
+		PumaContext.Scope scope = context.enter();
+
+		try {
+
+			return evaluate(arguments);
+
+		} finally {
+
+			scope.close();
+
+		}
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression in parallel using the specified
+	 * Puma numbers bound to the variables by position and yields a Puma number
+	 * that encapsulates the result, which is identical to the result of
+	 * evaluating the compiled Puma expression sequentially.<br/>
+	 * The cost of each sub-expression is estimated from the sizes of its
+	 * operands and the expense of its operators, and independent expensive
+	 * sub-expressions are evaluated concurrently by the fork join pool of the
+	 * current Puma context. Any sub-expression that occurs several times is
+	 * evaluated once.
+	 * 
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if the number of Puma numbers differs from the number of
+	 *                variables or any variable is not bound to a Puma number.
+	 * @see com.zavazoo.puma.PumaContext#getPool()
+	 */
+	public Puma evaluateParallel(Puma... arguments)
+			throws IllegalArgumentException {
+
+		return evaluateParallel(PumaContext.current().getPool(), arguments);
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression in parallel using the specified
+	 * fork join pool and the specified Puma numbers bound to the variables by
+	 * position, and yields a Puma number that encapsulates the result, which
+	 * is identical to the result of evaluating the compiled Puma expression
+	 * sequentially.
+	 * 
+	 * @param pool
+	 *            the fork join pool.
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if the number of Puma numbers differs from the number of
+	 *                variables or any variable is not bound to a Puma number.
+	 * @see #evaluateParallel(Puma[])
+	 */
+	public Puma evaluateParallel(ForkJoinPool pool, Puma... arguments)
+			throws IllegalArgumentException {
+
+		return evaluateParallel(pool, PumaParallelEvaluation.DEFAULT_THRESHOLD,
+				arguments);
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression in parallel using the specified
+	 * fork join pool, evaluating the operands of an instruction concurrently if
+	 * the estimated cost of both operands exceeds the specified threshold.
+	 * 
+	 * @param pool
+	 *            the fork join pool.
+	 * @param threshold
+	 *            the threshold.
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if the number of Puma numbers differs from the number of
+	 *                variables or any variable is not bound to a Puma number.
+	 */
+	Puma evaluateParallel(ForkJoinPool pool, long threshold,
+			Puma... arguments) throws IllegalArgumentException {
+
+		Puma[] bound = bind(arguments);
+
+		PumaParallelEvaluation evaluation = new PumaParallelEvaluation(
+				instructions, bound, threshold);
+
+		return pool.invoke(evaluation.createTask());
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression for every row of a batch using
+	 * the Puma numbers bound to the variables by the specified columns in
+	 * order of the variables, and writes the result for each row into the
+	 * same row of the specified output column.<br/>
+	 * The rows are evaluated one instruction at a time across a chunk of rows,
+	 * and the chunks are evaluated in parallel by the fork join pool of the
+	 * current Puma context.
+	 * 
+	 * @param columns
+	 *            the columns in order of the variables.
+	 * @param output
+	 *            the output column.
+	 * @exception IllegalArgumentException
+	 *                if the number of columns differs from the number of
+	 *                variables, any column has a different number of rows to
+	 *                the output column or any row of a column is empty.
+	 * @see com.zavazoo.puma.PumaContext#getPool()
+	 */
+	public void evaluateBatch(PumaColumn[] columns, Puma[] output)
+			throws IllegalArgumentException {
+
+		evaluateBatch(columns, output, PumaContext.current().getPool());
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression for every row of a batch using
+	 * the Puma numbers bound to the variables by the specified columns in
+	 * order of the variables, and writes the result for each row into the
+	 * same row of the specified output column.<br/>
+	 * The rows are evaluated one instruction at a time across a chunk of rows,
+	 * and the chunks are evaluated in parallel by the specified fork join
+	 * pool.
+	 * 
+	 * @param columns
+	 *            the columns in order of the variables.
+	 * @param output
+	 *            the output column.
+	 * @param pool
+	 *            the fork join pool.
+	 * @exception IllegalArgumentException
+	 *                if the number of columns differs from the number of
+	 *                variables, any column has a different number of rows to
+	 *                the output column or any row of a column is empty.
+	 */
+	public void evaluateBatch(PumaColumn[] columns, Puma[] output,
+			ForkJoinPool pool) throws IllegalArgumentException {
+
+		if (columns.length != variables.length) {
+
+			throw new IllegalArgumentException("The expression requires "
+					+ variables.length + " columns but " + columns.length
+					+ " were specified: " + expression);
+
+		}
+
+		int rows = output.length;
+
+		for (int index = 0; index < columns.length; index++) {
+
+			if (columns[index].size() != rows) {
+
+				throw new IllegalArgumentException("The column for variable ["
+						+ variables[index] + "] has " + columns[index].size()
+						+ " rows but the output column has " + rows + " rows: "
+						+ expression);
+
+			}
+
+		}
+
+		PumaColumn[] copied = columns.clone();
+
+		if (rows <= PumaBatchTask.CHUNK_SIZE) {
+
+			PumaBatchTask.evaluateChunk(this, copied, output, 0, rows);
+
+		} else {
+
+			pool.invoke(new PumaBatchTask(this, copied, output, 0, rows));
+
+		}
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression for every row of a batch using
+	 * the Puma numbers bound to the variables by name within the specified
+	 * map of columns, and writes the result for each row into the same row of
+	 * the specified output column.
+	 * 
+	 * @param columns
+	 *            the columns keyed by variable.
+	 * @param output
+	 *            the output column.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a column, any column has
+	 *                a different number of rows to the output column or any
+	 *                row of a column is empty.
+	 * @see #evaluateBatch(PumaColumn[], Puma[])
+	 */
+	public void evaluateBatch(Map<String, ? extends PumaColumn> columns,
+			Puma[] output) throws IllegalArgumentException {
+
+		evaluateBatch(columns, output, PumaContext.current().getPool());
+
+	}
+
+	/**
+	 * Evaluates this compiled Puma expression for every row of a batch using
+	 * the Puma numbers bound to the variables by name within the specified
+	 * map of columns, and writes the result for each row into the same row of
+	 * the specified output column using the specified fork join pool.
+	 * 
+	 * @param columns
+	 *            the columns keyed by variable.
+	 * @param output
+	 *            the output column.
+	 * @param pool
+	 *            the fork join pool.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a column, any column has
+	 *                a different number of rows to the output column or any
+	 *                row of a column is empty.
+	 * @see #evaluateBatch(PumaColumn[], Puma[], ForkJoinPool)
+	 */
+	public void evaluateBatch(Map<String, ? extends PumaColumn> columns,
+			Puma[] output, ForkJoinPool pool) throws IllegalArgumentException {
+
+		int variablesLength = variables.length;
+
+		PumaColumn[] ordered = new PumaColumn[variablesLength];
+
+		for (int index = 0; index < variablesLength; index++) {
+
+			ordered[index] = columns.get(variables[index]);
+
+			if (ordered[index] == null) {
+
+				throw new IllegalArgumentException("The variable ["
+						+ variables[index] + "] is not bound: " + expression);
+
+			}
+
+		}
+
+		evaluateBatch(ordered, output, pool);
+
+	}
+
+	/**
+	 * Gets the variables of this compiled Puma expression in order of first
+	 * appearance.
+	 * 
+	 * @return the variables.
+	 */
+	public String[] getVariables() {
+
+		return variables.clone();
+
+	}
+
+	/**
+	 * Yields the greatest depth of the brackets of this compiled Puma
+	 * expression.
+	 * 
+	 * @return the depth.
+	 */
+	int getDepth() {
+
+		return depth;
+
+	}
+
+	/**
+	 * Yields the number of variables of this compiled Puma expression.
+	 * 
+	 * @return the number of variables.
+	 */
+	public int getVariableCount() {
+
+		return variables.length;
+
+	}
+
+	/**
+	 * Yields a string representation of this compiled Puma expression.
+	 * 
+	 * @return the representation.
+	 */
+	@Override
+	public String toString() {
+
+		return expression;
+
+	}
+
+	/**
+	 * Yields the backend that executes this compiled Puma expression.
+	 * 
+	 * @return the backend.
+	 */
+	public PumaExpressionBackend getBackend() {
+
+		if (handle == null) {
+
+			return PumaExpressionBackend.INTERPRETER;
+
+		}
+
+		return PumaExpressionBackend.METHOD_HANDLE;
+
+	}
+
+	/**
+	 * Yields a compiled Puma expression equivalent to this compiled Puma
+	 * expression that is executed by the specified backend where possible.
+	 * 
+	 * @param backend
+	 *            the backend.
+	 * @return the compiled expression.
+	 */
+	CompiledPumaExpression withBackend(PumaExpressionBackend backend) {
+
+		if (backend == getBackend()) {
+
+			return this;
+
+		}
+
+		MethodHandle compiledHandle = null;
+
+		if (backend == PumaExpressionBackend.METHOD_HANDLE) {
+
+			compiledHandle = PumaMethodHandleCompiler.compile(instructions);
+
+			if (compiledHandle == null) {
+
+				// too large for a method handle
+				return this;
+
+			}
+
+		}
+
+		return new CompiledPumaExpression(expression, instructions, variables,
+				depth, compiledHandle);
+
+	}
+
+	/**
+	 * Gets the instructions of this compiled Puma expression, the last of which
+	 * yields the result. The instructions must not be modified.
+	 * 
+	 * @return the instructions.
+	 */
+	PumaInstruction[] getInstructions() {
+
+		return instructions;
+
+	}
+
+	/**
+	 * Copies the specified Puma numbers bound to the variables by position,
+	 * having verified that every variable is bound to a Puma number.
+	 * 
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the copied Puma numbers.
+	 * @exception IllegalArgumentException
+	 *                if the number of Puma numbers differs from the number of
+	 *                variables or any variable is not bound to a Puma number.
+	 */
+	private Puma[] bind(Puma[] arguments) throws IllegalArgumentException {
+
+		if (arguments.length != variables.length) {
+
+			throw new IllegalArgumentException("The expression requires "
+					+ variables.length + " variables but " + arguments.length
+					+ " were specified: " + expression);
+
+		}
+
+		Puma[] bound = arguments.clone();
+
+		int boundLength = bound.length;
+
+		for (int index = 0; index < boundLength; index++) {
+
+			if (bound[index] == null) {
+
+				throw new IllegalArgumentException("The variable ["
+						+ variables[index] + "] is not bound: " + expression);
+
+			}
+
+		}
+
+		return bound;
+
+	}
+
+	/**
+	 * Executes the instructions of this compiled Puma expression using the
+	 * specified Puma numbers bound to the variables by position and yields the
+	 * result of the last instruction.
+	 * 
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a Puma number.
+	 */
+	private Puma execute(Puma[] arguments) throws IllegalArgumentException {
+
+		int argumentsLength = arguments.length;
+
+		for (int index = 0; index < argumentsLength; index++) {
+
+			if (arguments[index] == null) {
+
+				throw new IllegalArgumentException("The variable ["
+						+ variables[index] + "] is not bound: " + expression);
+
+			}
+
+		}
+
+		if (handle != null) {
+
+			PumaDeadline.check(null);
+
+			return invoke(arguments);
+
+		}
+
+		int instructionsLength = instructions.length;
+
+		Puma[] registers = new Puma[instructionsLength];
+
+		for (int index = 0; index < instructionsLength; index++) {
+
+			PumaDeadline.check(index == 0 ? null : registers[index - 1]);
+
+			registers[index] = instructions[index].execute(registers,
+					arguments);
+
+		}
+
+		return registers[instructionsLength - 1];
+
+	}
+
+	/**
+	 * Invokes the method handle that executes the instructions of this
+	 * compiled Puma expression.
+	 * 
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the result.
+	 */
+	private Puma invoke(Puma[] arguments) {
+
+		try {
+
+			return (Puma) handle.invokeExact(arguments);
+
+		} catch (RuntimeException error) {
+
+			throw error;
+
+		} catch (Error error) {
+
+			throw error;
+
+		} catch (Throwable impossible) {
+
+			// the Puma operations do not throw any checked exceptions
+			throw new IllegalStateException(impossible);
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,527 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigInteger;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Represents a sum of Puma numbers that may be added to by many threads
+ * concurrently, in the manner of a long adder.<br/>
+ * <br/>
+ * The sum is striped across a number of cells, each of which holds an
+ * immutable partial sum as a Puma rational. A thread adds to the cell selected
+ * by its probe by replacing the partial sum of the cell with a
+ * compare-and-set, and a thread whose compare-and-set fails, because another
+ * thread has replaced the partial sum first, moves to another cell and tries
+ * again. A thread that collides repeatedly doubles the number of cells until
+ * there are at least as many cells as processors. Threads therefore contend
+ * rarely once the number of cells has adapted to the number of adding
+ * threads, and the cells are padded such that threads adding to neighbouring
+ * cells do not contend for the same cache line.<br/>
+ * <br/>
+ * A compare-and-set fails only when another thread has completed an addition,
+ * and no thread ever waits for another thread, therefore a concurrent Puma
+ * adder is lock-free.<br/>
+ * <br/>
+ * The partial sums are combined exactly when the sum is requested, reading
+ * each cell without excluding the adding threads. The sum is not an atomic
+ * snapshot: any addition made concurrently with the request may or may not be
+ * included.<br/>
+ * <br/>
+ * Concurrent Puma adders are thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaAccumulator
+ * @see java.util.concurrent.atomic.LongAdder
+ */
+public final class ConcurrentPumaAdder {
+
+	/** The maximum number of cells. */
+	private static final int MAXIMUM_CELLS = maximumCells();
+
+	/** The partial sum of a cell to which nothing has been added. */
+	private static final PumaRational ZERO = new PumaRational(BigInteger.ZERO,
+			BigInteger.ONE);
+
+	/** The probe of each thread, used to select a cell. */
+	private static final ThreadLocal<int[]> PROBE = new ThreadLocal<int[]>() {
+
+		@Override
+		protected int[] initialValue() {
+
+			// the probe must not be zero for the xorshift to advance
+			return new int[] { ThreadLocalRandom.current().nextInt() | 1 };
+
+		}
+
+	};
+
+	/** Updates the resizing flag. */
+	private static final AtomicIntegerFieldUpdater<ConcurrentPumaAdder> RESIZING = AtomicIntegerFieldUpdater
+			.newUpdater(ConcurrentPumaAdder.class, "resizing");
+
+	/** Updates the number of positive infinities. */
+	private static final AtomicLongFieldUpdater<ConcurrentPumaAdder> POSITIVE_INFINITIES = AtomicLongFieldUpdater
+			.newUpdater(ConcurrentPumaAdder.class, "positiveInfinities");
+
+	/** Updates the number of negative infinities. */
+	private static final AtomicLongFieldUpdater<ConcurrentPumaAdder> NEGATIVE_INFINITIES = AtomicLongFieldUpdater
+			.newUpdater(ConcurrentPumaAdder.class, "negativeInfinities");
+
+	/** The cells, the number of which is a power of two. */
+	private volatile Cell[] cells;
+
+	/** One while the cells are being resized, zero otherwise. */
+	private volatile int resizing;
+
+	/** The number of times positive infinity has been added. */
+	private volatile long positiveInfinities;
+
+	/** The number of times negative infinity has been added. */
+	private volatile long negativeInfinities;
+
+	/**
+	 * Creates a concurrent Puma adder with a sum of zero.
+	 */
+	public ConcurrentPumaAdder() {
+
+		cells = new Cell[] { new Cell(), new Cell() };
+
+	}
+
+	/**
+	 * Adds the specified Puma number to the sum.
+	 * 
+	 * @param number
+	 *            the number.
+	 */
+	public void add(Puma number) {
+
+		if (number == null) {
+
+			throw new NullPointerException("The number must not be null");
+
+		}
+
+		accumulate(number, false);
+
+	}
+
+	/**
+	 * Subtracts the specified Puma number from the sum.
+	 * 
+	 * @param number
+	 *            the number.
+	 */
+	public void subtract(Puma number) {
+
+		if (number == null) {
+
+			throw new NullPointerException("The number must not be null");
+
+		}
+
+		accumulate(number, true);
+
+	}
+
+	/**
+	 * Adds the specified integer to the sum.
+	 * 
+	 * @param number
+	 *            the integer.
+	 */
+	public void add(long number) {
+
+		add(new PumaRational(BigInteger.valueOf(number), BigInteger.ONE));
+
+	}
+
+	/**
+	 * Subtracts the specified integer from the sum.
+	 * 
+	 * @param number
+	 *            the integer.
+	 */
+	public void subtract(long number) {
+
+		add(new PumaRational(BigInteger.valueOf(number).negate(),
+				BigInteger.ONE));
+
+	}
+
+	/**
+	 * Yields the exact sum of the partial sums of every cell.
+	 * 
+	 * @return the sum.
+	 */
+	public Puma sum() {
+
+		return combine(false);
+
+	}
+
+	/**
+	 * Yields the exact sum of the partial sums of every cell, resetting each
+	 * cell to zero as its partial sum is combined, such that every addition is
+	 * included in exactly one sum.
+	 * 
+	 * @return the sum.
+	 */
+	public Puma sumThenReset() {
+
+		return combine(true);
+
+	}
+
+	/**
+	 * Resets the sum to zero. Any addition made concurrently may or may not be
+	 * discarded.
+	 */
+	public void reset() {
+
+		combine(true);
+
+	}
+
+	/**
+	 * Yields a string representation of the sum.
+	 * 
+	 * @return the representation.
+	 */
+	@Override
+	public String toString() {
+
+		return sum().toString();
+
+	}
+
+	/**
+	 * Yields the number of cells.
+	 * 
+	 * @return the number of cells.
+	 */
+	int getCellCount() {
+
+		return cells.length;
+
+	}
+
+	/**
+	 * Adds or subtracts the specified Puma number, counting infinities apart
+	 * from the partial sums of the cells.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param subtract
+	 *            true to subtract the number, false to add it.
+	 */
+	private void accumulate(Puma number, boolean subtract) {
+
+		if (number.infinite()) {
+
+			if (number.negative() != subtract) {
+
+				NEGATIVE_INFINITIES.incrementAndGet(this);
+
+			} else {
+
+				POSITIVE_INFINITIES.incrementAndGet(this);
+
+			}
+
+			return;
+
+		}
+
+		PumaRational rational = PumaRational.valueOf(number);
+
+		add(subtract ? rational.negate() : rational);
+
+	}
+
+	/**
+	 * Adds the specified finite Puma rational to the partial sum of the cell
+	 * selected by the probe of the current thread, moving the probe to
+	 * another cell whenever another thread replaces the partial sum first and
+	 * doubling the number of cells upon repeated collisions.
+	 * 
+	 * @param rational
+	 *            the rational.
+	 */
+	private void add(PumaRational rational) {
+
+		int[] probe = PROBE.get();
+
+		int hash = probe[0];
+
+		boolean collided = false;
+
+		for (;;) {
+
+			Cell[] current = cells;
+
+			Cell cell = current[hash & (current.length - 1)];
+
+			if (cell.add(rational)) {
+
+				probe[0] = hash;
+
+				return;
+
+			}
+
+			if (collided) {
+
+				if (current.length < MAXIMUM_CELLS) {
+
+					grow(current);
+
+				}
+
+				collided = false;
+
+			} else {
+
+				collided = true;
+
+			}
+
+			// xorshift
+			hash ^= hash << 13;
+			hash ^= hash >>> 17;
+			hash ^= hash << 5;
+
+		}
+
+	}
+
+	/**
+	 * Doubles the number of cells unless the specified cells have already been
+	 * replaced or another thread is resizing the cells, in which case the
+	 * current thread continues without waiting.
+	 * 
+	 * @param current
+	 *            the cells.
+	 */
+	private void grow(Cell[] current) {
+
+		if (!RESIZING.compareAndSet(this, 0, 1)) {
+
+			return;
+
+		}
+
+		try {
+
+			if (cells != current) {
+
+				return;
+
+			}
+
+			int currentLength = current.length;
+
+			Cell[] grown = new Cell[currentLength << 1];
+
+			System.arraycopy(current, 0, grown, 0, currentLength);
+
+			for (int index = currentLength; index < grown.length; index++) {
+
+				grown[index] = new Cell();
+
+			}
+
+			cells = grown;
+
+		} finally {
+
+			resizing = 0;
+
+		}
+
+	}
+
+	/**
+	 * Combines the partial sums of every cell and the infinities, optionally
+	 * resetting each cell and the infinities as they are combined.
+	 * 
+	 * @param reset
+	 *            true to reset each cell, false otherwise.
+	 * @return the sum.
+	 */
+	private Puma combine(boolean reset) {
+
+		PumaRational combined = ZERO;
+
+		for (Cell cell : cells) {
+
+			combined = combined.addCancelling(reset ? cell.reset() : cell
+					.get());
+
+		}
+
+		long positive;
+		long negative;
+
+		if (reset) {
+
+			positive = POSITIVE_INFINITIES.getAndSet(this, 0);
+			negative = NEGATIVE_INFINITIES.getAndSet(this, 0);
+
+		} else {
+
+			positive = positiveInfinities;
+			negative = negativeInfinities;
+
+		}
+
+		// the infinities cancel if both have been added, as they do when
+		// adding Puma numbers
+
+		if (positive > 0 && negative == 0) {
+
+			return Puma.POSITIVE_INFINITY;
+
+		}
+
+		if (negative > 0 && positive == 0) {
+
+			return Puma.NEGATIVE_INFINITY;
+
+		}
+
+		return combined.toPuma();
+
+	}
+
+	/**
+	 * Yields the maximum number of cells, being the smallest power of two that
+	 * is not less than the number of processors.
+	 * 
+	 * @return the maximum number of cells.
+	 */
+	private static int maximumCells() {
+
+		int processors = Runtime.getRuntime().availableProcessors();
+
+		int maximum = 2;
+
+		while (maximum < processors) {
+
+			maximum <<= 1;
+
+		}
+
+		return maximum;
+
+	}
+
+	/**
+	 * Pads a cell such that its fields do not share a cache line with the
+	 * fields of the object allocated before it.
+	 */
+	private static class CellPadding {
+
+		/** The padding. */
+		long p1, p2, p3, p4, p5, p6, p7;
+
+	}
+
+	/**
+	 * Holds the fields of a single cell, which holds an immutable partial sum
+	 * that is replaced by a compare-and-set.
+	 */
+	private static class CellFields extends CellPadding {
+
+		/** Updates the partial sum. */
+		private static final AtomicReferenceFieldUpdater<CellFields, PumaRational> VALUE = AtomicReferenceFieldUpdater
+				.newUpdater(CellFields.class, PumaRational.class, "value");
+
+		/** The partial sum. */
+		private volatile PumaRational value = ZERO;
+
+		/**
+		 * Adds the specified finite Puma rational to the partial sum unless
+		 * another thread replaces the partial sum first, reducing the partial
+		 * sum to the lowest terms once it grows beyond the default reduction
+		 * threshold.
+		 * 
+		 * @param rational
+		 *            the rational.
+		 * @return true if the partial sum was replaced, false otherwise.
+		 */
+		final boolean add(PumaRational rational) {
+
+			PumaRational current = value;
+
+			PumaRational updated = current.addCancelling(rational);
+
+			if (updated.bitLength() > LazyPuma.DEFAULT_REDUCTION_THRESHOLD) {
+
+				updated = updated.reduce();
+
+			}
+
+			return VALUE.compareAndSet(this, current, updated);
+
+		}
+
+		/**
+		 * Yields the partial sum.
+		 * 
+		 * @return the partial sum.
+		 */
+		final PumaRational get() {
+
+			return value;
+
+		}
+
+		/**
+		 * Resets the partial sum to zero and yields the partial sum replaced.
+		 * 
+		 * @return the partial sum replaced.
+		 */
+		final PumaRational reset() {
+
+			return VALUE.getAndSet(this, ZERO);
+
+		}
+
+	}
+
+	/**
+	 * Represents a single cell that holds a partial sum, padded either side
+	 * such that the partial sums of neighbouring cells, which are usually
+	 * allocated one after another, do not share a cache line.
+	 */
+	private static final class Cell extends CellFields {
+
+		/** The padding. */
+		long q1, q2, q3, q4, q5, q6, q7;
+
+	}
+
+}
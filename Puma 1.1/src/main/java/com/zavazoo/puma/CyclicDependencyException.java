@@ -0,0 +1,70 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception used to indicate that defining a node of a Puma calculation graph
+ * would cause the node to depend upon itself.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaCalculationGraph
+ */
+public class CyclicDependencyException extends RuntimeException {
+
+	/** The serialization version unique identifier. */
+	private static final long serialVersionUID = 1l;
+
+	/** The names of the nodes that form the cycle. */
+	private List<String> cycle;
+
+	/**
+	 * Creates a cyclic dependency exception using the specified names of the
+	 * nodes that form the cycle, where the first node depends upon the second
+	 * and so on, and the last node depends upon the first.
+	 * 
+	 * @param cycle
+	 *            the cycle.
+	 */
+	CyclicDependencyException(List<String> cycle) {
+
+		super("The definition would cause a cyclic dependency: " + cycle);
+
+		this.cycle = Collections.unmodifiableList(new ArrayList<String>(cycle));
+
+	}
+
+	/**
+	 * Gets the names of the nodes that form the cycle, where the first node
+	 * depends upon the second and so on, and the last node depends upon the
+	 * first.
+	 * 
+	 * @return the cycle.
+	 */
+	public List<String> getCycle() {
+
+		return cycle;
+
+	}
+
+}
\ No newline at end of file
@@ -19,6 +19,7 @@
 package com.zavazoo.puma;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 
 /**
  * Decorates a Puma number as the most concise fraction possible where both the
@@ -31,6 +32,12 @@ import java.math.BigDecimal;
  */
 public class FractionPumaDecorator {
 
+	/**
+	 * The mask applied to the number of iterations of the reduction between
+	 * each check for interruption.
+	 */
+	private static final int CHECK_INTERVAL_MASK = 1023;
+
 	/** The decorated Puma number. */
 	private Puma number;
 
@@ -160,8 +167,18 @@ public class FractionPumaDecorator {
 		BigDecimal highestMultiplied = absoluteHighest;
 		BigDecimal highestMultiplications = Puma.ONE_BIG_DECIMAL;
 
+		int iterations = 0;
+
 		reduce: while (lowestMultiplied.compareTo(highestMultiplied) != 0) {
 
+			// check for interruption periodically since each iteration is cheap
+			if ((++iterations & CHECK_INTERVAL_MASK) == 0) {
+
+				PumaDeadline.check(estimate(lowestMultiplications,
+						highestMultiplications, reciprocal, negative));
+
+			}
+
 			lowestMultiplied = lowestMultiplied.add(absoluteLowest);
 			lowestMultiplications = lowestMultiplications
 					.add(Puma.ONE_BIG_DECIMAL);
@@ -182,6 +199,90 @@ public class FractionPumaDecorator {
 
 		}
 
+		return estimate(lowestMultiplications, highestMultiplications,
+				reciprocal, negative);
+
+	}
+
+	/**
+	 * Yields a Puma number equivalent to this decorated Puma number expressed
+	 * as the most concise fraction possible, abandoning the calculation if it
+	 * does not complete within the specified timeout.<br/>
+	 * The calculation is also abandoned if the current thread is interrupted,
+	 * as is any calculation of a fraction.
+	 * 
+	 * @param timeout
+	 *            the timeout.
+	 * @return the fraction number.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout elapses or the current thread is
+	 *                interrupted, carrying the latest candidate fraction.
+	 */
+	public Puma toFractionPuma(Duration timeout)
+			throws CalculationInterruptedException {
+
+		PumaDeadline previous = PumaDeadline.begin(timeout);
+
+		try {
+
+			return toFractionPuma();
+
+		} finally {
+
+			PumaDeadline.end(previous);
+
+		}
+
+	}
+
+	/**
+	 * Yields a Puma number equivalent to this decorated Puma number expressed
+	 * as the most concise fraction possible, calculated within the specified
+	 * Puma context and therefore observing its limits and timeout.
+	 * 
+	 * @param context
+	 *            the context.
+	 * @return the fraction number.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout of the context elapses or the current
+	 *                thread is interrupted, carrying the latest candidate
+	 *                fraction.
+	 */
+	public Puma toFractionPuma(PumaContext context)
+			throws CalculationInterruptedException {
+
+		PumaContext.Scope scope = context.enter();
+
+		try {
+
+			return toFractionPuma();
+
+		} finally {
+
+			scope.close();
+
+		}
+
+	}
+
+	/**
+	 * Yields the fraction represented by the specified multiplications of the
+	 * lowest and highest of the numerator and denominator.
+	 * 
+	 * @param lowestMultiplications
+	 *            the multiplications of the lowest.
+	 * @param highestMultiplications
+	 *            the multiplications of the highest.
+	 * @param reciprocal
+	 *            true if the numerator is the highest, false otherwise.
+	 * @param negative
+	 *            true if the fraction is negative, false otherwise.
+	 * @return the fraction number.
+	 */
+	private static Puma estimate(BigDecimal lowestMultiplications,
+			BigDecimal highestMultiplications, boolean reciprocal,
+			boolean negative) {
+
 		BigDecimal reducedNumerator = null;
 		BigDecimal reducedDenominator = null;
 
@@ -0,0 +1,498 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Represents a Puma calculation that is recorded rather than performed, such
+ * that a long series of operations may be performed only once the result is
+ * required.<br/>
+ * <br/>
+ * Upon evaluation the intermediate results of addition, subtraction,
+ * multiplication and division are retained as an integer numerator and an
+ * integer denominator that are not reduced to the lowest terms, avoiding the
+ * normalisation performed by every Puma operation. An intermediate result is
+ * reduced only when its numerator or denominator exceeds a threshold bit
+ * length, and the final result is yielded as an ordinary Puma number equal to
+ * the result of performing the same operations upon Puma numbers.<br/>
+ * <br/>
+ * Any operation upon an infinite value, any division by zero and any power or
+ * modulus is performed by the equivalent Puma operation, therefore the result
+ * is always identical in value to the eager calculation.<br/>
+ * <br/>
+ * Lazy Puma calculations are immutable and thread-safe, and the result of
+ * each calculation is retained once evaluated.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.Puma#lazy()
+ */
+public final class LazyPuma {
+
+	/**
+	 * The default bit length of the numerator or denominator of an
+	 * intermediate result beyond which the intermediate result is reduced to
+	 * the lowest terms.
+	 */
+	public static final int DEFAULT_REDUCTION_THRESHOLD = 2048;
+
+	/** The operator, or null if this calculation yields a number. */
+	private final PumaOperator operator;
+
+	/** The left operand. */
+	private final LazyPuma left;
+
+	/** The right operand. */
+	private final LazyPuma right;
+
+	/**
+	 * The number yielded by this calculation, or null if this calculation
+	 * applies an operator and has not been evaluated.
+	 */
+	private volatile Puma evaluated;
+
+	/**
+	 * Creates a lazy Puma calculation using the specified components.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param operator
+	 *            the operator.
+	 * @param left
+	 *            the left operand.
+	 * @param right
+	 *            the right operand.
+	 */
+	private LazyPuma(Puma number, PumaOperator operator, LazyPuma left,
+			LazyPuma right) {
+
+		this.operator = operator;
+		this.left = left;
+		this.right = right;
+		this.evaluated = number;
+
+	}
+
+	/**
+	 * Yields a lazy Puma calculation that yields the specified Puma number.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the calculation.
+	 */
+	public static LazyPuma valueOf(Puma number) {
+
+		if (number == null) {
+
+			throw new IllegalArgumentException("The number must not be null");
+
+		}
+
+		return new LazyPuma(number, null, null, null);
+
+	}
+
+	/**
+	 * Yields a lazy Puma calculation that yields the specified integer.
+	 * 
+	 * @param number
+	 *            the integer.
+	 * @return the calculation.
+	 */
+	public static LazyPuma valueOf(long number) {
+
+		return valueOf(new Puma(new BigDecimal(number), null));
+
+	}
+
+	/**
+	 * Records the addition of the specified calculation to this calculation,
+	 * equivalent to {@code this + calculation}.
+	 * 
+	 * @param calculation
+	 *            the calculation.
+	 * @return the recorded calculation.
+	 */
+	public LazyPuma add(LazyPuma calculation) {
+
+		return apply(PumaOperator.ADD, calculation);
+
+	}
+
+	/**
+	 * Records the addition of the specified Puma number to this calculation,
+	 * equivalent to {@code this + number}.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the recorded calculation.
+	 */
+	public LazyPuma add(Puma number) {
+
+		return apply(PumaOperator.ADD, valueOf(number));
+
+	}
+
+	/**
+	 * Records the subtraction of the specified calculation from this
+	 * calculation, equivalent to {@code this - calculation}.
+	 * 
+	 * @param calculation
+	 *            the calculation.
+	 * @return the recorded calculation.
+	 */
+	public LazyPuma subtract(LazyPuma calculation) {
+
+		return apply(PumaOperator.SUBTRACT, calculation);
+
+	}
+
+	/**
+	 * Records the subtraction of the specified Puma number from this
+	 * calculation, equivalent to {@code this - number}.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the recorded calculation.
+	 */
+	public LazyPuma subtract(Puma number) {
+
+		return apply(PumaOperator.SUBTRACT, valueOf(number));
+
+	}
+
+	/**
+	 * Records the multiplication of this calculation by the specified
+	 * calculation, equivalent to {@code this * calculation}.
+	 * 
+	 * @param calculation
+	 *            the calculation.
+	 * @return the recorded calculation.
+	 */
+	public LazyPuma multiply(LazyPuma calculation) {
+
+		return apply(PumaOperator.MULTIPLY, calculation);
+
+	}
+
+	/**
+	 * Records the multiplication of this calculation by the specified Puma
+	 * number, equivalent to {@code this * number}.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the recorded calculation.
+	 */
+	public LazyPuma multiply(Puma number) {
+
+		return apply(PumaOperator.MULTIPLY, valueOf(number));
+
+	}
+
+	/**
+	 * Records the division of the specified calculation into this calculation,
+	 * equivalent to {@code this / calculation}.
+	 * 
+	 * @param calculation
+	 *            the calculation.
+	 * @return the recorded calculation.
+	 */
+	public LazyPuma divide(LazyPuma calculation) {
+
+		return apply(PumaOperator.DIVIDE, calculation);
+
+	}
+
+	/**
+	 * Records the division of the specified Puma number into this
+	 * calculation, equivalent to {@code this / number}.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the recorded calculation.
+	 */
+	public LazyPuma divide(Puma number) {
+
+		return apply(PumaOperator.DIVIDE, valueOf(number));
+
+	}
+
+	/**
+	 * Records the negation of this calculation, equivalent to {@code 0 -
+	 * this}.
+	 * 
+	 * @return the recorded calculation.
+	 */
+	public LazyPuma negate() {
+
+		return valueOf(Puma.ZERO).apply(PumaOperator.SUBTRACT, this);
+
+	}
+
+	/**
+	 * Records this calculation raised to the power of the specified
+	 * calculation, which is performed by the equivalent Puma operation.
+	 * 
+	 * @param calculation
+	 *            the calculation.
+	 * @return the recorded calculation.
+	 * @see com.zavazoo.puma.Puma#power(Puma)
+	 */
+	public LazyPuma power(LazyPuma calculation) {
+
+		return apply(PumaOperator.POWER, calculation);
+
+	}
+
+	/**
+	 * Records the modulus of this calculation when divided by the specified
+	 * calculation, which is performed by the equivalent Puma operation.
+	 * 
+	 * @param calculation
+	 *            the calculation.
+	 * @return the recorded calculation.
+	 * @see com.zavazoo.puma.Puma#modulus(Puma)
+	 */
+	public LazyPuma modulus(LazyPuma calculation) {
+
+		return apply(PumaOperator.MODULUS, calculation);
+
+	}
+
+	/**
+	 * Evaluates this calculation, reducing intermediate results that exceed
+	 * the default reduction threshold, and yields a Puma number that
+	 * encapsulates the result.
+	 * 
+	 * @return the result.
+	 * @see #DEFAULT_REDUCTION_THRESHOLD
+	 */
+	public Puma evaluate() {
+
+		return evaluate(DEFAULT_REDUCTION_THRESHOLD);
+
+	}
+
+	/**
+	 * Evaluates this calculation, reducing any intermediate result whose
+	 * numerator or denominator exceeds the specified bit length, and yields a
+	 * Puma number that encapsulates the result. Each calculation that occurs
+	 * several times within this calculation is evaluated once.
+	 * 
+	 * @param reductionThreshold
+	 *            the bit length.
+	 * @return the result.
+	 */
+	public Puma evaluate(int reductionThreshold) {
+
+		Puma result = evaluated;
+
+		if (result != null) {
+
+			return result;
+
+		}
+
+		Map<LazyPuma, PumaRational> results = new IdentityHashMap<LazyPuma, PumaRational>();
+
+		// evaluate the operands before each operation without recursion, such
+		// that long chains of operations cannot overflow the stack
+		ArrayDeque<LazyPuma> unevaluated = new ArrayDeque<LazyPuma>();
+
+		unevaluated.push(this);
+
+		while (!unevaluated.isEmpty()) {
+
+			LazyPuma calculation = unevaluated.peek();
+
+			if (results.containsKey(calculation)) {
+
+				unevaluated.pop();
+
+				continue;
+
+			}
+
+			Puma known = calculation.evaluated;
+
+			if (known != null) {
+
+				results.put(calculation, PumaRational.valueOf(known));
+
+				unevaluated.pop();
+
+				continue;
+
+			}
+
+			PumaRational leftResult = results.get(calculation.left);
+			PumaRational rightResult = results.get(calculation.right);
+
+			if (leftResult == null || rightResult == null) {
+
+				if (rightResult == null) {
+
+					unevaluated.push(calculation.right);
+
+				}
+
+				if (leftResult == null) {
+
+					unevaluated.push(calculation.left);
+
+				}
+
+				continue;
+
+			}
+
+			unevaluated.pop();
+
+			results.put(calculation, apply(calculation.operator, leftResult,
+					rightResult, reductionThreshold));
+
+		}
+
+		result = results.get(this).toPuma();
+
+		evaluated = result;
+
+		return result;
+
+	}
+
+	/**
+	 * Yields a string representation of the result of this calculation,
+	 * evaluating this calculation if necessary.
+	 * 
+	 * @return the representation.
+	 */
+	@Override
+	public String toString() {
+
+		return evaluate().toString();
+
+	}
+
+	/**
+	 * Records the application of the specified operator to this calculation
+	 * and the specified calculation.
+	 * 
+	 * @param applied
+	 *            the operator.
+	 * @param calculation
+	 *            the calculation.
+	 * @return the recorded calculation.
+	 */
+	private LazyPuma apply(PumaOperator applied, LazyPuma calculation) {
+
+		if (calculation == null) {
+
+			throw new IllegalArgumentException(
+					"The calculation must not be null");
+
+		}
+
+		return new LazyPuma(null, applied, this, calculation);
+
+	}
+
+	/**
+	 * Applies the specified operator to the specified intermediate results,
+	 * reducing the result if it exceeds the specified bit length.
+	 * 
+	 * @param operator
+	 *            the operator.
+	 * @param left
+	 *            the left operand.
+	 * @param right
+	 *            the right operand.
+	 * @param reductionThreshold
+	 *            the bit length.
+	 * @return the result.
+	 */
+	private static PumaRational apply(PumaOperator operator,
+			PumaRational left, PumaRational right, int reductionThreshold) {
+
+		PumaRational result = null;
+
+		if (left.finite() && right.finite()) {
+
+			switch (operator) {
+
+			case ADD:
+
+				result = left.add(right);
+
+				break;
+
+			case SUBTRACT:
+
+				result = left.subtract(right);
+
+				break;
+
+			case MULTIPLY:
+
+				result = left.multiply(right);
+
+				break;
+
+			case DIVIDE:
+
+				if (!right.zero()) {
+
+					result = left.divide(right);
+
+				}
+
+				break;
+
+			default:
+
+				break;
+
+			}
+
+		}
+
+		if (result == null) {
+
+			// infinities, division by zero, power and modulus are left to the
+			// equivalent Puma operation
+			return PumaRational.valueOf(operator.apply(left.toPuma(), right
+					.toPuma()));
+
+		}
+
+		if (result.bitLength() > reductionThreshold) {
+
+			result = result.reduce();
+
+		}
+
+		return result;
+
+	}
+
+}
\ No newline at end of file
@@ -18,9 +18,12 @@
 
 package com.zavazoo.puma;
 
-import java.io.Serializable;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a Puma number that maintains precision along a series of
@@ -43,12 +46,16 @@ import java.math.RoundingMode;
  * -12<br/>
  * 012.34<br/>
  * 12.0034<br/>
- * -0012.3400
+ * -0012.3400<br/>
+ * <br/>
+ * Puma numbers may be converted to the primitive numeric types exposed by the
+ * JDK, where the conversions to double and float are correctly rounded to the
+ * nearest representable value.
  * 
  * @author Chris White <chriswhitelondon@gmail.com>
  * @since JDK6
  */
-public class Puma implements Comparable<Puma>, Serializable {
+public class Puma extends Number implements Comparable<Puma> {
 
 	/** The serialization version unique identifier. */
 	private static final long serialVersionUID = 1l;
@@ -114,6 +121,29 @@ public class Puma implements Comparable<Puma>, Serializable {
 	static final BigDecimal MAX_INTEGER_BIG_DECIMAL = new BigDecimal(
 			Integer.MAX_VALUE);
 
+	/** The doubles which exactly represent ten to the power of each index. */
+	static final double[] DOUBLE_POWERS_OF_TEN = { 1e0, 1e1, 1e2,
+			1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14,
+			1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/** The longs which represent five to the power of each index. */
+	private static final long[] LONG_POWERS_OF_FIVE = new long[28];
+
+	static {
+
+		LONG_POWERS_OF_FIVE[0] = 1;
+
+		for (int index = 1; index < LONG_POWERS_OF_FIVE.length; index++) {
+
+			LONG_POWERS_OF_FIVE[index] = LONG_POWERS_OF_FIVE[index - 1] * 5;
+
+		}
+
+	}
+
+	/** The smallest double that is not necessarily an exact integer. */
+	private static final double DOUBLE_INTEGER_LIMIT = 0x1p53;
+
 	/**
 	 * The big decimal that represents the value when this Puma number
 	 * represents a real number or that encapsulates the numerator when this
@@ -128,6 +158,15 @@ public class Puma implements Comparable<Puma>, Serializable {
 	 */
 	private final BigDecimal denominator;
 
+	/**
+	 * The nearest double to this Puma number, valid only once this Puma number
+	 * has been approximated.
+	 */
+	private transient double approximation;
+
+	/** Indicates whether this Puma number has been approximated. */
+	private transient volatile boolean approximated;
+
 	/**
 	 * Creates a Puma number using the specified representation of a valid Puma
 	 * number or a valid Puma expression.
@@ -138,6 +177,7 @@ public class Puma implements Comparable<Puma>, Serializable {
 	 *                if the specified number does not represent a valid Puma
 	 *                number or a valid Puma expression.
 	 * @see com.zavazoo.puma.PumaExpression
+	 * @see com.zavazoo.puma.PumaExpressionCache
 	 */
 	public Puma(String number) throws NumberFormatException {
 
@@ -179,6 +219,15 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 		}
 
+		BigDecimal[] limited = limit(numerator, denominator);
+
+		if (limited != null) {
+
+			numerator = limited[0];
+			denominator = limited[1];
+
+		}
+
 		this.numerator = numerator;
 		this.denominator = denominator;
 
@@ -194,6 +243,7 @@ public class Puma implements Comparable<Puma>, Serializable {
 	 *                if the specified number does not represent a valid Puma
 	 *                number or a valid Puma expression.
 	 * @see com.zavazoo.puma.PumaExpression
+	 * @see com.zavazoo.puma.PumaExpressionCache
 	 */
 	public Puma(char[] number) throws NumberFormatException {
 
@@ -235,6 +285,15 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 		}
 
+		BigDecimal[] limited = limit(numerator, denominator);
+
+		if (limited != null) {
+
+			numerator = limited[0];
+			denominator = limited[1];
+
+		}
+
 		this.numerator = numerator;
 		this.denominator = denominator;
 
@@ -391,11 +450,497 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 		}
 
+		// check the denominator and size of the number against the limits in
+		// force, if any
+
+		BigDecimal[] limited = limit(numerator, denominator);
+
+		if (limited != null) {
+
+			numerator = limited[0];
+			denominator = limited[1];
+
+		}
+
 		this.numerator = numerator;
 		this.denominator = denominator;
 
 	}
 
+	/**
+	 * Checks the specified numerator and denominator of a Puma number against
+	 * the limits of the current Puma context, if any, and yields the
+	 * numerator and denominator of the bounded or approximated Puma number, or
+	 * null if the Puma number is within the limits.
+	 * 
+	 * @param numerator
+	 *            the numerator.
+	 * @param denominator
+	 *            the denominator or null.
+	 * @return the limited numerator and denominator, or null.
+	 * @exception PumaLimitExceededException
+	 *                if the Puma number exceeds the limits and the limits do
+	 *                not approximate.
+	 */
+	private static BigDecimal[] limit(BigDecimal numerator,
+			BigDecimal denominator) throws PumaLimitExceededException {
+
+		PumaLimits limits = PumaContext.limits();
+
+		if (limits == null) {
+
+			return null;
+
+		}
+
+		boolean limited = false;
+
+		Puma bounded = limits.bound(numerator, denominator);
+
+		if (bounded != null) {
+
+			numerator = bounded.numerator;
+			denominator = bounded.denominator;
+
+			limited = true;
+
+		}
+
+		BigDecimal approximation = limits.enforce(numerator, denominator);
+
+		if (approximation != null) {
+
+			numerator = approximation;
+			denominator = null;
+
+			limited = true;
+
+		}
+
+		return limited ? new BigDecimal[] { numerator, denominator } : null;
+
+	}
+
+	/**
+	 * Yields a Puma number equal to the exact binary value of the specified
+	 * double, decoding the significand and exponent of the double without any
+	 * intermediate string representation. For example 0.1 would yield
+	 * 0.1000000000000000055511151231257827021181583404541015625 being the
+	 * exact value of the double nearest to 0.1<br/>
+	 * Positive and negative infinity yield the corresponding infinite Puma
+	 * numbers.
+	 * 
+	 * @param value
+	 *            the double.
+	 * @return the number.
+	 * @exception NumberFormatException
+	 *                if the specified double is not a number.
+	 */
+	public static Puma valueOfExact(double value) throws NumberFormatException {
+
+		if (Double.isNaN(value)) {
+
+			throw new NumberFormatException("Puma number cannot represent NaN");
+
+		}
+
+		if (Double.isInfinite(value)) {
+
+			return value > 0 ? POSITIVE_INFINITY : NEGATIVE_INFINITY;
+
+		}
+
+		if (value == 0) {
+
+			return ZERO;
+
+		}
+
+		long bits = Double.doubleToRawLongBits(value);
+
+		int exponent = (int) ((bits >>> 52) & 0x7ff);
+		long significand = bits & 0x000fffffffffffffL;
+
+		if (exponent == 0) {
+
+			// subnormal numbers have no implicit leading bit
+			exponent = 1;
+
+		} else {
+
+			significand |= 1L << 52;
+
+		}
+
+		// value = significand * (2 ^ exponent)
+		exponent -= 1075;
+
+		int trailingZeros = Long.numberOfTrailingZeros(significand);
+
+		significand >>= trailingZeros;
+		exponent += trailingZeros;
+
+		if (value < 0) {
+
+			significand = -significand;
+
+		}
+
+		int significandBits = 64 - Long.numberOfLeadingZeros(Math
+				.abs(significand));
+
+		BigDecimal numerator = null;
+
+		if (exponent >= 0) {
+
+			if (significandBits + exponent < 63) {
+
+				numerator = BigDecimal.valueOf(significand << exponent);
+
+			} else {
+
+				numerator = new BigDecimal(BigInteger.valueOf(significand)
+						.shiftLeft(exponent));
+
+			}
+
+		} else {
+
+			// x / (2 ^ y) = (x * (5 ^ y)) / (10 ^ y)
+
+			int scale = -exponent;
+
+			if (scale < LONG_POWERS_OF_FIVE.length
+					&& significandBits + 3 * scale < 63) {
+
+				numerator = BigDecimal.valueOf(significand
+						* LONG_POWERS_OF_FIVE[scale], scale);
+
+			} else {
+
+				numerator = new BigDecimal(BigInteger.valueOf(significand)
+						.multiply(BigInteger.valueOf(5).pow(scale)), scale);
+
+			}
+
+		}
+
+		return new Puma(numerator, null);
+
+	}
+
+	/**
+	 * Yields a Puma number equal to the shortest decimal that rounds to the
+	 * specified double, being the decimal that would conventionally be used to
+	 * represent the double. For example 0.1 would yield 0.1<br/>
+	 * Doubles with up to 15 significant digits and a magnitude between
+	 * {@code 10 ^ -22} and {@code 2 ^ 53} are converted without any
+	 * intermediate string representation, otherwise the decimal is derived
+	 * from the string representation of the double.<br/>
+	 * Positive and negative infinity yield the corresponding infinite Puma
+	 * numbers.
+	 * 
+	 * @param value
+	 *            the double.
+	 * @return the number.
+	 * @exception NumberFormatException
+	 *                if the specified double is not a number.
+	 * @see java.lang.Double#toString(double)
+	 */
+	public static Puma valueOfDecimal(double value)
+			throws NumberFormatException {
+
+		if (Double.isNaN(value)) {
+
+			throw new NumberFormatException("Puma number cannot represent NaN");
+
+		}
+
+		if (Double.isInfinite(value)) {
+
+			return value > 0 ? POSITIVE_INFINITY : NEGATIVE_INFINITY;
+
+		}
+
+		if (value == 0) {
+
+			return ZERO;
+
+		}
+
+		if (Math.abs(value) < DOUBLE_INTEGER_LIMIT) {
+
+			// locate the smallest scale at which an integer divided by ten to
+			// the power of the scale rounds to the double, since both the
+			// integer and the power of ten are exact such a division is
+			// correctly rounded
+
+			shortest: for (int scale = 0; scale < DOUBLE_POWERS_OF_TEN.length; scale++) {
+
+				double power = DOUBLE_POWERS_OF_TEN[scale];
+
+				double scaled = value * power;
+
+				if (Math.abs(scaled) >= DOUBLE_INTEGER_LIMIT) {
+
+					break shortest;
+
+				}
+
+				double candidate = Math.rint(scaled);
+
+				for (int offset = 0; offset < 3; offset++) {
+
+					// the scaled value may itself be rounded so the adjacent
+					// integers are also considered
+
+					double adjusted = candidate;
+
+					if (offset == 1) {
+
+						adjusted = candidate - 1;
+
+					} else if (offset == 2) {
+
+						adjusted = candidate + 1;
+
+					}
+
+					if (adjusted / power == value) {
+
+						return new Puma(BigDecimal.valueOf((long) adjusted,
+								scale), null);
+
+					}
+
+				}
+
+			}
+
+		}
+
+		return new Puma(BigDecimal.valueOf(value), null);
+
+	}
+
+	/**
+	 * Yields an array of Puma numbers each equal to the exact binary value of
+	 * the double at the corresponding index of the specified array of doubles.
+	 * 
+	 * @param values
+	 *            the doubles.
+	 * @return the numbers.
+	 * @exception NumberFormatException
+	 *                if any of the specified doubles is not a number.
+	 * @see #valueOfExact(double)
+	 */
+	public static Puma[] valueOfExact(double[] values)
+			throws NumberFormatException {
+
+		int valuesLength = values.length;
+
+		Puma[] numbers = new Puma[valuesLength];
+
+		for (int index = 0; index < valuesLength; index++) {
+
+			numbers[index] = valueOfExact(values[index]);
+
+		}
+
+		return numbers;
+
+	}
+
+	/**
+	 * Yields an array of Puma numbers each equal to the shortest decimal that
+	 * rounds to the double at the corresponding index of the specified array
+	 * of doubles.
+	 * 
+	 * @param values
+	 *            the doubles.
+	 * @return the numbers.
+	 * @exception NumberFormatException
+	 *                if any of the specified doubles is not a number.
+	 * @see #valueOfDecimal(double)
+	 */
+	public static Puma[] valueOfDecimal(double[] values)
+			throws NumberFormatException {
+
+		int valuesLength = values.length;
+
+		Puma[] numbers = new Puma[valuesLength];
+
+		for (int index = 0; index < valuesLength; index++) {
+
+			numbers[index] = valueOfDecimal(values[index]);
+
+		}
+
+		return numbers;
+
+	}
+
+	/**
+	 * Sums the specified Puma numbers exactly and yields a Puma number that
+	 * encapsulates the result, or zero if no Puma numbers are specified.<br/>
+	 * The Puma numbers are summed by Puma accumulators, which combine the
+	 * numerators of each distinct denominator using the least common multiple
+	 * of the denominators, such that the denominator of the sum grows with
+	 * the number of distinct denominators rather than with the number of Puma
+	 * numbers, and large arrays are summed in parallel by the fork join pool
+	 * of the current Puma context.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 * @return the sum.
+	 * @see com.zavazoo.puma.PumaContext#getPool()
+	 */
+	public static Puma sum(Puma... numbers) {
+
+		int numbersLength = numbers.length;
+
+		for (int index = 0; index < numbersLength; index++) {
+
+			if (numbers[index] == null) {
+
+				throw new NullPointerException("The number at index [" + index
+						+ "] must not be null");
+
+			}
+
+		}
+
+		if (numbersLength <= PumaSumTask.THRESHOLD) {
+
+			return PumaSumTask.sum(numbers, 0, numbersLength).sum();
+
+		}
+
+		return PumaContext.current().getPool().invoke(
+				new PumaSumTask(numbers.clone(), 0, numbersLength)).sum();
+
+	}
+
+	/**
+	 * Sums the specified Puma numbers exactly and yields a Puma number that
+	 * encapsulates the result, or zero if no Puma numbers are specified.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 * @return the sum.
+	 * @see #sum(Puma[])
+	 */
+	public static Puma sum(Iterable<? extends Puma> numbers) {
+
+		List<Puma> copied = new ArrayList<Puma>();
+
+		for (Puma number : numbers) {
+
+			copied.add(number);
+
+		}
+
+		return sum(copied.toArray(new Puma[copied.size()]));
+
+	}
+
+	/**
+	 * Multiplies each Puma number of the first specified array by the Puma
+	 * number at the same index of the second specified array and sums the
+	 * products, and yields a Puma number that encapsulates the result, or
+	 * zero if the arrays are empty.<br/>
+	 * The products and partial sums of Puma numbers with a finite number of
+	 * decimal places are calculated exactly upon big decimals, otherwise they
+	 * are calculated upon integer numerators and denominators, cancelling
+	 * common factors, and only the result is normalised.
+	 * 
+	 * @param multiplicands
+	 *            the numbers to multiply.
+	 * @param multipliers
+	 *            the numbers by which to multiply.
+	 * @return the sum of the products.
+	 * @throws IllegalArgumentException
+	 *             if the arrays are not the same length.
+	 */
+	public static Puma dot(Puma[] multiplicands, Puma[] multipliers) {
+
+		int multiplicandsLength = multiplicands.length;
+
+		if (multiplicandsLength != multipliers.length) {
+
+			throw new IllegalArgumentException("The multiplicands length ["
+					+ multiplicandsLength
+					+ "] does not equal the multipliers length ["
+					+ multipliers.length + "]");
+
+		}
+
+		boolean decimal = true;
+
+		for (int index = 0; index < multiplicandsLength; index++) {
+
+			if (multiplicands[index].denominator != null
+					|| multipliers[index].denominator != null) {
+
+				decimal = false;
+
+			}
+
+			if (multiplicands[index].infinite()
+					|| multipliers[index].infinite()) {
+
+				Puma sum = ZERO;
+
+				for (int term = 0; term < multiplicandsLength; term++) {
+
+					sum = sum.add(multiplicands[term]
+							.multiply(multipliers[term]));
+
+				}
+
+				return sum;
+
+			}
+
+		}
+
+		if (decimal) {
+
+			// every product and partial sum is an exact big decimal
+
+			BigDecimal sum = ZERO_BIG_DECIMAL;
+
+			for (int index = 0; index < multiplicandsLength; index++) {
+
+				sum = sum.add(multiplicands[index].numerator
+						.multiply(multipliers[index].numerator));
+
+			}
+
+			return new Puma(sum, null);
+
+		}
+
+		PumaRational sum = new PumaRational(BigInteger.ZERO, BigInteger.ONE);
+
+		for (int index = 0; index < multiplicandsLength; index++) {
+
+			sum = sum.addCancelling(PumaRational.valueOf(multiplicands[index])
+					.multiplyCancelling(
+							PumaRational.valueOf(multipliers[index])));
+
+			if (sum.bitLength() > LazyPuma.DEFAULT_REDUCTION_THRESHOLD) {
+
+				sum = sum.reduce();
+
+			}
+
+		}
+
+		return sum.toPuma();
+
+	}
+
 	/**
 	 * Adds the specified Puma number to this Puma number, equivalent to {@code
 	 * this + number}, and yields a new Puma number that encapsulates the
@@ -773,6 +1318,89 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 	}
 
+	/**
+	 * Multiplies this Puma number by the first specified Puma number then adds
+	 * the second specified Puma number, equivalent to
+	 * {@code (this * multiplier) + addend}, and yields a new Puma number that
+	 * encapsulates the result.<br/>
+	 * The intermediate product of Puma numbers with a finite number of
+	 * decimal places is calculated exactly upon big decimals, otherwise it is
+	 * calculated upon integer numerators and denominators, cancelling common
+	 * factors, and only the result is normalised.
+	 * 
+	 * @param multiplier
+	 *            the number by which to multiply.
+	 * @param addend
+	 *            the number to add.
+	 * @return the result.
+	 */
+	public Puma multiplyAdd(Puma multiplier, Puma addend) {
+
+		if (denominator == null && multiplier.denominator == null
+				&& addend.denominator == null) {
+
+			// (x * y) + z is an exact big decimal
+
+			return new Puma(numerator.multiply(multiplier.numerator).add(
+					addend.numerator), null);
+
+		}
+
+		if (infinite() || multiplier.infinite() || addend.infinite()) {
+
+			return multiply(multiplier).add(addend);
+
+		}
+
+		return PumaRational.valueOf(this).multiplyCancelling(
+				PumaRational.valueOf(multiplier)).addCancelling(
+				PumaRational.valueOf(addend)).toPuma();
+
+	}
+
+	/**
+	 * Multiplies this Puma number by the first specified Puma number then
+	 * divides the second specified Puma number into the product, equivalent
+	 * to {@code (this * multiplier) / divisor}, and yields a new Puma number
+	 * that encapsulates the result.<br/>
+	 * The intermediate product of Puma numbers with a finite number of
+	 * decimal places is calculated exactly upon big decimals, otherwise it is
+	 * calculated upon integer numerators and denominators, cancelling common
+	 * factors, and only the result is normalised.
+	 * 
+	 * @param multiplier
+	 *            the number by which to multiply.
+	 * @param divisor
+	 *            the number by which to divide.
+	 * @return the result.
+	 */
+	public Puma multiplyDivide(Puma multiplier, Puma divisor) {
+
+		if (infinite() || multiplier.infinite() || divisor.infinite()
+				|| divisor.zero()) {
+
+			return multiply(multiplier).divide(divisor);
+
+		}
+
+		if (denominator == null && multiplier.denominator == null
+				&& divisor.denominator == null) {
+
+			// (x * y) / z is divided exactly if it terminates, otherwise only
+			// the fraction is reduced
+
+			return PumaRational.valueOf(
+					numerator.multiply(multiplier.numerator), divisor.numerator)
+					.toPuma();
+
+		}
+
+		return PumaRational.valueOf(this).multiplyCancelling(
+				PumaRational.valueOf(multiplier)).divideCancelling(
+				PumaRational.valueOf(divisor)).toPuma();
+
+	}
+
 	/**
 	 * Increments this Puma number, equivalent to {@code this + 1}, and yields a
 	 * new Puma number that encapsulates the result.
@@ -923,7 +1551,8 @@ public class Puma implements Comparable<Puma>, Serializable {
 	 * encapsulates the result. <br/>
 	 * The result may be imprecise if the specified number is not an integer,
 	 * due to the limitations of mechanical procedures for root calculations,
-	 * but in such cases will be precise up to 10 decimal places.<br/>
+	 * but in such cases will be precise up to the precision of the current
+	 * Puma context, which is 10 decimal places by default.<br/>
 	 * This operation regards the exponent operator to have higher precedence
 	 * than the negation operator therefore {@code -this ^ number} is equivalent
 	 * to {@code -1 * (this ^ number)}.
@@ -934,7 +1563,7 @@ public class Puma implements Comparable<Puma>, Serializable {
 	 */
 	public Puma power(Puma number) {
 
-		return power(number, 10);
+		return power(number, PumaContext.current().getPrecision());
 
 	}
 
@@ -1117,6 +1746,16 @@ public class Puma implements Comparable<Puma>, Serializable {
 		BigDecimal specifiedNumerator = number.numerator;
 		BigDecimal specifiedDenominator = number.denominator;
 
+		PumaLimits limits = PumaContext.limits();
+
+		if (limits != null) {
+
+			// refuse the power before calculating it if it is too large
+			limits.checkPower(absolute, specifiedNumerator,
+					specifiedDenominator);
+
+		}
+
 		// scale the numerator to an integer
 
 		int numeratorScale = specifiedNumerator.scale();
@@ -1179,6 +1818,8 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 			estimate: for (int limit = 0; limit < Integer.MAX_VALUE; limit++) {
 
+				PumaDeadline.check(guess);
+
 				root = result;
 
 				Puma index = specifiedDenominatorInteger.decrement();
@@ -1332,6 +1973,8 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 			while (index.notZero()) {
 
+				PumaDeadline.check(null);
+
 				// (x/y) ^ z = (x ^ z) / (y ^ z)
 
 				resultNumeratorExponent = resultNumeratorExponent
@@ -1355,68 +1998,287 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 		if (negative) {
 
-			result = result.negate();
+			result = result.negate();
+
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * Calculates this Puma number to the power of the specified Puma number,
+	 * equivalent to {@code this ^ number}, and yields a new Puma number that
+	 * encapsulates the result, abandoning the calculation if it does not
+	 * complete within the specified timeout.<br/>
+	 * The calculation is also abandoned if the current thread is interrupted,
+	 * as is any calculation of a power.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param decimalPlaces
+	 *            the number of decimal places; only used if the specified
+	 *            number is not an integer.
+	 * @param timeout
+	 *            the timeout.
+	 * @return the result.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout elapses or the current thread is
+	 *                interrupted, carrying the latest estimate of the root.
+	 * @see #power(Puma, int)
+	 */
+	public Puma power(Puma number, int decimalPlaces, Duration timeout)
+			throws CalculationInterruptedException {
+
+		PumaDeadline previous = PumaDeadline.begin(timeout);
+
+		try {
+
+			return power(number, decimalPlaces);
+
+		} finally {
+
+			PumaDeadline.end(previous);
+
+		}
+
+	}
+
+	/**
+	 * Calculates this Puma number to the power of the specified Puma number,
+	 * equivalent to {@code this ^ number}, within the specified Puma context
+	 * and yields a new Puma number that encapsulates the result.<br/>
+	 * The result is precise up to the precision of the Puma context if the
+	 * specified number is not an integer, and the calculation observes the
+	 * limits and timeout of the Puma context.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param context
+	 *            the context.
+	 * @return the result.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout of the context elapses or the current
+	 *                thread is interrupted, carrying the latest estimate of the
+	 *                root.
+	 * @see #power(Puma, int)
+	 */
+	public Puma power(Puma number, PumaContext context)
+			throws CalculationInterruptedException {
+
+		PumaContext.Scope scope = context.enter();
+
+		try {
+
+			return power(number, context.getPrecision());
+
+		} finally {
+
+			scope.close();
+
+		}
+
+	}
+
+	/**
+	 * Calculates this Puma number to the root of the specified Puma number,
+	 * equivalent to {@code this ^ (1/number)}, and yields a new Puma number
+	 * that encapsulates the result. <br/>
+	 * The result may be imprecise, due to the limitations of mechanical
+	 * procedures for root calculations, but in such cases will be precise up to
+	 * the precision of the current Puma context, which is 10 decimal places by
+	 * default.<br/>
+	 * This operation regards the exponent operator to have higher precedence
+	 * than the negation operator therefore {@code -this ^ (1/number)} is
+	 * equivalent to {@code -1 * (this ^ (1/number))}.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the result.
+	 */
+	public Puma root(Puma number) {
+
+		return root(number, PumaContext.current().getPrecision());
+
+	}
+
+	/**
+	 * Calculates this Puma number to the root of the specified Puma number,
+	 * equivalent to {@code this ^ (1/number)}, and yields a new Puma number
+	 * that encapsulates the result. <br/>
+	 * The result may be imprecise, due to the limitations of mechanical
+	 * procedures for root calculations, but in such cases will be precise up to
+	 * the specified scale; the number of decimal places. The reader will note
+	 * that a larger scale will result in a more precise result but will take
+	 * longer to calculate.<br/>
+	 * This operation regards the exponent operator to have higher precedence
+	 * than the negation operator therefore {@code -this ^ (1/number)} is
+	 * equivalent to {@code -1 * (this ^ (1/number))}.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param decimalPlaces
+	 *            the number of decimal places.
+	 * @return the result.
+	 */
+	public Puma root(Puma number, int decimalPlaces) {
+
+		BigDecimal specifiedNumerator = number.numerator;
+		BigDecimal specifiedDenominator = number.denominator;
+
+		if (specifiedDenominator == null) {
+
+			specifiedDenominator = ONE_BIG_DECIMAL;
+
+		}
+
+		Puma inverted = new Puma(specifiedDenominator, specifiedNumerator);
+
+		return power(inverted, decimalPlaces);
+
+	}
+
+	/**
+	 * Calculates this Puma number to the root of the specified Puma number,
+	 * equivalent to {@code this ^ (1/number)}, and yields a new Puma number
+	 * that encapsulates the result, abandoning the calculation if it does not
+	 * complete within the specified timeout.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param decimalPlaces
+	 *            the number of decimal places.
+	 * @param timeout
+	 *            the timeout.
+	 * @return the result.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout elapses or the current thread is
+	 *                interrupted, carrying the latest estimate of the root.
+	 * @see #root(Puma, int)
+	 */
+	public Puma root(Puma number, int decimalPlaces, Duration timeout)
+			throws CalculationInterruptedException {
+
+		PumaDeadline previous = PumaDeadline.begin(timeout);
+
+		try {
+
+			return root(number, decimalPlaces);
+
+		} finally {
+
+			PumaDeadline.end(previous);
+
+		}
+
+	}
+
+	/**
+	 * Calculates this Puma number to the root of the specified Puma number,
+	 * equivalent to {@code this ^ (1/number)}, within the specified Puma
+	 * context and yields a new Puma number that encapsulates the result.<br/>
+	 * The result is precise up to the precision of the Puma context, and the
+	 * calculation observes the limits and timeout of the Puma context.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param context
+	 *            the context.
+	 * @return the result.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout of the context elapses or the current
+	 *                thread is interrupted, carrying the latest estimate of the
+	 *                root.
+	 * @see #root(Puma, int)
+	 */
+	public Puma root(Puma number, PumaContext context)
+			throws CalculationInterruptedException {
+
+		PumaContext.Scope scope = context.enter();
+
+		try {
+
+			return root(number, context.getPrecision());
+
+		} finally {
+
+			scope.close();
+
+		}
+
+	}
+
+	/**
+	 * Approximates this Puma number by the closest fraction whose denominator
+	 * does not exceed the specified maximum, and yields a new Puma number that
+	 * encapsulates the result. For example pi to 10 decimal places with a
+	 * maximum denominator of 1000 would yield 355/113<br/>
+	 * The closest fraction is found from the convergents and semiconvergents
+	 * of the continued fraction of this Puma number, and this Puma number is
+	 * yielded in lowest terms if its denominator is already within the
+	 * maximum. Infinite Puma numbers are yielded unchanged.
+	 * 
+	 * @param maximumDenominator
+	 *            the maximum denominator.
+	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if the maximum denominator is not positive.
+	 * @see com.zavazoo.puma.PumaLimits#withMaximumDenominator(BigInteger)
+	 */
+	public Puma limitDenominator(BigInteger maximumDenominator)
+			throws IllegalArgumentException {
+
+		if (maximumDenominator.signum() <= 0) {
+
+			throw new IllegalArgumentException("The maximum denominator ["
+					+ maximumDenominator + "] must be positive");
+
+		}
+
+		if (infinite()) {
+
+			return this;
 
 		}
 
-		return result;
+		return PumaRational.valueOf(this).limitDenominator(maximumDenominator)
+				.toPuma();
 
 	}
 
 	/**
-	 * Calculates this Puma number to the root of the specified Puma number,
-	 * equivalent to {@code this ^ (1/number)}, and yields a new Puma number
-	 * that encapsulates the result. <br/>
-	 * The result may be imprecise, due to the limitations of mechanical
-	 * procedures for root calculations, but in such cases will be precise up to
-	 * 10 decimal places.<br/>
-	 * This operation regards the exponent operator to have higher precedence
-	 * than the negation operator therefore {@code -this ^ (1/number)} is
-	 * equivalent to {@code -1 * (this ^ (1/number))}.
+	 * Approximates this Puma number by the fraction with the smallest
+	 * denominator that lies within the specified tolerance of this Puma
+	 * number, and yields a new Puma number that encapsulates the result. For
+	 * example 0.3333 with a tolerance of 0.001 would yield 1/3<br/>
+	 * The fraction is found from the convergents and semiconvergents of the
+	 * continued fraction of this Puma number, and a tolerance of zero yields
+	 * this Puma number in lowest terms. Infinite Puma numbers are yielded
+	 * unchanged.
 	 * 
-	 * @param number
-	 *            the number.
+	 * @param tolerance
+	 *            the tolerance.
 	 * @return the result.
+	 * @exception IllegalArgumentException
+	 *                if the tolerance is negative or infinite.
 	 */
-	public Puma root(Puma number) {
-
-		return root(number, 10);
+	public Puma approximate(Puma tolerance) throws IllegalArgumentException {
 
-	}
+		if (tolerance.negative() || tolerance.infinite()) {
 
-	/**
-	 * Calculates this Puma number to the root of the specified Puma number,
-	 * equivalent to {@code this ^ (1/number)}, and yields a new Puma number
-	 * that encapsulates the result. <br/>
-	 * The result may be imprecise, due to the limitations of mechanical
-	 * procedures for root calculations, but in such cases will be precise up to
-	 * the specified scale; the number of decimal places. The reader will note
-	 * that a larger scale will result in a more precise result but will take
-	 * longer to calculate.<br/>
-	 * This operation regards the exponent operator to have higher precedence
-	 * than the negation operator therefore {@code -this ^ (1/number)} is
-	 * equivalent to {@code -1 * (this ^ (1/number))}.
-	 * 
-	 * @param number
-	 *            the number.
-	 * @param decimalPlaces
-	 *            the number of decimal places.
-	 * @return the result.
-	 */
-	public Puma root(Puma number, int decimalPlaces) {
+			throw new IllegalArgumentException("The tolerance [" + tolerance
+					+ "] must be finite and not negative");
 
-		BigDecimal specifiedNumerator = number.numerator;
-		BigDecimal specifiedDenominator = number.denominator;
+		}
 
-		if (specifiedDenominator == null) {
+		if (infinite()) {
 
-			specifiedDenominator = ONE_BIG_DECIMAL;
+			return this;
 
 		}
 
-		Puma inverted = new Puma(specifiedDenominator, specifiedNumerator);
-
-		return power(inverted, decimalPlaces);
+		return PumaRational.valueOf(this).approximate(
+				PumaRational.valueOf(tolerance)).toPuma();
 
 	}
 
@@ -1677,6 +2539,12 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 		Puma specified = (Puma) number;
 
+		if (compareApproximations(specified) != 0) {
+
+			return false;
+
+		}
+
 		Puma subtracted = subtract(specified);
 
 		if (subtracted.zero()) {
@@ -1713,6 +2581,14 @@ public class Puma implements Comparable<Puma>, Serializable {
 	 */
 	public boolean greaterThan(Puma number) {
 
+		int approximatelyCompared = compareApproximations(number);
+
+		if (approximatelyCompared != 0) {
+
+			return approximatelyCompared > 0;
+
+		}
+
 		Puma subtracted = subtract(number);
 
 		if (subtracted.positive()) {
@@ -1751,6 +2627,14 @@ public class Puma implements Comparable<Puma>, Serializable {
 	 */
 	public boolean greaterThanOrEqualTo(Puma number) {
 
+		int approximatelyCompared = compareApproximations(number);
+
+		if (approximatelyCompared != 0) {
+
+			return approximatelyCompared > 0;
+
+		}
+
 		Puma subtracted = subtract(number);
 
 		if (subtracted.zeroOrPositive()) {
@@ -1788,6 +2672,14 @@ public class Puma implements Comparable<Puma>, Serializable {
 	 */
 	public boolean lessThan(Puma number) {
 
+		int approximatelyCompared = compareApproximations(number);
+
+		if (approximatelyCompared != 0) {
+
+			return approximatelyCompared < 0;
+
+		}
+
 		Puma subtracted = subtract(number);
 
 		if (subtracted.negative()) {
@@ -1825,6 +2717,14 @@ public class Puma implements Comparable<Puma>, Serializable {
 	 */
 	public boolean lessThanOrEqualTo(Puma number) {
 
+		int approximatelyCompared = compareApproximations(number);
+
+		if (approximatelyCompared != 0) {
+
+			return approximatelyCompared < 0;
+
+		}
+
 		Puma subtracted = subtract(number);
 
 		if (subtracted.zeroOrNegative()) {
@@ -2108,6 +3008,227 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 	}
 
+	/**
+	 * Yields the double nearest to this Puma number, choosing the double with
+	 * an even significand if this number is exactly half way between two
+	 * doubles, equivalent to the rounding used when parsing a double.<br/>
+	 * Positive and negative infinity yield the corresponding infinite doubles
+	 * and any finite number too large to be represented as a double yields an
+	 * infinite double.
+	 * 
+	 * @return the double.
+	 */
+	@Override
+	public double doubleValue() {
+
+		if (!approximated) {
+
+			// the approximation is published by the subsequent write to the
+			// volatile indicator and any concurrent approximations are equal
+			approximation = approximate();
+
+			approximated = true;
+
+		}
+
+		return approximation;
+
+	}
+
+	/**
+	 * Computes the double nearest to this Puma number.
+	 * 
+	 * @return the double.
+	 */
+	private double approximate() {
+
+		if (zero()) {
+
+			return 0.0;
+
+		}
+
+		if (finite()) {
+
+			// the magnitude of the value lies between 10 ^ (magnitude - 1)
+			// and 10 ^ (magnitude + 1)
+			int magnitude = magnitude();
+
+			if (magnitude - 1 > 308) {
+
+				return positive() ? Double.POSITIVE_INFINITY
+						: Double.NEGATIVE_INFINITY;
+
+			}
+
+			if (magnitude + 1 < -324) {
+
+				return positive() ? 0.0 : -0.0;
+
+			}
+
+		}
+
+		return PumaRational.valueOf(this).doubleValue();
+
+	}
+
+	/**
+	 * Yields the float nearest to this Puma number, choosing the float with an
+	 * even significand if this number is exactly half way between two floats,
+	 * equivalent to the rounding used when parsing a float.<br/>
+	 * Positive and negative infinity yield the corresponding infinite floats
+	 * and any finite number too large to be represented as a float yields an
+	 * infinite float.
+	 * 
+	 * @return the float.
+	 */
+	@Override
+	public float floatValue() {
+
+		if (zero()) {
+
+			return 0.0f;
+
+		}
+
+		if (finite()) {
+
+			// the magnitude of the value lies between 10 ^ (magnitude - 1)
+			// and 10 ^ (magnitude + 1)
+			int magnitude = magnitude();
+
+			if (magnitude - 1 > 38) {
+
+				return positive() ? Float.POSITIVE_INFINITY
+						: Float.NEGATIVE_INFINITY;
+
+			}
+
+			if (magnitude + 1 < -45) {
+
+				return positive() ? 0.0f : -0.0f;
+
+			}
+
+		}
+
+		return PumaRational.valueOf(this).floatValue();
+
+	}
+
+	/**
+	 * Yields the integer part of this Puma number as a long, discarding any
+	 * fraction part, equivalent to the narrowing primitive conversion of the
+	 * integer part such that only the low-order 64 bits are retained.<br/>
+	 * Positive infinity yields the maximum long and negative infinity yields
+	 * the minimum long.
+	 * 
+	 * @return the long.
+	 */
+	@Override
+	public long longValue() {
+
+		if (infinite()) {
+
+			return positive() ? Long.MAX_VALUE : Long.MIN_VALUE;
+
+		}
+
+		if (denominator == null) {
+
+			return numerator.longValue();
+
+		}
+
+		return truncate().longValue();
+
+	}
+
+	/**
+	 * Yields the integer part of this Puma number as an int, discarding any
+	 * fraction part, equivalent to the narrowing primitive conversion of the
+	 * integer part such that only the low-order 32 bits are retained.<br/>
+	 * Positive infinity yields the maximum int and negative infinity yields
+	 * the minimum int.
+	 * 
+	 * @return the int.
+	 */
+	@Override
+	public int intValue() {
+
+		if (infinite()) {
+
+			return positive() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+
+		}
+
+		if (denominator == null) {
+
+			return numerator.intValue();
+
+		}
+
+		return truncate().intValue();
+
+	}
+
+	/**
+	 * Yields this Puma number as a long provided that this number is an
+	 * integer that may be represented as a long without any loss of
+	 * information.
+	 * 
+	 * @return the long.
+	 * @exception ArithmeticException
+	 *                if this number has a non-zero fraction part or would
+	 *                overflow a long.
+	 * @exception PositiveInfinityException
+	 *                if this number represents positive infinity.
+	 * @exception NegativeInfinityException
+	 *                if this number represents negative infinity.
+	 */
+	public long longValueExact() throws ArithmeticException,
+			PositiveInfinityException, NegativeInfinityException {
+
+		return exactInteger().longValueExact();
+
+	}
+
+	/**
+	 * Yields this Puma number as an int provided that this number is an
+	 * integer that may be represented as an int without any loss of
+	 * information.
+	 * 
+	 * @return the int.
+	 * @exception ArithmeticException
+	 *                if this number has a non-zero fraction part or would
+	 *                overflow an int.
+	 * @exception PositiveInfinityException
+	 *                if this number represents positive infinity.
+	 * @exception NegativeInfinityException
+	 *                if this number represents negative infinity.
+	 */
+	public int intValueExact() throws ArithmeticException,
+			PositiveInfinityException, NegativeInfinityException {
+
+		return exactInteger().intValueExact();
+
+	}
+
+	/**
+	 * Yields a lazy Puma calculation that yields this Puma number, upon which
+	 * a series of operations may be recorded and performed only once the
+	 * result is required.
+	 *
+	 * @return the calculation.
+	 * @see com.zavazoo.puma.LazyPuma
+	 */
+	public LazyPuma lazy() {
+
+		return LazyPuma.valueOf(this);
+
+	}
+
 	/**
 	 * Creates a fraction Puma decorator that expresses this Puma number as the
 	 * most concise fraction possible where both the numerator and denominator
@@ -2145,6 +3266,14 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 		Puma specified = (Puma) number;
 
+		int approximatelyCompared = compareApproximations(specified);
+
+		if (approximatelyCompared != 0) {
+
+			return approximatelyCompared;
+
+		}
+
 		Puma subtracted = subtract(specified);
 
 		if (subtracted.positive()) {
@@ -2163,6 +3292,26 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 	}
 
+	/**
+	 * Compares the nearest doubles to this Puma number and the specified Puma
+	 * number, which settles the order of the numbers whenever the doubles
+	 * differ since rounding to the nearest double never reverses the order of
+	 * two numbers. The nearest doubles are computed once and retained by each
+	 * Puma number, therefore only those numbers close enough to share the
+	 * same nearest double need to be compared precisely.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return a negative integer or a positive integer as this number is less
+	 *         than or greater than the specified number, or zero if the order
+	 *         cannot be settled by the nearest doubles.
+	 */
+	private int compareApproximations(Puma number) {
+
+		return Double.compare(doubleValue(), number.doubleValue());
+
+	}
+
 	/**
 	 * Yields a hash code that uniquely represents any Puma number with a value
 	 * equal to this Puma number.
@@ -2231,6 +3380,97 @@ public class Puma implements Comparable<Puma>, Serializable {
 
 	}
 
+	/**
+	 * Derives the decimal magnitude of this finite non-zero Puma number such
+	 * that the absolute value lies between {@code 10 ^ (magnitude - 1)} and
+	 * {@code 10 ^ (magnitude + 1)}.
+	 * 
+	 * @return the magnitude.
+	 */
+	private int magnitude() {
+
+		int magnitude = numerator.precision() - numerator.scale();
+
+		if (denominator != null) {
+
+			magnitude -= denominator.precision() - denominator.scale();
+
+		}
+
+		return magnitude;
+
+	}
+
+	/**
+	 * Derives the integer part of this finite Puma number, discarding any
+	 * fraction part.
+	 * 
+	 * @return the integer part.
+	 */
+	private BigInteger truncate() {
+
+		PumaRational rational = PumaRational.valueOf(this);
+
+		return rational.getNumerator().divide(rational.getDenominator());
+
+	}
+
+	/**
+	 * Yields this Puma number as a big decimal provided that this number is an
+	 * integer.
+	 * 
+	 * @return the integer.
+	 * @exception ArithmeticException
+	 *                if this number has a non-zero fraction part.
+	 * @exception PositiveInfinityException
+	 *                if this number represents positive infinity.
+	 * @exception NegativeInfinityException
+	 *                if this number represents negative infinity.
+	 */
+	private BigDecimal exactInteger() throws ArithmeticException,
+			PositiveInfinityException, NegativeInfinityException {
+
+		if (positiveInfinity()) {
+
+			throw new PositiveInfinityException(this);
+
+		}
+
+		if (negativeInfinity()) {
+
+			throw new NegativeInfinityException(this);
+
+		}
+
+		BigDecimal integer = numerator;
+
+		if (denominator != null) {
+
+			try {
+
+				integer = numerator.divide(denominator);
+
+			} catch (ArithmeticException expected) {
+
+				throw new ArithmeticException(
+						"Puma number has a non-zero fraction part: " + this);
+
+			}
+
+		}
+
+		if (integer.signum() != 0
+				&& integer.stripTrailingZeros().scale() > 0) {
+
+			throw new ArithmeticException(
+					"Puma number has a non-zero fraction part: " + this);
+
+		}
+
+		return integer;
+
+	}
+
 	/**
 	 * Removes all leading zeros from the integer part and all trailing zeros
 	 * from the fraction part, and any resultant trailing decimal point, from
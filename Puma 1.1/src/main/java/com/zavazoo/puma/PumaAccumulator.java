@@ -0,0 +1,586 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Represents a mutable sum of any number of Puma numbers that yields the exact
+ * sum as a Puma number on demand, without creating a Puma number for every
+ * addition.<br/>
+ * <br/>
+ * The Puma numbers added to the sum are grouped by denominator, where a Puma
+ * number with a finite number of decimal places is grouped by the number of
+ * decimal places, and the numerators within each group are summed as a long
+ * until the long would overflow and as a big integer thereafter. The groups
+ * are combined, using the least common multiple of the denominators, only
+ * when the sum is requested, therefore the state of a Puma accumulator grows
+ * with the number of distinct denominators rather than the number of Puma
+ * numbers added.<br/>
+ * <br/>
+ * If both positive and negative infinity are added then the infinities cancel,
+ * as they do when adding Puma numbers, otherwise the sum of any infinity is
+ * that infinity.<br/>
+ * <br/>
+ * Puma accumulators are not thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.Puma#add(Puma)
+ */
+public final class PumaAccumulator {
+
+	/**
+	 * The sums of the unscaled values of the numbers with a finite number of
+	 * decimal places keyed by scale.
+	 */
+	private final Map<Integer, Group> decimals = new HashMap<Integer, Group>();
+
+	/**
+	 * The sums of the integer numerators of the fractions keyed by integer
+	 * denominator.
+	 */
+	private final Map<BigInteger, Group> fractions = new HashMap<BigInteger, Group>();
+
+	/** The number of times positive infinity has been added. */
+	private long positiveInfinities;
+
+	/** The number of times negative infinity has been added. */
+	private long negativeInfinities;
+
+	/**
+	 * Creates a Puma accumulator with a sum of zero.
+	 */
+	public PumaAccumulator() {
+
+	}
+
+	/**
+	 * Adds the specified Puma number to the sum.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return this accumulator.
+	 */
+	public PumaAccumulator add(Puma number) {
+
+		accumulate(number, false);
+
+		return this;
+
+	}
+
+	/**
+	 * Subtracts the specified Puma number from the sum.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return this accumulator.
+	 */
+	public PumaAccumulator subtract(Puma number) {
+
+		accumulate(number, true);
+
+		return this;
+
+	}
+
+	/**
+	 * Adds the specified integer to the sum.
+	 * 
+	 * @param number
+	 *            the integer.
+	 * @return this accumulator.
+	 */
+	public PumaAccumulator add(long number) {
+
+		group(decimals, Integer.valueOf(0)).add(number);
+
+		return this;
+
+	}
+
+	/**
+	 * Subtracts the specified integer from the sum.
+	 * 
+	 * @param number
+	 *            the integer.
+	 * @return this accumulator.
+	 */
+	public PumaAccumulator subtract(long number) {
+
+		Group group = group(decimals, Integer.valueOf(0));
+
+		if (number == Long.MIN_VALUE) {
+
+			group.add(BigInteger.valueOf(number).negate());
+
+		} else {
+
+			group.add(-number);
+
+		}
+
+		return this;
+
+	}
+
+	/**
+	 * Adds the sum of the specified Puma accumulator to the sum of this Puma
+	 * accumulator, leaving the specified accumulator unaltered.
+	 * 
+	 * @param accumulator
+	 *            the accumulator.
+	 * @return this accumulator.
+	 */
+	public PumaAccumulator add(PumaAccumulator accumulator) {
+
+		for (Map.Entry<Integer, Group> entry : accumulator.decimals.entrySet()) {
+
+			group(decimals, entry.getKey()).add(entry.getValue());
+
+		}
+
+		for (Map.Entry<BigInteger, Group> entry : accumulator.fractions
+				.entrySet()) {
+
+			group(fractions, entry.getKey()).add(entry.getValue());
+
+		}
+
+		positiveInfinities += accumulator.positiveInfinities;
+		negativeInfinities += accumulator.negativeInfinities;
+
+		return this;
+
+	}
+
+	/**
+	 * Yields the exact sum of every Puma number added to this Puma accumulator
+	 * less every Puma number subtracted from it.
+	 * 
+	 * @return the sum.
+	 */
+	public Puma sum() {
+
+		if (positiveInfinities > 0 && negativeInfinities == 0) {
+
+			return Puma.POSITIVE_INFINITY;
+
+		}
+
+		if (negativeInfinities > 0 && positiveInfinities == 0) {
+
+			return Puma.NEGATIVE_INFINITY;
+
+		}
+
+		// sum the decimals at the largest scale
+
+		int maximumScale = 0;
+
+		for (Integer scale : decimals.keySet()) {
+
+			if (scale > maximumScale) {
+
+				maximumScale = scale;
+
+			}
+
+		}
+
+		BigInteger decimalSum = BigInteger.ZERO;
+
+		for (Map.Entry<Integer, Group> entry : decimals.entrySet()) {
+
+			BigInteger groupSum = entry.getValue().sum();
+
+			int shift = maximumScale - entry.getKey();
+
+			if (shift > 0) {
+
+				groupSum = groupSum.multiply(BigInteger.TEN.pow(shift));
+
+			}
+
+			decimalSum = decimalSum.add(groupSum);
+
+		}
+
+		if (fractions.isEmpty()) {
+
+			return new Puma(new BigDecimal(decimalSum, maximumScale), null);
+
+		}
+
+		// combine the fractions using the least common multiple of the
+		// denominators, starting with the decimals
+
+		BigInteger numerator = decimalSum;
+		BigInteger denominator = BigInteger.TEN.pow(maximumScale);
+
+		for (Map.Entry<BigInteger, Group> entry : fractions.entrySet()) {
+
+			BigInteger groupDenominator = entry.getKey();
+			BigInteger groupNumerator = entry.getValue().sum();
+
+			if (groupNumerator.signum() == 0) {
+
+				continue;
+
+			}
+
+			BigInteger divisor = denominator.gcd(groupDenominator);
+
+			// a/b + x/y = ((a * (y / d)) + (x * (b / d))) / ((b / d) * y)
+			// where d is the greatest common divisor of b and y
+			BigInteger nativeFactor = groupDenominator.divide(divisor);
+			BigInteger specifiedFactor = denominator.divide(divisor);
+
+			numerator = numerator.multiply(nativeFactor).add(
+					groupNumerator.multiply(specifiedFactor));
+			denominator = denominator.multiply(nativeFactor);
+
+		}
+
+		return new PumaRational(numerator, denominator).toPuma();
+
+	}
+
+	/**
+	 * Removes the specified Puma number, previously added, from this Puma
+	 * accumulator. Unlike subtracting the Puma number, removing an infinity
+	 * undoes the addition of that infinity rather than adding the opposite
+	 * infinity.
+	 * 
+	 * @param number
+	 *            the number.
+	 */
+	void remove(Puma number) {
+
+		if (number.infinite()) {
+
+			if (number.negative()) {
+
+				negativeInfinities--;
+
+			} else {
+
+				positiveInfinities--;
+
+			}
+
+			return;
+
+		}
+
+		accumulate(number, true);
+
+	}
+
+	/**
+	 * Discards the groups whose sums are zero, such that the cost of yielding
+	 * the sum does not grow with the number of distinct denominators that
+	 * have been added then removed.
+	 */
+	void prune() {
+
+		prune(decimals);
+		prune(fractions);
+
+	}
+
+	/**
+	 * Resets the sum of this Puma accumulator to zero.
+	 */
+	public void reset() {
+
+		decimals.clear();
+		fractions.clear();
+
+		positiveInfinities = 0;
+		negativeInfinities = 0;
+
+	}
+
+	/**
+	 * Yields a string representation of the sum of this Puma accumulator.
+	 * 
+	 * @return the representation.
+	 */
+	@Override
+	public String toString() {
+
+		return sum().toString();
+
+	}
+
+	/**
+	 * Yields the number of distinct denominators among the Puma numbers
+	 * accumulated so far.
+	 * 
+	 * @return the number of groups.
+	 */
+	int getGroupCount() {
+
+		return decimals.size() + fractions.size();
+
+	}
+
+	/**
+	 * Adds or subtracts the specified Puma number to or from the sum.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param subtract
+	 *            true to subtract, false to add.
+	 */
+	private void accumulate(Puma number, boolean subtract) {
+
+		BigDecimal numerator = number.getNumerator();
+		BigDecimal denominator = number.getDenominator();
+
+		if (denominator == null) {
+
+			int scale = numerator.scale();
+
+			BigInteger unscaled = numerator.unscaledValue();
+
+			if (scale < 0) {
+
+				unscaled = unscaled.multiply(BigInteger.TEN.pow(-scale));
+
+				scale = 0;
+
+			}
+
+			if (subtract) {
+
+				unscaled = unscaled.negate();
+
+			}
+
+			group(decimals, Integer.valueOf(scale)).add(unscaled);
+
+			return;
+
+		}
+
+		if (denominator.signum() == 0) {
+
+			if (numerator.signum() < 0 != subtract) {
+
+				negativeInfinities++;
+
+			} else {
+
+				positiveInfinities++;
+
+			}
+
+			return;
+
+		}
+
+		PumaRational rational = PumaRational.valueOf(number);
+
+		BigInteger integerNumerator = rational.getNumerator();
+
+		if (subtract) {
+
+			integerNumerator = integerNumerator.negate();
+
+		}
+
+		group(fractions, rational.getDenominator()).add(integerNumerator);
+
+	}
+
+	/**
+	 * Yields the group with the specified key, creating the group if
+	 * necessary.
+	 * 
+	 * @param groups
+	 *            the groups.
+	 * @param key
+	 *            the key.
+	 * @return the group.
+	 */
+	private static <K> Group group(Map<K, Group> groups, K key) {
+
+		Group group = groups.get(key);
+
+		if (group == null) {
+
+			group = new Group();
+
+			groups.put(key, group);
+
+		}
+
+		return group;
+
+	}
+
+	/**
+	 * Discards the groups whose sums are zero from the specified groups.
+	 * 
+	 * @param groups
+	 *            the groups.
+	 */
+	private static <K> void prune(Map<K, Group> groups) {
+
+		Iterator<Group> iterator = groups.values().iterator();
+
+		while (iterator.hasNext()) {
+
+			if (iterator.next().sum().signum() == 0) {
+
+				iterator.remove();
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Represents the sum of the numerators that share a denominator, held as a
+	 * long until the long would overflow and as a long plus a big integer
+	 * thereafter.
+	 */
+	private static final class Group {
+
+		/** The part of the sum that fits within a long. */
+		private long compact;
+
+		/** The remainder of the sum, or null if the sum fits within a long. */
+		private BigInteger inflated;
+
+		/**
+		 * Adds the specified long to this group.
+		 * 
+		 * @param number
+		 *            the long.
+		 */
+		private void add(long number) {
+
+			long added = compact + number;
+
+			// overflow occurs only if both operands differ in sign from the
+			// result
+			if (((compact ^ added) & (number ^ added)) < 0) {
+
+				inflate(BigInteger.valueOf(compact).add(
+						BigInteger.valueOf(number)));
+
+				compact = 0;
+
+			} else {
+
+				compact = added;
+
+			}
+
+		}
+
+		/**
+		 * Adds the specified big integer to this group.
+		 * 
+		 * @param number
+		 *            the big integer.
+		 */
+		private void add(BigInteger number) {
+
+			if (number.bitLength() < Long.SIZE) {
+
+				add(number.longValue());
+
+			} else {
+
+				inflate(number);
+
+			}
+
+		}
+
+		/**
+		 * Adds the sum of the specified group to this group.
+		 * 
+		 * @param group
+		 *            the group.
+		 */
+		private void add(Group group) {
+
+			add(group.compact);
+
+			if (group.inflated != null) {
+
+				inflate(group.inflated);
+
+			}
+
+		}
+
+		/**
+		 * Adds the specified big integer to the inflated part of this group.
+		 * 
+		 * @param number
+		 *            the big integer.
+		 */
+		private void inflate(BigInteger number) {
+
+			if (inflated == null) {
+
+				inflated = number;
+
+			} else {
+
+				inflated = inflated.add(number);
+
+			}
+
+		}
+
+		/**
+		 * Yields the sum of this group.
+		 * 
+		 * @return the sum.
+		 */
+		private BigInteger sum() {
+
+			BigInteger sum = BigInteger.valueOf(compact);
+
+			if (inflated != null) {
+
+				sum = sum.add(inflated);
+
+			}
+
+			return sum;
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,455 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents a batch of independent calculations submitted to a Puma batch
+ * executor, whose results may be consumed in the order the calculations were
+ * submitted or in the order they complete, while later calculations are
+ * still running.<br/>
+ * <br/>
+ * Puma batches are thread-safe, although the results in completion order may
+ * be consumed only once.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaBatchExecutor
+ */
+public final class PumaBatch {
+
+	/** The calculations, in submission order. */
+	private final Calculation[] calculations;
+
+	/** The calculations, in completion order. */
+	private final BlockingQueue<Calculation> completed = new LinkedBlockingQueue<Calculation>();
+
+	/** Asserts that the results in completion order have been requested. */
+	private final AtomicBoolean consumed = new AtomicBoolean();
+
+	/** The timer that cancels calculations that time out, or null. */
+	private final ScheduledExecutorService timer;
+
+	/** The timeout of each calculation in nanoseconds, or zero if none. */
+	private final long timeoutNanos;
+
+	/**
+	 * Creates a Puma batch of the specified tasks, which are not started until
+	 * the calculations are executed.
+	 * 
+	 * @param tasks
+	 *            the tasks.
+	 * @param timer
+	 *            the timer that cancels calculations that time out.
+	 * @param timeoutNanos
+	 *            the timeout of each calculation in nanoseconds, or zero if
+	 *            none.
+	 */
+	PumaBatch(Callable<? extends Puma>[] tasks,
+			ScheduledExecutorService timer, long timeoutNanos) {
+
+		this.timer = timer;
+		this.timeoutNanos = timeoutNanos;
+
+		int tasksLength = tasks.length;
+
+		calculations = new Calculation[tasksLength];
+
+		for (int index = 0; index < tasksLength; index++) {
+
+			calculations[index] = new Calculation(index, tasks[index]);
+
+		}
+
+	}
+
+	/**
+	 * Gets the calculations, in submission order.
+	 * 
+	 * @return the calculations.
+	 */
+	Runnable[] getCalculations() {
+
+		Runnable[] runnables = new Runnable[calculations.length];
+
+		System.arraycopy(calculations, 0, runnables, 0, calculations.length);
+
+		return runnables;
+
+	}
+
+	/**
+	 * Gets the number of calculations in this Puma batch.
+	 * 
+	 * @return the size.
+	 */
+	public int size() {
+
+		return calculations.length;
+
+	}
+
+	/**
+	 * Asserts that every calculation of this Puma batch has completed,
+	 * successfully or otherwise.
+	 * 
+	 * @return true if every calculation has completed, false otherwise.
+	 */
+	public boolean done() {
+
+		for (Calculation calculation : calculations) {
+
+			if (calculation.result == null) {
+
+				return false;
+
+			}
+
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Cancels every calculation of this Puma batch that has not completed,
+	 * interrupting the calculations that are running.
+	 */
+	public void cancel() {
+
+		for (Calculation calculation : calculations) {
+
+			calculation.cancel(true);
+
+		}
+
+	}
+
+	/**
+	 * Waits for the result of the calculation at the specified index.
+	 * 
+	 * @param index
+	 *            the index.
+	 * @return the result.
+	 * @exception InterruptedException
+	 *                if the current thread is interrupted while waiting.
+	 */
+	public PumaBatchResult get(int index) throws InterruptedException {
+
+		Calculation calculation = calculations[index];
+
+		calculation.latch.await();
+
+		return calculation.result;
+
+	}
+
+	/**
+	 * Yields the results of the calculations in the order the calculations
+	 * were submitted, where each result is waited for as it is iterated.
+	 * 
+	 * @return the results.
+	 */
+	public Iterable<PumaBatchResult> inSubmissionOrder() {
+
+		return new Iterable<PumaBatchResult>() {
+
+			public Iterator<PumaBatchResult> iterator() {
+
+				return new ResultIterator() {
+
+					private int index;
+
+					@Override
+					protected PumaBatchResult await()
+							throws InterruptedException {
+
+						return get(index++);
+
+					}
+
+				};
+
+			}
+
+		};
+
+	}
+
+	/**
+	 * Yields the results of the calculations in the order the calculations
+	 * complete, where each result is waited for as it is iterated.
+	 * 
+	 * @return the results.
+	 * @exception IllegalStateException
+	 *                if the results in completion order were already
+	 *                requested.
+	 */
+	public Iterable<PumaBatchResult> inCompletionOrder()
+			throws IllegalStateException {
+
+		if (!consumed.compareAndSet(false, true)) {
+
+			throw new IllegalStateException(
+					"The results in completion order may be consumed only once");
+
+		}
+
+		final Iterator<PumaBatchResult> iterator = new ResultIterator() {
+
+			@Override
+			protected PumaBatchResult await() throws InterruptedException {
+
+				return completed.take().result;
+
+			}
+
+		};
+
+		return new Iterable<PumaBatchResult>() {
+
+			public Iterator<PumaBatchResult> iterator() {
+
+				return iterator;
+
+			}
+
+		};
+
+	}
+
+	/**
+	 * Represents an iterator of the results of every calculation that waits
+	 * for each result in turn.
+	 */
+	private abstract class ResultIterator implements Iterator<PumaBatchResult> {
+
+		/** The number of results yielded. */
+		private int yielded;
+
+		/**
+		 * Waits for the next result.
+		 * 
+		 * @return the result.
+		 * @exception InterruptedException
+		 *                if the current thread is interrupted while waiting.
+		 */
+		protected abstract PumaBatchResult await() throws InterruptedException;
+
+		public boolean hasNext() {
+
+			return yielded < calculations.length;
+
+		}
+
+		public PumaBatchResult next() {
+
+			if (!hasNext()) {
+
+				throw new NoSuchElementException();
+
+			}
+
+			try {
+
+				PumaBatchResult result = await();
+
+				yielded++;
+
+				return result;
+
+			} catch (InterruptedException interrupted) {
+
+				Thread.currentThread().interrupt();
+
+				throw new IllegalStateException(
+						"Interrupted while waiting for a result", interrupted);
+
+			}
+
+		}
+
+		public void remove() {
+
+			throw new UnsupportedOperationException();
+
+		}
+
+	}
+
+	/**
+	 * Represents one calculation of the batch, which records its result and
+	 * joins the completion queue when it completes.
+	 */
+	private final class Calculation extends FutureTask<Puma> {
+
+		/** The index of the calculation within the batch. */
+		private final int index;
+
+		/** Released once the result is recorded. */
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		/** Asserts that the calculation was cancelled because it timed out. */
+		private volatile boolean timedOut;
+
+		/** The result, or null until the calculation completes. */
+		private volatile PumaBatchResult result;
+
+		/**
+		 * Creates a calculation of the specified task.
+		 * 
+		 * @param index
+		 *            the index of the calculation within the batch.
+		 * @param task
+		 *            the task.
+		 */
+		@SuppressWarnings("unchecked")
+		private Calculation(int index, Callable<? extends Puma> task) {
+
+			super((Callable<Puma>) task);
+
+			this.index = index;
+
+		}
+
+		/**
+		 * Runs the calculation, cancelling it if it does not complete within
+		 * the timeout.
+		 */
+		@Override
+		public void run() {
+
+			if (timeoutNanos <= 0 || isDone()) {
+
+				try {
+
+					super.run();
+
+				} finally {
+
+					clearInterrupt();
+
+				}
+
+				return;
+
+			}
+
+			ScheduledFuture<?> timeout = timer.schedule(new Runnable() {
+
+				public void run() {
+
+					timedOut = true;
+
+					if (!cancel(true)) {
+
+						timedOut = false;
+
+					}
+
+				}
+
+			}, timeoutNanos, TimeUnit.NANOSECONDS);
+
+			try {
+
+				super.run();
+
+			} finally {
+
+				timeout.cancel(false);
+
+				clearInterrupt();
+
+			}
+
+		}
+
+		/**
+		 * Clears the interrupt with which a cancellation interrupted the
+		 * calculation, so that it does not interrupt the next calculation
+		 * performed by the same worker thread.
+		 */
+		private void clearInterrupt() {
+
+			if (isCancelled()) {
+
+				Thread.interrupted();
+
+			}
+
+		}
+
+		/**
+		 * Records the result and adds the calculation to the completion queue.
+		 */
+		@Override
+		protected void done() {
+
+			Puma number = null;
+			Throwable error = null;
+
+			boolean cancelled = false;
+
+			try {
+
+				number = get();
+
+			} catch (CancellationException cancellation) {
+
+				cancelled = true;
+
+			} catch (ExecutionException failure) {
+
+				error = failure.getCause();
+
+			} catch (InterruptedException interrupted) {
+
+				// unreachable since the calculation is done
+
+				Thread.currentThread().interrupt();
+
+			}
+
+			result = new PumaBatchResult(index, number, error, cancelled,
+					cancelled && timedOut);
+
+			latch.countDown();
+
+			completed.add(this);
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,293 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents an executor of batches of independent calculations, such as one
+ * calculation per shareholder, upon a work-stealing pool of bounded
+ * parallelism.<br/>
+ * <br/>
+ * Each calculation is either a task that yields a Puma number or a compiled
+ * Puma expression with the Puma numbers bound to its variables. Each batch
+ * yields the results as the calculations complete, may be cancelled as a
+ * whole, and may limit the time each calculation is allowed to run, after
+ * which the calculation is cancelled and interrupted.<br/>
+ * <br/>
+ * Puma batch executors are thread-safe, and should be closed once no further
+ * batches will be submitted.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaBatch
+ */
+public final class PumaBatchExecutor implements AutoCloseable {
+
+	/** The pool upon which the calculations run. */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates a Puma batch executor with a parallelism equal to the number of
+	 * available processors.
+	 */
+	public PumaBatchExecutor() {
+
+		this(Runtime.getRuntime().availableProcessors());
+
+	}
+
+	/**
+	 * Creates a Puma batch executor with the specified parallelism, which is
+	 * the greatest number of calculations that run at once.
+	 * 
+	 * @param parallelism
+	 *            the parallelism.
+	 * @exception IllegalArgumentException
+	 *                if the parallelism is not positive.
+	 */
+	public PumaBatchExecutor(int parallelism) throws IllegalArgumentException {
+
+		if (parallelism <= 0) {
+
+			throw new IllegalArgumentException("The parallelism ["
+					+ parallelism + "] must be positive");
+
+		}
+
+		pool = new ForkJoinPool(parallelism);
+
+	}
+
+	/**
+	 * Yields a task that evaluates the specified compiled Puma expression
+	 * using the Puma numbers bound to the variables by name within the
+	 * specified map.
+	 * 
+	 * @param expression
+	 *            the expression.
+	 * @param bindings
+	 *            the Puma numbers keyed by variable.
+	 * @return the task.
+	 */
+	public static Callable<Puma> task(final CompiledPumaExpression expression,
+			final Map<String, ? extends Puma> bindings) {
+
+		return new Callable<Puma>() {
+
+			public Puma call() {
+
+				return expression.evaluate(bindings);
+
+			}
+
+		};
+
+	}
+
+	/**
+	 * Submits a batch of the specified tasks.
+	 * 
+	 * @param tasks
+	 *            the tasks.
+	 * @return the batch.
+	 */
+	public PumaBatch submit(List<? extends Callable<? extends Puma>> tasks) {
+
+		return submit(tasks, 0, TimeUnit.NANOSECONDS);
+
+	}
+
+	/**
+	 * Submits a batch of the specified tasks, each of which is cancelled if it
+	 * does not complete within the specified timeout of starting.<br/>
+	 * Each task is performed within the Puma context in force for the current
+	 * thread.
+	 * 
+	 * @param tasks
+	 *            the tasks.
+	 * @param timeout
+	 *            the timeout, or zero if none.
+	 * @param unit
+	 *            the unit of the timeout.
+	 * @return the batch.
+	 * @exception IllegalArgumentException
+	 *                if the timeout is negative.
+	 */
+	public PumaBatch submit(List<? extends Callable<? extends Puma>> tasks,
+			long timeout, TimeUnit unit) throws IllegalArgumentException {
+
+		if (timeout < 0) {
+
+			throw new IllegalArgumentException("The timeout [" + timeout
+					+ "] must not be negative");
+
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Callable<? extends Puma>[] taskArray = tasks
+				.toArray(new Callable[tasks.size()]);
+
+		// the tasks are performed within the context of the submitting thread
+
+		for (int index = 0; index < taskArray.length; index++) {
+
+			taskArray[index] = PumaContext.capture(taskArray[index]);
+
+		}
+
+		PumaBatch batch = new PumaBatch(taskArray, Timer.INSTANCE, unit
+				.toNanos(timeout));
+
+		for (Runnable calculation : batch.getCalculations()) {
+
+			pool.execute(calculation);
+
+		}
+
+		return batch;
+
+	}
+
+	/**
+	 * Submits a batch of evaluations of the specified compiled Puma
+	 * expression, one for each of the specified maps of Puma numbers keyed by
+	 * variable.
+	 * 
+	 * @param expression
+	 *            the expression.
+	 * @param bindings
+	 *            the Puma numbers keyed by variable, for each evaluation.
+	 * @return the batch.
+	 */
+	public PumaBatch submit(CompiledPumaExpression expression,
+			List<? extends Map<String, ? extends Puma>> bindings) {
+
+		return submit(expression, bindings, 0, TimeUnit.NANOSECONDS);
+
+	}
+
+	/**
+	 * Submits a batch of evaluations of the specified compiled Puma
+	 * expression, one for each of the specified maps of Puma numbers keyed by
+	 * variable, each of which is cancelled if it does not complete within the
+	 * specified timeout of starting.
+	 * 
+	 * @param expression
+	 *            the expression.
+	 * @param bindings
+	 *            the Puma numbers keyed by variable, for each evaluation.
+	 * @param timeout
+	 *            the timeout, or zero if none.
+	 * @param unit
+	 *            the unit of the timeout.
+	 * @return the batch.
+	 */
+	public PumaBatch submit(CompiledPumaExpression expression,
+			List<? extends Map<String, ? extends Puma>> bindings,
+			long timeout, TimeUnit unit) {
+
+		Callable<Puma>[] tasks = newTasks(bindings.size());
+
+		int index = 0;
+
+		for (Map<String, ? extends Puma> binding : bindings) {
+
+			tasks[index++] = task(expression, binding);
+
+		}
+
+		return submit(Arrays.asList(tasks), timeout, unit);
+
+	}
+
+	/**
+	 * Gets the greatest number of calculations that run at once.
+	 * 
+	 * @return the parallelism.
+	 */
+	public int getParallelism() {
+
+		return pool.getParallelism();
+
+	}
+
+	/**
+	 * Closes this Puma batch executor, after which no further batches may be
+	 * submitted although the calculations already submitted will complete.
+	 */
+	public void close() {
+
+		pool.shutdown();
+
+	}
+
+	/**
+	 * Creates an array of tasks of the specified length.
+	 * 
+	 * @param length
+	 *            the length.
+	 * @return the array.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Callable<Puma>[] newTasks(int length) {
+
+		return new Callable[length];
+
+	}
+
+	/**
+	 * Holds the timer that cancels calculations that time out, shared by
+	 * every Puma batch executor and created only once a batch is submitted.
+	 */
+	private static final class Timer {
+
+		/** The timer. */
+		private static final ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(
+				1, new ThreadFactory() {
+
+					public Thread newThread(Runnable runnable) {
+
+						Thread thread = new Thread(runnable, "puma-batch-timer");
+
+						thread.setDaemon(true);
+
+						return thread;
+
+					}
+
+				});
+
+		static {
+
+			INSTANCE.setRemoveOnCancelPolicy(true);
+
+		}
+
+	}
+
+}
\ No newline at end of file
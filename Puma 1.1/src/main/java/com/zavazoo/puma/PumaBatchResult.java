@@ -0,0 +1,184 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+/**
+ * Represents the outcome of one calculation of a Puma batch, which is either
+ * the Puma number calculated, the error thrown by the calculation, or the
+ * cancellation of the calculation because the batch was cancelled or the
+ * calculation timed out.<br/>
+ * <br/>
+ * Puma batch results are immutable and thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaBatch
+ */
+public final class PumaBatchResult {
+
+	/** The index of the calculation within the batch. */
+	private final int index;
+
+	/** The number, or null if the calculation did not succeed. */
+	private final Puma number;
+
+	/** The error, or null if the calculation did not fail. */
+	private final Throwable error;
+
+	/** Asserts that the calculation was cancelled. */
+	private final boolean cancelled;
+
+	/** Asserts that the calculation was cancelled because it timed out. */
+	private final boolean timedOut;
+
+	/**
+	 * Creates a Puma batch result.
+	 * 
+	 * @param index
+	 *            the index of the calculation within the batch.
+	 * @param number
+	 *            the number, or null.
+	 * @param error
+	 *            the error, or null.
+	 * @param cancelled
+	 *            true if the calculation was cancelled, false otherwise.
+	 * @param timedOut
+	 *            true if the calculation timed out, false otherwise.
+	 */
+	PumaBatchResult(int index, Puma number, Throwable error,
+			boolean cancelled, boolean timedOut) {
+
+		this.index = index;
+		this.number = number;
+		this.error = error;
+		this.cancelled = cancelled;
+		this.timedOut = timedOut;
+
+	}
+
+	/**
+	 * Gets the index of the calculation within the batch, which is the index
+	 * of the task within the list of tasks submitted.
+	 * 
+	 * @return the index.
+	 */
+	public int getIndex() {
+
+		return index;
+
+	}
+
+	/**
+	 * Gets the Puma number calculated.
+	 * 
+	 * @return the number.
+	 * @exception IllegalStateException
+	 *                if the calculation failed or was cancelled.
+	 */
+	public Puma getNumber() throws IllegalStateException {
+
+		if (!successful()) {
+
+			throw new IllegalStateException("The calculation [" + index
+					+ "] did not succeed: " + this, error);
+
+		}
+
+		return number;
+
+	}
+
+	/**
+	 * Gets the error thrown by the calculation, or null if the calculation
+	 * did not fail.
+	 * 
+	 * @return the error.
+	 */
+	public Throwable getError() {
+
+		return error;
+
+	}
+
+	/**
+	 * Asserts that the calculation succeeded.
+	 * 
+	 * @return true if the calculation succeeded, false otherwise.
+	 */
+	public boolean successful() {
+
+		return !cancelled && error == null;
+
+	}
+
+	/**
+	 * Asserts that the calculation was cancelled, either because the batch
+	 * was cancelled or because the calculation timed out.
+	 * 
+	 * @return true if the calculation was cancelled, false otherwise.
+	 */
+	public boolean cancelled() {
+
+		return cancelled;
+
+	}
+
+	/**
+	 * Asserts that the calculation was cancelled because it timed out.
+	 * 
+	 * @return true if the calculation timed out, false otherwise.
+	 */
+	public boolean timedOut() {
+
+		return timedOut;
+
+	}
+
+	/**
+	 * Yields a string representation of this Puma batch result.
+	 * 
+	 * @return the representation.
+	 */
+	@Override
+	public String toString() {
+
+		if (timedOut) {
+
+			return "timed out";
+
+		}
+
+		if (cancelled) {
+
+			return "cancelled";
+
+		}
+
+		if (error != null) {
+
+			return "failed with " + error;
+
+		}
+
+		return number.toString();
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,476 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates the instructions of a compiled Puma expression or a Puma
+ * expression plan across a range of rows of a batch, splitting the range in half and evaluating each half in
+ * parallel until the range is no larger than a single chunk.<br/>
+ * <br/>
+ * Each chunk is evaluated one instruction at a time across every row of the
+ * chunk, rather than one row at a time across every instruction, and the
+ * registers of each instruction are released for reuse by later instructions
+ * once the last instruction that refers to them has been executed.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.CompiledPumaExpression#evaluateBatch(PumaColumn[],
+ *      Puma[])
+ * @see com.zavazoo.puma.PumaExpressionPlan#evaluateBatch(PumaColumn[],
+ *      Puma[][])
+ */
+final class PumaBatchTask extends RecursiveAction {
+
+	/** The serialization version unique identifier. */
+	private static final long serialVersionUID = 1l;
+
+	/** The maximum number of rows evaluated one instruction at a time. */
+	static final int CHUNK_SIZE = 1024;
+
+	/** The instructions. */
+	private final PumaInstruction[] instructions;
+
+	/** The variables in order of first appearance. */
+	private final String[] variables;
+
+	/** The source of the instructions, which is reported upon failure. */
+	private final Object source;
+
+	/** The register index of each result. */
+	private final int[] results;
+
+	/** The columns in order of the variables. */
+	private final PumaColumn[] columns;
+
+	/** The output column of each result. */
+	private final Puma[][] outputs;
+
+	/** The first row. */
+	private final int from;
+
+	/** The row after the last row. */
+	private final int to;
+
+	/** The Puma context in force when the evaluation was started. */
+	private final PumaContext.Captured captured;
+
+	/**
+	 * Creates a Puma batch task for the specified range of rows.
+	 * 
+	 * @param compiled
+	 *            the compiled expression.
+	 * @param columns
+	 *            the columns in order of the variables.
+	 * @param output
+	 *            the output column.
+	 * @param from
+	 *            the first row.
+	 * @param to
+	 *            the row after the last row.
+	 */
+	PumaBatchTask(CompiledPumaExpression compiled, PumaColumn[] columns,
+			Puma[] output, int from, int to) {
+
+		this(compiled.getInstructions(), compiled.getVariables(), compiled,
+				new int[] { compiled.getInstructions().length - 1 }, columns,
+				new Puma[][] { output }, from, to);
+
+	}
+
+	/**
+	 * Creates a Puma batch task for the specified range of rows that writes
+	 * the result held in each of the specified registers into the output
+	 * column at the same index.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @param variables
+	 *            the variables.
+	 * @param source
+	 *            the source of the instructions.
+	 * @param results
+	 *            the register index of each result.
+	 * @param columns
+	 *            the columns in order of the variables.
+	 * @param outputs
+	 *            the output column of each result.
+	 * @param from
+	 *            the first row.
+	 * @param to
+	 *            the row after the last row.
+	 */
+	PumaBatchTask(PumaInstruction[] instructions, String[] variables,
+			Object source, int[] results, PumaColumn[] columns,
+			Puma[][] outputs, int from, int to) {
+
+		this(instructions, variables, source, results, columns, outputs, from,
+				to, PumaContext.capture());
+
+	}
+
+	/**
+	 * Creates a Puma batch task for the specified range of rows within the
+	 * specified captured Puma context.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @param variables
+	 *            the variables.
+	 * @param source
+	 *            the source of the instructions.
+	 * @param results
+	 *            the register index of each result.
+	 * @param columns
+	 *            the columns in order of the variables.
+	 * @param outputs
+	 *            the output column of each result.
+	 * @param from
+	 *            the first row.
+	 * @param to
+	 *            the row after the last row.
+	 * @param captured
+	 *            the captured context.
+	 */
+	private PumaBatchTask(PumaInstruction[] instructions, String[] variables,
+			Object source, int[] results, PumaColumn[] columns,
+			Puma[][] outputs, int from, int to, PumaContext.Captured captured) {
+
+		this.instructions = instructions;
+		this.variables = variables;
+		this.source = source;
+		this.results = results;
+		this.columns = columns;
+		this.outputs = outputs;
+		this.from = from;
+		this.to = to;
+		this.captured = captured;
+
+	}
+
+	/**
+	 * Evaluates the range of rows, forking a task for each half of the range
+	 * if the range is larger than a single chunk.
+	 */
+	@Override
+	protected void compute() {
+
+		int rows = to - from;
+
+		if (rows <= CHUNK_SIZE) {
+
+			PumaContext.Scope scope = captured.enter();
+
+			try {
+
+				evaluateChunk(instructions, variables, source, results,
+						columns, outputs, from, to);
+
+			} finally {
+
+				scope.close();
+
+			}
+
+			return;
+
+		}
+
+		// split on a chunk boundary
+		int middle = from + (rows / 2 + CHUNK_SIZE - 1) / CHUNK_SIZE
+				* CHUNK_SIZE;
+
+		if (middle >= to) {
+
+			middle = from + CHUNK_SIZE;
+
+		}
+
+		invokeAll(new PumaBatchTask(instructions, variables, source, results,
+				columns, outputs, from, middle, captured), new PumaBatchTask(
+				instructions, variables, source, results, columns, outputs,
+				middle, to, captured));
+
+	}
+
+	/**
+	 * Evaluates the specified range of rows, one instruction at a time, in the
+	 * current thread.
+	 * 
+	 * @param compiled
+	 *            the compiled expression.
+	 * @param columns
+	 *            the columns in order of the variables.
+	 * @param output
+	 *            the output column.
+	 * @param from
+	 *            the first row.
+	 * @param to
+	 *            the row after the last row.
+	 * @exception IllegalArgumentException
+	 *                if any row of a column is empty.
+	 */
+	static void evaluateChunk(CompiledPumaExpression compiled,
+			PumaColumn[] columns, Puma[] output, int from, int to)
+			throws IllegalArgumentException {
+
+		evaluateChunk(compiled.getInstructions(), compiled.getVariables(),
+				compiled, new int[] { compiled.getInstructions().length - 1 },
+				columns, new Puma[][] { output }, from, to);
+
+	}
+
+	/**
+	 * Evaluates the specified range of rows, one instruction at a time, in the
+	 * current thread, writing the result held in each of the specified
+	 * registers into the output column at the same index.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @param variables
+	 *            the variables.
+	 * @param source
+	 *            the source of the instructions.
+	 * @param results
+	 *            the register index of each result.
+	 * @param columns
+	 *            the columns in order of the variables.
+	 * @param outputs
+	 *            the output column of each result.
+	 * @param from
+	 *            the first row.
+	 * @param to
+	 *            the row after the last row.
+	 * @exception IllegalArgumentException
+	 *                if any row of a column is empty.
+	 */
+	static void evaluateChunk(PumaInstruction[] instructions,
+			String[] variables, Object source, int[] results,
+			PumaColumn[] columns, Puma[][] outputs, int from, int to)
+			throws IllegalArgumentException {
+
+		int instructionsLength = instructions.length;
+
+		int rows = to - from;
+
+		int[] lastUses = findLastUses(instructions, results);
+
+		// the register of each instruction across the rows, or null for a
+		// constant which is shared by every row
+		Puma[][] registers = new Puma[instructionsLength][];
+
+		ArrayDeque<Puma[]> released = new ArrayDeque<Puma[]>();
+
+		for (int index = 0; index < instructionsLength; index++) {
+
+			PumaInstruction instruction = instructions[index];
+
+			if (instruction.constant()) {
+
+				continue;
+
+			}
+
+			// the deadline is checked once per instruction of each chunk
+
+			PumaDeadline.check(null);
+
+			Puma[] register = released.poll();
+
+			if (register == null) {
+
+				register = new Puma[rows];
+
+			}
+
+			if (instruction.variable()) {
+
+				int variable = instruction.getVariable();
+
+				PumaColumn column = columns[variable];
+
+				for (int row = 0; row < rows; row++) {
+
+					Puma number = column.get(from + row);
+
+					if (number == null) {
+
+						throw new IllegalArgumentException("The variable ["
+								+ variables[variable]
+								+ "] is not bound at row [" + (from + row)
+								+ "]: " + source);
+
+					}
+
+					register[row] = number;
+
+				}
+
+			} else {
+
+				PumaOperator operator = instruction.getOperator();
+
+				int left = instruction.getLeft();
+				int right = instruction.getRight();
+
+				Puma[] leftRegister = registers[left];
+				Puma[] rightRegister = registers[right];
+
+				Puma leftConstant = instructions[left].getConstant();
+				Puma rightConstant = instructions[right].getConstant();
+
+				for (int row = 0; row < rows; row++) {
+
+					Puma leftOperand = leftConstant;
+
+					if (leftOperand == null) {
+
+						leftOperand = leftRegister[row];
+
+					}
+
+					Puma rightOperand = rightConstant;
+
+					if (rightOperand == null) {
+
+						rightOperand = rightRegister[row];
+
+					}
+
+					register[row] = operator.apply(leftOperand, rightOperand);
+
+				}
+
+				release(registers, lastUses, left, index, released);
+
+				if (right != left) {
+
+					release(registers, lastUses, right, index, released);
+
+				}
+
+			}
+
+			registers[index] = register;
+
+		}
+
+		int resultsLength = results.length;
+
+		for (int index = 0; index < resultsLength; index++) {
+
+			int result = results[index];
+
+			Puma[] output = outputs[index];
+
+			Puma[] resultRegister = registers[result];
+
+			if (resultRegister == null) {
+
+				Puma constant = instructions[result].getConstant();
+
+				for (int row = 0; row < rows; row++) {
+
+					output[from + row] = constant;
+
+				}
+
+			} else {
+
+				System.arraycopy(resultRegister, 0, output, from, rows);
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Finds the index of the last instruction that refers to each instruction.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @param results
+	 *            the register index of each result.
+	 * @return the last uses.
+	 */
+	private static int[] findLastUses(PumaInstruction[] instructions,
+			int[] results) {
+
+		int instructionsLength = instructions.length;
+
+		int[] lastUses = new int[instructionsLength];
+
+		for (int index = 0; index < instructionsLength; index++) {
+
+			PumaInstruction instruction = instructions[index];
+
+			if (instruction.getOperator() != null) {
+
+				lastUses[instruction.getLeft()] = index;
+				lastUses[instruction.getRight()] = index;
+
+			}
+
+		}
+
+		// the results are never released
+		for (int result : results) {
+
+			lastUses[result] = instructionsLength;
+
+		}
+
+		return lastUses;
+
+	}
+
+	/**
+	 * Releases the register of the specified operand for reuse if the
+	 * specified instruction is the last to refer to it.
+	 * 
+	 * @param registers
+	 *            the registers.
+	 * @param lastUses
+	 *            the last uses.
+	 * @param operand
+	 *            the operand.
+	 * @param index
+	 *            the instruction.
+	 * @param released
+	 *            the released registers.
+	 */
+	private static void release(Puma[][] registers, int[] lastUses,
+			int operand, int index, ArrayDeque<Puma[]> released) {
+
+		Puma[] register = registers[operand];
+
+		if (register != null && lastUses[operand] == index) {
+
+			registers[operand] = null;
+
+			released.push(register);
+
+		}
+
+	}
+
+}
\ No newline at end of file
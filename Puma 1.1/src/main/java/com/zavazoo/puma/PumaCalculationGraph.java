@@ -0,0 +1,817 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Represents a graph of named nodes, where each node holds either a Puma
+ * number or a Puma expression whose variables refer to other nodes by name, in
+ * the manner of the cells of a spreadsheet.<br/>
+ * <br/>
+ * The value of each node is retained once calculated. Whenever a node is
+ * defined, every node that depends upon it, directly or indirectly, is marked
+ * as dirty and only the dirty nodes are recalculated, in an order such that
+ * every node is calculated after the nodes upon which it depends. Dirty nodes
+ * that do not depend upon one another are recalculated in parallel.<br/>
+ * <br/>
+ * Any definition that would cause a node to depend upon itself is rejected.
+ * Dirty nodes are recalculated when the value of any node is requested or
+ * when the graph is explicitly recalculated. A node whose calculation throws
+ * an exception remains dirty, as do its dependents, and the exception is
+ * recorded and thrown whenever the value of the node or of a dependent is
+ * requested, while the remaining nodes are calculated as usual.<br/>
+ * <br/>
+ * Puma calculation graphs are thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaExpression#compile(String)
+ */
+public class PumaCalculationGraph {
+
+	/** The nodes keyed by name. */
+	private final Map<String, Node> nodes = new HashMap<String, Node>();
+
+	/** The names of the dirty nodes. */
+	private final Set<String> dirty = new LinkedHashSet<String>();
+
+	/** The fork join pool used to recalculate nodes in parallel. */
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates an empty Puma calculation graph that recalculates nodes in
+	 * parallel using the fork join pool of the current Puma context.
+	 */
+	public PumaCalculationGraph() {
+
+		this(PumaContext.current().getPool());
+
+	}
+
+	/**
+	 * Creates an empty Puma calculation graph that recalculates nodes in
+	 * parallel using the specified fork join pool.
+	 * 
+	 * @param pool
+	 *            the fork join pool.
+	 */
+	public PumaCalculationGraph(ForkJoinPool pool) {
+
+		this.pool = pool;
+
+	}
+
+	/**
+	 * Defines the node with the specified name to hold the specified Puma
+	 * number, marking every node that depends upon it as dirty.
+	 * 
+	 * @param name
+	 *            the name.
+	 * @param value
+	 *            the number.
+	 */
+	public synchronized void setValue(String name, Puma value) {
+
+		if (value == null) {
+
+			throw new IllegalArgumentException("The value of node [" + name
+					+ "] must not be null");
+
+		}
+
+		Node node = define(name, null);
+
+		node.value = value;
+		node.error = null;
+
+		markDependentsDirty(name);
+
+		dirty.remove(name);
+
+	}
+
+	/**
+	 * Defines the node with the specified name to hold the specified Puma
+	 * expression, whose variables refer to other nodes by name, marking the
+	 * node and every node that depends upon it as dirty.
+	 * 
+	 * @param name
+	 *            the name.
+	 * @param expression
+	 *            the expression.
+	 * @exception NumberFormatException
+	 *                if the specified Puma expression comprises a
+	 *                representation of a Puma number that is not valid.
+	 * @exception InvalidExpressionException
+	 *                if the specified Puma expression is not valid.
+	 * @exception CyclicDependencyException
+	 *                if the node would depend upon itself, in which case the
+	 *                graph is not altered.
+	 */
+	public synchronized void setExpression(String name, String expression)
+			throws NumberFormatException, InvalidExpressionException,
+			CyclicDependencyException {
+
+		CompiledPumaExpression compiled = PumaExpression.compile(expression);
+
+		for (String dependency : compiled.getVariables()) {
+
+			List<String> path = findPath(dependency, name);
+
+			if (path != null) {
+
+				path.add(0, name);
+
+				throw new CyclicDependencyException(path);
+
+			}
+
+		}
+
+		Node node = define(name, compiled);
+
+		node.value = null;
+		node.error = null;
+
+		markDependentsDirty(name);
+
+	}
+
+	/**
+	 * Removes the node with the specified name, marking every node that
+	 * depends upon it as dirty. Any node that depends upon a removed node
+	 * cannot be calculated until the removed node is defined again.
+	 * 
+	 * @param name
+	 *            the name.
+	 */
+	public synchronized void remove(String name) {
+
+		Node node = nodes.get(name);
+
+		if (node == null) {
+
+			return;
+
+		}
+
+		markDependentsDirty(name);
+
+		dirty.remove(name);
+
+		unlink(name, node);
+
+		if (node.dependents.isEmpty()) {
+
+			nodes.remove(name);
+
+		} else {
+
+			// retain the node as a placeholder for its dependents
+			node.compiled = null;
+			node.value = null;
+			node.error = null;
+
+		}
+
+	}
+
+	/**
+	 * Yields the value of the node with the specified name, recalculating any
+	 * dirty nodes beforehand.
+	 * 
+	 * @param name
+	 *            the name.
+	 * @return the value.
+	 * @exception IllegalArgumentException
+	 *                if the node is not defined or depends upon a node that is
+	 *                not defined.
+	 * @exception RuntimeException
+	 *                the exception thrown by the most recent calculation of the
+	 *                node or of a node upon which it depends, such as a
+	 *                PumaLimitExceededException or a
+	 *                CalculationInterruptedException.
+	 */
+	public synchronized Puma getValue(String name)
+			throws IllegalArgumentException {
+
+		Node node = nodes.get(name);
+
+		if (node == null || (node.compiled == null && node.value == null)) {
+
+			throw new IllegalArgumentException("The node [" + name
+					+ "] is not defined");
+
+		}
+
+		recalculate();
+
+		if (dirty.contains(name)) {
+
+			RuntimeException error = findError(name);
+
+			if (error != null) {
+
+				throw error;
+
+			}
+
+			throw new IllegalArgumentException("The node [" + name
+					+ "] depends upon a node that is not defined");
+
+		}
+
+		return node.value;
+
+	}
+
+	/**
+	 * Yields the names of the nodes upon which the node with the specified
+	 * name directly depends.
+	 * 
+	 * @param name
+	 *            the name.
+	 * @return the names.
+	 */
+	public synchronized Set<String> getDependencies(String name) {
+
+		Node node = nodes.get(name);
+
+		if (node == null || node.compiled == null) {
+
+			return Collections.emptySet();
+
+		}
+
+		return Collections.unmodifiableSet(new LinkedHashSet<String>(node
+				.dependencies()));
+
+	}
+
+	/**
+	 * Yields the names of the nodes that directly depend upon the node with
+	 * the specified name.
+	 * 
+	 * @param name
+	 *            the name.
+	 * @return the names.
+	 */
+	public synchronized Set<String> getDependents(String name) {
+
+		Node node = nodes.get(name);
+
+		if (node == null) {
+
+			return Collections.emptySet();
+
+		}
+
+		return Collections.unmodifiableSet(new LinkedHashSet<String>(
+				node.dependents));
+
+	}
+
+	/**
+	 * Yields the number of nodes awaiting recalculation.
+	 * 
+	 * @return the number of dirty nodes.
+	 */
+	public synchronized int getDirtyCount() {
+
+		return dirty.size();
+
+	}
+
+	/**
+	 * Recalculates every dirty node, in an order such that every node is
+	 * calculated after the nodes upon which it depends, recalculating
+	 * independent nodes in parallel. Any dirty node that depends upon a node
+	 * that is not defined, or whose calculation throws an exception, remains
+	 * dirty, as do its dependents.
+	 */
+	public synchronized void recalculate() {
+
+		if (dirty.isEmpty()) {
+
+			return;
+
+		}
+
+		// the number of dirty dependencies of each dirty node
+		Map<String, Integer> pending = new HashMap<String, Integer>();
+
+		List<Node> level = new ArrayList<Node>();
+
+		for (String name : dirty) {
+
+			Node node = nodes.get(name);
+
+			int dirtyDependencies = 0;
+
+			for (String dependency : node.dependencies()) {
+
+				if (dirty.contains(dependency)) {
+
+					dirtyDependencies++;
+
+				}
+
+			}
+
+			pending.put(name, dirtyDependencies);
+
+			if (dirtyDependencies == 0) {
+
+				level.add(node);
+
+			}
+
+		}
+
+		while (!level.isEmpty()) {
+
+			calculate(level);
+
+			List<Node> nextLevel = new ArrayList<Node>();
+
+			for (Node node : level) {
+
+				if (!node.calculated) {
+
+					continue;
+
+				}
+
+				dirty.remove(node.name);
+
+				for (String dependent : node.dependents) {
+
+					Integer dirtyDependencies = pending.get(dependent);
+
+					if (dirtyDependencies == null) {
+
+						continue;
+
+					}
+
+					if (dirtyDependencies == 1) {
+
+						nextLevel.add(nodes.get(dependent));
+
+					}
+
+					pending.put(dependent, dirtyDependencies - 1);
+
+				}
+
+			}
+
+			level = nextLevel;
+
+		}
+
+	}
+
+	/**
+	 * Calculates the specified nodes, which do not depend upon one another, in
+	 * parallel if there are several nodes.
+	 * 
+	 * @param level
+	 *            the nodes.
+	 */
+	private void calculate(List<Node> level) {
+
+		if (level.size() == 1) {
+
+			level.get(0).calculate();
+
+			return;
+
+		}
+
+		final List<Node> calculated = level;
+
+		// the nodes are calculated within the context of the calling thread
+		final PumaContext.Captured captured = PumaContext.capture();
+
+		pool.invoke(new RecursiveAction() {
+
+			private static final long serialVersionUID = 1l;
+
+			@Override
+			protected void compute() {
+
+				List<RecursiveAction> actions = new ArrayList<RecursiveAction>();
+
+				for (final Node node : calculated) {
+
+					actions.add(new RecursiveAction() {
+
+						private static final long serialVersionUID = 1l;
+
+						@Override
+						protected void compute() {
+
+							PumaContext.Scope scope = captured.enter();
+
+							try {
+
+								node.calculate();
+
+							} finally {
+
+								scope.close();
+
+							}
+
+						}
+
+					});
+
+				}
+
+				ForkJoinTask.invokeAll(actions);
+
+			}
+
+		});
+
+	}
+
+	/**
+	 * Yields the node with the specified name, creating it if necessary, and
+	 * links it to the dependencies of the specified compiled expression.
+	 * 
+	 * @param name
+	 *            the name.
+	 * @param compiled
+	 *            the compiled expression or null.
+	 * @return the node.
+	 */
+	private Node define(String name, CompiledPumaExpression compiled) {
+
+		Node node = nodes.get(name);
+
+		if (node == null) {
+
+			node = new Node(name);
+
+			nodes.put(name, node);
+
+		} else {
+
+			unlink(name, node);
+
+		}
+
+		node.compiled = compiled;
+
+		for (String dependency : node.dependencies()) {
+
+			Node dependencyNode = nodes.get(dependency);
+
+			if (dependencyNode == null) {
+
+				// a placeholder until the dependency is defined
+				dependencyNode = new Node(dependency);
+
+				nodes.put(dependency, dependencyNode);
+
+			}
+
+			dependencyNode.dependents.add(name);
+
+		}
+
+		return node;
+
+	}
+
+	/**
+	 * Unlinks the specified node from its dependencies, removing any
+	 * placeholder that no longer has any dependents.
+	 * 
+	 * @param name
+	 *            the name.
+	 * @param node
+	 *            the node.
+	 */
+	private void unlink(String name, Node node) {
+
+		for (String dependency : node.dependencies()) {
+
+			Node dependencyNode = nodes.get(dependency);
+
+			dependencyNode.dependents.remove(name);
+
+			if (dependencyNode.dependents.isEmpty()
+					&& dependencyNode.compiled == null
+					&& dependencyNode.value == null) {
+
+				nodes.remove(dependency);
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Marks the node with the specified name and every node that depends upon
+	 * it, directly or indirectly, as dirty.
+	 * 
+	 * @param name
+	 *            the name.
+	 */
+	private void markDependentsDirty(String name) {
+
+		ArrayDeque<String> unvisited = new ArrayDeque<String>();
+
+		unvisited.push(name);
+
+		while (!unvisited.isEmpty()) {
+
+			String current = unvisited.pop();
+
+			if (!dirty.add(current)) {
+
+				continue;
+
+			}
+
+			Node node = nodes.get(current);
+
+			if (node != null) {
+
+				for (String dependent : node.dependents) {
+
+					unvisited.push(dependent);
+
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Finds the exception recorded by the node with the specified name or by
+	 * any dirty node upon which it depends, directly or indirectly.
+	 * 
+	 * @param name
+	 *            the name.
+	 * @return the exception, or null if no such node recorded an exception.
+	 */
+	private RuntimeException findError(String name) {
+
+		Set<String> visited = new HashSet<String>();
+
+		ArrayDeque<String> unvisited = new ArrayDeque<String>();
+
+		unvisited.push(name);
+
+		visited.add(name);
+
+		while (!unvisited.isEmpty()) {
+
+			Node node = nodes.get(unvisited.pop());
+
+			if (node == null) {
+
+				continue;
+
+			}
+
+			if (node.error != null) {
+
+				return node.error;
+
+			}
+
+			for (String dependency : node.dependencies()) {
+
+				if (dirty.contains(dependency) && visited.add(dependency)) {
+
+					unvisited.push(dependency);
+
+				}
+
+			}
+
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Finds a path of dependencies from the node with the specified origin to
+	 * the node with the specified destination.
+	 * 
+	 * @param origin
+	 *            the name of the origin.
+	 * @param destination
+	 *            the name of the destination.
+	 * @return the names of the nodes along the path, beginning with the origin
+	 *         and ending with the destination, or null if there is no path.
+	 */
+	private List<String> findPath(String origin, String destination) {
+
+		Map<String, String> predecessors = new HashMap<String, String>();
+
+		Set<String> visited = new HashSet<String>();
+
+		ArrayDeque<String> unvisited = new ArrayDeque<String>();
+
+		unvisited.push(origin);
+
+		visited.add(origin);
+
+		while (!unvisited.isEmpty()) {
+
+			String current = unvisited.pop();
+
+			if (current.equals(destination)) {
+
+				List<String> path = new ArrayList<String>();
+
+				for (String step = current; step != null; step = predecessors
+						.get(step)) {
+
+					path.add(0, step);
+
+				}
+
+				return path;
+
+			}
+
+			Node node = nodes.get(current);
+
+			if (node == null) {
+
+				continue;
+
+			}
+
+			for (String dependency : node.dependencies()) {
+
+				if (visited.add(dependency)) {
+
+					predecessors.put(dependency, current);
+
+					unvisited.push(dependency);
+
+				}
+
+			}
+
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Represents a single named node of the graph.
+	 */
+	private final class Node {
+
+		/** The name. */
+		private final String name;
+
+		/** The names of the nodes that depend upon this node. */
+		private final Set<String> dependents = new LinkedHashSet<String>();
+
+		/** The compiled expression or null if the node holds a number. */
+		private CompiledPumaExpression compiled;
+
+		/** The value or null if the node has not been calculated. */
+		private volatile Puma value;
+
+		/** Indicates whether the most recent calculation succeeded. */
+		private volatile boolean calculated;
+
+		/**
+		 * The exception thrown by the most recent calculation, or null if it
+		 * did not throw an exception.
+		 */
+		private volatile RuntimeException error;
+
+		/**
+		 * Creates a node with the specified name.
+		 * 
+		 * @param name
+		 *            the name.
+		 */
+		private Node(String name) {
+
+			this.name = name;
+
+		}
+
+		/**
+		 * Yields the names of the nodes upon which this node depends.
+		 * 
+		 * @return the names.
+		 */
+		private List<String> dependencies() {
+
+			if (compiled == null) {
+
+				return Collections.emptyList();
+
+			}
+
+			List<String> dependencies = new ArrayList<String>();
+
+			Collections.addAll(dependencies, compiled.getVariables());
+
+			return dependencies;
+
+		}
+
+		/**
+		 * Calculates the value of this node from the values of the nodes upon
+		 * which it depends, unless this node depends upon a node that is not
+		 * defined, recording any exception thrown by the calculation rather
+		 * than throwing it such that the other nodes are still calculated.
+		 */
+		private void calculate() {
+
+			error = null;
+
+			if (compiled == null) {
+
+				calculated = value != null;
+
+				return;
+
+			}
+
+			String[] variables = compiled.getVariables();
+
+			Puma[] arguments = new Puma[variables.length];
+
+			for (int index = 0; index < variables.length; index++) {
+
+				arguments[index] = nodes.get(variables[index]).value;
+
+				if (arguments[index] == null) {
+
+					value = null;
+					calculated = false;
+
+					return;
+
+				}
+
+			}
+
+			try {
+
+				value = compiled.evaluate(arguments);
+				calculated = true;
+
+			} catch (RuntimeException failure) {
+
+				value = null;
+				calculated = false;
+				error = failure;
+
+			}
+
+		}
+
+	}
+
+}
\ No newline at end of file
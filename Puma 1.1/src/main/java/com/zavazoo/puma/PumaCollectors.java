@@ -0,0 +1,344 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Provides collectors that reduce streams of Puma numbers exactly.<br/>
+ * <br/>
+ * The summing and averaging collectors use a Puma accumulator as the mutable
+ * container, such that no intermediate Puma number is created for each
+ * element, and the product collector multiplies integer numerators and
+ * denominators without normalising until the product is finished. Each
+ * container combines with another container of the same kind, therefore
+ * every collector may be used to reduce parallel streams.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see java.util.stream.Stream#collect(Collector)
+ */
+public final class PumaCollectors {
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private PumaCollectors() {
+
+	}
+
+	/**
+	 * Yields a collector that sums the Puma numbers, yielding zero if there
+	 * are none.
+	 * 
+	 * @return the collector.
+	 * @see com.zavazoo.puma.PumaAccumulator
+	 */
+	public static Collector<Puma, ?, Puma> summing() {
+
+		return Collector.of(new Supplier<PumaAccumulator>() {
+
+			public PumaAccumulator get() {
+
+				return new PumaAccumulator();
+
+			}
+
+		}, new BiConsumer<PumaAccumulator, Puma>() {
+
+			public void accept(PumaAccumulator accumulator, Puma number) {
+
+				accumulator.add(number);
+
+			}
+
+		}, new BinaryOperator<PumaAccumulator>() {
+
+			public PumaAccumulator apply(PumaAccumulator left,
+					PumaAccumulator right) {
+
+				return left.add(right);
+
+			}
+
+		}, new Function<PumaAccumulator, Puma>() {
+
+			public Puma apply(PumaAccumulator accumulator) {
+
+				return accumulator.sum();
+
+			}
+
+		}, Collector.Characteristics.UNORDERED);
+
+	}
+
+	/**
+	 * Yields a collector that averages the Puma numbers exactly, yielding zero
+	 * if there are none.
+	 * 
+	 * @return the collector.
+	 */
+	public static Collector<Puma, ?, Puma> averaging() {
+
+		return Collector.of(new Supplier<PumaSummaryStatistics>() {
+
+			public PumaSummaryStatistics get() {
+
+				return new PumaSummaryStatistics();
+
+			}
+
+		}, new BiConsumer<PumaSummaryStatistics, Puma>() {
+
+			public void accept(PumaSummaryStatistics statistics, Puma number) {
+
+				statistics.accept(number);
+
+			}
+
+		}, new BinaryOperator<PumaSummaryStatistics>() {
+
+			public PumaSummaryStatistics apply(PumaSummaryStatistics left,
+					PumaSummaryStatistics right) {
+
+				left.combine(right);
+
+				return left;
+
+			}
+
+		}, new Function<PumaSummaryStatistics, Puma>() {
+
+			public Puma apply(PumaSummaryStatistics statistics) {
+
+				return statistics.getAverage();
+
+			}
+
+		}, Collector.Characteristics.UNORDERED);
+
+	}
+
+	/**
+	 * Yields a collector that multiplies the Puma numbers, yielding one if
+	 * there are none.
+	 * 
+	 * @return the collector.
+	 */
+	public static Collector<Puma, ?, Puma> product() {
+
+		return Collector.of(new Supplier<Product>() {
+
+			public Product get() {
+
+				return new Product();
+
+			}
+
+		}, new BiConsumer<Product, Puma>() {
+
+			public void accept(Product product, Puma number) {
+
+				product.multiply(number);
+
+			}
+
+		}, new BinaryOperator<Product>() {
+
+			public Product apply(Product left, Product right) {
+
+				return left.multiply(right);
+
+			}
+
+		}, new Function<Product, Puma>() {
+
+			public Puma apply(Product product) {
+
+				return product.toPuma();
+
+			}
+
+		}, Collector.Characteristics.UNORDERED);
+
+	}
+
+	/**
+	 * Yields a collector that finds the least Puma number, if any.
+	 * 
+	 * @return the collector.
+	 */
+	public static Collector<Puma, ?, Optional<Puma>> min() {
+
+		return Collectors.minBy(Comparator.<Puma> naturalOrder());
+
+	}
+
+	/**
+	 * Yields a collector that finds the greatest Puma number, if any.
+	 * 
+	 * @return the collector.
+	 */
+	public static Collector<Puma, ?, Optional<Puma>> max() {
+
+		return Collectors.maxBy(Comparator.<Puma> naturalOrder());
+
+	}
+
+	/**
+	 * Yields a collector that records the count, sum, minimum, maximum and
+	 * average of the Puma numbers.
+	 * 
+	 * @return the collector.
+	 */
+	public static Collector<Puma, ?, PumaSummaryStatistics> summarizing() {
+
+		return Collector.of(new Supplier<PumaSummaryStatistics>() {
+
+			public PumaSummaryStatistics get() {
+
+				return new PumaSummaryStatistics();
+
+			}
+
+		}, new BiConsumer<PumaSummaryStatistics, Puma>() {
+
+			public void accept(PumaSummaryStatistics statistics, Puma number) {
+
+				statistics.accept(number);
+
+			}
+
+		}, new BinaryOperator<PumaSummaryStatistics>() {
+
+			public PumaSummaryStatistics apply(PumaSummaryStatistics left,
+					PumaSummaryStatistics right) {
+
+				left.combine(right);
+
+				return left;
+
+			}
+
+		}, Collector.Characteristics.IDENTITY_FINISH,
+				Collector.Characteristics.UNORDERED);
+
+	}
+
+	/**
+	 * Represents the mutable product of any number of Puma numbers, kept as an
+	 * unreduced Puma rational that is reduced only when it grows beyond the
+	 * reduction threshold, or as a Puma number once an infinity is multiplied.
+	 */
+	private static final class Product {
+
+		/** The product of the finite numbers. */
+		private PumaRational rational = new PumaRational(BigInteger.ONE,
+				BigInteger.ONE);
+
+		/** The product once an infinity is multiplied, otherwise null. */
+		private Puma infinite;
+
+		/**
+		 * Multiplies the product by the specified Puma number.
+		 * 
+		 * @param number
+		 *            the number.
+		 */
+		void multiply(Puma number) {
+
+			if (infinite != null) {
+
+				infinite = infinite.multiply(number);
+
+			} else if (number.infinite()) {
+
+				infinite = rational.toPuma().multiply(number);
+
+			} else {
+
+				rational = rational.multiply(PumaRational.valueOf(number));
+
+				if (rational.bitLength() > LazyPuma.DEFAULT_REDUCTION_THRESHOLD) {
+
+					rational = rational.reduce();
+
+				}
+
+			}
+
+		}
+
+		/**
+		 * Multiplies the product by the specified product.
+		 * 
+		 * @param product
+		 *            the product.
+		 * @return this product.
+		 */
+		Product multiply(Product product) {
+
+			if (product.infinite != null) {
+
+				multiply(product.infinite);
+
+			} else if (infinite != null) {
+
+				infinite = infinite.multiply(product.rational.toPuma());
+
+			} else {
+
+				rational = rational.multiply(product.rational).reduce();
+
+			}
+
+			return this;
+
+		}
+
+		/**
+		 * Yields the product as a Puma number.
+		 * 
+		 * @return the number.
+		 */
+		Puma toPuma() {
+
+			if (infinite != null) {
+
+				return infinite;
+
+			}
+
+			return rational.toPuma();
+
+		}
+
+	}
+
+}
\ No newline at end of file
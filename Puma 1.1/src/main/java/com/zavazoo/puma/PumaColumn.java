@@ -0,0 +1,193 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents a column of Puma numbers, being the Puma numbers bound to a
+ * single variable of a compiled Puma expression across every row of a batch
+ * evaluation.<br/>
+ * <br/>
+ * A Puma column may be backed by an array of Puma numbers or by an array of
+ * primitives, in which case each primitive is converted to a Puma number only
+ * when its row is evaluated, by whichever thread of the batch evaluation
+ * evaluates the chunk of rows that contains it, such that the conversions are
+ * spread across the threads rather than performed up front. The array is not
+ * copied and must not be modified during a batch evaluation.<br/>
+ * <br/>
+ * Callers may also supply their own source of rows by extending this class.
+ * An extension must yield the same number of rows throughout a batch
+ * evaluation, and must allow {@link #get(int)} to be called concurrently by
+ * several threads, each for different rows.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.CompiledPumaExpression#evaluateBatch(PumaColumn[],
+ *      Puma[])
+ */
+public abstract class PumaColumn {
+
+	/**
+	 * Creates a Puma column.
+	 */
+	protected PumaColumn() {
+
+	}
+
+	/**
+	 * Yields the number of rows of this Puma column.
+	 * 
+	 * @return the number of rows.
+	 */
+	public abstract int size();
+
+	/**
+	 * Yields the Puma number at the specified row of this Puma column. This
+	 * method may be called by any thread of a batch evaluation.
+	 * 
+	 * @param row
+	 *            the row.
+	 * @return the number or null if the row is empty.
+	 */
+	public abstract Puma get(int row);
+
+	/**
+	 * Creates a Puma column backed by the specified array of Puma numbers.
+	 * 
+	 * @param values
+	 *            the numbers.
+	 * @return the column.
+	 */
+	public static PumaColumn valueOf(final Puma[] values) {
+
+		return new PumaColumn() {
+
+			@Override
+			public int size() {
+
+				return values.length;
+
+			}
+
+			@Override
+			public Puma get(int row) {
+
+				return values[row];
+
+			}
+
+		};
+
+	}
+
+	/**
+	 * Creates a Puma column backed by the specified array of longs.
+	 * 
+	 * @param values
+	 *            the longs.
+	 * @return the column.
+	 */
+	public static PumaColumn valueOf(final long[] values) {
+
+		return new PumaColumn() {
+
+			@Override
+			public int size() {
+
+				return values.length;
+
+			}
+
+			@Override
+			public Puma get(int row) {
+
+				return new Puma(BigDecimal.valueOf(values[row]), null);
+
+			}
+
+		};
+
+	}
+
+	/**
+	 * Creates a Puma column backed by the specified array of doubles, where
+	 * each double is converted to a Puma number equal to the exact binary value
+	 * of the double.
+	 * 
+	 * @param values
+	 *            the doubles.
+	 * @return the column.
+	 * @see com.zavazoo.puma.Puma#valueOfExact(double)
+	 */
+	public static PumaColumn valueOfExact(final double[] values) {
+
+		return new PumaColumn() {
+
+			@Override
+			public int size() {
+
+				return values.length;
+
+			}
+
+			@Override
+			public Puma get(int row) {
+
+				return Puma.valueOfExact(values[row]);
+
+			}
+
+		};
+
+	}
+
+	/**
+	 * Creates a Puma column backed by the specified array of doubles, where
+	 * each double is converted to a Puma number equal to the shortest decimal
+	 * that rounds to the double.
+	 * 
+	 * @param values
+	 *            the doubles.
+	 * @return the column.
+	 * @see com.zavazoo.puma.Puma#valueOfDecimal(double)
+	 */
+	public static PumaColumn valueOfDecimal(final double[] values) {
+
+		return new PumaColumn() {
+
+			@Override
+			public int size() {
+
+				return values.length;
+
+			}
+
+			@Override
+			public Puma get(int row) {
+
+				return Puma.valueOfDecimal(values[row]);
+
+			}
+
+		};
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,563 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Represents the configuration under which Puma calculations are performed,
+ * comprising the working precision of roots, the default rounding mode, the
+ * limits upon the size of Puma numbers and expressions, the cache of compiled
+ * Puma expressions, the pool upon which parallel calculations run and the
+ * timeout of each calculation.<br/>
+ * <br/>
+ * A Puma context may be passed explicitly to the operations that accept one,
+ * or entered for the current thread, in which case it applies to every Puma
+ * calculation of the thread until the scope is closed, for example<br/>
+ * <br/>
+ * try (PumaContext.Scope scope = context.enter()) {<br/>
+ * &nbsp;&nbsp;&nbsp;&nbsp;result = new PumaExpression(expression).evaluate();<br/>
+ * }<br/>
+ * <br/>
+ * Any setting that is not specified by the Puma context in force defers to
+ * the default for the whole JVM, therefore different workloads within one JVM
+ * may run with different settings while sharing the defaults.<br/>
+ * <br/>
+ * The Puma context and deadline in force when a parallel calculation is
+ * started, whether by the parallel and batch evaluation of compiled Puma
+ * expressions, the sum of Puma numbers, a Puma calculation graph or a Puma
+ * batch executor, are carried to every thread that takes part in the
+ * calculation, therefore the result does not depend upon which thread
+ * performs each part of the calculation.<br/>
+ * <br/>
+ * Puma contexts are immutable and thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaLimits#setDefault(PumaLimits)
+ * @see com.zavazoo.puma.PumaExpressionCache#setDefault(PumaExpressionCache)
+ */
+public final class PumaContext {
+
+	/**
+	 * The Puma context in force when no other is entered, with a precision of
+	 * 10 decimal places, the half-up rounding mode and every other setting
+	 * deferred to the defaults.
+	 */
+	public static final PumaContext DEFAULT = new PumaContext(10,
+			RoundingMode.HALF_UP, null, null, null, null);
+
+	/** The Puma context entered by the current thread, or null if none. */
+	private static final ThreadLocal<PumaContext> CURRENT = new ThreadLocal<PumaContext>();
+
+	/** The number of decimal places to which roots are calculated. */
+	private final int precision;
+
+	/** The default rounding mode. */
+	private final RoundingMode rounding;
+
+	/** The limits, or null to defer to the default limits. */
+	private final PumaLimits limits;
+
+	/** The expression cache, or null to defer to the default cache. */
+	private final PumaExpressionCache cache;
+
+	/** The pool, or null to defer to the common pool. */
+	private final ForkJoinPool pool;
+
+	/** The timeout of each calculation, or null if none. */
+	private final Duration timeout;
+
+	/**
+	 * Creates a Puma context.
+	 * 
+	 * @param precision
+	 *            the number of decimal places to which roots are calculated.
+	 * @param rounding
+	 *            the default rounding mode.
+	 * @param limits
+	 *            the limits or null.
+	 * @param cache
+	 *            the expression cache or null.
+	 * @param pool
+	 *            the pool or null.
+	 * @param timeout
+	 *            the timeout or null.
+	 */
+	private PumaContext(int precision, RoundingMode rounding,
+			PumaLimits limits, PumaExpressionCache cache, ForkJoinPool pool,
+			Duration timeout) {
+
+		if (precision < 0) {
+
+			throw new IllegalArgumentException("The precision [" + precision
+					+ "] must not be negative");
+
+		}
+
+		if (rounding == null) {
+
+			throw new NullPointerException("The rounding mode must not be null");
+
+		}
+
+		this.precision = precision;
+		this.rounding = rounding;
+		this.limits = limits;
+		this.cache = cache;
+		this.pool = pool;
+		this.timeout = timeout;
+
+	}
+
+	/**
+	 * Yields the Puma context entered by the current thread, or the default
+	 * Puma context if none is entered.
+	 * 
+	 * @return the context.
+	 */
+	public static PumaContext current() {
+
+		PumaContext context = CURRENT.get();
+
+		if (context == null) {
+
+			return DEFAULT;
+
+		}
+
+		return context;
+
+	}
+
+	/**
+	 * Yields the limits in force for the current thread, being the limits of
+	 * the Puma context entered by the thread if it specifies any, otherwise
+	 * the default limits.
+	 * 
+	 * @return the limits, or null if there are no limits.
+	 */
+	static PumaLimits limits() {
+
+		PumaContext context = CURRENT.get();
+
+		if (context != null && context.limits != null) {
+
+			return context.limits;
+
+		}
+
+		return PumaLimits.getDefault();
+
+	}
+
+	/**
+	 * Yields the expression cache in force for the current thread, being the
+	 * cache of the Puma context entered by the thread if it specifies one,
+	 * otherwise the default cache.
+	 * 
+	 * @return the cache, or null if there is no cache.
+	 */
+	static PumaExpressionCache cache() {
+
+		PumaContext context = CURRENT.get();
+
+		if (context != null && context.cache != null) {
+
+			return context.cache;
+
+		}
+
+		return PumaExpressionCache.getDefault();
+
+	}
+
+	/**
+	 * Enters this Puma context for the current thread until the scope yielded
+	 * is closed, whereupon the Puma context previously in force is restored.
+	 * Scopes must be closed by the thread that entered them, in the reverse of
+	 * the order in which they were entered.
+	 * 
+	 * @return the scope.
+	 */
+	public Scope enter() {
+
+		PumaContext previous = CURRENT.get();
+
+		PumaDeadline previousDeadline = null;
+
+		if (timeout != null) {
+
+			previousDeadline = PumaDeadline.begin(timeout);
+
+		}
+
+		CURRENT.set(this);
+
+		return new Scope(previous, previousDeadline, timeout != null);
+
+	}
+
+	/**
+	 * Captures the Puma context and deadline in force for the current thread,
+	 * to be entered by the threads that perform parts of a parallel
+	 * calculation started by the current thread.
+	 * 
+	 * @return the captured context.
+	 */
+	static Captured capture() {
+
+		return new Captured(CURRENT.get(), PumaDeadline.current());
+
+	}
+
+	/**
+	 * Yields a task that performs the specified task within the Puma context
+	 * and deadline in force for the current thread, whichever thread performs
+	 * it.
+	 * 
+	 * @param task
+	 *            the task.
+	 * @return the task within the captured context.
+	 */
+	static <V> Callable<V> capture(final Callable<V> task) {
+
+		final Captured captured = capture();
+
+		return new Callable<V>() {
+
+			public V call() throws Exception {
+
+				Scope scope = captured.enter();
+
+				try {
+
+					return task.call();
+
+				} finally {
+
+					scope.close();
+
+				}
+
+			}
+
+		};
+
+	}
+
+	/**
+	 * Yields a Puma context equal to this context but with the specified
+	 * number of decimal places to which roots are calculated.
+	 * 
+	 * @param precision
+	 *            the number of decimal places.
+	 * @return the context.
+	 */
+	public PumaContext withPrecision(int precision) {
+
+		return new PumaContext(precision, rounding, limits, cache, pool,
+				timeout);
+
+	}
+
+	/**
+	 * Yields a Puma context equal to this context but with the specified
+	 * default rounding mode.
+	 * 
+	 * @param rounding
+	 *            the rounding mode.
+	 * @return the context.
+	 */
+	public PumaContext withRounding(RoundingMode rounding) {
+
+		return new PumaContext(precision, rounding, limits, cache, pool,
+				timeout);
+
+	}
+
+	/**
+	 * Yields a Puma context equal to this context but with the specified
+	 * limits.
+	 * 
+	 * @param limits
+	 *            the limits or null to defer to the default limits.
+	 * @return the context.
+	 */
+	public PumaContext withLimits(PumaLimits limits) {
+
+		return new PumaContext(precision, rounding, limits, cache, pool,
+				timeout);
+
+	}
+
+	/**
+	 * Yields a Puma context equal to this context but with the specified
+	 * expression cache.
+	 * 
+	 * @param cache
+	 *            the cache or null to defer to the default cache.
+	 * @return the context.
+	 */
+	public PumaContext withCache(PumaExpressionCache cache) {
+
+		return new PumaContext(precision, rounding, limits, cache, pool,
+				timeout);
+
+	}
+
+	/**
+	 * Yields a Puma context equal to this context but with the specified pool
+	 * upon which parallel calculations run.
+	 * 
+	 * @param pool
+	 *            the pool or null to defer to the common pool.
+	 * @return the context.
+	 */
+	public PumaContext withPool(ForkJoinPool pool) {
+
+		return new PumaContext(precision, rounding, limits, cache, pool,
+				timeout);
+
+	}
+
+	/**
+	 * Yields a Puma context equal to this context but with the specified
+	 * timeout of each calculation performed within a scope of the context.
+	 * 
+	 * @param timeout
+	 *            the timeout or null if none.
+	 * @return the context.
+	 */
+	public PumaContext withTimeout(Duration timeout) {
+
+		return new PumaContext(precision, rounding, limits, cache, pool,
+				timeout);
+
+	}
+
+	/**
+	 * Gets the number of decimal places to which roots are calculated.
+	 * 
+	 * @return the precision.
+	 */
+	public int getPrecision() {
+
+		return precision;
+
+	}
+
+	/**
+	 * Gets the default rounding mode.
+	 * 
+	 * @return the rounding mode.
+	 */
+	public RoundingMode getRounding() {
+
+		return rounding;
+
+	}
+
+	/**
+	 * Gets the limits, or null if this Puma context defers to the default
+	 * limits.
+	 * 
+	 * @return the limits.
+	 */
+	public PumaLimits getLimits() {
+
+		return limits;
+
+	}
+
+	/**
+	 * Gets the expression cache, or null if this Puma context defers to the
+	 * default cache.
+	 * 
+	 * @return the cache.
+	 */
+	public PumaExpressionCache getCache() {
+
+		return cache;
+
+	}
+
+	/**
+	 * Gets the pool upon which parallel calculations run, being the common
+	 * pool unless this Puma context specifies another.
+	 * 
+	 * @return the pool.
+	 */
+	public ForkJoinPool getPool() {
+
+		if (pool == null) {
+
+			return ForkJoinPool.commonPool();
+
+		}
+
+		return pool;
+
+	}
+
+	/**
+	 * Gets the timeout of each calculation performed within a scope of this
+	 * Puma context, or null if none.
+	 * 
+	 * @return the timeout.
+	 */
+	public Duration getTimeout() {
+
+		return timeout;
+
+	}
+
+	/**
+	 * Represents the period for which a Puma context is entered by a thread.
+	 */
+	public static final class Scope implements AutoCloseable {
+
+		/** The context previously entered, or null. */
+		private final PumaContext previous;
+
+		/** The deadline previously in force, or null. */
+		private final PumaDeadline previousDeadline;
+
+		/** Indicates whether the scope installed a deadline. */
+		private final boolean deadline;
+
+		/** Indicates whether the scope has been closed. */
+		private boolean closed;
+
+		/**
+		 * Creates a scope.
+		 * 
+		 * @param previous
+		 *            the context previously entered, or null.
+		 * @param previousDeadline
+		 *            the deadline previously in force, or null.
+		 * @param deadline
+		 *            whether the scope installed a deadline.
+		 */
+		private Scope(PumaContext previous, PumaDeadline previousDeadline,
+				boolean deadline) {
+
+			this.previous = previous;
+			this.previousDeadline = previousDeadline;
+			this.deadline = deadline;
+
+		}
+
+		/**
+		 * Closes this scope, restoring the Puma context previously in force.
+		 * Closing a scope more than once has no further effect.
+		 */
+		public void close() {
+
+			if (closed) {
+
+				return;
+
+			}
+
+			closed = true;
+
+			if (previous == null) {
+
+				CURRENT.remove();
+
+			} else {
+
+				CURRENT.set(previous);
+
+			}
+
+			if (deadline) {
+
+				PumaDeadline.end(previousDeadline);
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Represents the Puma context and deadline in force for a thread when a
+	 * parallel calculation was started, which every part of the calculation
+	 * enters whichever thread performs it.
+	 */
+	static final class Captured {
+
+		/** The context, or null if none was entered. */
+		private final PumaContext context;
+
+		/** The deadline, or null if none. */
+		private final PumaDeadline deadline;
+
+		/**
+		 * Creates a captured context.
+		 * 
+		 * @param context
+		 *            the context, or null.
+		 * @param deadline
+		 *            the deadline, or null.
+		 */
+		private Captured(PumaContext context, PumaDeadline deadline) {
+
+			this.context = context;
+			this.deadline = deadline;
+
+		}
+
+		/**
+		 * Enters the captured context and deadline for the current thread
+		 * until the scope yielded is closed.
+		 * 
+		 * @return the scope.
+		 */
+		Scope enter() {
+
+			PumaContext previous = CURRENT.get();
+
+			if (context == null) {
+
+				CURRENT.remove();
+
+			} else {
+
+				CURRENT.set(context);
+
+			}
+
+			PumaDeadline previousDeadline = PumaDeadline.current();
+
+			PumaDeadline.end(deadline);
+
+			return new Scope(previous, previousDeadline, true);
+
+		}
+
+	}
+
+}
\ No newline at end of file
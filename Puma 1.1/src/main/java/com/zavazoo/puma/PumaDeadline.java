@@ -0,0 +1,166 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.time.Duration;
+
+/**
+ * Represents the deadline by which the calculations of the current thread
+ * must complete, which long-running loops check together with the interrupted
+ * status of the thread at each iteration.<br/>
+ * <br/>
+ * A deadline is installed for the current thread for the duration of a call
+ * that accepts a timeout, such that the operations nested within the call,
+ * including those applied by Puma expressions, observe the same deadline
+ * without it being passed to each of them.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.CalculationInterruptedException
+ */
+final class PumaDeadline {
+
+	/** The deadline of the current thread, or null if none. */
+	private static final ThreadLocal<PumaDeadline> CURRENT = new ThreadLocal<PumaDeadline>();
+
+	/** The value of the system nanosecond timer at the deadline. */
+	private final long nanos;
+
+	/**
+	 * Creates a Puma deadline at the specified value of the system nanosecond
+	 * timer.
+	 * 
+	 * @param nanos
+	 *            the value of the timer.
+	 */
+	private PumaDeadline(long nanos) {
+
+		this.nanos = nanos;
+
+	}
+
+	/**
+	 * Installs a deadline for the current thread after the specified timeout,
+	 * unless the current deadline is sooner, and yields the current deadline
+	 * to be restored once the call that accepted the timeout completes.
+	 * 
+	 * @param timeout
+	 *            the timeout.
+	 * @return the current deadline, or null if none.
+	 * @see #end(PumaDeadline)
+	 */
+	static PumaDeadline begin(Duration timeout) {
+
+		PumaDeadline current = CURRENT.get();
+
+		long now = System.nanoTime();
+
+		long timeoutNanos;
+
+		try {
+
+			timeoutNanos = timeout.toNanos();
+
+		} catch (ArithmeticException overflow) {
+
+			// saturate a timeout too long or too short to express in nanos
+			timeoutNanos = timeout.isNegative() ? 0 : Long.MAX_VALUE;
+
+		}
+
+		if (timeoutNanos < 0) {
+
+			// a timeout that has already elapsed is due now
+			timeoutNanos = 0;
+
+		}
+
+		long nanos = now + timeoutNanos;
+
+		if (current == null || nanos - current.nanos < 0) {
+
+			CURRENT.set(new PumaDeadline(nanos));
+
+		}
+
+		return current;
+
+	}
+
+	/**
+	 * Yields the deadline of the current thread.
+	 * 
+	 * @return the deadline, or null if none.
+	 */
+	static PumaDeadline current() {
+
+		return CURRENT.get();
+
+	}
+
+	/**
+	 * Restores the specified deadline for the current thread.
+	 * 
+	 * @param previous
+	 *            the deadline yielded by {@link #begin(Duration)}.
+	 */
+	static void end(PumaDeadline previous) {
+
+		if (previous == null) {
+
+			CURRENT.remove();
+
+		} else {
+
+			CURRENT.set(previous);
+
+		}
+
+	}
+
+	/**
+	 * Asserts that the current thread has not been interrupted and that its
+	 * deadline, if any, has not passed.
+	 * 
+	 * @param partialResult
+	 *            the estimate reached so far, or null.
+	 * @exception CalculationInterruptedException
+	 *                if the thread was interrupted or the deadline passed.
+	 */
+	static void check(Puma partialResult)
+			throws CalculationInterruptedException {
+
+		if (Thread.currentThread().isInterrupted()) {
+
+			throw new CalculationInterruptedException(partialResult, false);
+
+		}
+
+		PumaDeadline deadline = CURRENT.get();
+
+		if (deadline != null && System.nanoTime() - deadline.nanos >= 0) {
+
+			throw new CalculationInterruptedException(partialResult, true);
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -18,6 +18,8 @@
 
 package com.zavazoo.puma;
 
+import java.time.Duration;
+
 /**
  * Represents a Puma expression that constitutes an algebraic expression
  * comprised of Puma numbers and various operational syntax.<br/>
@@ -54,7 +56,11 @@ package com.zavazoo.puma;
  * 9 ^ (1/2)<br/>
  * 9 ^ 0.5<br/>
  * 11 % 5<br/>
- * 11 % 5.5
+ * 11 % 5.5<br/>
+ * <br/>
+ * Puma expressions that are evaluated repeatedly, perhaps with different Puma
+ * numbers, may be compiled once into a compiled Puma expression that
+ * comprises named variables in place of those Puma numbers.
  * 
  * @author Chris White <chriswhitelondon@gmail.com>
  * @since JDK6
@@ -65,6 +71,8 @@ package com.zavazoo.puma;
  * @see com.zavazoo.puma.Puma#divide(Puma)
  * @see com.zavazoo.puma.Puma#power(Puma)
  * @see com.zavazoo.puma.Puma#modulus(Puma)
+ * @see com.zavazoo.puma.CompiledPumaExpression
+ * @see com.zavazoo.puma.PumaExpressionCache
  */
 public class PumaExpression {
 
@@ -86,7 +94,10 @@ public class PumaExpression {
 
 	/**
 	 * Evaluates this Puma expression and yields a Puma number that encapsulates
-	 * the result.
+	 * the result.<br/>
+	 * The compiled form of this Puma expression is retrieved from the Puma
+	 * expression cache of the current Puma context, or from the default Puma
+	 * expression cache if a default cache has been installed.
 	 * 
 	 * @return the result.
 	 * @exception NumberFormatException
@@ -94,441 +105,245 @@ public class PumaExpression {
 	 *                representation of a Puma number that is not valid.
 	 * @exception InvalidExpressionException
 	 *                if the specified Puma expression is not valid.
+	 * @exception PumaLimitExceededException
+	 *                if the length or depth of this Puma expression exceeds
+	 *                the limits of the current Puma context.
 	 */
 	public Puma evaluate() throws NumberFormatException,
 			InvalidExpressionException {
 
-		return evaluateRecursively(expression);
-
-	}
-
-	/**
-	 * Recursively evaluates the specified Puma expression, in respect of any
-	 * subsidiary expressions enclosed in brackets, and yields a Puma number
-	 * that encapsulates the result.
-	 * 
-	 * @param expression
-	 *            the expression.
-	 * @return the result.
-	 * @exception NumberFormatException
-	 *                if the specified Puma expression comprises a
-	 *                representation of a Puma number that is not valid.
-	 * @exception InvalidExpressionException
-	 *                if the specified Puma expression is not valid.
-	 */
-	private Puma evaluateRecursively(String expression)
-			throws NumberFormatException, InvalidExpressionException {
-
-		Puma result = null;
-
-		boolean add = false;
-		boolean subtract = false;
-		boolean multiply = false;
-		boolean divide = false;
-		boolean exponent = false;
-		boolean modulus = false;
-
-		char[] characters = expression.toCharArray();
-
-		characters = reduceCharacterArrayCapacityAtStart(characters, ' ');
-		characters = reduceCharacterArrayCapacity(characters, ' ');
-
-		int charactersLength = characters.length;
-		int charactersLastIndex = charactersLength - 1;
-
-		evaluateExpression: for (int index = 0; index < charactersLength; index++) {
-
-			char character = characters[index];
-
-			if (character == ' ') {
-
-				// ignore all spaces in the expression
-
-			} else if (character == '(') {
-
-				int brackets = 1;
-
-				StringBuilder subExpression = new StringBuilder();
-
-				for (index++; index < charactersLength; index++) {
-
-					character = characters[index];
-
-					if (character == '(') {
-
-						brackets++;
-
-					} else if (character == ')') {
-
-						brackets--;
-
-					}
-
-					if (brackets == 0) {
-
-						String subExpressionCharacters = subExpression
-								.toString();
-
-						Puma subResult = evaluateRecursively(subExpressionCharacters);
-
-						if (add) {
-
-							result = result.add(subResult);
-
-							add = false;
-
-						} else if (subtract) {
-
-							result = result.subtract(subResult);
-
-							subtract = false;
-
-						} else if (multiply) {
-
-							result = result.multiply(subResult);
-
-							multiply = false;
-
-						} else if (divide) {
-
-							result = result.divide(subResult);
-
-							divide = false;
-
-						} else if (exponent) {
-
-							result = result.power(subResult);
+		PumaExpressionCache cache = PumaContext.cache();
 
-							exponent = false;
+		if (cache == null) {
 
-						} else if (modulus) {
+			return new PumaExpressionParser(expression, false).parse()
+					.evaluate();
 
-							result = result.modulus(subResult);
-
-							modulus = false;
-
-						} else {
-
-							result = subResult;
-
-						}
-
-						continue evaluateExpression;
-
-					} else {
-
-						subExpression.append(character);
-
-					}
-
-				}
-
-				throw new InvalidExpressionException(
-						"The specified expression contains mismatched brackets: "
-								+ expression, expression);
-
-			} else if (Character.isDigit(character) || character == '-') {
-
-				if (character == '-') {
-
-					if (index == charactersLastIndex) {
-
-						throw new InvalidExpressionException(
-								"The specified expression contains an invalid minus symbol as the last character: "
-										+ expression, expression);
-
-					}
-
-					if (index == 0 || add || subtract || multiply || divide
-							|| exponent || modulus) {
-
-						char nextCharacter = characters[index + 1];
-
-						if (!Character.isDigit(nextCharacter)) {
-
-							throw new InvalidExpressionException(
-									"The specified expression contains an invalid minus symbol at position ["
-											+ index + "]: " + expression,
-									expression);
-
-						}
-
-					} else {
-
-						subtract = true;
-
-						continue evaluateExpression;
-
-					}
-
-				}
-
-				char[] numberCharacters = new char[] { character };
-
-				groupNumber: while (index < charactersLastIndex) {
-
-					// group any further digits that comprise the number
-
-					int nextIndex = index + 1;
-
-					char nextCharacter = characters[nextIndex];
-
-					if (Character.isDigit(nextCharacter)
-							|| nextCharacter == '.') {
-
-						numberCharacters = incrementCharacterArrayCapacity(numberCharacters);
-
-						numberCharacters[numberCharacters.length - 1] = nextCharacter;
-
-						index = nextIndex;
-
-					} else {
-
-						break groupNumber;
-
-					}
-
-				}
-
-				if (add) {
-
-					Puma number = new Puma(numberCharacters);
-
-					result = result.add(number);
-
-					add = false;
-
-				} else if (subtract) {
-
-					Puma number = new Puma(numberCharacters);
-
-					result = result.subtract(number);
-
-					subtract = false;
-
-				} else if (multiply) {
-
-					Puma number = new Puma(numberCharacters);
-
-					result = result.multiply(number);
-
-					multiply = false;
+		}
 
-				} else if (divide) {
+		// the expression may have been compiled under other limits, so it is
+		// checked against the limits in force
 
-					Puma number = new Puma(numberCharacters);
+		PumaLimits limits = PumaContext.limits();
 
-					result = result.divide(number);
+		if (limits != null) {
 
-					divide = false;
+			limits.checkExpressionLength(expression.length());
 
-				} else if (exponent) {
+		}
 
-					Puma number = new Puma(numberCharacters);
+		CompiledPumaExpression compiled = cache.get(expression);
 
-					result = result.power(number);
+		if (limits != null) {
 
-					exponent = false;
+			limits.checkExpressionDepth(compiled.getDepth());
 
-				} else if (modulus) {
+		}
 
-					Puma number = new Puma(numberCharacters);
+		if (compiled.getVariableCount() > 0) {
 
-					result = result.modulus(number);
+			throw new InvalidExpressionException(
+					"The specified expression contains variables: "
+							+ expression, expression);
 
-					modulus = false;
+		}
 
-				} else {
+		return compiled.evaluate();
 
-					result = new Puma(numberCharacters);
+	}
 
-				}
+	/**
+	 * Evaluates this Puma expression and yields a Puma number that encapsulates
+	 * the result, abandoning the evaluation if it does not complete within the
+	 * specified timeout.
+	 * 
+	 * @param timeout
+	 *            the timeout.
+	 * @return the result.
+	 * @exception NumberFormatException
+	 *                if the specified Puma expression comprises a
+	 *                representation of a Puma number that is not valid.
+	 * @exception InvalidExpressionException
+	 *                if the specified Puma expression is not valid.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout elapses or the current thread is
+	 *                interrupted, carrying the result of the last operation
+	 *                that completed.
+	 */
+	public Puma evaluate(Duration timeout) throws NumberFormatException,
+			InvalidExpressionException, CalculationInterruptedException {
 
-			} else if (character == '+') {
+		PumaDeadline previous = PumaDeadline.begin(timeout);
 
-				add = true;
+		try {
 
-			} else if (character == '*') {
+			return evaluate();
 
-				multiply = true;
+		} finally {
 
-			} else if (character == '/') {
+			PumaDeadline.end(previous);
 
-				divide = true;
+		}
 
-			} else if (character == '^') {
+	}
 
-				exponent = true;
+	/**
+	 * Evaluates this Puma expression within the specified Puma context and
+	 * yields a Puma number that encapsulates the result.<br/>
+	 * The evaluation observes the precision, limits, expression cache and
+	 * timeout of the Puma context.
+	 * 
+	 * @param context
+	 *            the context.
+	 * @return the result.
+	 * @exception NumberFormatException
+	 *                if the specified Puma expression comprises a
+	 *                representation of a Puma number that is not valid.
+	 * @exception InvalidExpressionException
+	 *                if the specified Puma expression is not valid.
+	 * @exception CalculationInterruptedException
+	 *                if the timeout of the context elapses or the current
+	 *                thread is interrupted, carrying the result of the last
+	 *                operation that completed.
+	 */
+	public Puma evaluate(PumaContext context) throws NumberFormatException,
+			InvalidExpressionException, CalculationInterruptedException {
 
-			} else if (character == '%') {
+		PumaContext.Scope scope = context.enter();
 
-				modulus = true;
+		try {
 
-			} else {
+			return evaluate();
 
-				throw new InvalidExpressionException(
-						"The specified expression contains an invalid character at position ["
-								+ index + "]: " + expression, expression);
+		} finally {
 
-			}
+			scope.close();
 
 		}
 
-		return result;
-
 	}
 
 	/**
-	 * Yields a string representation of this Puma expression.
+	 * Compiles the specified text of a valid Puma expression, which may
+	 * comprise variables in place of Puma numbers, into a compiled Puma
+	 * expression that may be evaluated any number of times without parsing the
+	 * expression again. Every Puma number within the expression is parsed
+	 * exactly once upon compilation.<br/>
+	 * <br/>
+	 * Example of a valid Puma expression that comprises variables:<br/>
+	 * <br/>
+	 * ((((I * 1.1) - I) / 3) / S) * s
 	 * 
-	 * @return the representation.
+	 * @param expression
+	 *            the expression.
+	 * @return the compiled expression.
+	 * @exception NumberFormatException
+	 *                if the specified Puma expression comprises a
+	 *                representation of a Puma number that is not valid.
+	 * @exception InvalidExpressionException
+	 *                if the specified Puma expression is not valid.
+	 * @see com.zavazoo.puma.CompiledPumaExpression
 	 */
-	@Override
-	public String toString() {
+	public static CompiledPumaExpression compile(String expression)
+			throws NumberFormatException, InvalidExpressionException {
 
-		return expression;
+		return new PumaExpressionParser(expression, true).parse();
 
 	}
 
 	/**
-	 * Extends the capacity of the specified array of characters by one at the
-	 * end of the array.
+	 * Compiles the specified text of a valid Puma expression, which may
+	 * comprise variables in place of Puma numbers, into a compiled Puma
+	 * expression that is executed by the specified backend where possible.
 	 * 
-	 * @param characters
-	 *            the characters.
-	 * @return the extended array.
+	 * @param expression
+	 *            the expression.
+	 * @param backend
+	 *            the backend.
+	 * @return the compiled expression.
+	 * @exception NumberFormatException
+	 *                if the specified Puma expression comprises a
+	 *                representation of a Puma number that is not valid.
+	 * @exception InvalidExpressionException
+	 *                if the specified Puma expression is not valid.
+	 * @see #compile(String)
+	 * @see com.zavazoo.puma.PumaExpressionBackend
 	 */
-	private static char[] incrementCharacterArrayCapacity(char[] characters) {
-
-		int length = characters.length;
-
-		char[] extended = new char[length + 1];
-
-		for (int index = 0; index < length; index++) {
-
-			extended[index] = characters[index];
-
-		}
+	public static CompiledPumaExpression compile(String expression,
+			PumaExpressionBackend backend) throws NumberFormatException,
+			InvalidExpressionException {
 
-		return extended;
+		return compile(expression).withBackend(backend);
 
 	}
 
 	/**
-	 * Pseudo-iteratively decrements the capacity of the specified array of
-	 * characters at the end of the array while the last character in the array
-	 * is equal to the specified character.
-	 * 
-	 * @param characters
-	 *            the characters.
-	 * @param character
-	 *            the character.
-	 * @return the reduced array.
+	 * Compiles the specified texts of valid Puma expressions, which may
+	 * comprise variables in place of Puma numbers, into a Puma expression plan
+	 * that evaluates every Puma expression together such that any
+	 * sub-expression common to several of the Puma expressions is evaluated
+	 * only once per evaluation of the plan.
+	 *
+	 * @param expressions
+	 *            the expressions.
+	 * @return the plan.
+	 * @exception NumberFormatException
+	 *                if any specified Puma expression comprises a
+	 *                representation of a Puma number that is not valid.
+	 * @exception InvalidExpressionException
+	 *                if any specified Puma expression is not valid.
+	 * @exception IllegalArgumentException
+	 *                if no expressions are specified.
+	 * @see com.zavazoo.puma.PumaExpressionPlan
 	 */
-	private static char[] reduceCharacterArrayCapacity(char[] characters,
-			char character) {
-
-		int charactersLength = characters.length;
-
-		int reducedLength = -1;
-
-		locateCharacters: for (int index = charactersLength - 1; index > -1; index--) {
-
-			char lastCharacter = characters[index];
-
-			if (lastCharacter == character) {
-
-				reducedLength = index;
-
-			} else {
-
-				break locateCharacters;
-
-			}
+	public static PumaExpressionPlan plan(String... expressions)
+			throws NumberFormatException, InvalidExpressionException,
+			IllegalArgumentException {
 
-		}
-
-		if (reducedLength == -1) {
+		int expressionsLength = expressions.length;
 
-			return characters;
-
-		}
+		CompiledPumaExpression[] compiled = new CompiledPumaExpression[expressionsLength];
 
-		if (reducedLength == 0) {
+		for (int index = 0; index < expressionsLength; index++) {
 
-			return new char[0];
+			compiled[index] = compile(expressions[index]);
 
 		}
 
-		char[] reduced = new char[reducedLength];
+		return new PumaExpressionPlan(compiled);
 
-		for (int index = 0; index < reducedLength; index++) {
-
-			reduced[index] = characters[index];
+	}
 
-		}
+	/**
+	 * Merges the specified compiled Puma expressions into a Puma expression
+	 * plan that evaluates every compiled Puma expression together such that
+	 * any sub-expression common to several of the compiled Puma expressions
+	 * is evaluated only once per evaluation of the plan.
+	 *
+	 * @param expressions
+	 *            the compiled expressions.
+	 * @return the plan.
+	 * @exception IllegalArgumentException
+	 *                if no compiled expressions are specified.
+	 * @see com.zavazoo.puma.PumaExpressionPlan
+	 */
+	public static PumaExpressionPlan plan(
+			CompiledPumaExpression... expressions)
+			throws IllegalArgumentException {
 
-		return reduced;
+		return new PumaExpressionPlan(expressions);
 
 	}
 
 	/**
-	 * Pseudo-iteratively decrements the capacity of the specified array of
-	 * characters at the beginning of the array while the first character in the
-	 * array is equal to the specified character.
+	 * Yields a string representation of this Puma expression.
 	 * 
-	 * @param characters
-	 *            the characters.
-	 * @param character
-	 *            the character.
-	 * @return the reduced array.
+	 * @return the representation.
 	 */
-	private static char[] reduceCharacterArrayCapacityAtStart(
-			char[] characters, char character) {
-
-		int charactersLength = characters.length;
-
-		int reducedOffset = 0;
-
-		locateCharacters: for (int index = 0; index < charactersLength; index++) {
-
-			char firstCharacter = characters[index];
-
-			if (firstCharacter == character) {
-
-				reducedOffset = index + 1;
-
-			} else {
-
-				break locateCharacters;
-
-			}
-
-		}
-
-		if (reducedOffset == 0) {
-
-			return characters;
-
-		}
-
-		if (reducedOffset == charactersLength) {
-
-			return new char[0];
-
-		}
-
-		int reducedLength = charactersLength - reducedOffset;
-
-		char[] reduced = new char[reducedLength];
-
-		for (int reducedIndex = 0, charactersIndex = reducedOffset; reducedIndex < reducedLength; reducedIndex++, charactersIndex++) {
-
-			reduced[reducedIndex] = characters[charactersIndex];
-
-		}
+	@Override
+	public String toString() {
 
-		return reduced;
+		return expression;
 
 	}
 
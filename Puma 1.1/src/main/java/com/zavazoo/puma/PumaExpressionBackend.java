@@ -0,0 +1,51 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+/**
+ * Enumerates the means by which a compiled Puma expression may be executed.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaExpression#compile(String, PumaExpressionBackend)
+ */
+public enum PumaExpressionBackend {
+
+	/**
+	 * Executes the instructions of the compiled Puma expression one at a time
+	 * in a loop, which is suitable for any compiled Puma expression and
+	 * requires no further compilation.
+	 */
+	INTERPRETER,
+
+	/**
+	 * Executes the compiled Puma expression as a single method handle that
+	 * invokes the Puma operations in a straight line rather than dispatching
+	 * each instruction in a loop. Compiled Puma expressions that are too large
+	 * to be represented as a method handle are executed by the interpreter,
+	 * and the results of both backends are always identical.<br/>
+	 * The method handle is held by the compiled Puma expression rather than
+	 * bound to a constant call site, therefore the JIT compiler does not
+	 * inline the Puma operations across the expression, and since the cost of
+	 * the Puma operations far exceeds the cost of dispatching them, this
+	 * backend performs much as the interpreter does.
+	 */
+	METHOD_HANDLE
+
+}
\ No newline at end of file
@@ -0,0 +1,358 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches compiled Puma expressions keyed by the text of each Puma expression,
+ * such that a Puma expression that is evaluated repeatedly is parsed only
+ * once while it remains in the cache.<br/>
+ * <br/>
+ * The number of compiled Puma expressions held by the cache is bounded by a
+ * maximum size, beyond which the least recently used Puma expressions are
+ * evicted as approximated by the clock algorithm: each cached Puma expression
+ * is marked whenever it is retrieved and the eviction hand passes over marked
+ * Puma expressions once, clearing the mark, before evicting any unmarked Puma
+ * expression. Retrieval therefore never contends for a lock.<br/>
+ * <br/>
+ * A Puma expression cache may be installed as the default cache, in which case
+ * every Puma expression evaluated by {@link PumaExpression#evaluate()},
+ * including any Puma expression specified when creating a Puma number, is
+ * retrieved from the default cache. There is no default cache unless one is
+ * installed.<br/>
+ * <br/>
+ * Puma expression caches are thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaExpression#compile(String)
+ */
+public final class PumaExpressionCache {
+
+	/** The default cache, or null if there is no default cache. */
+	private static volatile PumaExpressionCache defaultCache;
+
+	/** The maximum number of compiled Puma expressions. */
+	private final int maximumSize;
+
+	/** The cached entries keyed by expression. */
+	private final ConcurrentHashMap<String, Entry> entries;
+
+	/** The cached entries in order of the eviction hand. */
+	private final Queue<Entry> clock = new ConcurrentLinkedQueue<Entry>();
+
+	/** The lock held whilst evicting entries. */
+	private final Object evictionLock = new Object();
+
+	/** The number of retrievals that found a cached expression. */
+	private final LongAdder hits = new LongAdder();
+
+	/** The number of retrievals that compiled an expression. */
+	private final LongAdder misses = new LongAdder();
+
+	/** The number of evicted expressions. */
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Creates a Puma expression cache that holds no more than the specified
+	 * number of compiled Puma expressions.
+	 * 
+	 * @param maximumSize
+	 *            the maximum number of compiled expressions.
+	 * @exception IllegalArgumentException
+	 *                if the maximum size is not positive.
+	 */
+	public PumaExpressionCache(int maximumSize)
+			throws IllegalArgumentException {
+
+		if (maximumSize < 1) {
+
+			throw new IllegalArgumentException(
+					"The maximum size of a Puma expression cache must be positive: "
+							+ maximumSize);
+
+		}
+
+		this.maximumSize = maximumSize;
+
+		entries = new ConcurrentHashMap<String, Entry>(Math.min(maximumSize,
+				1 << 16) * 4 / 3 + 1);
+
+	}
+
+	/**
+	 * Yields the compiled Puma expression for the specified text of a valid
+	 * Puma expression, compiling the Puma expression only if it is not already
+	 * cached.
+	 * 
+	 * @param expression
+	 *            the expression.
+	 * @return the compiled expression.
+	 * @exception NumberFormatException
+	 *                if the specified Puma expression comprises a
+	 *                representation of a Puma number that is not valid.
+	 * @exception InvalidExpressionException
+	 *                if the specified Puma expression is not valid.
+	 * @see com.zavazoo.puma.PumaExpression#compile(String)
+	 */
+	public CompiledPumaExpression get(String expression)
+			throws NumberFormatException, InvalidExpressionException {
+
+		Entry entry = entries.get(expression);
+
+		if (entry != null) {
+
+			entry.reference();
+
+			hits.increment();
+
+			return entry.compiled;
+
+		}
+
+		misses.increment();
+
+		// compile outside of any lock, if two threads compile the same
+		// expression concurrently then the first to be cached is retained
+
+		Entry compiled = new Entry(expression, PumaExpression
+				.compile(expression));
+
+		entry = entries.putIfAbsent(expression, compiled);
+
+		if (entry != null) {
+
+			entry.reference();
+
+			return entry.compiled;
+
+		}
+
+		clock.offer(compiled);
+
+		if (entries.size() > maximumSize) {
+
+			evict();
+
+		}
+
+		return compiled.compiled;
+
+	}
+
+	/**
+	 * Removes all of the compiled Puma expressions from this cache, without
+	 * resetting the statistics.
+	 */
+	public void clear() {
+
+		synchronized (evictionLock) {
+
+			entries.clear();
+			clock.clear();
+
+		}
+
+	}
+
+	/**
+	 * Yields the number of compiled Puma expressions currently cached.
+	 * 
+	 * @return the size.
+	 */
+	public int size() {
+
+		return entries.size();
+
+	}
+
+	/**
+	 * Gets the maximum number of compiled Puma expressions.
+	 * 
+	 * @return the maximum size.
+	 */
+	public int getMaximumSize() {
+
+		return maximumSize;
+
+	}
+
+	/**
+	 * Yields the number of retrievals that found the compiled Puma expression
+	 * already cached.
+	 * 
+	 * @return the hit count.
+	 */
+	public long getHitCount() {
+
+		return hits.sum();
+
+	}
+
+	/**
+	 * Yields the number of retrievals that compiled the Puma expression.
+	 * 
+	 * @return the miss count.
+	 */
+	public long getMissCount() {
+
+		return misses.sum();
+
+	}
+
+	/**
+	 * Yields the number of compiled Puma expressions that have been evicted.
+	 * 
+	 * @return the eviction count.
+	 */
+	public long getEvictionCount() {
+
+		return evictions.sum();
+
+	}
+
+	/**
+	 * Yields a string representation of the statistics of this cache.
+	 * 
+	 * @return the representation.
+	 */
+	@Override
+	public String toString() {
+
+		return "PumaExpressionCache[size=" + size() + ", maximumSize="
+				+ maximumSize + ", hits=" + getHitCount() + ", misses="
+				+ getMissCount() + ", evictions=" + getEvictionCount() + "]";
+
+	}
+
+	/**
+	 * Gets the default cache.
+	 * 
+	 * @return the default cache or null if there is no default cache.
+	 */
+	public static PumaExpressionCache getDefault() {
+
+		return defaultCache;
+
+	}
+
+	/**
+	 * Installs the specified cache as the default cache used whenever a Puma
+	 * expression is evaluated.
+	 * 
+	 * @param cache
+	 *            the default cache or null to remove the default cache.
+	 */
+	public static void setDefault(PumaExpressionCache cache) {
+
+		defaultCache = cache;
+
+	}
+
+	/**
+	 * Advances the eviction hand, clearing the mark of each marked entry and
+	 * evicting each unmarked entry, until this cache no longer exceeds the
+	 * maximum size.
+	 */
+	private void evict() {
+
+		synchronized (evictionLock) {
+
+			evictEntries: while (entries.size() > maximumSize) {
+
+				Entry entry = clock.poll();
+
+				if (entry == null) {
+
+					break evictEntries;
+
+				}
+
+				if (entry.referenced) {
+
+					// grant the entry a second chance
+					entry.referenced = false;
+
+					clock.offer(entry);
+
+				} else if (entries.remove(entry.expression, entry)) {
+
+					evictions.increment();
+
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Encapsulates a compiled Puma expression together with the mark that
+	 * indicates whether it has been retrieved since the eviction hand last
+	 * passed.
+	 */
+	private static final class Entry {
+
+		/** The expression. */
+		private final String expression;
+
+		/** The compiled expression. */
+		private final CompiledPumaExpression compiled;
+
+		/** Indicates whether the entry has been retrieved recently. */
+		private volatile boolean referenced;
+
+		/**
+		 * Creates an entry for the specified compiled expression.
+		 * 
+		 * @param expression
+		 *            the expression.
+		 * @param compiled
+		 *            the compiled expression.
+		 */
+		private Entry(String expression, CompiledPumaExpression compiled) {
+
+			this.expression = expression;
+			this.compiled = compiled;
+
+		}
+
+		/**
+		 * Marks this entry as retrieved recently, writing the mark only if it
+		 * is clear, such that repeated hits upon the same entry by many
+		 * threads read its cache line rather than contending to write it.
+		 */
+		private void reference() {
+
+			if (!referenced) {
+
+				referenced = true;
+
+			}
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,424 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optimises the instructions of a compiled Puma expression without altering
+ * the result of any evaluation, by<br/>
+ * <br/>
+ * - folding any operation applied to constants into a single constant<br/>
+ * - eliminating any operation that yields the left operand unaltered, namely
+ * x * 1, x / 1, x ^ 1, x + 0 and x - 0, or that yields the right operand
+ * unaltered, namely 1 * x and 0 + x<br/>
+ * - numbering the value of each instruction such that identical constants,
+ * identical variables and identical operations applied to identical operands
+ * are each executed only once per evaluation<br/>
+ * - removing any instruction whose result does not contribute to the result of
+ * the last instruction<br/>
+ * <br/>
+ * Any operation applied to constants that throws an exception is not folded,
+ * such that the exception is thrown upon evaluation as it would be without
+ * optimisation. Nor is any power whose exponent is not an integer, since its
+ * result depends upon the precision of the Puma context in force upon
+ * evaluation rather than upon compilation.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.CompiledPumaExpression
+ */
+abstract class PumaExpressionOptimiser {
+
+	/**
+	 * Optimises the specified instructions, where the operands of every
+	 * instruction precede the instruction itself and the last instruction
+	 * yields the result.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @return the optimised instructions.
+	 */
+	static PumaInstruction[] optimise(PumaInstruction[] instructions) {
+
+		int instructionsLength = instructions.length;
+
+		// the index of the optimised instruction that yields the value of
+		// each original instruction
+		int[] values = new int[instructionsLength];
+
+		List<PumaInstruction> numbered = new ArrayList<PumaInstruction>();
+
+		Map<String, Integer> numbers = new HashMap<String, Integer>();
+
+		for (int index = 0; index < instructionsLength; index++) {
+
+			PumaInstruction instruction = instructions[index];
+
+			if (instruction.constant()) {
+
+				values[index] = number(numbered, numbers, instruction);
+
+				continue;
+
+			}
+
+			if (instruction.variable()) {
+
+				values[index] = number(numbered, numbers, instruction);
+
+				continue;
+
+			}
+
+			PumaOperator operator = instruction.getOperator();
+
+			int left = values[instruction.getLeft()];
+			int right = values[instruction.getRight()];
+
+			Puma leftConstant = numbered.get(left).getConstant();
+			Puma rightConstant = numbered.get(right).getConstant();
+
+			if (leftConstant != null && rightConstant != null
+					&& exact(operator, rightConstant)) {
+
+				try {
+
+					Puma folded = operator.apply(leftConstant, rightConstant);
+
+					values[index] = number(numbered, numbers, PumaInstruction
+							.createConstant(folded));
+
+					continue;
+
+				} catch (RuntimeException deferred) {
+
+					// the failure will recur upon evaluation
+
+				}
+
+			}
+
+			if (yieldsLeft(operator, rightConstant)) {
+
+				values[index] = left;
+
+			} else if (yieldsRight(operator, leftConstant)) {
+
+				values[index] = right;
+
+			} else {
+
+				values[index] = number(numbered, numbers, PumaInstruction
+						.createOperation(operator, left, right));
+
+			}
+
+		}
+
+		return removeUnused(numbered, values[instructionsLength - 1]);
+
+	}
+
+	/**
+	 * Asserts that the specified operator applied to any left operand and the
+	 * specified right operand yields an exact result that does not depend upon
+	 * the Puma context in force.
+	 * 
+	 * @param operator
+	 *            the operator.
+	 * @param right
+	 *            the right operand.
+	 * @return true if the result is exact, false otherwise.
+	 */
+	private static boolean exact(PumaOperator operator, Puma right) {
+
+		return operator != PumaOperator.POWER || right.integer();
+
+	}
+
+	/**
+	 * Merges the specified optimised instructions of several compiled Puma
+	 * expressions into a single sequence of instructions, numbering the value
+	 * of each instruction such that any constant, variable or operation that
+	 * is common to several of the compiled Puma expressions is executed only
+	 * once per evaluation.
+	 * 
+	 * @param programs
+	 *            the instructions of each compiled expression.
+	 * @param variableIndices
+	 *            the index within the merged variables of each variable of
+	 *            each compiled expression.
+	 * @param results
+	 *            the array into which the index of the merged instruction
+	 *            that yields the result of each compiled expression is
+	 *            written.
+	 * @return the merged instructions.
+	 */
+	static PumaInstruction[] merge(PumaInstruction[][] programs,
+			int[][] variableIndices, int[] results) {
+
+		List<PumaInstruction> numbered = new ArrayList<PumaInstruction>();
+
+		Map<String, Integer> numbers = new HashMap<String, Integer>();
+
+		int programsLength = programs.length;
+
+		for (int program = 0; program < programsLength; program++) {
+
+			PumaInstruction[] instructions = programs[program];
+
+			int instructionsLength = instructions.length;
+
+			int[] values = new int[instructionsLength];
+
+			for (int index = 0; index < instructionsLength; index++) {
+
+				PumaInstruction instruction = instructions[index];
+
+				if (instruction.variable()) {
+
+					instruction = PumaInstruction
+							.createVariable(variableIndices[program][instruction
+									.getVariable()]);
+
+				} else if (!instruction.constant()) {
+
+					instruction = PumaInstruction.createOperation(instruction
+							.getOperator(), values[instruction.getLeft()],
+							values[instruction.getRight()]);
+
+				}
+
+				values[index] = number(numbered, numbers, instruction);
+
+			}
+
+			results[program] = values[instructionsLength - 1];
+
+		}
+
+		return numbered.toArray(new PumaInstruction[numbered.size()]);
+
+	}
+
+	/**
+	 * Yields the index of the numbered instruction with the same value as the
+	 * specified instruction, numbering the specified instruction if no such
+	 * instruction has yet been numbered.
+	 * 
+	 * @param numbered
+	 *            the numbered instructions.
+	 * @param numbers
+	 *            the indices of the numbered instructions keyed by value.
+	 * @param instruction
+	 *            the instruction.
+	 * @return the index.
+	 */
+	private static int number(List<PumaInstruction> numbered,
+			Map<String, Integer> numbers, PumaInstruction instruction) {
+
+		String value = null;
+
+		if (instruction.constant()) {
+
+			value = "c" + instruction.getConstant();
+
+		} else if (instruction.variable()) {
+
+			value = "v" + instruction.getVariable();
+
+		} else {
+
+			value = instruction.getOperator().getSymbol() + ""
+					+ instruction.getLeft() + "," + instruction.getRight();
+
+		}
+
+		Integer number = numbers.get(value);
+
+		if (number == null) {
+
+			number = numbered.size();
+
+			numbered.add(instruction);
+
+			numbers.put(value, number);
+
+		}
+
+		return number;
+
+	}
+
+	/**
+	 * Asserts that applying the specified operator with the specified right
+	 * operand yields the left operand unaltered.
+	 * 
+	 * @param operator
+	 *            the operator.
+	 * @param right
+	 *            the constant right operand or null.
+	 * @return true if the left operand is yielded, false otherwise.
+	 */
+	private static boolean yieldsLeft(PumaOperator operator, Puma right) {
+
+		if (right == null) {
+
+			return false;
+
+		}
+
+		switch (operator) {
+
+		case MULTIPLY:
+		case DIVIDE:
+		case POWER:
+
+			return right.equals(Puma.ONE);
+
+		case ADD:
+		case SUBTRACT:
+
+			return right.zero();
+
+		default:
+
+			return false;
+
+		}
+
+	}
+
+	/**
+	 * Asserts that applying the specified operator with the specified left
+	 * operand yields the right operand unaltered.
+	 * 
+	 * @param operator
+	 *            the operator.
+	 * @param left
+	 *            the constant left operand or null.
+	 * @return true if the right operand is yielded, false otherwise.
+	 */
+	private static boolean yieldsRight(PumaOperator operator, Puma left) {
+
+		if (left == null) {
+
+			return false;
+
+		}
+
+		switch (operator) {
+
+		case MULTIPLY:
+
+			return left.equals(Puma.ONE);
+
+		case ADD:
+
+			return left.zero();
+
+		default:
+
+			return false;
+
+		}
+
+	}
+
+	/**
+	 * Removes the instructions that do not contribute to the result of the
+	 * specified instruction, which becomes the last instruction.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @param result
+	 *            the index of the instruction that yields the result.
+	 * @return the remaining instructions.
+	 */
+	private static PumaInstruction[] removeUnused(
+			List<PumaInstruction> instructions, int result) {
+
+		boolean[] used = new boolean[result + 1];
+
+		used[result] = true;
+
+		int usedCount = 0;
+
+		for (int index = result; index >= 0; index--) {
+
+			if (!used[index]) {
+
+				continue;
+
+			}
+
+			usedCount++;
+
+			PumaInstruction instruction = instructions.get(index);
+
+			if (instruction.getOperator() != null) {
+
+				used[instruction.getLeft()] = true;
+				used[instruction.getRight()] = true;
+
+			}
+
+		}
+
+		PumaInstruction[] remaining = new PumaInstruction[usedCount];
+
+		int[] indices = new int[result + 1];
+
+		int remainingIndex = 0;
+
+		for (int index = 0; index <= result; index++) {
+
+			if (!used[index]) {
+
+				continue;
+
+			}
+
+			PumaInstruction instruction = instructions.get(index);
+
+			if (instruction.getOperator() != null) {
+
+				instruction = PumaInstruction.createOperation(instruction
+						.getOperator(), indices[instruction.getLeft()],
+						indices[instruction.getRight()]);
+
+			}
+
+			indices[index] = remainingIndex;
+
+			remaining[remainingIndex] = instruction;
+
+			remainingIndex++;
+
+		}
+
+		return remaining;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,454 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the text of a Puma expression into a compiled Puma expression in a
+ * single pass over the characters of the text, such that every Puma number
+ * within the expression is parsed exactly once directly from the characters
+ * and no part of the text is copied other than the names of any
+ * variables. The parsed instructions are then optimised.<br/>
+ * <br/>
+ * Brackets are tracked by an explicit stack rather than by recursion, therefore
+ * the time required to parse an expression is proportional to the length of
+ * the expression regardless of how deeply the brackets are nested, and deeply
+ * nested expressions cannot exhaust the stack of the parsing thread.<br/>
+ * <br/>
+ * Puma expression parsers are not thread-safe and each parser is used to parse
+ * a single expression.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaExpression#compile(String)
+ */
+final class PumaExpressionParser {
+
+	/** The expression. */
+	private final String expression;
+
+	/** The characters of the expression. */
+	private final char[] characters;
+
+	/** Indicates whether the expression may comprise variables. */
+	private final boolean variablesPermitted;
+
+	/** The index of the next character to be parsed. */
+	private int index;
+
+	/** The instructions parsed so far. */
+	private final List<PumaInstruction> instructions = new ArrayList<PumaInstruction>();
+
+	/** The indices of the variables parsed so far keyed by variable. */
+	private final Map<String, Integer> variables = new LinkedHashMap<String, Integer>();
+
+	/**
+	 * The register indices of the results preceding each open bracket, or -1
+	 * where an open bracket begins an expression.
+	 */
+	private int[] stackedResults = new int[8];
+
+	/**
+	 * The operators preceding each open bracket, or null where an open bracket
+	 * begins an expression.
+	 */
+	private PumaOperator[] stackedOperators = new PumaOperator[8];
+
+	/** The number of open brackets not yet closed. */
+	private int depth;
+
+	/** The greatest number of open brackets not yet closed. */
+	private int maximumDepth;
+
+	/** The limits in force, or null if there are no limits. */
+	private final PumaLimits limits = PumaContext.limits();
+
+	/**
+	 * Creates a Puma expression parser for the specified expression.
+	 * 
+	 * @param expression
+	 *            the expression.
+	 * @param variablesPermitted
+	 *            whether the expression may comprise variables.
+	 */
+	PumaExpressionParser(String expression, boolean variablesPermitted) {
+
+		this.expression = expression;
+		this.variablesPermitted = variablesPermitted;
+
+		if (limits != null) {
+
+			limits.checkExpressionLength(expression.length());
+
+		}
+
+		characters = expression.toCharArray();
+
+	}
+
+	/**
+	 * Parses the expression and yields the compiled Puma expression.
+	 * 
+	 * @return the compiled expression.
+	 * @exception NumberFormatException
+	 *                if the expression comprises a representation of a Puma
+	 *                number that is not valid.
+	 * @exception InvalidExpressionException
+	 *                if the expression is not valid.
+	 */
+	CompiledPumaExpression parse() throws NumberFormatException,
+			InvalidExpressionException {
+
+		int charactersLength = characters.length;
+
+		// the register index of the result of the current bracket so far
+		int result = -1;
+
+		// the operator awaiting its right operand
+		PumaOperator operator = null;
+
+		boolean operandExpected = true;
+
+		parseExpression: while (index < charactersLength) {
+
+			char character = characters[index];
+
+			if (character == ' ') {
+
+				// ignore all spaces in the expression
+				index++;
+
+			} else if (operandExpected) {
+
+				if (character == '(') {
+
+					push(result, operator);
+
+					result = -1;
+					operator = null;
+
+					index++;
+
+					continue parseExpression;
+
+				}
+
+				int operand = -1;
+
+				if (character == '-' || Character.isDigit(character)) {
+
+					operand = append(PumaInstruction
+							.createConstant(parseNumber()));
+
+				} else if (variablesPermitted
+						&& (Character.isLetter(character) || character == '_')) {
+
+					operand = append(PumaInstruction
+							.createVariable(parseVariable()));
+
+				} else {
+
+					throw invalidCharacter();
+
+				}
+
+				result = combine(result, operator, operand);
+
+				operator = null;
+
+				operandExpected = false;
+
+			} else if (character == ')') {
+
+				if (depth == 0) {
+
+					throw mismatchedBrackets();
+
+				}
+
+				depth--;
+
+				result = combine(stackedResults[depth],
+						stackedOperators[depth], result);
+
+				stackedOperators[depth] = null;
+
+				index++;
+
+			} else {
+
+				operator = PumaOperator.valueOf(character);
+
+				if (operator == null) {
+
+					throw invalidCharacter();
+
+				}
+
+				operandExpected = true;
+
+				index++;
+
+			}
+
+		}
+
+		if (depth > 0) {
+
+			throw mismatchedBrackets();
+
+		}
+
+		if (operandExpected) {
+
+			if (instructions.isEmpty()) {
+
+				throw new InvalidExpressionException(
+						"The specified expression is empty: " + expression,
+						expression);
+
+			}
+
+			throw new InvalidExpressionException(
+					"The specified expression ends with an operator: "
+							+ expression, expression);
+
+		}
+
+		PumaInstruction[] compiledInstructions = PumaExpressionOptimiser
+				.optimise(instructions.toArray(new PumaInstruction[instructions
+						.size()]));
+
+		String[] compiledVariables = variables.keySet().toArray(
+				new String[variables.size()]);
+
+		return new CompiledPumaExpression(expression, compiledInstructions,
+				compiledVariables, maximumDepth);
+
+	}
+
+	/**
+	 * Combines the specified result so far with the specified operand by
+	 * applying the specified operator, unless there is no result so far in
+	 * which case the operand becomes the result.
+	 * 
+	 * @param result
+	 *            the register index of the result so far or -1.
+	 * @param operator
+	 *            the operator or null.
+	 * @param operand
+	 *            the register index of the operand.
+	 * @return the register index of the combined result.
+	 */
+	private int combine(int result, PumaOperator operator, int operand) {
+
+		if (result == -1) {
+
+			return operand;
+
+		}
+
+		return append(PumaInstruction.createOperation(operator, result,
+				operand));
+
+	}
+
+	/**
+	 * Pushes the specified result so far and the specified operator onto the
+	 * stack upon opening a bracket.
+	 * 
+	 * @param result
+	 *            the register index of the result so far or -1.
+	 * @param operator
+	 *            the operator or null.
+	 * @exception PumaLimitExceededException
+	 *                if the depth of the brackets would exceed the limit.
+	 */
+	private void push(int result, PumaOperator operator) {
+
+		if (limits != null) {
+
+			limits.checkExpressionDepth(depth + 1);
+
+		}
+
+		if (depth == stackedResults.length) {
+
+			stackedResults = Arrays.copyOf(stackedResults, depth * 2);
+			stackedOperators = Arrays.copyOf(stackedOperators, depth * 2);
+
+		}
+
+		stackedResults[depth] = result;
+		stackedOperators[depth] = operator;
+
+		depth++;
+
+		if (depth > maximumDepth) {
+
+			maximumDepth = depth;
+
+		}
+
+	}
+
+	/**
+	 * Parses a Puma number comprising an optional minus symbol followed by
+	 * digits and any decimal point.
+	 * 
+	 * @return the number.
+	 * @exception NumberFormatException
+	 *                if the number is not valid.
+	 * @exception InvalidExpressionException
+	 *                if a minus symbol is not followed by a digit.
+	 */
+	private Puma parseNumber() throws NumberFormatException,
+			InvalidExpressionException {
+
+		int start = index;
+
+		int charactersLength = characters.length;
+
+		if (characters[index] == '-') {
+
+			index++;
+
+			if (index == charactersLength
+					|| !Character.isDigit(characters[index])) {
+
+				throw new InvalidExpressionException(
+						"The specified expression contains an invalid minus symbol at position ["
+								+ start + "]: " + expression, expression);
+
+			}
+
+		}
+
+		groupNumber: while (index < charactersLength) {
+
+			char character = characters[index];
+
+			if (Character.isDigit(character) || character == '.') {
+
+				index++;
+
+			} else {
+
+				break groupNumber;
+
+			}
+
+		}
+
+		return new Puma(new BigDecimal(characters, start, index - start), null);
+
+	}
+
+	/**
+	 * Parses a variable comprising a letter or underscore followed by any
+	 * letters, digits or underscores.
+	 * 
+	 * @return the index of the variable.
+	 */
+	private int parseVariable() {
+
+		int start = index;
+
+		int charactersLength = characters.length;
+
+		groupVariable: while (index < charactersLength) {
+
+			char character = characters[index];
+
+			if (Character.isLetterOrDigit(character) || character == '_') {
+
+				index++;
+
+			} else {
+
+				break groupVariable;
+
+			}
+
+		}
+
+		String variable = new String(characters, start, index - start);
+
+		Integer variableIndex = variables.get(variable);
+
+		if (variableIndex == null) {
+
+			variableIndex = variables.size();
+
+			variables.put(variable, variableIndex);
+
+		}
+
+		return variableIndex;
+
+	}
+
+	/**
+	 * Appends the specified instruction.
+	 * 
+	 * @param instruction
+	 *            the instruction.
+	 * @return the register index of the instruction.
+	 */
+	private int append(PumaInstruction instruction) {
+
+		instructions.add(instruction);
+
+		return instructions.size() - 1;
+
+	}
+
+	/**
+	 * Creates an invalid expression exception for mismatched brackets.
+	 * 
+	 * @return the exception.
+	 */
+	private InvalidExpressionException mismatchedBrackets() {
+
+		return new InvalidExpressionException(
+				"The specified expression contains mismatched brackets: "
+						+ expression, expression);
+
+	}
+
+	/**
+	 * Creates an invalid expression exception for the character at the index.
+	 * 
+	 * @return the exception.
+	 */
+	private InvalidExpressionException invalidCharacter() {
+
+		return new InvalidExpressionException(
+				"The specified expression contains an invalid character at position ["
+						+ index + "]: " + expression, expression);
+
+	}
+
+}
\ No newline at end of file
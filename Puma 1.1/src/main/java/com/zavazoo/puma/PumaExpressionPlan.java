@@ -0,0 +1,493 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Represents a plan for evaluating several compiled Puma expressions together,
+ * where any sub-expression that is common to several of the compiled Puma
+ * expressions is evaluated only once per evaluation of the plan.<br/>
+ * <br/>
+ * The variables of the plan are the variables of every compiled Puma
+ * expression in order of first appearance, such that a variable of the same
+ * name within several compiled Puma expressions is bound to the same Puma
+ * number. For example the expressions<br/>
+ * <br/>
+ * ((((I * 1.1) - I) / 3) / S) * a<br/>
+ * ((((I * 1.1) - I) / 3) / S) * b<br/>
+ * <br/>
+ * comprise the variables I, S, a and b at positions 0, 1, 2 and 3
+ * respectively, and the dividend per share is evaluated once for both
+ * shareholders.<br/>
+ * <br/>
+ * Puma expression plans are immutable and thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaExpression#plan(CompiledPumaExpression[])
+ */
+public final class PumaExpressionPlan {
+
+	/** The compiled expressions. */
+	private final CompiledPumaExpression[] expressions;
+
+	/** The merged instructions. */
+	private final PumaInstruction[] instructions;
+
+	/** The variables in order of first appearance. */
+	private final String[] variables;
+
+	/** The register index of the result of each compiled expression. */
+	private final int[] results;
+
+	/**
+	 * Creates a Puma expression plan that evaluates the specified compiled
+	 * Puma expressions.
+	 * 
+	 * @param expressions
+	 *            the compiled expressions.
+	 * @exception IllegalArgumentException
+	 *                if no compiled expressions are specified.
+	 */
+	PumaExpressionPlan(CompiledPumaExpression[] expressions)
+			throws IllegalArgumentException {
+
+		int expressionsLength = expressions.length;
+
+		if (expressionsLength == 0) {
+
+			throw new IllegalArgumentException(
+					"A plan requires at least one expression");
+
+		}
+
+		this.expressions = expressions.clone();
+
+		List<String> merged = new ArrayList<String>();
+
+		Map<String, Integer> positions = new HashMap<String, Integer>();
+
+		PumaInstruction[][] programs = new PumaInstruction[expressionsLength][];
+
+		int[][] variableIndices = new int[expressionsLength][];
+
+		for (int index = 0; index < expressionsLength; index++) {
+
+			CompiledPumaExpression expression = this.expressions[index];
+
+			programs[index] = expression.getInstructions();
+
+			String[] expressionVariables = expression.getVariables();
+
+			variableIndices[index] = new int[expressionVariables.length];
+
+			for (int variable = 0; variable < expressionVariables.length; variable++) {
+
+				String name = expressionVariables[variable];
+
+				Integer position = positions.get(name);
+
+				if (position == null) {
+
+					position = merged.size();
+
+					merged.add(name);
+
+					positions.put(name, position);
+
+				}
+
+				variableIndices[index][variable] = position;
+
+			}
+
+		}
+
+		this.variables = merged.toArray(new String[merged.size()]);
+
+		this.results = new int[expressionsLength];
+
+		this.instructions = PumaExpressionOptimiser.merge(programs,
+				variableIndices, results);
+
+	}
+
+	/**
+	 * Evaluates every compiled Puma expression of this plan using the Puma
+	 * numbers bound to the variables by name within the specified map and
+	 * yields the results in order of the compiled expressions.
+	 * 
+	 * @param bindings
+	 *            the Puma numbers keyed by variable.
+	 * @return the results.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a Puma number.
+	 */
+	public Puma[] evaluate(Map<String, ? extends Puma> bindings)
+			throws IllegalArgumentException {
+
+		int variablesLength = variables.length;
+
+		Puma[] arguments = new Puma[variablesLength];
+
+		for (int index = 0; index < variablesLength; index++) {
+
+			arguments[index] = bindings.get(variables[index]);
+
+		}
+
+		return execute(arguments);
+
+	}
+
+	/**
+	 * Evaluates every compiled Puma expression of this plan using the Puma
+	 * numbers resolved for the variables by the specified resolver and yields
+	 * the results in order of the compiled expressions. Each variable is
+	 * resolved once per evaluation.
+	 * 
+	 * @param resolver
+	 *            the resolver.
+	 * @return the results.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a Puma number.
+	 */
+	public Puma[] evaluate(PumaVariableResolver resolver)
+			throws IllegalArgumentException {
+
+		int variablesLength = variables.length;
+
+		Puma[] arguments = new Puma[variablesLength];
+
+		for (int index = 0; index < variablesLength; index++) {
+
+			arguments[index] = resolver.resolve(variables[index]);
+
+		}
+
+		return execute(arguments);
+
+	}
+
+	/**
+	 * Evaluates every compiled Puma expression of this plan using the
+	 * specified Puma numbers bound to the variables by position and yields the
+	 * results in order of the compiled expressions.
+	 * 
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the results.
+	 * @exception IllegalArgumentException
+	 *                if the number of Puma numbers differs from the number of
+	 *                variables or any variable is not bound to a Puma number.
+	 * @see #getVariables()
+	 */
+	public Puma[] evaluate(Puma... arguments) throws IllegalArgumentException {
+
+		if (arguments.length != variables.length) {
+
+			throw new IllegalArgumentException("The plan requires "
+					+ variables.length + " variables but " + arguments.length
+					+ " were specified: " + this);
+
+		}
+
+		return execute(arguments);
+
+	}
+
+	/**
+	 * Evaluates every compiled Puma expression of this plan for every row of a
+	 * batch using the Puma numbers bound to the variables by the specified
+	 * columns in order of the variables, and writes the result of each
+	 * compiled expression for each row into the same row of the output column
+	 * at the same index as the compiled expression.<br/>
+	 * The rows are evaluated one instruction at a time across a chunk of rows,
+	 * and the chunks are evaluated in parallel by the fork join pool of the
+	 * current Puma context.
+	 * 
+	 * @param columns
+	 *            the columns in order of the variables.
+	 * @param outputs
+	 *            the output columns in order of the compiled expressions.
+	 * @exception IllegalArgumentException
+	 *                if the number of columns differs from the number of
+	 *                variables, the number of output columns differs from the
+	 *                number of compiled expressions, any column has a different
+	 *                number of rows to the output columns or any row of a
+	 *                column is empty.
+	 * @see com.zavazoo.puma.PumaContext#getPool()
+	 */
+	public void evaluateBatch(PumaColumn[] columns, Puma[][] outputs)
+			throws IllegalArgumentException {
+
+		evaluateBatch(columns, outputs, PumaContext.current().getPool());
+
+	}
+
+	/**
+	 * Evaluates every compiled Puma expression of this plan for every row of a
+	 * batch using the Puma numbers bound to the variables by the specified
+	 * columns in order of the variables, and writes the result of each
+	 * compiled expression for each row into the same row of the output column
+	 * at the same index as the compiled expression, using the specified fork
+	 * join pool.
+	 * 
+	 * @param columns
+	 *            the columns in order of the variables.
+	 * @param outputs
+	 *            the output columns in order of the compiled expressions.
+	 * @param pool
+	 *            the fork join pool.
+	 * @exception IllegalArgumentException
+	 *                if the number of columns differs from the number of
+	 *                variables, the number of output columns differs from the
+	 *                number of compiled expressions, any column has a different
+	 *                number of rows to the output columns or any row of a
+	 *                column is empty.
+	 */
+	public void evaluateBatch(PumaColumn[] columns, Puma[][] outputs,
+			ForkJoinPool pool) throws IllegalArgumentException {
+
+		if (columns.length != variables.length) {
+
+			throw new IllegalArgumentException("The plan requires "
+					+ variables.length + " columns but " + columns.length
+					+ " were specified: " + this);
+
+		}
+
+		if (outputs.length != expressions.length) {
+
+			throw new IllegalArgumentException("The plan requires "
+					+ expressions.length + " output columns but "
+					+ outputs.length + " were specified: " + this);
+
+		}
+
+		int rows = outputs[0].length;
+
+		for (int index = 1; index < outputs.length; index++) {
+
+			if (outputs[index].length != rows) {
+
+				throw new IllegalArgumentException("The output column for ["
+						+ expressions[index] + "] has " + outputs[index].length
+						+ " rows but the first output column has " + rows
+						+ " rows: " + this);
+
+			}
+
+		}
+
+		for (int index = 0; index < columns.length; index++) {
+
+			if (columns[index].size() != rows) {
+
+				throw new IllegalArgumentException("The column for variable ["
+						+ variables[index] + "] has " + columns[index].size()
+						+ " rows but the output columns have " + rows
+						+ " rows: " + this);
+
+			}
+
+		}
+
+		PumaColumn[] copiedColumns = columns.clone();
+
+		Puma[][] copiedOutputs = outputs.clone();
+
+		if (rows <= PumaBatchTask.CHUNK_SIZE) {
+
+			PumaBatchTask.evaluateChunk(instructions, variables, this,
+					results, copiedColumns, copiedOutputs, 0, rows);
+
+		} else {
+
+			pool.invoke(new PumaBatchTask(instructions, variables, this,
+					results, copiedColumns, copiedOutputs, 0, rows));
+
+		}
+
+	}
+
+	/**
+	 * Evaluates every compiled Puma expression of this plan for every row of a
+	 * batch using the Puma numbers bound to the variables by name within the
+	 * specified map of columns, and writes the result of each compiled
+	 * expression for each row into the same row of the output column at the
+	 * same index as the compiled expression, using the specified fork join
+	 * pool.
+	 * 
+	 * @param columns
+	 *            the columns keyed by variable.
+	 * @param outputs
+	 *            the output columns in order of the compiled expressions.
+	 * @param pool
+	 *            the fork join pool.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a column, the number of
+	 *                output columns differs from the number of compiled
+	 *                expressions, any column has a different number of rows to
+	 *                the output columns or any row of a column is empty.
+	 * @see #evaluateBatch(PumaColumn[], Puma[][], ForkJoinPool)
+	 */
+	public void evaluateBatch(Map<String, ? extends PumaColumn> columns,
+			Puma[][] outputs, ForkJoinPool pool)
+			throws IllegalArgumentException {
+
+		int variablesLength = variables.length;
+
+		PumaColumn[] ordered = new PumaColumn[variablesLength];
+
+		for (int index = 0; index < variablesLength; index++) {
+
+			ordered[index] = columns.get(variables[index]);
+
+			if (ordered[index] == null) {
+
+				throw new IllegalArgumentException("The variable ["
+						+ variables[index] + "] is not bound: " + this);
+
+			}
+
+		}
+
+		evaluateBatch(ordered, outputs, pool);
+
+	}
+
+	/**
+	 * Gets the compiled Puma expressions of this plan.
+	 * 
+	 * @return the compiled expressions.
+	 */
+	public CompiledPumaExpression[] getExpressions() {
+
+		return expressions.clone();
+
+	}
+
+	/**
+	 * Gets the variables of this plan in order of first appearance.
+	 * 
+	 * @return the variables.
+	 */
+	public String[] getVariables() {
+
+		return variables.clone();
+
+	}
+
+	/**
+	 * Yields the number of variables of this plan.
+	 * 
+	 * @return the number of variables.
+	 */
+	public int getVariableCount() {
+
+		return variables.length;
+
+	}
+
+	/**
+	 * Yields the number of instructions executed per evaluation of this plan,
+	 * where any instruction common to several compiled Puma expressions is
+	 * counted once.
+	 * 
+	 * @return the number of instructions.
+	 */
+	public int getInstructionCount() {
+
+		return instructions.length;
+
+	}
+
+	/**
+	 * Yields a string representation of this Puma expression plan.
+	 * 
+	 * @return the representation.
+	 */
+	@Override
+	public String toString() {
+
+		return Arrays.toString(expressions);
+
+	}
+
+	/**
+	 * Executes the merged instructions of this plan using the specified Puma
+	 * numbers bound to the variables by position and yields the result of each
+	 * compiled expression.
+	 * 
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the results.
+	 * @exception IllegalArgumentException
+	 *                if any variable is not bound to a Puma number.
+	 */
+	private Puma[] execute(Puma[] arguments) throws IllegalArgumentException {
+
+		int argumentsLength = arguments.length;
+
+		for (int index = 0; index < argumentsLength; index++) {
+
+			if (arguments[index] == null) {
+
+				throw new IllegalArgumentException("The variable ["
+						+ variables[index] + "] is not bound: " + this);
+
+			}
+
+		}
+
+		int instructionsLength = instructions.length;
+
+		Puma[] registers = new Puma[instructionsLength];
+
+		for (int index = 0; index < instructionsLength; index++) {
+
+			PumaDeadline.check(index == 0 ? null : registers[index - 1]);
+
+			registers[index] = instructions[index].execute(registers,
+					arguments);
+
+		}
+
+		int resultsLength = results.length;
+
+		Puma[] evaluated = new Puma[resultsLength];
+
+		for (int index = 0; index < resultsLength; index++) {
+
+			evaluated[index] = registers[results[index]];
+
+		}
+
+		return evaluated;
+
+	}
+
+}
\ No newline at end of file
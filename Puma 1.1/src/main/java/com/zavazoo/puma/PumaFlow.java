@@ -0,0 +1,140 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+/**
+ * Provides the interfaces of reactive streams, in which publishers push items
+ * to subscribers no faster than the subscribers request them.<br/>
+ * <br/>
+ * The interfaces have the same names, methods and contracts as the nested
+ * interfaces of the flow class introduced in JDK9, such that adapting a Puma
+ * processor to and from those interfaces is a matter of delegating each
+ * method to the method of the same name.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaProcessor
+ */
+public final class PumaFlow {
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private PumaFlow() {
+
+	}
+
+	/**
+	 * Represents a producer of items that are received by subscribers.
+	 * 
+	 * @param <T>
+	 *            the type of the items.
+	 */
+	public interface Publisher<T> {
+
+		/**
+		 * Adds the specified subscriber, which is given a subscription then
+		 * receives items as they are requested.
+		 * 
+		 * @param subscriber
+		 *            the subscriber.
+		 */
+		void subscribe(Subscriber<? super T> subscriber);
+
+	}
+
+	/**
+	 * Represents a receiver of items that are published by a publisher.
+	 * 
+	 * @param <T>
+	 *            the type of the items.
+	 */
+	public interface Subscriber<T> {
+
+		/**
+		 * Receives the subscription through which items are requested, before
+		 * any other method is invoked.
+		 * 
+		 * @param subscription
+		 *            the subscription.
+		 */
+		void onSubscribe(Subscription subscription);
+
+		/**
+		 * Receives the next item, which was requested through the
+		 * subscription.
+		 * 
+		 * @param item
+		 *            the item.
+		 */
+		void onNext(T item);
+
+		/**
+		 * Receives the error that terminated the subscription, after which no
+		 * other method is invoked.
+		 * 
+		 * @param error
+		 *            the error.
+		 */
+		void onError(Throwable error);
+
+		/**
+		 * Receives notification that no further items will be published,
+		 * after which no other method is invoked.
+		 */
+		void onComplete();
+
+	}
+
+	/**
+	 * Represents the link between a publisher and a subscriber.
+	 */
+	public interface Subscription {
+
+		/**
+		 * Requests the specified number of further items.
+		 * 
+		 * @param count
+		 *            the number of items, which must be positive.
+		 */
+		void request(long count);
+
+		/**
+		 * Requests that the publisher stops publishing items to the
+		 * subscriber.
+		 */
+		void cancel();
+
+	}
+
+	/**
+	 * Represents a subscriber that transforms the items it receives and
+	 * publishes the results.
+	 * 
+	 * @param <T>
+	 *            the type of the items received.
+	 * @param <R>
+	 *            the type of the items published.
+	 */
+	public interface Processor<T, R> extends Subscriber<T>, Publisher<R> {
+
+	}
+
+}
\ No newline at end of file
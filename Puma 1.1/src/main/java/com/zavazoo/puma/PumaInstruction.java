@@ -0,0 +1,232 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+/**
+ * Represents a single instruction of a compiled Puma expression, which yields
+ * either a constant Puma number, the Puma number bound to a variable or the
+ * result of applying an operator to the results of two earlier instructions.<br/>
+ * <br/>
+ * The instructions of a compiled Puma expression are ordered such that the
+ * operands of every instruction precede the instruction itself, therefore the
+ * instructions may be executed in order with the result of each instruction
+ * retained in the register at the same index as the instruction.<br/>
+ * <br/>
+ * Puma instructions are immutable and thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.CompiledPumaExpression
+ */
+final class PumaInstruction {
+
+	/** The constant, or null if this instruction does not yield a constant. */
+	private final Puma constant;
+
+	/**
+	 * The index of the variable, or -1 if this instruction does not yield a
+	 * variable.
+	 */
+	private final int variable;
+
+	/** The operator, or null if this instruction does not apply an operator. */
+	private final PumaOperator operator;
+
+	/** The register index of the left operand. */
+	private final int left;
+
+	/** The register index of the right operand. */
+	private final int right;
+
+	/**
+	 * Creates a Puma instruction using the specified components.
+	 * 
+	 * @param constant
+	 *            the constant.
+	 * @param variable
+	 *            the variable index.
+	 * @param operator
+	 *            the operator.
+	 * @param left
+	 *            the left operand register index.
+	 * @param right
+	 *            the right operand register index.
+	 */
+	private PumaInstruction(Puma constant, int variable,
+			PumaOperator operator, int left, int right) {
+
+		this.constant = constant;
+		this.variable = variable;
+		this.operator = operator;
+		this.left = left;
+		this.right = right;
+
+	}
+
+	/**
+	 * Creates a Puma instruction that yields the specified constant.
+	 * 
+	 * @param constant
+	 *            the constant.
+	 * @return the instruction.
+	 */
+	static PumaInstruction createConstant(Puma constant) {
+
+		return new PumaInstruction(constant, -1, null, -1, -1);
+
+	}
+
+	/**
+	 * Creates a Puma instruction that yields the Puma number bound to the
+	 * variable at the specified index.
+	 * 
+	 * @param variable
+	 *            the variable index.
+	 * @return the instruction.
+	 */
+	static PumaInstruction createVariable(int variable) {
+
+		return new PumaInstruction(null, variable, null, -1, -1);
+
+	}
+
+	/**
+	 * Creates a Puma instruction that applies the specified operator to the
+	 * results held in the specified registers.
+	 * 
+	 * @param operator
+	 *            the operator.
+	 * @param left
+	 *            the left operand register index.
+	 * @param right
+	 *            the right operand register index.
+	 * @return the instruction.
+	 */
+	static PumaInstruction createOperation(PumaOperator operator, int left,
+			int right) {
+
+		return new PumaInstruction(null, -1, operator, left, right);
+
+	}
+
+	/**
+	 * Executes this Puma instruction and yields the result.
+	 * 
+	 * @param registers
+	 *            the results of the preceding instructions.
+	 * @param arguments
+	 *            the Puma numbers bound to the variables.
+	 * @return the result.
+	 */
+	Puma execute(Puma[] registers, Puma[] arguments) {
+
+		if (operator != null) {
+
+			return operator.apply(registers[left], registers[right]);
+
+		}
+
+		if (constant != null) {
+
+			return constant;
+
+		}
+
+		return arguments[variable];
+
+	}
+
+	/**
+	 * Asserts that this Puma instruction yields a constant.
+	 * 
+	 * @return true if this instruction yields a constant, false otherwise.
+	 */
+	boolean constant() {
+
+		return constant != null;
+
+	}
+
+	/**
+	 * Asserts that this Puma instruction yields a variable.
+	 * 
+	 * @return true if this instruction yields a variable, false otherwise.
+	 */
+	boolean variable() {
+
+		return variable != -1;
+
+	}
+
+	/**
+	 * Gets the constant.
+	 * 
+	 * @return the constant or null.
+	 */
+	Puma getConstant() {
+
+		return constant;
+
+	}
+
+	/**
+	 * Gets the variable index.
+	 * 
+	 * @return the variable index or -1.
+	 */
+	int getVariable() {
+
+		return variable;
+
+	}
+
+	/**
+	 * Gets the operator.
+	 * 
+	 * @return the operator or null.
+	 */
+	PumaOperator getOperator() {
+
+		return operator;
+
+	}
+
+	/**
+	 * Gets the register index of the left operand.
+	 * 
+	 * @return the left operand register index or -1.
+	 */
+	int getLeft() {
+
+		return left;
+
+	}
+
+	/**
+	 * Gets the register index of the right operand.
+	 * 
+	 * @return the right operand register index or -1.
+	 */
+	int getRight() {
+
+		return right;
+
+	}
+
+}
\ No newline at end of file
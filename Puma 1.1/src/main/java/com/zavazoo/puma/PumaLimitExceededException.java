@@ -0,0 +1,98 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+/**
+ * Exception used to indicate that a Puma number, power or expression would
+ * exceed a limit of the Puma limits in force.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaLimits
+ */
+public class PumaLimitExceededException extends RuntimeException {
+
+	/** The serialization version unique identifier. */
+	private static final long serialVersionUID = 1l;
+
+	/** The name of the limit. */
+	private String limit;
+
+	/** The maximum permitted by the limit. */
+	private long maximum;
+
+	/** The actual or estimated size that exceeded the limit. */
+	private long actual;
+
+	/**
+	 * Creates a Puma limit exceeded exception using the specified limit.
+	 * 
+	 * @param limit
+	 *            the name of the limit.
+	 * @param maximum
+	 *            the maximum permitted by the limit.
+	 * @param actual
+	 *            the actual or estimated size that exceeded the limit.
+	 */
+	PumaLimitExceededException(String limit, long maximum, long actual) {
+
+		super("The " + limit + " [" + actual + "] exceeds the limit ["
+				+ maximum + "]");
+
+		this.limit = limit;
+		this.maximum = maximum;
+		this.actual = actual;
+
+	}
+
+	/**
+	 * Gets the name of the limit.
+	 * 
+	 * @return the name.
+	 */
+	public String getLimit() {
+
+		return limit;
+
+	}
+
+	/**
+	 * Gets the maximum permitted by the limit.
+	 * 
+	 * @return the maximum.
+	 */
+	public long getMaximum() {
+
+		return maximum;
+
+	}
+
+	/**
+	 * Gets the actual or estimated size that exceeded the limit.
+	 * 
+	 * @return the size.
+	 */
+	public long getActual() {
+
+		return actual;
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,632 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Represents the limits upon the size of Puma numbers, the exponents of powers
+ * and the length and depth of Puma expressions, which guard against a single
+ * pathological input producing a Puma number of millions of digits.<br/>
+ * <br/>
+ * The size of a Puma number is the bit length of the larger of its numerator
+ * and denominator expressed as integers, which is checked against the limit as
+ * each Puma number is created. A Puma number that exceeds the limit either
+ * causes a Puma limit exceeded exception or, if the limits approximate, is
+ * rounded to the decimal with the most decimal places that fits within the
+ * limit, which is zero for a Puma number too small to be distinguished from
+ * zero within the limit. A power is
+ * refused before it is calculated if its exponent exceeds the limit or, unless
+ * the limits approximate, if its result is estimated to exceed the size
+ * limit. The length and bracket depth of a Puma expression are checked as it
+ * is parsed.<br/>
+ * <br/>
+ * Puma limits may also specify a maximum denominator, in which case every
+ * Puma number created whose denominator in lowest terms exceeds the maximum
+ * is replaced by the closest fraction whose denominator is within the
+ * maximum, such that chained calculations carry bounded approximations
+ * forward rather than ever larger fractions.<br/>
+ * <br/>
+ * Puma limits may be installed as the default limits, in which case they
+ * apply to every Puma calculation. There are no default limits unless some
+ * are installed.<br/>
+ * <br/>
+ * Puma limits are immutable and thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaLimitExceededException
+ */
+public final class PumaLimits {
+
+	/** The limits that impose no limit. */
+	public static final PumaLimits UNLIMITED = new PumaLimits(
+			Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+			Integer.MAX_VALUE, false, null);
+
+	/** The number of bits per decimal digit, scaled by one thousand. */
+	private static final long BITS_PER_DIGIT = 3322;
+
+	/** The number of decimal digits per bit. */
+	private static final double DIGITS_PER_BIT = 0.30103;
+
+	/** The default limits, or null if there are no default limits. */
+	private static volatile PumaLimits defaultLimits;
+
+	/** The maximum bit length of a numerator or denominator. */
+	private final int maximumBitLength;
+
+	/** The maximum numerator or denominator of the exponent of a power. */
+	private final int maximumExponent;
+
+	/** The maximum number of characters of a Puma expression. */
+	private final int maximumExpressionLength;
+
+	/** The maximum depth of the brackets of a Puma expression. */
+	private final int maximumExpressionDepth;
+
+	/** Indicates whether Puma numbers that are too large are approximated. */
+	private final boolean approximate;
+
+	/** The maximum denominator, or null if denominators are not limited. */
+	private final BigInteger maximumDenominator;
+
+	/**
+	 * Creates Puma limits.
+	 * 
+	 * @param maximumBitLength
+	 *            the maximum bit length of a numerator or denominator.
+	 * @param maximumExponent
+	 *            the maximum numerator or denominator of an exponent.
+	 * @param maximumExpressionLength
+	 *            the maximum number of characters of a Puma expression.
+	 * @param maximumExpressionDepth
+	 *            the maximum depth of the brackets of a Puma expression.
+	 * @param approximate
+	 *            true to approximate Puma numbers that are too large, false
+	 *            to refuse them.
+	 * @param maximumDenominator
+	 *            the maximum denominator or null.
+	 */
+	private PumaLimits(int maximumBitLength, int maximumExponent,
+			int maximumExpressionLength, int maximumExpressionDepth,
+			boolean approximate, BigInteger maximumDenominator) {
+
+		this.maximumBitLength = checkPositive(maximumBitLength);
+		this.maximumExponent = checkPositive(maximumExponent);
+		this.maximumExpressionLength = checkPositive(maximumExpressionLength);
+		this.maximumExpressionDepth = checkPositive(maximumExpressionDepth);
+		this.approximate = approximate;
+
+		if (maximumDenominator != null && maximumDenominator.signum() <= 0) {
+
+			throw new IllegalArgumentException("The limit ["
+					+ maximumDenominator + "] must be positive");
+
+		}
+
+		this.maximumDenominator = maximumDenominator;
+
+	}
+
+	/**
+	 * Yields Puma limits equal to these limits but with the specified maximum
+	 * bit length of a numerator or denominator.
+	 * 
+	 * @param maximumBitLength
+	 *            the maximum bit length.
+	 * @return the limits.
+	 */
+	public PumaLimits withMaximumBitLength(int maximumBitLength) {
+
+		return new PumaLimits(maximumBitLength, maximumExponent,
+				maximumExpressionLength, maximumExpressionDepth, approximate,
+				maximumDenominator);
+
+	}
+
+	/**
+	 * Yields Puma limits equal to these limits but with the specified maximum
+	 * numerator or denominator of the exponent of a power.
+	 * 
+	 * @param maximumExponent
+	 *            the maximum exponent.
+	 * @return the limits.
+	 */
+	public PumaLimits withMaximumExponent(int maximumExponent) {
+
+		return new PumaLimits(maximumBitLength, maximumExponent,
+				maximumExpressionLength, maximumExpressionDepth, approximate,
+				maximumDenominator);
+
+	}
+
+	/**
+	 * Yields Puma limits equal to these limits but with the specified maximum
+	 * number of characters of a Puma expression.
+	 * 
+	 * @param maximumExpressionLength
+	 *            the maximum length.
+	 * @return the limits.
+	 */
+	public PumaLimits withMaximumExpressionLength(int maximumExpressionLength) {
+
+		return new PumaLimits(maximumBitLength, maximumExponent,
+				maximumExpressionLength, maximumExpressionDepth, approximate,
+				maximumDenominator);
+
+	}
+
+	/**
+	 * Yields Puma limits equal to these limits but with the specified maximum
+	 * depth of the brackets of a Puma expression.
+	 * 
+	 * @param maximumExpressionDepth
+	 *            the maximum depth.
+	 * @return the limits.
+	 */
+	public PumaLimits withMaximumExpressionDepth(int maximumExpressionDepth) {
+
+		return new PumaLimits(maximumBitLength, maximumExponent,
+				maximumExpressionLength, maximumExpressionDepth, approximate,
+				maximumDenominator);
+
+	}
+
+	/**
+	 * Yields Puma limits equal to these limits but that either approximate or
+	 * refuse Puma numbers that exceed the maximum bit length.
+	 * 
+	 * @param approximate
+	 *            true to approximate, false to refuse.
+	 * @return the limits.
+	 */
+	public PumaLimits withApproximation(boolean approximate) {
+
+		return new PumaLimits(maximumBitLength, maximumExponent,
+				maximumExpressionLength, maximumExpressionDepth, approximate,
+				maximumDenominator);
+
+	}
+
+	/**
+	 * Yields Puma limits equal to these limits but that replace every Puma
+	 * number whose denominator exceeds the specified maximum by the closest
+	 * fraction whose denominator is within the maximum.
+	 * 
+	 * @param maximumDenominator
+	 *            the maximum denominator or null to not limit denominators.
+	 * @return the limits.
+	 * @see com.zavazoo.puma.Puma#limitDenominator(BigInteger)
+	 */
+	public PumaLimits withMaximumDenominator(BigInteger maximumDenominator) {
+
+		return new PumaLimits(maximumBitLength, maximumExponent,
+				maximumExpressionLength, maximumExpressionDepth, approximate,
+				maximumDenominator);
+
+	}
+
+	/**
+	 * Gets the maximum bit length of a numerator or denominator.
+	 * 
+	 * @return the maximum bit length.
+	 */
+	public int getMaximumBitLength() {
+
+		return maximumBitLength;
+
+	}
+
+	/**
+	 * Gets the maximum numerator or denominator of the exponent of a power.
+	 * 
+	 * @return the maximum exponent.
+	 */
+	public int getMaximumExponent() {
+
+		return maximumExponent;
+
+	}
+
+	/**
+	 * Gets the maximum number of characters of a Puma expression.
+	 * 
+	 * @return the maximum length.
+	 */
+	public int getMaximumExpressionLength() {
+
+		return maximumExpressionLength;
+
+	}
+
+	/**
+	 * Gets the maximum depth of the brackets of a Puma expression.
+	 * 
+	 * @return the maximum depth.
+	 */
+	public int getMaximumExpressionDepth() {
+
+		return maximumExpressionDepth;
+
+	}
+
+	/**
+	 * Asserts that Puma numbers that exceed the maximum bit length are
+	 * approximated rather than refused.
+	 * 
+	 * @return true if Puma numbers are approximated, false otherwise.
+	 */
+	public boolean approximate() {
+
+		return approximate;
+
+	}
+
+	/**
+	 * Gets the maximum denominator.
+	 * 
+	 * @return the maximum denominator or null if denominators are not
+	 *         limited.
+	 */
+	public BigInteger getMaximumDenominator() {
+
+		return maximumDenominator;
+
+	}
+
+	/**
+	 * Gets the default limits.
+	 * 
+	 * @return the default limits or null if there are no default limits.
+	 */
+	public static PumaLimits getDefault() {
+
+		return defaultLimits;
+
+	}
+
+	/**
+	 * Installs the specified limits as the default limits that apply to every
+	 * Puma calculation.
+	 * 
+	 * @param limits
+	 *            the default limits or null to remove the default limits.
+	 */
+	public static void setDefault(PumaLimits limits) {
+
+		defaultLimits = limits;
+
+	}
+
+	/**
+	 * Checks the specified numerator and denominator of a Puma number against
+	 * the maximum denominator, and yields the closest Puma number whose
+	 * denominator is within the maximum if the denominator in lowest terms
+	 * exceeds the maximum.
+	 * 
+	 * @param numerator
+	 *            the numerator.
+	 * @param denominator
+	 *            the denominator or null.
+	 * @return the approximation, or null if the Puma number is within the
+	 *         limit or denominators are not limited.
+	 */
+	Puma bound(BigDecimal numerator, BigDecimal denominator) {
+
+		if (maximumDenominator == null) {
+
+			return null;
+
+		}
+
+		if (denominator == null) {
+
+			if (numerator.scale() <= 0) {
+
+				// integers are always within the limit
+				return null;
+
+			}
+
+		} else if (denominator.signum() == 0) {
+
+			// infinities are always within the limit
+			return null;
+
+		}
+
+		PumaRational rational = PumaRational.valueOf(numerator, denominator);
+
+		if (rational.getDenominator().compareTo(maximumDenominator) <= 0
+				|| rational.reduce().getDenominator().compareTo(
+						maximumDenominator) <= 0) {
+
+			return null;
+
+		}
+
+		return rational.limitDenominator(maximumDenominator).toPuma();
+
+	}
+
+	/**
+	 * Checks the specified numerator and denominator of a Puma number against
+	 * the maximum bit length, and yields the approximation of the Puma number
+	 * if it exceeds the maximum bit length and these limits approximate.
+	 * 
+	 * @param numerator
+	 *            the numerator.
+	 * @param denominator
+	 *            the denominator or null.
+	 * @return the approximation, or null if the Puma number is within the
+	 *         limit.
+	 * @exception PumaLimitExceededException
+	 *                if the Puma number exceeds the limit and either these
+	 *                limits do not approximate or the magnitude of the Puma
+	 *                number alone exceeds the limit.
+	 */
+	BigDecimal enforce(BigDecimal numerator, BigDecimal denominator)
+			throws PumaLimitExceededException {
+
+		long bitLength = bitLength(numerator);
+
+		if (denominator != null) {
+
+			if (denominator.signum() == 0) {
+
+				// infinities are always within the limit
+				return null;
+
+			}
+
+			bitLength = Math.max(bitLength, bitLength(denominator));
+
+		}
+
+		if (bitLength <= maximumBitLength) {
+
+			return null;
+
+		}
+
+		if (!approximate) {
+
+			throw new PumaLimitExceededException("bit length",
+					maximumBitLength, bitLength);
+
+		}
+
+		int maximumDigits = Math.max(1, (int) (maximumBitLength * DIGITS_PER_BIT));
+
+		MathContext context = new MathContext(maximumDigits,
+				RoundingMode.HALF_EVEN);
+
+		BigDecimal approximation;
+
+		if (denominator == null) {
+
+			approximation = numerator.round(context);
+
+		} else {
+
+			approximation = numerator.divide(denominator, context);
+
+		}
+
+		// the number of digits before the decimal point, which may be negative
+		int integerDigits = approximation.precision() - approximation.scale();
+
+		if (integerDigits > maximumDigits) {
+
+			// the magnitude alone exceeds the limit
+			throw new PumaLimitExceededException("bit length",
+					maximumBitLength, bitLength);
+
+		}
+
+		// the decimal places count twice, within the unscaled value and within
+		// the power of ten of the denominator
+
+		int scale = Math.max(0, (maximumDigits - integerDigits) / 2);
+
+		BigDecimal rounded;
+
+		do {
+
+			rounded = approximation.setScale(scale--, RoundingMode.HALF_EVEN)
+					.stripTrailingZeros();
+
+		} while (bitLength(rounded) > maximumBitLength);
+
+		return rounded;
+
+	}
+
+	/**
+	 * Checks the specified exponent of a power of the specified base against
+	 * the maximum exponent and, unless these limits approximate, the estimated
+	 * size of the result against the maximum bit length.
+	 * 
+	 * @param base
+	 *            the base.
+	 * @param exponentNumerator
+	 *            the integer numerator of the exponent.
+	 * @param exponentDenominator
+	 *            the integer denominator of the exponent or null.
+	 * @exception PumaLimitExceededException
+	 *                if the exponent or the estimated result exceeds the
+	 *                limit.
+	 */
+	void checkPower(Puma base, BigDecimal exponentNumerator,
+			BigDecimal exponentDenominator) throws PumaLimitExceededException {
+
+		long numerator = checkExponent(exponentNumerator);
+		long denominator = 1;
+
+		if (exponentDenominator != null) {
+
+			denominator = checkExponent(exponentDenominator);
+
+		}
+
+		if (approximate) {
+
+			return;
+
+		}
+
+		long baseBitLength = bitLength(base.getNumerator());
+
+		BigDecimal baseDenominator = base.getDenominator();
+
+		if (baseDenominator != null) {
+
+			baseBitLength = Math.max(baseBitLength, bitLength(baseDenominator));
+
+		}
+
+		// (x/y) ^ (p/q) has a numerator and denominator of about p/q times as
+		// many bits as x and y
+		long estimate = baseBitLength * numerator / denominator;
+
+		if (estimate > maximumBitLength) {
+
+			throw new PumaLimitExceededException("estimated bit length",
+					maximumBitLength, estimate);
+
+		}
+
+	}
+
+	/**
+	 * Checks the specified number of characters of a Puma expression against
+	 * the maximum expression length.
+	 * 
+	 * @param length
+	 *            the number of characters.
+	 * @exception PumaLimitExceededException
+	 *                if the length exceeds the limit.
+	 */
+	void checkExpressionLength(int length) throws PumaLimitExceededException {
+
+		if (length > maximumExpressionLength) {
+
+			throw new PumaLimitExceededException("expression length",
+					maximumExpressionLength, length);
+
+		}
+
+	}
+
+	/**
+	 * Checks the specified depth of the brackets of a Puma expression against
+	 * the maximum expression depth.
+	 * 
+	 * @param depth
+	 *            the depth.
+	 * @exception PumaLimitExceededException
+	 *                if the depth exceeds the limit.
+	 */
+	void checkExpressionDepth(int depth) throws PumaLimitExceededException {
+
+		if (depth > maximumExpressionDepth) {
+
+			throw new PumaLimitExceededException("expression depth",
+					maximumExpressionDepth, depth);
+
+		}
+
+	}
+
+	/**
+	 * Checks the specified integer numerator or denominator of an exponent
+	 * against the maximum exponent.
+	 * 
+	 * @param exponent
+	 *            the numerator or denominator.
+	 * @return the numerator or denominator.
+	 * @exception PumaLimitExceededException
+	 *                if the exponent exceeds the limit.
+	 */
+	private long checkExponent(BigDecimal exponent)
+			throws PumaLimitExceededException {
+
+		BigDecimal absolute = exponent.abs();
+
+		if (absolute.compareTo(BigDecimal.valueOf(maximumExponent)) > 0) {
+
+			long actual = absolute.toBigInteger().bitLength() < Long.SIZE ? absolute
+					.longValue()
+					: Long.MAX_VALUE;
+
+			throw new PumaLimitExceededException("exponent", maximumExponent,
+					actual);
+
+		}
+
+		return absolute.longValue();
+
+	}
+
+	/**
+	 * Yields the bit length of the specified big decimal expressed as an
+	 * integer numerator or denominator, being the bit length of its unscaled
+	 * value plus the bits of the power of ten represented by its scale.
+	 * 
+	 * @param number
+	 *            the big decimal.
+	 * @return the bit length.
+	 */
+	private static long bitLength(BigDecimal number) {
+
+		long scale = Math.abs((long) number.scale());
+
+		return number.unscaledValue().bitLength() + scale * BITS_PER_DIGIT
+				/ 1000;
+
+	}
+
+	/**
+	 * Asserts that the specified limit is positive.
+	 * 
+	 * @param limit
+	 *            the limit.
+	 * @return the limit.
+	 * @exception IllegalArgumentException
+	 *                if the limit is not positive.
+	 */
+	private static int checkPositive(int limit) throws IllegalArgumentException {
+
+		if (limit <= 0) {
+
+			throw new IllegalArgumentException("The limit [" + limit
+					+ "] must be positive");
+
+		}
+
+		return limit;
+
+	}
+
+}
\ No newline at end of file
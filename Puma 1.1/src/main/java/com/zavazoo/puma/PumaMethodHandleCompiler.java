@@ -0,0 +1,244 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+
+/**
+ * Compiles the instructions of a compiled Puma expression into a single method
+ * handle that accepts the Puma numbers bound to the variables and yields the
+ * result.<br/>
+ * <br/>
+ * The method handle retains the straight-line form of the instructions: the
+ * result of each instruction is folded into the arguments of the method
+ * handle that executes the remaining instructions, such that each instruction
+ * is executed exactly once even if its result is referred to by several later
+ * instructions. The result of every instruction therefore occupies a parameter
+ * of a method handle and, since a method handle is limited to 255 parameters,
+ * larger compiled Puma expressions are not compiled.<br/>
+ * <br/>
+ * Each operation first checks that the current thread has not been
+ * interrupted and that its deadline has not passed, as the interpreter does
+ * before each instruction.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaExpressionBackend#METHOD_HANDLE
+ */
+abstract class PumaMethodHandleCompiler {
+
+	/** The maximum number of instructions compiled into a method handle. */
+	static final int MAXIMUM_INSTRUCTIONS = 200;
+
+	/** The method handle that yields an element of an array of Puma numbers. */
+	private static final MethodHandle ELEMENT_GETTER = MethodHandles
+			.arrayElementGetter(Puma[].class);
+
+	/** The method handles that apply each operator, in order of the operators. */
+	private static final MethodHandle[] OPERATIONS;
+
+	static {
+
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+		MethodType operationType = MethodType.methodType(Puma.class,
+				Puma.class);
+
+		MethodHandle check;
+
+		PumaOperator[] operators = PumaOperator.values();
+
+		OPERATIONS = new MethodHandle[operators.length];
+
+		try {
+
+			check = lookup.findStatic(PumaMethodHandleCompiler.class,
+					"checkDeadline", MethodType.methodType(void.class));
+
+			for (PumaOperator operator : operators) {
+
+				String name = null;
+
+				switch (operator) {
+
+				case ADD:
+
+					name = "add";
+
+					break;
+
+				case SUBTRACT:
+
+					name = "subtract";
+
+					break;
+
+				case MULTIPLY:
+
+					name = "multiply";
+
+					break;
+
+				case DIVIDE:
+
+					name = "divide";
+
+					break;
+
+				case POWER:
+
+					name = "power";
+
+					break;
+
+				default:
+
+					name = "modulus";
+
+				}
+
+				// check the deadline before applying the operator
+				OPERATIONS[operator.ordinal()] = MethodHandles.foldArguments(
+						lookup.findVirtual(Puma.class, name, operationType),
+						check);
+
+			}
+
+		} catch (ReflectiveOperationException error) {
+
+			throw new ExceptionInInitializerError(error);
+
+		}
+
+	}
+
+	/**
+	 * Asserts that the current thread has not been interrupted and that its
+	 * deadline, if any, has not passed.
+	 * 
+	 * @exception CalculationInterruptedException
+	 *                if the thread was interrupted or the deadline passed.
+	 */
+	private static void checkDeadline() throws CalculationInterruptedException {
+
+		PumaDeadline.check(null);
+
+	}
+
+	/**
+	 * Compiles the specified instructions into a method handle of type
+	 * {@code (Puma[])Puma} that accepts the Puma numbers bound to the variables
+	 * and yields the result of the last instruction.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @return the method handle or null if there are too many instructions.
+	 */
+	static MethodHandle compile(PumaInstruction[] instructions) {
+
+		int instructionsLength = instructions.length;
+
+		if (instructionsLength > MAXIMUM_INSTRUCTIONS) {
+
+			return null;
+
+		}
+
+		// the handle that executes the instructions from index k onwards
+		// accepts the results of the preceding instructions, the most recent
+		// first, followed by the arguments: (r[k - 1], ..., r[0], arguments)
+
+		Class<?>[] parameters = new Class<?>[instructionsLength + 1];
+
+		Arrays.fill(parameters, Puma.class);
+
+		parameters[instructionsLength] = Puma[].class;
+
+		// yield the result of the last instruction being the first parameter
+		MethodHandle handle = MethodHandles.dropArguments(MethodHandles
+				.identity(Puma.class), 1, Arrays.copyOfRange(parameters, 1,
+				instructionsLength + 1));
+
+		for (int index = instructionsLength - 1; index >= 0; index--) {
+
+			// the parameters that precede the instruction at the index
+			Class<?>[] preceding = Arrays.copyOfRange(parameters,
+					instructionsLength - index, instructionsLength + 1);
+
+			MethodHandle combiner = compileInstruction(instructions[index],
+					index, preceding);
+
+			handle = MethodHandles.foldArguments(handle, combiner);
+
+		}
+
+		return handle;
+
+	}
+
+	/**
+	 * Compiles the specified instruction into a method handle that accepts the
+	 * results of the preceding instructions, the most recent first, followed
+	 * by the arguments and yields the result of the instruction.
+	 * 
+	 * @param instruction
+	 *            the instruction.
+	 * @param index
+	 *            the index of the instruction.
+	 * @param preceding
+	 *            the types of the parameters.
+	 * @return the method handle.
+	 */
+	private static MethodHandle compileInstruction(
+			PumaInstruction instruction, int index, Class<?>[] preceding) {
+
+		if (instruction.constant()) {
+
+			return MethodHandles.dropArguments(MethodHandles.constant(
+					Puma.class, instruction.getConstant()), 0, preceding);
+
+		}
+
+		if (instruction.variable()) {
+
+			MethodHandle variable = MethodHandles.insertArguments(
+					ELEMENT_GETTER, 1, instruction.getVariable());
+
+			return MethodHandles.dropArguments(variable, 0, Arrays
+					.copyOfRange(preceding, 0, index));
+
+		}
+
+		MethodHandle operation = OPERATIONS[instruction.getOperator()
+				.ordinal()];
+
+		// the result of the instruction at index i is the parameter at
+		// (index - 1 - i)
+		int left = index - 1 - instruction.getLeft();
+		int right = index - 1 - instruction.getRight();
+
+		return MethodHandles.permuteArguments(operation, MethodType
+				.methodType(Puma.class, preceding), left, right);
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+/**
+ * Enumerates the operators that may be applied within a Puma expression.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaExpression
+ */
+enum PumaOperator {
+
+	/** Adds the right operand to the left operand. */
+	ADD('+') {
+
+		@Override
+		Puma apply(Puma left, Puma right) {
+
+			return left.add(right);
+
+		}
+
+	},
+
+	/** Subtracts the right operand from the left operand. */
+	SUBTRACT('-') {
+
+		@Override
+		Puma apply(Puma left, Puma right) {
+
+			return left.subtract(right);
+
+		}
+
+	},
+
+	/** Multiplies the left operand by the right operand. */
+	MULTIPLY('*') {
+
+		@Override
+		Puma apply(Puma left, Puma right) {
+
+			return left.multiply(right);
+
+		}
+
+	},
+
+	/** Divides the right operand into the left operand. */
+	DIVIDE('/') {
+
+		@Override
+		Puma apply(Puma left, Puma right) {
+
+			return left.divide(right);
+
+		}
+
+	},
+
+	/** Raises the left operand to the power of the right operand. */
+	POWER('^') {
+
+		@Override
+		Puma apply(Puma left, Puma right) {
+
+			return left.power(right);
+
+		}
+
+	},
+
+	/** Yields the modulus of the left operand divided by the right operand. */
+	MODULUS('%') {
+
+		@Override
+		Puma apply(Puma left, Puma right) {
+
+			return left.modulus(right);
+
+		}
+
+	};
+
+	/** The symbol that represents the operator within a Puma expression. */
+	private final char symbol;
+
+	/**
+	 * Creates a Puma operator represented by the specified symbol.
+	 * 
+	 * @param symbol
+	 *            the symbol.
+	 */
+	private PumaOperator(char symbol) {
+
+		this.symbol = symbol;
+
+	}
+
+	/**
+	 * Applies this Puma operator to the specified operands.
+	 * 
+	 * @param left
+	 *            the left operand.
+	 * @param right
+	 *            the right operand.
+	 * @return the result.
+	 */
+	abstract Puma apply(Puma left, Puma right);
+
+	/**
+	 * Gets the symbol that represents this Puma operator.
+	 * 
+	 * @return the symbol.
+	 */
+	char getSymbol() {
+
+		return symbol;
+
+	}
+
+	/**
+	 * Yields the Puma operator represented by the specified symbol.
+	 * 
+	 * @param symbol
+	 *            the symbol.
+	 * @return the operator or null if the symbol does not represent an
+	 *         operator.
+	 */
+	static PumaOperator valueOf(char symbol) {
+
+		for (PumaOperator operator : values()) {
+
+			if (operator.symbol == symbol) {
+
+				return operator;
+
+			}
+
+		}
+
+		return null;
+
+	}
+
+}
\ No newline at end of file
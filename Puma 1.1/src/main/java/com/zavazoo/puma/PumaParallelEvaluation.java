@@ -0,0 +1,579 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Evaluates the instructions of a compiled Puma expression in parallel, by
+ * estimating the cost of evaluating each instruction together with its
+ * operands and evaluating the operands of an instruction concurrently if both
+ * operands are expensive.<br/>
+ * <br/>
+ * The cost of an instruction is estimated from the sizes of its operands, in
+ * bits, and the relative expense of its operator. The result of every
+ * instruction is retained once evaluated, such that an instruction referred to
+ * by several later instructions is evaluated once, and any instruction that is
+ * claimed by one thread is joined by any other thread that requires its
+ * result. Since every Puma operation is deterministic, the result is identical
+ * to the result of evaluating the instructions sequentially.<br/>
+ * <br/>
+ * Each Puma parallel evaluation is used to evaluate a compiled Puma expression
+ * once.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.CompiledPumaExpression#evaluateParallel(Puma[])
+ */
+final class PumaParallelEvaluation {
+
+	/**
+	 * The default estimated cost above which the operands of an instruction
+	 * are evaluated concurrently, roughly equivalent to adding two integers of
+	 * a million bits.
+	 */
+	static final long DEFAULT_THRESHOLD = 1L << 21;
+
+	/**
+	 * The maximum number of nested expensive instructions evaluated by forking,
+	 * beyond which the remaining instructions are evaluated sequentially so as
+	 * not to exhaust the stack.
+	 */
+	private static final int MAXIMUM_DEPTH = 256;
+
+	/** The instructions. */
+	private final PumaInstruction[] instructions;
+
+	/** The Puma numbers in order of the variables. */
+	private final Puma[] arguments;
+
+	/** The estimated cost above which operands are evaluated concurrently. */
+	private final long threshold;
+
+	/**
+	 * The estimated cost of evaluating each instruction together with its
+	 * operands.
+	 */
+	private final long[] costs;
+
+	/** The result of each instruction once evaluated. */
+	private final AtomicReferenceArray<Puma> results;
+
+	/** The task that evaluates each expensive instruction once claimed. */
+	private final AtomicReferenceArray<InstructionTask> tasks;
+
+	/**
+	 * The Puma context in force when the evaluation was created, which every
+	 * task enters whichever thread performs it.
+	 */
+	private final PumaContext.Captured captured;
+
+	/**
+	 * Creates a Puma parallel evaluation of the specified instructions using
+	 * the specified Puma numbers bound to the variables.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @param threshold
+	 *            the estimated cost above which operands are evaluated
+	 *            concurrently.
+	 */
+	PumaParallelEvaluation(PumaInstruction[] instructions, Puma[] arguments,
+			long threshold) {
+
+		this.instructions = instructions;
+		this.arguments = arguments;
+		this.threshold = threshold;
+
+		captured = PumaContext.capture();
+
+		int instructionsLength = instructions.length;
+
+		costs = estimateCosts(instructions, arguments);
+
+		results = new AtomicReferenceArray<Puma>(instructionsLength);
+		tasks = new AtomicReferenceArray<InstructionTask>(instructionsLength);
+
+	}
+
+	/**
+	 * Creates the task that evaluates the last instruction and yields the
+	 * result.
+	 * 
+	 * @return the task.
+	 */
+	ForkJoinTask<Puma> createTask() {
+
+		int result = instructions.length - 1;
+
+		InstructionTask task = new InstructionTask(result, 0);
+
+		tasks.set(result, task);
+
+		return task;
+
+	}
+
+	/**
+	 * Yields the result of the instruction at the specified index, evaluating
+	 * the instruction if it has not yet been evaluated.
+	 * 
+	 * @param index
+	 *            the index of the instruction.
+	 * @param depth
+	 *            the number of nested expensive instructions.
+	 * @return the result.
+	 */
+	private Puma evaluate(int index, int depth) {
+
+		Puma result = results.get(index);
+
+		if (result != null) {
+
+			return result;
+
+		}
+
+		if (!expensive(index) || depth > MAXIMUM_DEPTH) {
+
+			return evaluateSequentially(index);
+
+		}
+
+		InstructionTask task = claim(index, depth);
+
+		if (task == null) {
+
+			// claimed by another thread
+			return tasks.get(index).join();
+
+		}
+
+		return task.invoke();
+
+	}
+
+	/**
+	 * Claims the task that evaluates the expensive instruction at the
+	 * specified index.
+	 * 
+	 * @param index
+	 *            the index of the instruction.
+	 * @param depth
+	 *            the number of nested expensive instructions.
+	 * @return the task or null if the task has already been claimed.
+	 */
+	private InstructionTask claim(int index, int depth) {
+
+		InstructionTask task = new InstructionTask(index, depth);
+
+		if (tasks.compareAndSet(index, null, task)) {
+
+			return task;
+
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Evaluates the instruction at the specified index together with any of
+	 * its operands that have not yet been evaluated, in order, in the current
+	 * thread.
+	 * 
+	 * @param index
+	 *            the index of the instruction.
+	 * @return the result.
+	 */
+	private Puma evaluateSequentially(int index) {
+
+		// mark the instructions that must be evaluated
+		boolean[] required = new boolean[index + 1];
+
+		required[index] = true;
+
+		for (int current = index; current >= 0; current--) {
+
+			if (!required[current]) {
+
+				continue;
+
+			}
+
+			PumaInstruction instruction = instructions[current];
+
+			if (instruction.getOperator() != null
+					&& results.get(current) == null) {
+
+				required[instruction.getLeft()] = true;
+				required[instruction.getRight()] = true;
+
+			}
+
+		}
+
+		Puma result = null;
+
+		for (int current = 0; current <= index; current++) {
+
+			if (!required[current]) {
+
+				continue;
+
+			}
+
+			result = results.get(current);
+
+			if (result == null) {
+
+				result = execute(current);
+
+				results.set(current, result);
+
+			}
+
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * Executes the instruction at the specified index, whose operands have been
+	 * evaluated.
+	 * 
+	 * @param index
+	 *            the index of the instruction.
+	 * @return the result.
+	 */
+	private Puma execute(int index) {
+
+		PumaInstruction instruction = instructions[index];
+
+		PumaOperator operator = instruction.getOperator();
+
+		PumaDeadline.check(null);
+
+		if (operator == null) {
+
+			return instruction.execute(null, arguments);
+
+		}
+
+		return operator.apply(results.get(instruction.getLeft()), results
+				.get(instruction.getRight()));
+
+	}
+
+	/**
+	 * Asserts that the instruction at the specified index is an operation
+	 * whose estimated cost exceeds the threshold.
+	 * 
+	 * @param index
+	 *            the index of the instruction.
+	 * @return true if the instruction is expensive, false otherwise.
+	 */
+	private boolean expensive(int index) {
+
+		return instructions[index].getOperator() != null
+				&& costs[index] > threshold;
+
+	}
+
+	/**
+	 * Estimates the cost of evaluating each of the specified instructions
+	 * together with its operands.
+	 * 
+	 * @param instructions
+	 *            the instructions.
+	 * @param arguments
+	 *            the Puma numbers in order of the variables.
+	 * @return the costs.
+	 */
+	private static long[] estimateCosts(PumaInstruction[] instructions,
+			Puma[] arguments) {
+
+		int instructionsLength = instructions.length;
+
+		// the estimated size of the result of each instruction in bits
+		long[] sizes = new long[instructionsLength];
+
+		long[] costs = new long[instructionsLength];
+
+		for (int index = 0; index < instructionsLength; index++) {
+
+			PumaInstruction instruction = instructions[index];
+
+			PumaOperator operator = instruction.getOperator();
+
+			if (operator == null) {
+
+				sizes[index] = size(instruction.execute(null, arguments));
+
+				continue;
+
+			}
+
+			int left = instruction.getLeft();
+			int right = instruction.getRight();
+
+			long leftSize = sizes[left];
+			long rightSize = sizes[right];
+
+			long size = leftSize + rightSize;
+			long cost = leftSize + rightSize;
+
+			switch (operator) {
+
+			case ADD:
+			case SUBTRACT:
+
+				break;
+
+			case MULTIPLY:
+
+				cost += leftSize / 64 * rightSize;
+
+				break;
+
+			case DIVIDE:
+
+				// division also attempts to reduce the quotient
+				cost += 4 * (leftSize / 64 + 1) * rightSize;
+
+				break;
+
+			case MODULUS:
+
+				size = rightSize;
+
+				cost += 4 * (leftSize / 64 + 1) * rightSize;
+
+				break;
+
+			default:
+
+				// the power is estimated iteratively to 10 decimal places
+				size = 16 * leftSize;
+
+				cost += 4096 * (leftSize / 64 + 1) * (size + rightSize);
+
+			}
+
+			sizes[index] = Math.min(size, Integer.MAX_VALUE);
+
+			costs[index] = saturatedAdd(cost, saturatedAdd(costs[left],
+					costs[right]));
+
+		}
+
+		return costs;
+
+	}
+
+	/**
+	 * Estimates the size of the specified Puma number in bits.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the size.
+	 */
+	private static long size(Puma number) {
+
+		long size = size(number.getNumerator());
+
+		BigDecimal denominator = number.getDenominator();
+
+		if (denominator != null) {
+
+			size += size(denominator);
+
+		}
+
+		return size;
+
+	}
+
+	/**
+	 * Estimates the size of the specified big decimal in bits, including the
+	 * scale.
+	 * 
+	 * @param decimal
+	 *            the big decimal.
+	 * @return the size.
+	 */
+	private static long size(BigDecimal decimal) {
+
+		// each decimal digit of the scale represents about 3.3 bits
+		return decimal.unscaledValue().bitLength() + 1
+				+ Math.abs((long) decimal.scale()) * 10 / 3;
+
+	}
+
+	/**
+	 * Adds the specified non-negative costs without overflow.
+	 * 
+	 * @param first
+	 *            the first cost.
+	 * @param second
+	 *            the second cost.
+	 * @return the sum or the maximum cost.
+	 */
+	private static long saturatedAdd(long first, long second) {
+
+		long sum = first + second;
+
+		if (sum < 0) {
+
+			return Long.MAX_VALUE;
+
+		}
+
+		return sum;
+
+	}
+
+	/**
+	 * Evaluates an expensive instruction, evaluating its operands concurrently
+	 * if both operands are expensive.
+	 */
+	private final class InstructionTask extends RecursiveTask<Puma> {
+
+		/** The serialization version unique identifier. */
+		private static final long serialVersionUID = 1l;
+
+		/** The index of the instruction. */
+		private final int index;
+
+		/** The number of nested expensive instructions. */
+		private final int depth;
+
+		/**
+		 * Creates a task that evaluates the instruction at the specified index.
+		 * 
+		 * @param index
+		 *            the index of the instruction.
+		 * @param depth
+		 *            the number of nested expensive instructions.
+		 */
+		private InstructionTask(int index, int depth) {
+
+			this.index = index;
+			this.depth = depth;
+
+		}
+
+		/**
+		 * Evaluates the instruction within the captured Puma context.
+		 * 
+		 * @return the result.
+		 */
+		@Override
+		protected Puma compute() {
+
+			PumaContext.Scope scope = captured.enter();
+
+			try {
+
+				return evaluateInstruction();
+
+			} finally {
+
+				scope.close();
+
+			}
+
+		}
+
+		/**
+		 * Evaluates the instruction.
+		 * 
+		 * @return the result.
+		 */
+		private Puma evaluateInstruction() {
+
+			Puma result = results.get(index);
+
+			if (result != null) {
+
+				return result;
+
+			}
+
+			PumaInstruction instruction = instructions[index];
+
+			PumaOperator operator = instruction.getOperator();
+
+			if (operator == null || depth > MAXIMUM_DEPTH) {
+
+				return evaluateSequentially(index);
+
+			}
+
+			int left = instruction.getLeft();
+			int right = instruction.getRight();
+
+			Puma leftResult = null;
+			Puma rightResult = null;
+
+			if (left != right && expensive(left) && expensive(right)
+					&& results.get(left) == null) {
+
+				InstructionTask leftTask = claim(left, depth + 1);
+
+				if (leftTask != null) {
+
+					leftTask.fork();
+
+				} else {
+
+					leftTask = tasks.get(left);
+
+				}
+
+				rightResult = evaluate(right, depth + 1);
+
+				leftResult = leftTask.join();
+
+			} else {
+
+				leftResult = evaluate(left, depth + 1);
+				rightResult = evaluate(right, depth + 1);
+
+			}
+
+			PumaDeadline.check(null);
+
+			result = operator.apply(leftResult, rightResult);
+
+			results.set(index, result);
+
+			return result;
+
+		}
+
+	}
+
+}
\ No newline at end of file
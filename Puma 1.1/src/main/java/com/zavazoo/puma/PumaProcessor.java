@@ -0,0 +1,411 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Represents a processor that publishes one Puma number for every item it
+ * receives, to a single subscriber.<br/>
+ * <br/>
+ * Items are requested from the publisher in batches, no more than the
+ * subscriber has requested and no more than the batch size at a time, and a
+ * further batch is requested only once half of the items requested have been
+ * received, such that a fast subscriber does not cause a request for every
+ * item and a slow subscriber is never sent more items than it requested.<br/>
+ * <br/>
+ * If processing an item fails then the subscription to the publisher is
+ * cancelled and the subscriber receives the error.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @param <T>
+ *            the type of the items received.
+ */
+public abstract class PumaProcessor<T> implements PumaFlow.Processor<T, Puma> {
+
+	/** The default number of items requested from the publisher at a time. */
+	public static final int DEFAULT_BATCH_SIZE = 64;
+
+	/** The number of items requested from the publisher at a time. */
+	private final int batchSize;
+
+	/** The subscription to the publisher. */
+	private final AtomicReference<PumaFlow.Subscription> upstream = new AtomicReference<PumaFlow.Subscription>();
+
+	/** The subscriber. */
+	private final AtomicReference<PumaFlow.Subscriber<? super Puma>> downstream = new AtomicReference<PumaFlow.Subscriber<? super Puma>>();
+
+	/** The number of items requested by the subscriber yet to be published. */
+	private final AtomicLong demand = new AtomicLong();
+
+	/** The number of items requested from the publisher yet to be received. */
+	private final AtomicLong pending = new AtomicLong();
+
+	/** The number of outstanding attempts to request items. */
+	private final AtomicInteger requesting = new AtomicInteger();
+
+	/** Asserts that the subscriber has received a terminal signal. */
+	private final AtomicBoolean terminated = new AtomicBoolean();
+
+	/** Asserts that the subscriber has cancelled. */
+	private volatile boolean cancelled;
+
+	/** Asserts that the publisher has completed. */
+	private volatile boolean completed;
+
+	/** The error that terminated processing, or null. */
+	private volatile Throwable error;
+
+	/**
+	 * Creates a Puma processor that requests items from the publisher in
+	 * batches of the default size.
+	 */
+	protected PumaProcessor() {
+
+		this(DEFAULT_BATCH_SIZE);
+
+	}
+
+	/**
+	 * Creates a Puma processor that requests items from the publisher in
+	 * batches of the specified size.
+	 * 
+	 * @param batchSize
+	 *            the batch size.
+	 * @throws IllegalArgumentException
+	 *             if the batch size is not positive.
+	 */
+	protected PumaProcessor(int batchSize) {
+
+		if (batchSize <= 0) {
+
+			throw new IllegalArgumentException("The batch size [" + batchSize
+					+ "] must be positive");
+
+		}
+
+		this.batchSize = batchSize;
+
+	}
+
+	/**
+	 * Processes the specified item and yields the Puma number to publish.
+	 * Items are processed one at a time, in the order they are received.
+	 * 
+	 * @param item
+	 *            the item.
+	 * @return the number.
+	 */
+	protected abstract Puma process(T item);
+
+	/**
+	 * Adds the specified subscriber, which is the only subscriber this Puma
+	 * processor will accept.
+	 * 
+	 * @param subscriber
+	 *            the subscriber.
+	 */
+	public void subscribe(PumaFlow.Subscriber<? super Puma> subscriber) {
+
+		if (!downstream.compareAndSet(null, subscriber)) {
+
+			subscriber.onSubscribe(new PumaFlow.Subscription() {
+
+				public void request(long count) {
+
+				}
+
+				public void cancel() {
+
+				}
+
+			});
+
+			subscriber.onError(new IllegalStateException(
+					"The processor already has a subscriber"));
+
+			return;
+
+		}
+
+		subscriber.onSubscribe(new PumaFlow.Subscription() {
+
+			public void request(long count) {
+
+				if (count <= 0) {
+
+					fail(new IllegalArgumentException("The request count ["
+							+ count + "] must be positive"));
+
+					return;
+
+				}
+
+				long current;
+				long updated;
+
+				do {
+
+					current = demand.get();
+
+					updated = current + count;
+
+					if (updated < 0) {
+
+						updated = Long.MAX_VALUE;
+
+					}
+
+				} while (!demand.compareAndSet(current, updated));
+
+				requestItems();
+
+			}
+
+			public void cancel() {
+
+				cancelled = true;
+
+				cancelUpstream();
+
+			}
+
+		});
+
+		signalTerminal();
+
+		requestItems();
+
+	}
+
+	/**
+	 * Receives the subscription to the publisher.
+	 * 
+	 * @param subscription
+	 *            the subscription.
+	 */
+	public void onSubscribe(PumaFlow.Subscription subscription) {
+
+		if (!upstream.compareAndSet(null, subscription) || cancelled) {
+
+			subscription.cancel();
+
+			return;
+
+		}
+
+		requestItems();
+
+	}
+
+	/**
+	 * Receives an item from the publisher, and publishes the Puma number
+	 * yielded by processing the item.
+	 * 
+	 * @param item
+	 *            the item.
+	 */
+	public void onNext(T item) {
+
+		if (cancelled || terminated.get()) {
+
+			return;
+
+		}
+
+		// decrementing the demand first ensures that no more items are
+		// requested than the subscriber has requested
+		demand.decrementAndGet();
+		pending.decrementAndGet();
+
+		Puma result;
+
+		try {
+
+			result = process(item);
+
+		} catch (RuntimeException failure) {
+
+			fail(failure);
+
+			return;
+
+		}
+
+		downstream.get().onNext(result);
+
+		requestItems();
+
+	}
+
+	/**
+	 * Receives the error that terminated the subscription to the publisher,
+	 * and passes the error to the subscriber.
+	 * 
+	 * @param error
+	 *            the error.
+	 */
+	public void onError(Throwable error) {
+
+		this.error = error;
+
+		signalTerminal();
+
+	}
+
+	/**
+	 * Receives notification that the publisher has completed, and passes the
+	 * notification to the subscriber.
+	 */
+	public void onComplete() {
+
+		completed = true;
+
+		signalTerminal();
+
+	}
+
+	/**
+	 * Gets the number of items requested from the publisher at a time.
+	 * 
+	 * @return the batch size.
+	 */
+	public int getBatchSize() {
+
+		return batchSize;
+
+	}
+
+	/**
+	 * Requests a further batch of items from the publisher if fewer than half
+	 * of the items previously requested are yet to be received and the
+	 * subscriber has requested more items than are yet to be received. Only
+	 * one thread requests items at a time, and a thread that finds another
+	 * thread requesting items leaves the other thread to request again.
+	 */
+	private void requestItems() {
+
+		if (requesting.getAndIncrement() != 0) {
+
+			return;
+
+		}
+
+		do {
+
+			PumaFlow.Subscription subscription = upstream.get();
+
+			if (subscription != null && !cancelled && !terminated.get()) {
+
+				long outstanding = pending.get();
+				long requested = demand.get();
+
+				if (outstanding <= batchSize / 2 && requested > outstanding) {
+
+					long count = Math.min(batchSize - outstanding, requested
+							- outstanding);
+
+					pending.addAndGet(count);
+
+					subscription.request(count);
+
+				}
+
+			}
+
+		} while (requesting.decrementAndGet() != 0);
+
+	}
+
+	/**
+	 * Cancels the subscription to the publisher and passes the specified
+	 * error to the subscriber.
+	 * 
+	 * @param failure
+	 *            the error.
+	 */
+	private void fail(Throwable failure) {
+
+		cancelUpstream();
+
+		onError(failure);
+
+	}
+
+	/**
+	 * Cancels the subscription to the publisher, if any.
+	 */
+	private void cancelUpstream() {
+
+		PumaFlow.Subscription subscription = upstream.get();
+
+		if (subscription != null) {
+
+			subscription.cancel();
+
+		}
+
+	}
+
+	/**
+	 * Passes the error or completion of the publisher to the subscriber, once
+	 * there is both a subscriber and an error or completion.
+	 */
+	private void signalTerminal() {
+
+		PumaFlow.Subscriber<? super Puma> subscriber = downstream.get();
+
+		if (subscriber == null || cancelled) {
+
+			return;
+
+		}
+
+		Throwable failure = error;
+
+		if (failure == null && !completed) {
+
+			return;
+
+		}
+
+		if (!terminated.compareAndSet(false, true)) {
+
+			return;
+
+		}
+
+		if (failure != null) {
+
+			subscriber.onError(failure);
+
+		} else {
+
+			subscriber.onComplete();
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,888 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Represents the value of a Puma number as an integer numerator divided by an
+ * integer denominator, where the denominator is never negative and is zero
+ * only when the value represents positive or negative infinity.<br/>
+ * <br/>
+ * Puma rationals are immutable and thread-safe but are not necessarily reduced
+ * to the lowest terms.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+final class PumaRational {
+
+	/** The number of bits in the significand of a double, including the implicit bit. */
+	private static final int DOUBLE_PRECISION = 53;
+
+	/** The number of bits in the significand of a float, including the implicit bit. */
+	private static final int FLOAT_PRECISION = 24;
+
+	/** The base two logarithm of five. */
+	private static final double LOG_TWO_FIVE = Math.log(5) / Math.log(2);
+
+	/** The big integer five. */
+	private static final BigInteger FIVE = BigInteger.valueOf(5);
+
+	/** The integer numerator. */
+	private final BigInteger numerator;
+
+	/** The integer denominator. */
+	private final BigInteger denominator;
+
+	/**
+	 * Creates a Puma rational using the specified integer numerator and the
+	 * specified non-negative integer denominator.
+	 * 
+	 * @param numerator
+	 *            the numerator.
+	 * @param denominator
+	 *            the denominator.
+	 */
+	PumaRational(BigInteger numerator, BigInteger denominator) {
+
+		this.numerator = numerator;
+		this.denominator = denominator;
+
+	}
+
+	/**
+	 * Yields a Puma rational equivalent to the specified Puma number.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the rational.
+	 */
+	static PumaRational valueOf(Puma number) {
+
+		return valueOf(number.getNumerator(), number.getDenominator());
+
+	}
+
+	/**
+	 * Yields a Puma rational equivalent to the specified numerator and
+	 * denominator of a Puma number.
+	 * 
+	 * @param numerator
+	 *            the numerator.
+	 * @param denominator
+	 *            the denominator or null.
+	 * @return the rational.
+	 */
+	static PumaRational valueOf(BigDecimal numerator, BigDecimal denominator) {
+
+		if (denominator == null) {
+
+			denominator = Puma.ONE_BIG_DECIMAL;
+
+		}
+
+		BigInteger integerNumerator = numerator.unscaledValue();
+		BigInteger integerDenominator = denominator.unscaledValue();
+
+		// x/y = (x * (10 ^ z)) / (y * (10 ^ z)) where z reconciles the scales
+
+		int scale = denominator.scale() - numerator.scale();
+
+		if (scale > 0) {
+
+			integerNumerator = integerNumerator.multiply(BigInteger.TEN
+					.pow(scale));
+
+		} else if (scale < 0) {
+
+			integerDenominator = integerDenominator.multiply(BigInteger.TEN
+					.pow(-scale));
+
+		}
+
+		if (integerDenominator.signum() < 0) {
+
+			integerNumerator = integerNumerator.negate();
+			integerDenominator = integerDenominator.negate();
+
+		}
+
+		return new PumaRational(integerNumerator, integerDenominator);
+
+	}
+
+	/**
+	 * Adds the specified finite Puma rational to this finite Puma rational
+	 * without reducing the result.
+	 * 
+	 * @param rational
+	 *            the rational.
+	 * @return the result.
+	 */
+	PumaRational add(PumaRational rational) {
+
+		if (denominator.equals(rational.denominator)) {
+
+			// a/b + x/b = (a + x) / b
+			return new PumaRational(numerator.add(rational.numerator),
+					denominator);
+
+		}
+
+		// a/b + x/y = ((a * y) + (x * b)) / (b * y)
+		return new PumaRational(numerator.multiply(rational.denominator).add(
+				rational.numerator.multiply(denominator)), denominator
+				.multiply(rational.denominator));
+
+	}
+
+	/**
+	 * Subtracts the specified finite Puma rational from this finite Puma
+	 * rational without reducing the result.
+	 * 
+	 * @param rational
+	 *            the rational.
+	 * @return the result.
+	 */
+	PumaRational subtract(PumaRational rational) {
+
+		return add(rational.negate());
+
+	}
+
+	/**
+	 * Multiplies this finite Puma rational by the specified finite Puma
+	 * rational without reducing the result.
+	 * 
+	 * @param rational
+	 *            the rational.
+	 * @return the result.
+	 */
+	PumaRational multiply(PumaRational rational) {
+
+		// a/b * x/y = (a * x) / (b * y)
+		return new PumaRational(numerator.multiply(rational.numerator),
+				denominator.multiply(rational.denominator));
+
+	}
+
+	/**
+	 * Divides the specified finite non-zero Puma rational into this finite
+	 * Puma rational without reducing the result.
+	 * 
+	 * @param rational
+	 *            the rational.
+	 * @return the result.
+	 */
+	PumaRational divide(PumaRational rational) {
+
+		// a/b / x/y = (a * y) / (b * x)
+		BigInteger dividedNumerator = numerator.multiply(rational.denominator);
+		BigInteger dividedDenominator = denominator
+				.multiply(rational.numerator);
+
+		if (dividedDenominator.signum() < 0) {
+
+			dividedNumerator = dividedNumerator.negate();
+			dividedDenominator = dividedDenominator.negate();
+
+		}
+
+		return new PumaRational(dividedNumerator, dividedDenominator);
+
+	}
+
+	/**
+	 * Negates this Puma rational.
+	 * 
+	 * @return the result.
+	 */
+	PumaRational negate() {
+
+		return new PumaRational(numerator.negate(), denominator);
+
+	}
+
+	/**
+	 * Reduces this finite Puma rational to the lowest terms by dividing the
+	 * numerator and denominator by their greatest common divisor.
+	 * 
+	 * @return the reduced rational.
+	 */
+	PumaRational reduce() {
+
+		BigInteger divisor = numerator.gcd(denominator);
+
+		if (divisor.signum() == 0 || divisor.equals(BigInteger.ONE)) {
+
+			return this;
+
+		}
+
+		return new PumaRational(numerator.divide(divisor), denominator
+				.divide(divisor));
+
+	}
+
+	/**
+	 * Adds the specified finite Puma rational to this finite Puma rational
+	 * over the least common multiple of the denominators.
+	 * 
+	 * @param rational
+	 *            the rational.
+	 * @return the result.
+	 */
+	PumaRational addCancelling(PumaRational rational) {
+
+		BigInteger divisor = denominator.gcd(rational.denominator);
+
+		if (divisor.equals(BigInteger.ONE)) {
+
+			return add(rational);
+
+		}
+
+		// a/b + x/y = ((a * (y / d)) + (x * (b / d))) / ((b / d) * y)
+
+		BigInteger nativeFactor = rational.denominator.divide(divisor);
+		BigInteger specifiedFactor = denominator.divide(divisor);
+
+		return new PumaRational(numerator.multiply(nativeFactor).add(
+				rational.numerator.multiply(specifiedFactor)), specifiedFactor
+				.multiply(rational.denominator));
+
+	}
+
+	/**
+	 * Multiplies this finite Puma rational by the specified finite Puma
+	 * rational, cancelling the common factors of each numerator and the
+	 * opposite denominator before multiplying.
+	 * 
+	 * @param rational
+	 *            the rational.
+	 * @return the result.
+	 */
+	PumaRational multiplyCancelling(PumaRational rational) {
+
+		// a/b * x/y = ((a / c) * (x / d)) / ((b / d) * (y / c))
+
+		BigInteger nativeDivisor = numerator.gcd(rational.denominator);
+		BigInteger specifiedDivisor = rational.numerator.gcd(denominator);
+
+		return new PumaRational(numerator.divide(nativeDivisor).multiply(
+				rational.numerator.divide(specifiedDivisor)), denominator
+				.divide(specifiedDivisor).multiply(
+						rational.denominator.divide(nativeDivisor)));
+
+	}
+
+	/**
+	 * Divides the specified finite non-zero Puma rational into this finite
+	 * Puma rational, cancelling common factors before multiplying.
+	 * 
+	 * @param rational
+	 *            the rational.
+	 * @return the result.
+	 */
+	PumaRational divideCancelling(PumaRational rational) {
+
+		// a/b / x/y = a/b * y/x
+		if (rational.numerator.signum() < 0) {
+
+			return multiplyCancelling(new PumaRational(rational.denominator
+					.negate(), rational.numerator.negate()));
+
+		}
+
+		return multiplyCancelling(new PumaRational(rational.denominator,
+				rational.numerator));
+
+	}
+
+	/**
+	 * Yields the finite Puma rational closest to this finite Puma rational
+	 * whose denominator does not exceed the specified positive maximum,
+	 * reduced to the lowest terms.<br/>
+	 * The continued fraction of this rational is expanded until the next
+	 * convergent would exceed the maximum, whereupon the closest rational is
+	 * either the last convergent or the semiconvergent with the largest
+	 * denominator within the maximum that lies between the last two
+	 * convergents.
+	 * 
+	 * @param maximumDenominator
+	 *            the maximum denominator.
+	 * @return the closest rational.
+	 */
+	PumaRational limitDenominator(BigInteger maximumDenominator) {
+
+		PumaRational reduced = reduce();
+
+		if (reduced.denominator.compareTo(maximumDenominator) <= 0) {
+
+			return reduced;
+
+		}
+
+		// the convergents before the last and last: p0/q0 and p1/q1
+
+		BigInteger previousNumerator = BigInteger.ZERO;
+		BigInteger previousDenominator = BigInteger.ONE;
+		BigInteger lastNumerator = BigInteger.ONE;
+		BigInteger lastDenominator = BigInteger.ZERO;
+
+		BigInteger remainingNumerator = reduced.numerator;
+		BigInteger remainingDenominator = reduced.denominator;
+
+		// the last convergent is exact only when its denominator is that of the
+		// reduced rational, which exceeds the maximum, so the expansion always
+		// stops before the remainder reaches zero
+
+		for (;;) {
+
+			BigInteger[] quotient = floorDivide(remainingNumerator,
+					remainingDenominator);
+
+			BigInteger nextDenominator = previousDenominator.add(quotient[0]
+					.multiply(lastDenominator));
+
+			if (nextDenominator.compareTo(maximumDenominator) > 0) {
+
+				break;
+
+			}
+
+			BigInteger nextNumerator = previousNumerator.add(quotient[0]
+					.multiply(lastNumerator));
+
+			previousNumerator = lastNumerator;
+			previousDenominator = lastDenominator;
+			lastNumerator = nextNumerator;
+			lastDenominator = nextDenominator;
+
+			remainingNumerator = remainingDenominator;
+			remainingDenominator = quotient[1];
+
+		}
+
+		// (p0 + k * p1) / (q0 + k * q1) for the largest k within the maximum
+
+		BigInteger multiple = maximumDenominator.subtract(previousDenominator)
+				.divide(lastDenominator);
+
+		PumaRational semiconvergent = new PumaRational(previousNumerator
+				.add(multiple.multiply(lastNumerator)), previousDenominator
+				.add(multiple.multiply(lastDenominator)));
+
+		PumaRational convergent = new PumaRational(lastNumerator,
+				lastDenominator);
+
+		if (reduced.closer(semiconvergent, convergent)) {
+
+			return semiconvergent;
+
+		}
+
+		return convergent;
+
+	}
+
+	/**
+	 * Yields the finite Puma rational with the smallest denominator that lies
+	 * within the specified finite non-negative tolerance of this finite Puma
+	 * rational, reduced to the lowest terms.<br/>
+	 * Every such rational is a convergent or semiconvergent of the continued
+	 * fraction of this rational, and the semiconvergents between two
+	 * convergents approach this rational monotonically, therefore the
+	 * continued fraction is expanded until a convergent lies within the
+	 * tolerance and the first semiconvergent leading to that convergent which
+	 * lies within the tolerance is found by bisection.
+	 * 
+	 * @param tolerance
+	 *            the tolerance.
+	 * @return the rational.
+	 */
+	PumaRational approximate(PumaRational tolerance) {
+
+		PumaRational reduced = reduce();
+
+		BigInteger[] quotient = floorDivide(reduced.numerator,
+				reduced.denominator);
+
+		// the integers either side of this rational have the smallest
+		// denominator of all
+
+		PumaRational floor = new PumaRational(quotient[0], BigInteger.ONE);
+
+		PumaRational ceiling = new PumaRational(quotient[0]
+				.add(BigInteger.ONE), BigInteger.ONE);
+
+		boolean floorWithin = reduced.within(floor, tolerance);
+
+		if (quotient[1].signum() == 0) {
+
+			return floor;
+
+		}
+
+		if (reduced.within(ceiling, tolerance)) {
+
+			if (floorWithin && !reduced.closer(ceiling, floor)) {
+
+				return floor;
+
+			}
+
+			return ceiling;
+
+		}
+
+		if (floorWithin) {
+
+			return floor;
+
+		}
+
+		BigInteger previousNumerator = BigInteger.ONE;
+		BigInteger previousDenominator = BigInteger.ZERO;
+		BigInteger lastNumerator = quotient[0];
+		BigInteger lastDenominator = BigInteger.ONE;
+
+		BigInteger remainingNumerator = reduced.denominator;
+		BigInteger remainingDenominator = quotient[1];
+
+		// the expansion ends with this rational itself, which lies within any
+		// tolerance
+
+		for (;;) {
+
+			quotient = floorDivide(remainingNumerator, remainingDenominator);
+
+			PumaRational convergent = new PumaRational(previousNumerator
+					.add(quotient[0].multiply(lastNumerator)),
+					previousDenominator.add(quotient[0]
+							.multiply(lastDenominator)));
+
+			if (reduced.within(convergent, tolerance)) {
+
+				// bisect (p0 + k * p1) / (q0 + k * q1) for the smallest k
+
+				BigInteger lowest = BigInteger.ONE;
+				BigInteger highest = quotient[0];
+
+				PumaRational found = convergent;
+
+				while (lowest.compareTo(highest) < 0) {
+
+					BigInteger middle = lowest.add(highest).shiftRight(1);
+
+					PumaRational semiconvergent = new PumaRational(
+							previousNumerator.add(middle.multiply(lastNumerator)),
+							previousDenominator.add(middle
+									.multiply(lastDenominator)));
+
+					if (reduced.within(semiconvergent, tolerance)) {
+
+						highest = middle;
+
+						found = semiconvergent;
+
+					} else {
+
+						lowest = middle.add(BigInteger.ONE);
+
+					}
+
+				}
+
+				return found;
+
+			}
+
+			previousNumerator = lastNumerator;
+			previousDenominator = lastDenominator;
+			lastNumerator = convergent.numerator;
+			lastDenominator = convergent.denominator;
+
+			remainingNumerator = remainingDenominator;
+			remainingDenominator = quotient[1];
+
+		}
+
+	}
+
+	/**
+	 * Yields the bit length of the larger of the numerator and denominator of
+	 * this Puma rational, which bounds the cost of arithmetic upon it.
+	 * 
+	 * @return the bit length.
+	 */
+	int bitLength() {
+
+		return Math.max(numerator.bitLength(), denominator.bitLength());
+
+	}
+
+	/**
+	 * Asserts that this Puma rational is finite, having a non-zero
+	 * denominator.
+	 * 
+	 * @return true if this rational is finite, false otherwise.
+	 */
+	boolean finite() {
+
+		return denominator.signum() != 0;
+
+	}
+
+	/**
+	 * Asserts that this Puma rational is zero.
+	 * 
+	 * @return true if this rational is zero, false otherwise.
+	 */
+	boolean zero() {
+
+		return numerator.signum() == 0;
+
+	}
+
+	/**
+	 * Asserts that the denominator of this finite Puma rational has no prime
+	 * factor other than two and five, such that its value has a finite number
+	 * of decimal places.
+	 * 
+	 * @return true if the denominator divides a power of ten, false
+	 *         otherwise.
+	 */
+	boolean terminating() {
+
+		BigInteger odd = denominator.shiftRight(denominator.getLowestSetBit());
+
+		if (odd.equals(BigInteger.ONE)) {
+
+			return true;
+
+		}
+
+		// the bit length of 5 ^ z is the floor of z * log2(5) plus one
+
+		int exponent = (int) ((odd.bitLength() - 1) / LOG_TWO_FIVE);
+
+		return FIVE.pow(exponent).equals(odd)
+				|| FIVE.pow(exponent + 1).equals(odd);
+
+	}
+
+	/**
+	 * Yields a Puma number equivalent to this Puma rational, reduced to the
+	 * simplest possible form suitable for further calculations.<br/>
+	 * A Puma rational with a finite number of decimal places is divided
+	 * exactly without first being reduced.
+	 * 
+	 * @return the number.
+	 */
+	Puma toPuma() {
+
+		if (!finite()) {
+
+			return new Puma(new BigDecimal(numerator), Puma.ZERO_BIG_DECIMAL);
+
+		}
+
+		if (terminating()) {
+
+			return new Puma(new BigDecimal(numerator), new BigDecimal(
+					denominator));
+
+		}
+
+		PumaRational reduced = reduce();
+
+		if (reduced.denominator.equals(BigInteger.ONE)) {
+
+			return new Puma(new BigDecimal(reduced.numerator), null);
+
+		}
+
+		return new Puma(new BigDecimal(reduced.numerator), new BigDecimal(
+				reduced.denominator));
+
+	}
+
+	/**
+	 * Yields the double nearest to this Puma rational, choosing the double
+	 * with an even significand if the value is exactly half way between two
+	 * doubles, equivalent to the rounding used when parsing a double.
+	 * 
+	 * @return the double.
+	 */
+	double doubleValue() {
+
+		if (denominator.signum() == 0) {
+
+			return numerator.signum() < 0 ? Double.NEGATIVE_INFINITY
+					: Double.POSITIVE_INFINITY;
+
+		}
+
+		if (numerator.bitLength() <= DOUBLE_PRECISION
+				&& denominator.bitLength() <= DOUBLE_PRECISION) {
+
+			// both operands are exactly representable so a single division
+			// is correctly rounded
+			return (double) numerator.longValue()
+					/ (double) denominator.longValue();
+
+		}
+
+		return round(DOUBLE_PRECISION, Double.MIN_EXPONENT,
+				Double.MAX_EXPONENT);
+
+	}
+
+	/**
+	 * Yields the float nearest to this Puma rational, choosing the float with
+	 * an even significand if the value is exactly half way between two floats,
+	 * equivalent to the rounding used when parsing a float.
+	 * 
+	 * @return the float.
+	 */
+	float floatValue() {
+
+		if (denominator.signum() == 0) {
+
+			return numerator.signum() < 0 ? Float.NEGATIVE_INFINITY
+					: Float.POSITIVE_INFINITY;
+
+		}
+
+		if (numerator.bitLength() <= FLOAT_PRECISION
+				&& denominator.bitLength() <= FLOAT_PRECISION) {
+
+			// both operands are exactly representable so a single division
+			// is correctly rounded
+			return (float) numerator.intValue() / (float) denominator.intValue();
+
+		}
+
+		// the rounded value is exactly representable as a float
+		return (float) round(FLOAT_PRECISION, Float.MIN_EXPONENT,
+				Float.MAX_EXPONENT);
+
+	}
+
+	/**
+	 * Rounds this finite Puma rational to the nearest binary floating-point
+	 * number with the specified precision and exponent range, using a single
+	 * shift and divide to obtain two more bits than the precision and the
+	 * remainder of the division to break any ties.
+	 * 
+	 * @param precision
+	 *            the number of bits in the significand.
+	 * @param minimumExponent
+	 *            the minimum exponent of a normal number.
+	 * @param maximumExponent
+	 *            the maximum exponent of a finite number.
+	 * @return the rounded value expressed as a double.
+	 */
+	private double round(int precision, int minimumExponent,
+			int maximumExponent) {
+
+		int sign = numerator.signum();
+
+		if (sign == 0) {
+
+			return 0.0;
+
+		}
+
+		BigInteger dividend = numerator.abs();
+		BigInteger divisor = denominator;
+
+		// the quotient will comprise either precision + 2 or precision + 3
+		// bits
+
+		int shift = precision + 2
+				- (dividend.bitLength() - divisor.bitLength());
+
+		if (shift > 0) {
+
+			dividend = dividend.shiftLeft(shift);
+
+		} else if (shift < 0) {
+
+			divisor = divisor.shiftLeft(-shift);
+
+		}
+
+		BigInteger[] divided = dividend.divideAndRemainder(divisor);
+
+		long quotient = divided[0].longValue();
+		boolean sticky = divided[1].signum() != 0;
+
+		int quotientBits = 64 - Long.numberOfLeadingZeros(quotient);
+
+		int exponent = quotientBits - 1 - shift;
+
+		if (exponent > maximumExponent) {
+
+			return sign < 0 ? Double.NEGATIVE_INFINITY
+					: Double.POSITIVE_INFINITY;
+
+		}
+
+		int bits = precision;
+
+		if (exponent < minimumExponent) {
+
+			// subnormal numbers have fewer significant bits
+			bits -= minimumExponent - exponent;
+
+		}
+
+		int drop = quotientBits - bits;
+
+		long significand = 0;
+		boolean half = false;
+
+		if (drop <= quotientBits) {
+
+			significand = quotient >>> drop;
+			half = ((quotient >>> (drop - 1)) & 1) != 0;
+
+			if ((quotient & ((1L << (drop - 1)) - 1)) != 0) {
+
+				sticky = true;
+
+			}
+
+		}
+
+		if (half && (sticky || (significand & 1) != 0)) {
+
+			significand++;
+
+		}
+
+		double rounded = Math.scalb((double) significand, drop - shift);
+
+		return sign < 0 ? -rounded : rounded;
+
+	}
+
+	/**
+	 * Asserts that the first specified Puma rational is strictly closer to
+	 * this Puma rational than the second specified Puma rational.
+	 * 
+	 * @param first
+	 *            the first rational.
+	 * @param second
+	 *            the second rational.
+	 * @return true if the first rational is closer, false otherwise.
+	 */
+	private boolean closer(PumaRational first, PumaRational second) {
+
+		// |a/b - x/y| = |a * y - x * b| / (b * y) where y is common to both
+
+		BigInteger firstDistance = first.numerator.multiply(denominator)
+				.subtract(numerator.multiply(first.denominator)).abs();
+
+		BigInteger secondDistance = second.numerator.multiply(denominator)
+				.subtract(numerator.multiply(second.denominator)).abs();
+
+		return firstDistance.multiply(second.denominator).compareTo(
+				secondDistance.multiply(first.denominator)) < 0;
+
+	}
+
+	/**
+	 * Asserts that the specified Puma rational lies within the specified
+	 * tolerance of this Puma rational.
+	 * 
+	 * @param rational
+	 *            the rational.
+	 * @param tolerance
+	 *            the tolerance.
+	 * @return true if the rational lies within the tolerance, false
+	 *         otherwise.
+	 */
+	private boolean within(PumaRational rational, PumaRational tolerance) {
+
+		// |a/b - x/y| <= t/u when |a * y - x * b| * u <= t * b * y
+
+		BigInteger distance = rational.numerator.multiply(denominator)
+				.subtract(numerator.multiply(rational.denominator)).abs();
+
+		return distance.multiply(tolerance.denominator).compareTo(
+				tolerance.numerator.multiply(rational.denominator).multiply(
+						denominator)) <= 0;
+
+	}
+
+	/**
+	 * Divides the specified positive divisor into the specified dividend
+	 * rounding towards negative infinity, as each partial quotient of a
+	 * continued fraction requires.
+	 * 
+	 * @param dividend
+	 *            the dividend.
+	 * @param divisor
+	 *            the divisor.
+	 * @return the quotient followed by the non-negative remainder.
+	 */
+	private static BigInteger[] floorDivide(BigInteger dividend,
+			BigInteger divisor) {
+
+		BigInteger[] quotient = dividend.divideAndRemainder(divisor);
+
+		if (quotient[1].signum() < 0) {
+
+			quotient[0] = quotient[0].subtract(BigInteger.ONE);
+			quotient[1] = quotient[1].add(divisor);
+
+		}
+
+		return quotient;
+
+	}
+
+	/**
+	 * Gets the integer numerator.
+	 * 
+	 * @return the numerator.
+	 */
+	BigInteger getNumerator() {
+
+		return numerator;
+
+	}
+
+	/**
+	 * Gets the integer denominator.
+	 * 
+	 * @return the denominator.
+	 */
+	BigInteger getDenominator() {
+
+		return denominator;
+
+	}
+
+}
\ No newline at end of file
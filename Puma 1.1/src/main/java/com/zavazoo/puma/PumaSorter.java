@@ -0,0 +1,260 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Sorts Puma numbers into ascending order without performing a precise
+ * comparison for every pair of Puma numbers.<br/>
+ * <br/>
+ * Each Puma number is approximated once by the nearest double, which preserves
+ * the order of the Puma numbers since rounding to the nearest double never
+ * reverses the order of two numbers, and the Puma numbers are then sorted
+ * according to their approximations. Only those Puma numbers whose
+ * approximations collide are compared precisely, unless both approximations
+ * are known to be exact and therefore the Puma numbers are known to be equal.<br/>
+ * <br/>
+ * The resultant order is identical to the natural order of the Puma numbers
+ * and the sort is stable.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.Puma#compareTo(Puma)
+ * @see com.zavazoo.puma.Puma#doubleValue()
+ */
+public abstract class PumaSorter {
+
+	/**
+	 * Compares the approximations of two keyed Puma numbers, comparing the
+	 * Puma numbers precisely only if their approximations collide.
+	 */
+	private static final Comparator<Key> KEY_COMPARATOR = new Comparator<Key>() {
+
+		public int compare(Key first, Key second) {
+
+			int compared = Double.compare(first.approximation,
+					second.approximation);
+
+			if (compared != 0) {
+
+				return compared;
+
+			}
+
+			if (first.exact && second.exact) {
+
+				// both numbers are equal to the same double
+				return 0;
+
+			}
+
+			return first.number.compareTo(second.number);
+
+		}
+
+	};
+
+	/**
+	 * Sorts the specified array of Puma numbers into ascending order.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 */
+	public static void sort(Puma[] numbers) {
+
+		Key[] keys = createKeys(numbers);
+
+		Arrays.sort(keys, KEY_COMPARATOR);
+
+		copyKeys(keys, numbers);
+
+	}
+
+	/**
+	 * Sorts the specified list of Puma numbers into ascending order.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 */
+	public static void sort(List<Puma> numbers) {
+
+		Puma[] sorted = numbers.toArray(new Puma[numbers.size()]);
+
+		sort(sorted);
+
+		copyNumbers(sorted, numbers);
+
+	}
+
+	/**
+	 * Sorts the specified array of Puma numbers into ascending order using the
+	 * parallel sort exposed by the JDK, which is advantageous for large arrays
+	 * of Puma numbers.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 * @see java.util.Arrays#parallelSort(Object[], Comparator)
+	 */
+	public static void parallelSort(Puma[] numbers) {
+
+		Key[] keys = createKeys(numbers);
+
+		Arrays.parallelSort(keys, KEY_COMPARATOR);
+
+		copyKeys(keys, numbers);
+
+	}
+
+	/**
+	 * Sorts the specified list of Puma numbers into ascending order using the
+	 * parallel sort exposed by the JDK, which is advantageous for large lists
+	 * of Puma numbers.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 * @see java.util.Arrays#parallelSort(Object[], Comparator)
+	 */
+	public static void parallelSort(List<Puma> numbers) {
+
+		Puma[] sorted = numbers.toArray(new Puma[numbers.size()]);
+
+		parallelSort(sorted);
+
+		copyNumbers(sorted, numbers);
+
+	}
+
+	/**
+	 * Creates a key for each of the specified Puma numbers.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 * @return the keys.
+	 */
+	private static Key[] createKeys(Puma[] numbers) {
+
+		int numbersLength = numbers.length;
+
+		Key[] keys = new Key[numbersLength];
+
+		for (int index = 0; index < numbersLength; index++) {
+
+			keys[index] = new Key(numbers[index]);
+
+		}
+
+		return keys;
+
+	}
+
+	/**
+	 * Copies the Puma numbers encapsulated by the specified keys into the
+	 * specified array of Puma numbers.
+	 * 
+	 * @param keys
+	 *            the keys.
+	 * @param numbers
+	 *            the numbers.
+	 */
+	private static void copyKeys(Key[] keys, Puma[] numbers) {
+
+		int keysLength = keys.length;
+
+		for (int index = 0; index < keysLength; index++) {
+
+			numbers[index] = keys[index].number;
+
+		}
+
+	}
+
+	/**
+	 * Copies the specified array of Puma numbers into the specified list of
+	 * Puma numbers.
+	 * 
+	 * @param sorted
+	 *            the sorted numbers.
+	 * @param numbers
+	 *            the list of numbers.
+	 */
+	private static void copyNumbers(Puma[] sorted, List<Puma> numbers) {
+
+		ListIterator<Puma> iterator = numbers.listIterator();
+
+		for (Puma number : sorted) {
+
+			iterator.next();
+			iterator.set(number);
+
+		}
+
+	}
+
+	/**
+	 * Encapsulates a Puma number together with the nearest double and an
+	 * indication of whether the nearest double is exactly equal to the Puma
+	 * number.
+	 */
+	private static final class Key {
+
+		/** The Puma number. */
+		private final Puma number;
+
+		/** The nearest double to the Puma number. */
+		private final double approximation;
+
+		/** Indicates whether the nearest double equals the Puma number. */
+		private final boolean exact;
+
+		/**
+		 * Creates a key for the specified Puma number.
+		 * 
+		 * @param number
+		 *            the number.
+		 */
+		private Key(Puma number) {
+
+			this.number = number;
+
+			approximation = number.doubleValue();
+
+			BigDecimal numerator = number.getNumerator();
+
+			if (number.getDenominator() == null) {
+
+				exact = !Double.isInfinite(approximation)
+						&& new BigDecimal(approximation).compareTo(numerator) == 0;
+
+			} else {
+
+				// fractions are conservatively regarded as inexact
+				exact = number.infinite();
+
+			}
+
+		}
+
+	}
+
+}
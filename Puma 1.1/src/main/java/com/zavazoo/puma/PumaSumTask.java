@@ -0,0 +1,162 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Sums a range of Puma numbers into a Puma accumulator, splitting the range in
+ * half and summing each half in parallel until the range is no larger than
+ * the threshold, then combining the accumulators of the halves.<br/>
+ * <br/>
+ * A Puma accumulator groups the Puma numbers by denominator and combines the
+ * groups using the least common multiple of the denominators, therefore the
+ * denominator of the sum grows with the number of distinct denominators
+ * rather than with the number of Puma numbers as it does when each Puma
+ * number is added in turn to a running total.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.Puma#sum(Puma[])
+ * @see com.zavazoo.puma.PumaAccumulator
+ */
+final class PumaSumTask extends RecursiveTask<PumaAccumulator> {
+
+	/** The serialization version unique identifier. */
+	private static final long serialVersionUID = 1l;
+
+	/** The number of Puma numbers above which a range is summed in parallel. */
+	static final int THRESHOLD = 4096;
+
+	/** The numbers. */
+	private final Puma[] numbers;
+
+	/** The first index. */
+	private final int from;
+
+	/** The index after the last index. */
+	private final int to;
+
+	/** The Puma context in force when the sum was started. */
+	private final PumaContext.Captured captured;
+
+	/**
+	 * Creates a Puma sum task for the specified range of Puma numbers.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 * @param from
+	 *            the first index.
+	 * @param to
+	 *            the index after the last index.
+	 */
+	PumaSumTask(Puma[] numbers, int from, int to) {
+
+		this(numbers, from, to, PumaContext.capture());
+
+	}
+
+	/**
+	 * Creates a Puma sum task for the specified range of Puma numbers within
+	 * the specified captured Puma context.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 * @param from
+	 *            the first index.
+	 * @param to
+	 *            the index after the last index.
+	 * @param captured
+	 *            the captured context.
+	 */
+	private PumaSumTask(Puma[] numbers, int from, int to,
+			PumaContext.Captured captured) {
+
+		this.numbers = numbers;
+		this.from = from;
+		this.to = to;
+		this.captured = captured;
+
+	}
+
+	/**
+	 * Sums the range, forking a task for each half of the range if the range
+	 * is larger than the threshold.
+	 * 
+	 * @return the accumulator of the sum.
+	 */
+	@Override
+	protected PumaAccumulator compute() {
+
+		if (to - from <= THRESHOLD) {
+
+			PumaContext.Scope scope = captured.enter();
+
+			try {
+
+				return sum(numbers, from, to);
+
+			} finally {
+
+				scope.close();
+
+			}
+
+		}
+
+		int middle = (from + to) >>> 1;
+
+		PumaSumTask left = new PumaSumTask(numbers, from, middle, captured);
+
+		left.fork();
+
+		PumaAccumulator right = new PumaSumTask(numbers, middle, to, captured)
+				.compute();
+
+		return left.join().add(right);
+
+	}
+
+	/**
+	 * Sums the specified range of Puma numbers into a Puma accumulator in the
+	 * current thread.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 * @param from
+	 *            the first index.
+	 * @param to
+	 *            the index after the last index.
+	 * @return the accumulator of the sum.
+	 */
+	static PumaAccumulator sum(Puma[] numbers, int from, int to) {
+
+		PumaAccumulator accumulator = new PumaAccumulator();
+
+		for (int index = from; index < to; index++) {
+
+			accumulator.add(numbers[index]);
+
+		}
+
+		return accumulator;
+
+	}
+
+}
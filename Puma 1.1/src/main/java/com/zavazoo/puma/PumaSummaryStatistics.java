@@ -0,0 +1,193 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.function.Consumer;
+
+/**
+ * Represents the count, sum, minimum, maximum and average of any number of
+ * Puma numbers, in the manner of the summary statistics of doubles.<br/>
+ * <br/>
+ * The sum is kept by a Puma accumulator, therefore the sum and average are
+ * exact however many Puma numbers are accepted. Summary statistics may be
+ * combined, such that they may be used as the mutable container of a parallel
+ * stream reduction.<br/>
+ * <br/>
+ * Puma summary statistics are not thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaCollectors#summarizing()
+ * @see java.util.DoubleSummaryStatistics
+ */
+public final class PumaSummaryStatistics implements Consumer<Puma> {
+
+	/** The sum. */
+	private final PumaAccumulator sum = new PumaAccumulator();
+
+	/** The count. */
+	private long count;
+
+	/** The minimum. */
+	private Puma min = Puma.POSITIVE_INFINITY;
+
+	/** The maximum. */
+	private Puma max = Puma.NEGATIVE_INFINITY;
+
+	/**
+	 * Creates empty Puma summary statistics.
+	 */
+	public PumaSummaryStatistics() {
+
+	}
+
+	/**
+	 * Records the specified Puma number in the summary statistics.
+	 * 
+	 * @param number
+	 *            the number.
+	 */
+	public void accept(Puma number) {
+
+		sum.add(number);
+
+		if (number.lessThan(min)) {
+
+			min = number;
+
+		}
+
+		if (number.greaterThan(max)) {
+
+			max = number;
+
+		}
+
+		count++;
+
+	}
+
+	/**
+	 * Records the Puma numbers recorded by the specified summary statistics in
+	 * these summary statistics.
+	 * 
+	 * @param statistics
+	 *            the statistics.
+	 */
+	public void combine(PumaSummaryStatistics statistics) {
+
+		sum.add(statistics.sum);
+
+		if (statistics.min.lessThan(min)) {
+
+			min = statistics.min;
+
+		}
+
+		if (statistics.max.greaterThan(max)) {
+
+			max = statistics.max;
+
+		}
+
+		count += statistics.count;
+
+	}
+
+	/**
+	 * Gets the number of Puma numbers recorded.
+	 * 
+	 * @return the count.
+	 */
+	public long getCount() {
+
+		return count;
+
+	}
+
+	/**
+	 * Gets the sum of the Puma numbers recorded, or zero if no Puma numbers
+	 * were recorded.
+	 * 
+	 * @return the sum.
+	 */
+	public Puma getSum() {
+
+		return sum.sum();
+
+	}
+
+	/**
+	 * Gets the least Puma number recorded, or positive infinity if no Puma
+	 * numbers were recorded.
+	 * 
+	 * @return the minimum.
+	 */
+	public Puma getMin() {
+
+		return min;
+
+	}
+
+	/**
+	 * Gets the greatest Puma number recorded, or negative infinity if no Puma
+	 * numbers were recorded.
+	 * 
+	 * @return the maximum.
+	 */
+	public Puma getMax() {
+
+		return max;
+
+	}
+
+	/**
+	 * Gets the exact average of the Puma numbers recorded, or zero if no Puma
+	 * numbers were recorded.
+	 * 
+	 * @return the average.
+	 */
+	public Puma getAverage() {
+
+		if (count == 0) {
+
+			return Puma.ZERO;
+
+		}
+
+		return sum.sum().divide(new Puma(String.valueOf(count)));
+
+	}
+
+	/**
+	 * Yields a string representation of these summary statistics.
+	 * 
+	 * @return the representation.
+	 */
+	@Override
+	public String toString() {
+
+		return getClass().getSimpleName() + "{count=" + count + ", sum="
+				+ getSum() + ", min=" + min + ", average=" + getAverage()
+				+ ", max=" + max + "}";
+
+	}
+
+}
\ No newline at end of file
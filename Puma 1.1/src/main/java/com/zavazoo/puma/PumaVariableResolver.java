@@ -0,0 +1,40 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+/**
+ * Resolves the Puma numbers bound to the variables of a compiled Puma
+ * expression.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.CompiledPumaExpression#evaluate(PumaVariableResolver)
+ */
+public interface PumaVariableResolver {
+
+	/**
+	 * Yields the Puma number bound to the specified variable.
+	 * 
+	 * @param variable
+	 *            the variable.
+	 * @return the number or null if the variable is not bound.
+	 */
+	Puma resolve(String variable);
+
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.ArrayDeque;
+
+/**
+ * Represents the exact sum of the Puma numbers within a window bounded by
+ * count or by age, where the Puma numbers that leave the window are removed
+ * from the sum rather than the sum being recalculated.<br/>
+ * <br/>
+ * Puma windows are not thread-safe.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+final class PumaWindow {
+
+	/** The maximum number of Puma numbers within the window. */
+	private final int count;
+
+	/** The maximum age of the Puma numbers within the window, in nanoseconds. */
+	private final long nanos;
+
+	/** The Puma numbers within the window, oldest first. */
+	private final ArrayDeque<Entry> entries = new ArrayDeque<Entry>();
+
+	/** The sum of the Puma numbers within the window. */
+	private final PumaAccumulator sum = new PumaAccumulator();
+
+	/**
+	 * Creates a Puma window bounded by the specified count and age.
+	 * 
+	 * @param count
+	 *            the maximum number of Puma numbers.
+	 * @param nanos
+	 *            the maximum age, in nanoseconds.
+	 * @throws IllegalArgumentException
+	 *             if the count or age is not positive.
+	 */
+	PumaWindow(int count, long nanos) {
+
+		if (count <= 0) {
+
+			throw new IllegalArgumentException("The window count [" + count
+					+ "] must be positive");
+
+		}
+
+		if (nanos <= 0) {
+
+			throw new IllegalArgumentException("The window duration [" + nanos
+					+ "ns] must be positive");
+
+		}
+
+		this.count = count;
+		this.nanos = nanos;
+
+	}
+
+	/**
+	 * Adds the specified Puma number to the window at the specified time,
+	 * removing the Puma numbers that leave the window as a result.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @param time
+	 *            the time, in nanoseconds.
+	 */
+	void add(Puma number, long time) {
+
+		entries.addLast(new Entry(number, time));
+
+		sum.add(number);
+
+		while (entries.size() > count
+				|| time - entries.peekFirst().time >= nanos) {
+
+			sum.remove(entries.removeFirst().number);
+
+		}
+
+		// discard the groups of denominators no longer within the window
+		if (sum.getGroupCount() > 2 * entries.size() + 8) {
+
+			sum.prune();
+
+		}
+
+	}
+
+	/**
+	 * Yields the sum of the Puma numbers within the window.
+	 * 
+	 * @return the sum.
+	 */
+	Puma sum() {
+
+		return sum.sum();
+
+	}
+
+	/**
+	 * Yields the number of Puma numbers within the window.
+	 * 
+	 * @return the size.
+	 */
+	int size() {
+
+		return entries.size();
+
+	}
+
+	/**
+	 * Represents a Puma number within the window and the time it was added.
+	 */
+	private static final class Entry {
+
+		/** The number. */
+		private final Puma number;
+
+		/** The time, in nanoseconds. */
+		private final long time;
+
+		/**
+		 * Creates an entry for the specified Puma number and time.
+		 * 
+		 * @param number
+		 *            the number.
+		 * @param time
+		 *            the time, in nanoseconds.
+		 */
+		private Entry(Puma number, long time) {
+
+			this.number = number;
+			this.time = time;
+
+		}
+
+	}
+
+}
\ No newline at end of file
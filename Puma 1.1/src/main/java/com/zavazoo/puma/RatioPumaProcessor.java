@@ -0,0 +1,153 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.function.Function;
+
+/**
+ * Represents a processor that publishes the exact ratio of the sum of one
+ * Puma number extracted from each item received to the sum of another,
+ * upon receiving each item, such as the volume weighted average price of a
+ * series of trades.<br/>
+ * <br/>
+ * Each sum is kept by a Puma accumulator, optionally over a window of the
+ * most recent items up to a count, therefore the cost of each item received
+ * does not grow with the number of items received.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @param <T>
+ *            the type of the items received.
+ * @see com.zavazoo.puma.PumaAccumulator
+ */
+public class RatioPumaProcessor<T> extends PumaProcessor<T> {
+
+	/** Extracts the Puma number summed as the numerator. */
+	private final Function<? super T, Puma> numerator;
+
+	/** Extracts the Puma number summed as the denominator. */
+	private final Function<? super T, Puma> denominator;
+
+	/** The sum of the numerators within the window, or null if unbounded. */
+	private final PumaWindow numerators;
+
+	/** The sum of the denominators within the window, or null if unbounded. */
+	private final PumaWindow denominators;
+
+	/** The sum of every numerator, if unbounded. */
+	private final PumaAccumulator numeratorSum = new PumaAccumulator();
+
+	/** The sum of every denominator, if unbounded. */
+	private final PumaAccumulator denominatorSum = new PumaAccumulator();
+
+	/**
+	 * Creates a ratio Puma processor over every item received.
+	 * 
+	 * @param numerator
+	 *            extracts the numerator from each item.
+	 * @param denominator
+	 *            extracts the denominator from each item.
+	 */
+	public RatioPumaProcessor(Function<? super T, Puma> numerator,
+			Function<? super T, Puma> denominator) {
+
+		super(DEFAULT_BATCH_SIZE);
+
+		this.numerator = numerator;
+		this.denominator = denominator;
+
+		this.numerators = null;
+		this.denominators = null;
+
+	}
+
+	/**
+	 * Creates a ratio Puma processor over the most recent items up to the
+	 * specified count.
+	 * 
+	 * @param numerator
+	 *            extracts the numerator from each item.
+	 * @param denominator
+	 *            extracts the denominator from each item.
+	 * @param count
+	 *            the count.
+	 */
+	public RatioPumaProcessor(Function<? super T, Puma> numerator,
+			Function<? super T, Puma> denominator, int count) {
+
+		this(numerator, denominator, count, DEFAULT_BATCH_SIZE);
+
+	}
+
+	/**
+	 * Creates a ratio Puma processor over the most recent items up to the
+	 * specified count, requesting items in batches of the specified size.
+	 * 
+	 * @param numerator
+	 *            extracts the numerator from each item.
+	 * @param denominator
+	 *            extracts the denominator from each item.
+	 * @param count
+	 *            the count.
+	 * @param batchSize
+	 *            the batch size.
+	 */
+	public RatioPumaProcessor(Function<? super T, Puma> numerator,
+			Function<? super T, Puma> denominator, int count, int batchSize) {
+
+		super(batchSize);
+
+		this.numerator = numerator;
+		this.denominator = denominator;
+
+		this.numerators = new PumaWindow(count, Long.MAX_VALUE);
+		this.denominators = new PumaWindow(count, Long.MAX_VALUE);
+
+	}
+
+	/**
+	 * Adds the numerator and denominator of the specified item to the sums and
+	 * yields the ratio of the sums.
+	 * 
+	 * @param item
+	 *            the item.
+	 * @return the ratio.
+	 */
+	@Override
+	protected Puma process(T item) {
+
+		Puma itemNumerator = numerator.apply(item);
+		Puma itemDenominator = denominator.apply(item);
+
+		if (numerators == null) {
+
+			return numeratorSum.add(itemNumerator).sum().divide(
+					denominatorSum.add(itemDenominator).sum());
+
+		}
+
+		numerators.add(itemNumerator, 0);
+		denominators.add(itemDenominator, 0);
+
+		return numerators.sum().divide(denominators.sum());
+
+	}
+
+}
\ No newline at end of file
@@ -49,7 +49,8 @@ public class RoundedPumaDecorator {
 
 	/**
 	 * Yields a Puma number equivalent to this decorated Puma number rounded to
-	 * 10 decimal places using the half-up rounding mode.<br/>
+	 * the precision and using the rounding mode of the current Puma context,
+	 * which are 10 decimal places and the half-up rounding mode by default.<br/>
 	 * The half-up rounding mode is documented in the JDK as follows: rounding
 	 * mode to round towards "nearest neighbor" unless both neighbors are
 	 * equidistant, in which case round up. Behaves as for RoundingMode.UP if
@@ -67,13 +68,14 @@ public class RoundedPumaDecorator {
 	public Puma toRoundedPuma() throws PositiveInfinityException,
 			NegativeInfinityException {
 
-		return toRoundedPuma(10, RoundingMode.HALF_UP);
+		return toRoundedPuma(PumaContext.current());
 
 	}
 
 	/**
 	 * Yields a string representation of this decorated Puma number rounded to
-	 * 10 decimal places using the half-up rounding mode.<br/>
+	 * the precision and using the rounding mode of the current Puma context,
+	 * which are 10 decimal places and the half-up rounding mode by default.<br/>
 	 * The representation may therefore be imprecise but may be persisted and
 	 * later used to create a Puma number in order to continue any further
 	 * imprecise calculations.<br/>
@@ -94,7 +96,45 @@ public class RoundedPumaDecorator {
 	public String toRoundedString() throws PositiveInfinityException,
 			NegativeInfinityException {
 
-		return toRoundedString(10, RoundingMode.HALF_UP);
+		return toRoundedString(PumaContext.current());
+
+	}
+
+	/**
+	 * Yields a Puma number equivalent to this decorated Puma number rounded to
+	 * the precision and using the rounding mode of the specified Puma context.
+	 * 
+	 * @param context
+	 *            the context.
+	 * @return the rounded number.
+	 * @exception PositiveInfinityException
+	 *                if this decorated number represents positive infinity.
+	 * @exception NegativeInfinityException
+	 *                if this decorated number represents negative infinity.
+	 */
+	public Puma toRoundedPuma(PumaContext context)
+			throws PositiveInfinityException, NegativeInfinityException {
+
+		return toRoundedPuma(context.getPrecision(), context.getRounding());
+
+	}
+
+	/**
+	 * Yields a string representation of this decorated Puma number rounded to
+	 * the precision and using the rounding mode of the specified Puma context.
+	 * 
+	 * @param context
+	 *            the context.
+	 * @return the representation.
+	 * @exception PositiveInfinityException
+	 *                if this decorated number represents positive infinity.
+	 * @exception NegativeInfinityException
+	 *                if this decorated number represents negative infinity.
+	 */
+	public String toRoundedString(PumaContext context)
+			throws PositiveInfinityException, NegativeInfinityException {
+
+		return toRoundedString(context.getPrecision(), context.getRounding());
 
 	}
 
@@ -206,7 +246,15 @@ public class RoundedPumaDecorator {
 
 		}
 
-		BigDecimal rounded = null;
+		BigDecimal rounded = roundApproximately(decimalPlaces, mode);
+
+		if (rounded != null) {
+
+			String roundedRepresentation = rounded.toPlainString();
+
+			return new Puma(roundedRepresentation, null);
+
+		}
 
 		if (number.getDenominator() == null) {
 
@@ -226,6 +274,104 @@ public class RoundedPumaDecorator {
 
 	}
 
+	/**
+	 * Rounds this decorated Puma number according to the specified scale; the
+	 * number of decimal places, and the specified rounding mode using the
+	 * nearest double to this decorated number, provided that the nearest
+	 * double is far enough from any rounding boundary for the error of the
+	 * double to be unable to influence the result.<br/>
+	 * The nearest double has a relative error of at most {@code 2 ^ -53} and
+	 * scaling it by an exactly representable power of ten introduces a
+	 * further relative error of at most {@code 2 ^ -53}, therefore a boundary
+	 * further than {@code 2 ^ -50} of the scaled magnitude cannot lie between
+	 * the scaled double and the scaled number.
+	 * 
+	 * @param decimalPlaces
+	 *            the number of decimal places.
+	 * @param mode
+	 *            the rounding mode.
+	 * @return the rounded number or null if the rounding must be determined
+	 *         precisely.
+	 */
+	private BigDecimal roundApproximately(int decimalPlaces, RoundingMode mode) {
+
+		if (decimalPlaces < 0
+				|| decimalPlaces >= Puma.DOUBLE_POWERS_OF_TEN.length
+				|| mode == RoundingMode.UNNECESSARY) {
+
+			return null;
+
+		}
+
+		double approximation = number.doubleValue();
+
+		if (Math.abs(approximation) < Double.MIN_NORMAL) {
+
+			return null;
+
+		}
+
+		double scaled = approximation
+				* Puma.DOUBLE_POWERS_OF_TEN[decimalPlaces];
+
+		double magnitude = Math.abs(scaled);
+
+		if (magnitude >= 0x1p52) {
+
+			return null;
+
+		}
+
+		double error = magnitude * 0x1p-50;
+
+		double floor = Math.floor(scaled);
+
+		double rounded = 0;
+
+		switch (mode) {
+
+		case HALF_UP:
+		case HALF_DOWN:
+		case HALF_EVEN:
+
+			double half = floor + 0.5;
+
+			if (Math.abs(scaled - half) <= error) {
+
+				return null;
+
+			}
+
+			rounded = scaled < half ? floor : floor + 1;
+
+			break;
+
+		default:
+
+			if (scaled - floor <= error || floor + 1 - scaled <= error) {
+
+				return null;
+
+			}
+
+			if (mode == RoundingMode.FLOOR
+					|| (mode == RoundingMode.DOWN && scaled > 0)
+					|| (mode == RoundingMode.UP && scaled < 0)) {
+
+				rounded = floor;
+
+			} else {
+
+				rounded = floor + 1;
+
+			}
+
+		}
+
+		return BigDecimal.valueOf((long) rounded, decimalPlaces);
+
+	}
+
 	/**
 	 * Yields a string representation of this decorated Puma number rounded
 	 * according to the specified scale; the number of decimal places, and the
@@ -0,0 +1,74 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+/**
+ * Represents a processor that publishes the exact sum of every Puma number it
+ * has received, upon receiving each Puma number.<br/>
+ * <br/>
+ * The sum is kept by a Puma accumulator, therefore the cost of each Puma
+ * number received grows with the number of distinct denominators received
+ * rather than the number of Puma numbers received.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaAccumulator
+ */
+public class RunningSumPumaProcessor extends PumaProcessor<Puma> {
+
+	/** The sum. */
+	private final PumaAccumulator sum = new PumaAccumulator();
+
+	/**
+	 * Creates a running sum Puma processor that requests Puma numbers in
+	 * batches of the default size.
+	 */
+	public RunningSumPumaProcessor() {
+
+	}
+
+	/**
+	 * Creates a running sum Puma processor that requests Puma numbers in
+	 * batches of the specified size.
+	 * 
+	 * @param batchSize
+	 *            the batch size.
+	 */
+	public RunningSumPumaProcessor(int batchSize) {
+
+		super(batchSize);
+
+	}
+
+	/**
+	 * Adds the specified Puma number to the sum and yields the sum.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the sum.
+	 */
+	@Override
+	protected Puma process(Puma number) {
+
+		return sum.add(number).sum();
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Represents a processor that publishes the exact sum or average of the Puma
+ * numbers within a window, upon receiving each Puma number, where the window
+ * holds either the most recent Puma numbers up to a count or the Puma numbers
+ * received within a duration.<br/>
+ * <br/>
+ * A Puma number that leaves the window is subtracted from the sum kept by a
+ * Puma accumulator rather than the sum being recalculated, therefore the cost
+ * of each Puma number received does not grow with the size of the window.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ * @see com.zavazoo.puma.PumaAccumulator
+ */
+public class WindowedPumaProcessor extends PumaProcessor<Puma> {
+
+	/** The window. */
+	private final PumaWindow window;
+
+	/** Asserts that the average rather than the sum is published. */
+	private final boolean average;
+
+	/** The source of the time at which each Puma number is received. */
+	private final LongSupplier ticker;
+
+	/**
+	 * Creates a windowed Puma processor.
+	 * 
+	 * @param count
+	 *            the maximum number of Puma numbers within the window.
+	 * @param nanos
+	 *            the maximum age of the Puma numbers within the window, in
+	 *            nanoseconds.
+	 * @param average
+	 *            true to publish the average, false to publish the sum.
+	 * @param ticker
+	 *            the source of the time, in nanoseconds.
+	 * @param batchSize
+	 *            the batch size.
+	 */
+	WindowedPumaProcessor(int count, long nanos, boolean average,
+			LongSupplier ticker, int batchSize) {
+
+		super(batchSize);
+
+		this.window = new PumaWindow(count, nanos);
+		this.average = average;
+		this.ticker = ticker;
+
+	}
+
+	/**
+	 * Yields a windowed Puma processor that publishes the sum of the most
+	 * recent Puma numbers up to the specified count.
+	 * 
+	 * @param count
+	 *            the count.
+	 * @return the processor.
+	 */
+	public static WindowedPumaProcessor sumOfLast(int count) {
+
+		return new WindowedPumaProcessor(count, Long.MAX_VALUE, false, null,
+				DEFAULT_BATCH_SIZE);
+
+	}
+
+	/**
+	 * Yields a windowed Puma processor that publishes the average of the most
+	 * recent Puma numbers up to the specified count.
+	 * 
+	 * @param count
+	 *            the count.
+	 * @return the processor.
+	 */
+	public static WindowedPumaProcessor averageOfLast(int count) {
+
+		return new WindowedPumaProcessor(count, Long.MAX_VALUE, true, null,
+				DEFAULT_BATCH_SIZE);
+
+	}
+
+	/**
+	 * Yields a windowed Puma processor that publishes the sum of the Puma
+	 * numbers received within the specified duration.
+	 * 
+	 * @param duration
+	 *            the duration.
+	 * @param unit
+	 *            the unit of the duration.
+	 * @return the processor.
+	 */
+	public static WindowedPumaProcessor sumWithin(long duration, TimeUnit unit) {
+
+		return new WindowedPumaProcessor(Integer.MAX_VALUE, unit
+				.toNanos(duration), false, SystemTicker.INSTANCE,
+				DEFAULT_BATCH_SIZE);
+
+	}
+
+	/**
+	 * Yields a windowed Puma processor that publishes the average of the Puma
+	 * numbers received within the specified duration.
+	 * 
+	 * @param duration
+	 *            the duration.
+	 * @param unit
+	 *            the unit of the duration.
+	 * @return the processor.
+	 */
+	public static WindowedPumaProcessor averageWithin(long duration,
+			TimeUnit unit) {
+
+		return new WindowedPumaProcessor(Integer.MAX_VALUE, unit
+				.toNanos(duration), true, SystemTicker.INSTANCE,
+				DEFAULT_BATCH_SIZE);
+
+	}
+
+	/**
+	 * Adds the specified Puma number to the window and yields the sum or
+	 * average of the window.
+	 * 
+	 * @param number
+	 *            the number.
+	 * @return the sum or average.
+	 */
+	@Override
+	protected Puma process(Puma number) {
+
+		window.add(number, ticker == null ? 0 : ticker.getAsLong());
+
+		Puma sum = window.sum();
+
+		if (!average) {
+
+			return sum;
+
+		}
+
+		return sum.divide(new Puma(String.valueOf(window.size())));
+
+	}
+
+	/**
+	 * Supplies the time from the system nanosecond timer.
+	 */
+	private static final class SystemTicker implements LongSupplier {
+
+		/** The instance. */
+		private static final SystemTicker INSTANCE = new SystemTicker();
+
+		/**
+		 * Yields the value of the system nanosecond timer.
+		 * 
+		 * @return the time, in nanoseconds.
+		 */
+		public long getAsLong() {
+
+			return System.nanoTime();
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.Random;
+
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaAccumulator;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the accumulation of Puma numbers by a Puma accumulator.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class AccumulatePumaAccumulatorTest extends TestCase {
+
+	/**
+	 * Tests that the sum equals the sum of repeated Puma addition and
+	 * subtraction.
+	 */
+	public void testSum() {
+
+		try {
+
+			Random random = new Random(40);
+
+			PumaAccumulator accumulator = new PumaAccumulator();
+
+			Puma expected = Puma.ZERO;
+
+			for (int index = 0; index < 2000; index++) {
+
+				Puma number;
+
+				switch (random.nextInt(3)) {
+
+				case 0:
+
+					number = new Puma((random.nextInt(2001) - 1000) + "."
+							+ random.nextInt(1000));
+
+					break;
+
+				case 1:
+
+					number = new Puma((random.nextInt(2001) - 1000) + "/"
+							+ (random.nextInt(12) + 1));
+
+					break;
+
+				default:
+
+					number = new Puma(String.valueOf(random.nextInt(2001)
+							* 1000000L));
+
+					break;
+
+				}
+
+				if (random.nextBoolean()) {
+
+					accumulator.add(number);
+
+					expected = expected.add(number);
+
+				} else {
+
+					accumulator.subtract(number);
+
+					expected = expected.subtract(number);
+
+				}
+
+			}
+
+			accumulator.add(7).subtract(3);
+
+			expected = expected.add(Puma.FOUR);
+
+			assertEquals(expected, accumulator.sum());
+
+			assertTrue(accumulator.getGroupCount() < 20);
+
+			assertEquals(Puma.ZERO, new PumaAccumulator().sum());
+
+			assertEquals(new Puma("1"), new PumaAccumulator().add(
+					new Puma("1/3")).add(new Puma("1/6")).add(new Puma("0.5"))
+					.sum());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests sums that overflow a long, the combination of accumulators and
+	 * resetting an accumulator.
+	 */
+	public void testOverflowAndCombine() {
+
+		try {
+
+			PumaAccumulator first = new PumaAccumulator();
+
+			for (int index = 0; index < 10; index++) {
+
+				first.add(Long.MAX_VALUE);
+
+			}
+
+			first.subtract(Long.MIN_VALUE);
+
+			assertEquals(new Puma("101457092405402533878"), first.sum());
+
+			PumaAccumulator second = new PumaAccumulator();
+
+			second.add(new Puma("1/7")).add(new Puma("0.25")).subtract(
+					new Puma("-12345678901234567890123"));
+
+			first.add(second);
+
+			assertEquals(new Puma("101457092405402533878").add(
+					new Puma("1/7")).add(new Puma("0.25")).add(
+					new Puma("12345678901234567890123")), first.sum());
+
+			assertEquals(new Puma("12345678901234567890123").add(
+					new Puma("1/7")).add(new Puma("0.25")), second.sum());
+
+			first.reset();
+
+			assertEquals(Puma.ZERO, first.sum());
+
+			assertEquals(0, first.getGroupCount());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests sums that involve infinities.
+	 */
+	public void testInfinity() {
+
+		try {
+
+			PumaAccumulator accumulator = new PumaAccumulator();
+
+			accumulator.add(Puma.TEN).add(Puma.POSITIVE_INFINITY);
+
+			assertEquals(Puma.POSITIVE_INFINITY, accumulator.sum());
+
+			accumulator.subtract(Puma.POSITIVE_INFINITY);
+
+			assertEquals(Puma.TEN, accumulator.sum());
+
+			assertEquals(Puma.NEGATIVE_INFINITY, new PumaAccumulator().add(
+					Puma.ONE).add(Puma.NEGATIVE_INFINITY).sum());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests summing a large number of Puma numbers that share few
+	 * denominators.
+	 */
+	public void testLargeSum() {
+
+		try {
+
+			Puma[] numbers = { new Puma("0.01"), new Puma("1/3"),
+					new Puma("2.5"), new Puma("1/7") };
+
+			PumaAccumulator accumulator = new PumaAccumulator();
+
+			for (int index = 0; index < 1000000; index++) {
+
+				accumulator.add(numbers[index & 3]);
+
+			}
+
+			assertEquals(4, accumulator.getGroupCount());
+
+			assertEquals(new Puma("0.01").add(new Puma("1/3")).add(
+					new Puma("2.5")).add(new Puma("1/7")).multiply(
+					new Puma("250000")), accumulator.sum());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
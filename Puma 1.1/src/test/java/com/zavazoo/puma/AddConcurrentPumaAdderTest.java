@@ -0,0 +1,175 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import com.zavazoo.puma.ConcurrentPumaAdder;
+import com.zavazoo.puma.Puma;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the concurrent addition of Puma numbers by a concurrent Puma adder.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class AddConcurrentPumaAdderTest extends TestCase {
+
+	/**
+	 * Tests that the sum of concurrent additions by many threads is exact.
+	 */
+	public void testConcurrentAdd() {
+
+		try {
+
+			final ConcurrentPumaAdder adder = new ConcurrentPumaAdder();
+
+			final Puma[] numbers = { new Puma("0.01"), new Puma("1/3"),
+					new Puma("-2.5"), new Puma("1/7") };
+
+			final int threads = 16;
+
+			final int additions = 20000;
+
+			final CountDownLatch start = new CountDownLatch(1);
+
+			final List<Throwable> errors = new ArrayList<Throwable>();
+
+			List<Thread> started = new ArrayList<Thread>();
+
+			for (int thread = 0; thread < threads; thread++) {
+
+				Thread adding = new Thread(new Runnable() {
+
+					public void run() {
+
+						try {
+
+							start.await();
+
+							for (int index = 0; index < additions; index++) {
+
+								adder.add(numbers[index & 3]);
+
+							}
+
+							adder.add(3);
+							adder.subtract(1);
+							adder.subtract(new Puma("1/3"));
+
+						} catch (Throwable error) {
+
+							synchronized (errors) {
+
+								errors.add(error);
+
+							}
+
+						}
+
+					}
+
+				});
+
+				adding.start();
+
+				started.add(adding);
+
+			}
+
+			start.countDown();
+
+			for (Thread adding : started) {
+
+				adding.join();
+
+			}
+
+			assertTrue(errors.toString(), errors.isEmpty());
+
+			Puma expected = new Puma("0.01").add(new Puma("1/3")).add(
+					new Puma("-2.5")).add(new Puma("1/7")).multiply(
+					new Puma(String.valueOf(threads * additions / 4))).add(
+					new Puma("2").subtract(new Puma("1/3")).multiply(
+							new Puma(String.valueOf(threads))));
+
+			assertEquals(expected, adder.sum());
+
+			int maximumCells = 2;
+
+			while (maximumCells < Runtime.getRuntime().availableProcessors()) {
+
+				maximumCells <<= 1;
+
+			}
+
+			assertTrue(adder.getCellCount() <= maximumCells);
+
+			assertEquals(expected, adder.sumThenReset());
+
+			assertEquals(Puma.ZERO, adder.sum());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the sum of a concurrent Puma adder used by a single thread.
+	 */
+	public void testAdd() {
+
+		try {
+
+			ConcurrentPumaAdder adder = new ConcurrentPumaAdder();
+
+			assertEquals(Puma.ZERO, adder.sum());
+
+			adder.add(new Puma("1/4"));
+			adder.add(Puma.POSITIVE_INFINITY);
+
+			assertEquals(Puma.POSITIVE_INFINITY, adder.sum());
+
+			adder.reset();
+
+			adder.add(new Puma("1/4"));
+			adder.subtract(new Puma("0.75"));
+
+			assertEquals("-0.5", adder.toString());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
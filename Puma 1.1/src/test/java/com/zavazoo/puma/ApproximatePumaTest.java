@@ -0,0 +1,211 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.math.BigInteger;
+
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaContext;
+import com.zavazoo.puma.PumaLimits;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the approximation of Puma numbers by fractions with bounded
+ * denominators.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class ApproximatePumaTest extends TestCase {
+
+	/** Pi to 20 decimal places. */
+	private static final Puma PI = new Puma("3.14159265358979323846");
+
+	/**
+	 * Tests the closest fractions with bounded denominators.
+	 */
+	public void testLimitDenominator() {
+
+		try {
+
+			assertEquals(new Puma("355/113"), PI.limitDenominator(BigInteger
+					.valueOf(1000)));
+			assertEquals(new Puma("311/99"), PI.limitDenominator(BigInteger
+					.valueOf(100)));
+			assertEquals(new Puma("22/7"), PI.limitDenominator(BigInteger
+					.valueOf(10)));
+			assertEquals(Puma.THREE, PI.limitDenominator(BigInteger.ONE));
+
+			assertEquals(new Puma("-311/99"), PI.negate().limitDenominator(
+					BigInteger.valueOf(100)));
+
+			assertEquals(new Puma("1/1000"), new Puma("1/1009")
+					.limitDenominator(BigInteger.valueOf(1000)));
+
+			assertEquals(Puma.ZERO, new Puma("0.5").limitDenominator(
+					BigInteger.ONE));
+
+			assertEquals(new Puma("1/3"), new Puma("2/6")
+					.limitDenominator(BigInteger.valueOf(3)));
+
+			assertSame(Puma.POSITIVE_INFINITY, Puma.POSITIVE_INFINITY
+					.limitDenominator(BigInteger.TEN));
+
+			try {
+
+				PI.limitDenominator(BigInteger.ZERO);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the fractions with the smallest denominators within a tolerance.
+	 */
+	public void testApproximate() {
+
+		try {
+
+			assertEquals(new Puma("1/3"), new Puma("0.3333")
+					.approximate(new Puma("0.001")));
+			assertEquals(new Puma("-1/3"), new Puma("-0.3333")
+					.approximate(new Puma("0.001")));
+
+			assertEquals(new Puma("22/7"), PI.approximate(new Puma("0.01")));
+			assertEquals(new Puma("333/106"), PI.approximate(new Puma(
+					"0.0001")));
+			assertEquals(PI, PI.approximate(Puma.ZERO));
+
+			assertEquals(Puma.TWO, new Puma("2.5").approximate(new Puma("0.5")));
+			assertEquals(Puma.THREE, new Puma("2.6").approximate(new Puma(
+					"0.5")));
+
+			assertSame(Puma.NEGATIVE_INFINITY, Puma.NEGATIVE_INFINITY
+					.approximate(Puma.ONE));
+
+			try {
+
+				PI.approximate(new Puma("-0.1"));
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			try {
+
+				PI.approximate(Puma.POSITIVE_INFINITY);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that chained calculations within limits that specify a maximum
+	 * denominator carry bounded approximations forward.
+	 */
+	public void testAutomaticApproximation() {
+
+		try {
+
+			BigInteger maximum = BigInteger.valueOf(1000);
+
+			PumaContext context = PumaContext.DEFAULT
+					.withLimits(PumaLimits.UNLIMITED
+							.withMaximumDenominator(maximum));
+
+			PumaContext.Scope scope = context.enter();
+
+			try {
+
+				assertEquals(new Puma("1/1000"), Puma.ONE.divide(new Puma(
+						"1009")));
+
+				Puma sum = Puma.ZERO;
+
+				for (int index = 1; index <= 50; index++) {
+
+					sum = sum.add(Puma.ONE.divide(new Puma(String
+							.valueOf(index))));
+
+					assertTrue(PumaRational.valueOf(sum).reduce()
+							.getDenominator().compareTo(maximum) <= 0);
+
+				}
+
+				assertEquals(new Puma("0.125"), new Puma("1/8"));
+				assertEquals(new Puma("123456789"), new Puma("123456789"));
+
+			} finally {
+
+				scope.close();
+
+			}
+
+			assertEquals(new Puma("1/1009"), Puma.ONE
+					.divide(new Puma("1009")));
+
+			try {
+
+				PumaLimits.UNLIMITED.withMaximumDenominator(BigInteger.ZERO);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
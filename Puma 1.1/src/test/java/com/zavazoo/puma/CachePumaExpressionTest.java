@@ -0,0 +1,278 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.InvalidExpressionException;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaExpression;
+import com.zavazoo.puma.PumaExpressionCache;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the caching of compiled Puma expressions.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class CachePumaExpressionTest extends TestCase {
+
+	/**
+	 * Tests the retrieval of compiled Puma expressions and the statistics of
+	 * the cache.
+	 */
+	public void testGet() {
+
+		try {
+
+			PumaExpressionCache cache = new PumaExpressionCache(10);
+
+			CompiledPumaExpression compiled = cache.get("(x * 1.1) - x");
+
+			assertSame(compiled, cache.get("(x * 1.1) - x"));
+
+			assertSame(compiled, cache.get("(x * 1.1) - x"));
+
+			assertEquals("0.1", compiled.evaluate(new Puma("1")).toString());
+
+			assertEquals(2, cache.getHitCount());
+			assertEquals(1, cache.getMissCount());
+			assertEquals(0, cache.getEvictionCount());
+			assertEquals(1, cache.size());
+
+			try {
+
+				cache.get("1 +");
+
+				fail();
+
+			} catch (InvalidExpressionException expected) {
+
+			}
+
+			assertEquals(1, cache.size());
+
+			cache.clear();
+
+			assertEquals(0, cache.size());
+
+			try {
+
+				new PumaExpressionCache(0);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that the cache is bounded by the maximum size and that recently
+	 * retrieved Puma expressions survive eviction.
+	 */
+	public void testEviction() {
+
+		try {
+
+			PumaExpressionCache cache = new PumaExpressionCache(4);
+
+			for (int index = 0; index < 4; index++) {
+
+				cache.get(index + " + x");
+
+			}
+
+			// mark the first expression as recently retrieved
+			CompiledPumaExpression retained = cache.get("0 + x");
+
+			for (int index = 4; index < 7; index++) {
+
+				cache.get(index + " + x");
+
+				assertTrue(cache.size() <= 4);
+
+			}
+
+			assertEquals(3, cache.getEvictionCount());
+
+			assertSame(retained, cache.get("0 + x"));
+
+			for (int index = 0; index < 1000; index++) {
+
+				cache.get((index % 50) + " * y");
+
+			}
+
+			assertEquals(4, cache.size());
+
+			assertEquals(1009, cache.getHitCount() + cache.getMissCount());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the concurrent retrieval of compiled Puma expressions.
+	 */
+	public void testConcurrent() {
+
+		try {
+
+			final PumaExpressionCache cache = new PumaExpressionCache(16);
+
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+
+			Future<?>[] futures = new Future<?>[4];
+
+			for (int thread = 0; thread < futures.length; thread++) {
+
+				final int seed = thread;
+
+				futures[thread] = executor.submit(new Runnable() {
+
+					public void run() {
+
+						try {
+
+							for (int index = 0; index < 5000; index++) {
+
+								int term = (index * (seed + 1)) % 32;
+
+								Puma result = cache.get(term + " + x")
+										.evaluate(Puma.ONE);
+
+								assertEquals(String.valueOf(term + 1), result
+										.toString());
+
+							}
+
+						} catch (InvalidExpressionException error) {
+
+							throw new IllegalStateException(error);
+
+						}
+
+					}
+
+				});
+
+			}
+
+			for (Future<?> future : futures) {
+
+				future.get();
+
+			}
+
+			executor.shutdown();
+
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+
+			assertTrue(cache.size() <= 16);
+
+			assertEquals(20000, cache.getHitCount() + cache.getMissCount());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the evaluation of Puma expressions using the default cache.
+	 */
+	public void testDefault() {
+
+		PumaExpressionCache cache = new PumaExpressionCache(8);
+
+		PumaExpressionCache.setDefault(cache);
+
+		try {
+
+			assertEquals("4", new Puma("(1 + 1) * 2").toString());
+
+			assertEquals("4", new Puma("(1 + 1) * 2").toString());
+
+			assertEquals("4", new PumaExpression("(1 + 1) * 2").evaluate()
+					.toString());
+
+			assertEquals(2, cache.getHitCount());
+			assertEquals(1, cache.getMissCount());
+
+			try {
+
+				new PumaExpression("1 + x").evaluate();
+
+				fail();
+
+			} catch (InvalidExpressionException expected) {
+
+			}
+
+			try {
+
+				new Puma("1 + x");
+
+				fail();
+
+			} catch (NumberFormatException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			PumaExpressionCache.setDefault(null);
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,229 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaCollectors;
+import com.zavazoo.puma.PumaSummaryStatistics;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the collection of streams of Puma numbers by Puma collectors and the
+ * balanced summation of Puma numbers.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class CollectPumaCollectorsTest extends TestCase {
+
+	/**
+	 * Tests the Puma collectors upon sequential and parallel streams.
+	 */
+	public void testCollect() {
+
+		try {
+
+			List<Puma> numbers = new ArrayList<Puma>();
+
+			Puma sum = Puma.ZERO;
+
+			Puma product = Puma.ONE;
+
+			for (int index = 1; index <= 200; index++) {
+
+				Puma number = new Puma("1/" + index);
+
+				if ((index & 1) == 0) {
+
+					number = number.negate();
+
+				}
+
+				numbers.add(number);
+
+				sum = sum.add(number);
+
+				product = product.multiply(number);
+
+			}
+
+			Puma average = sum.divide(new Puma("200"));
+
+			assertEquals(sum, numbers.stream().collect(PumaCollectors.summing()));
+			assertEquals(sum, numbers.parallelStream().collect(
+					PumaCollectors.summing()));
+
+			assertEquals(average, numbers.parallelStream().collect(
+					PumaCollectors.averaging()));
+
+			assertEquals(product, numbers.stream().collect(
+					PumaCollectors.product()));
+			assertEquals(product, numbers.parallelStream().collect(
+					PumaCollectors.product()));
+
+			assertEquals(Puma.ONE, numbers.parallelStream().collect(
+					PumaCollectors.max()).get());
+			assertEquals(new Puma("-1/2"), numbers.parallelStream().collect(
+					PumaCollectors.min()).get());
+
+			PumaSummaryStatistics statistics = numbers.parallelStream()
+					.collect(PumaCollectors.summarizing());
+
+			assertEquals(200, statistics.getCount());
+			assertEquals(sum, statistics.getSum());
+			assertEquals(average, statistics.getAverage());
+			assertEquals(new Puma("-1/2"), statistics.getMin());
+			assertEquals(Puma.ONE, statistics.getMax());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the Puma collectors upon empty streams and streams containing
+	 * infinities.
+	 */
+	public void testCollectEmptyAndInfinite() {
+
+		try {
+
+			List<Puma> empty = new ArrayList<Puma>();
+
+			assertEquals(Puma.ZERO, empty.stream().collect(
+					PumaCollectors.summing()));
+			assertEquals(Puma.ZERO, empty.stream().collect(
+					PumaCollectors.averaging()));
+			assertEquals(Puma.ONE, empty.stream().collect(
+					PumaCollectors.product()));
+			assertFalse(empty.stream().collect(PumaCollectors.min())
+					.isPresent());
+
+			PumaSummaryStatistics statistics = empty.stream().collect(
+					PumaCollectors.summarizing());
+
+			assertEquals(0, statistics.getCount());
+			assertEquals(Puma.POSITIVE_INFINITY, statistics.getMin());
+			assertEquals(Puma.NEGATIVE_INFINITY, statistics.getMax());
+
+			List<Puma> infinite = Arrays.asList(new Puma("-0.5"),
+					Puma.POSITIVE_INFINITY, new Puma("1/3"));
+
+			assertEquals(Puma.POSITIVE_INFINITY, infinite.stream().collect(
+					PumaCollectors.summing()));
+			assertEquals(Puma.NEGATIVE_INFINITY, infinite.stream().collect(
+					PumaCollectors.product()));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the balanced summation of arrays and iterables of Puma numbers,
+	 * including arrays large enough to be summed in parallel.
+	 */
+	public void testSum() {
+
+		try {
+
+			assertEquals(Puma.ZERO, Puma.sum());
+
+			assertEquals(new Puma("5/6"), Puma.sum(new Puma("1/2"), new Puma(
+					"1/3")));
+
+			Puma[] numbers = new Puma[10000];
+
+			Puma expected = Puma.ZERO;
+
+			for (int index = 0; index < numbers.length; index++) {
+
+				numbers[index] = new Puma((index % 7) + "/" + (index % 5 + 1));
+
+				expected = expected.add(numbers[index]);
+
+			}
+
+			assertEquals(expected, Puma.sum(numbers));
+
+			assertEquals(expected, Puma.sum(Arrays.asList(numbers)));
+
+			// the denominator of the sum does not grow with the number of
+			// fractions
+
+			Puma[] fractions = new Puma[1024];
+
+			for (int index = 0; index < fractions.length; index++) {
+
+				fractions[index] = new Puma("1/" + (3 + index % 7));
+
+			}
+
+			Puma sum = Puma.sum(fractions);
+
+			Puma folded = Puma.ZERO;
+
+			for (Puma fraction : fractions) {
+
+				folded = folded.add(fraction);
+
+			}
+
+			assertEquals(folded, sum);
+
+			assertTrue(sum.getDenominator() == null
+					|| sum.getDenominator().precision() <= 4);
+
+			try {
+
+				Puma.sum(Puma.ONE, null);
+
+				fail();
+
+			} catch (NullPointerException ignored) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
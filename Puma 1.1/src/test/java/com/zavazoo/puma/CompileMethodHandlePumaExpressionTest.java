@@ -0,0 +1,175 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.Random;
+
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaExpression;
+import com.zavazoo.puma.PumaExpressionBackend;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the compilation of Puma expressions into method handles.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class CompileMethodHandlePumaExpressionTest extends TestCase {
+
+	/** The expressions of three variables. */
+	private static final String[] EXPRESSIONS = {
+			"((((I * 1.1) - I) / 3) / S) * s",
+			"((a + b) * (a + b)) + ((a + b) * (a + b))",
+			"(a - b) % (c + 7) ^ 2", "a / b / c", "3 + (a * 1) + 0",
+			"(c ^ 0.5) - (b % a)" };
+
+	/**
+	 * Tests that both backends yield identical results.
+	 */
+	public void testIdentical() {
+
+		try {
+
+			Random random = new Random(31);
+
+			for (String expression : EXPRESSIONS) {
+
+				CompiledPumaExpression interpreted = PumaExpression.compile(
+						expression, PumaExpressionBackend.INTERPRETER);
+				CompiledPumaExpression handled = PumaExpression.compile(
+						expression, PumaExpressionBackend.METHOD_HANDLE);
+
+				assertEquals(PumaExpressionBackend.INTERPRETER, interpreted
+						.getBackend());
+				assertEquals(PumaExpressionBackend.METHOD_HANDLE, handled
+						.getBackend());
+
+				for (int index = 0; index < 50; index++) {
+
+					Puma[] arguments = new Puma[interpreted.getVariableCount()];
+
+					for (int argument = 0; argument < arguments.length; argument++) {
+
+						arguments[argument] = new Puma((random.nextInt(199) + 1)
+								+ "/" + (random.nextInt(9) + 1));
+
+					}
+
+					assertEquals(interpreted.evaluate(arguments).toString(),
+							handled.evaluate(arguments).toString());
+
+				}
+
+			}
+
+			CompiledPumaExpression constant = PumaExpression.compile(
+					"(1 + 2) * 3", PumaExpressionBackend.METHOD_HANDLE);
+
+			assertEquals("9", constant.evaluate().toString());
+
+			try {
+
+				PumaExpression.compile("x + y",
+						PumaExpressionBackend.METHOD_HANDLE).evaluate(
+						Puma.ONE, null);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that expressions too large for a method handle are interpreted.
+	 */
+	public void testLarge() {
+
+		try {
+
+			StringBuilder expression = new StringBuilder("x0");
+
+			for (int index = 1; index < 150; index++) {
+
+				expression.append(" + x").append(index);
+
+			}
+
+			CompiledPumaExpression compiled = PumaExpression.compile(
+					expression.toString(), PumaExpressionBackend.METHOD_HANDLE);
+
+			assertEquals(PumaExpressionBackend.INTERPRETER, compiled
+					.getBackend());
+
+			Puma[] arguments = new Puma[150];
+
+			for (int index = 0; index < arguments.length; index++) {
+
+				arguments[index] = Puma.ONE;
+
+			}
+
+			assertEquals("150", compiled.evaluate(arguments).toString());
+
+			expression = new StringBuilder("x");
+
+			for (int index = 1; index < 60; index++) {
+
+				expression.append(" + ").append(index);
+
+				expression.insert(0, "(").append(") * x");
+
+			}
+
+			CompiledPumaExpression interpreted = PumaExpression
+					.compile(expression.toString());
+			CompiledPumaExpression handled = interpreted
+					.withBackend(PumaExpressionBackend.METHOD_HANDLE);
+
+			assertEquals(PumaExpressionBackend.METHOD_HANDLE, handled
+					.getBackend());
+
+			Puma x = new Puma("1.01");
+
+			assertEquals(interpreted.evaluate(x).toString(), handled
+					.evaluate(x).toString());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,271 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.InvalidExpressionException;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaExpression;
+import com.zavazoo.puma.PumaVariableResolver;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the compilation and evaluation of Puma expressions.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class CompilePumaExpressionTest extends TestCase {
+
+	/** The expressions which do not comprise any variables. */
+	private static final String[] EXPRESSIONS = { "1234+5678",
+			"12.34 + -56.78", "-12.34 - -56.78", "(1/2) + (3 / 4)",
+			"(1 + 2) / 3", "((1+2) / 3) * 4", "1 * (10 ^ 3)", "9 ^ (1/2)",
+			"11 % 5.5", "  ( ( ( (1000000 * 1.1) - 1000000) / 3) / 1000) * 100 ",
+			"0012.340000", "1/0", "-1/0 + 5" };
+
+	/**
+	 * Tests that compiled Puma expressions without any variables yield the same
+	 * results as evaluated Puma expressions.
+	 */
+	public void testConstant() {
+
+		try {
+
+			for (String expression : EXPRESSIONS) {
+
+				CompiledPumaExpression compiled = PumaExpression
+						.compile(expression);
+
+				assertEquals(0, compiled.getVariables().length);
+
+				assertEquals(new PumaExpression(expression).evaluate()
+						.toString(), compiled.evaluate().toString());
+
+				assertEquals(expression, compiled.toString());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the evaluation of compiled Puma expressions with variables bound by
+	 * name, by position and by a resolver.
+	 */
+	public void testVariables() {
+
+		try {
+
+			CompiledPumaExpression dividend = PumaExpression
+					.compile("((((I * 1.1) - I) / 3) / S) * s");
+
+			String[] variables = dividend.getVariables();
+
+			assertEquals(3, variables.length);
+			assertEquals("I", variables[0]);
+			assertEquals("S", variables[1]);
+			assertEquals("s", variables[2]);
+
+			Puma expected = new Puma("10000/3");
+
+			Map<String, Puma> bindings = new HashMap<String, Puma>();
+
+			bindings.put("I", new Puma("1000000"));
+			bindings.put("S", new Puma("1000"));
+			bindings.put("s", new Puma("100"));
+
+			assertEquals(expected, dividend.evaluate(bindings));
+
+			assertEquals(expected, dividend.evaluate(new Puma("1000000"),
+					new Puma("1000"), new Puma("100")));
+
+			final Map<String, Puma> resolved = bindings;
+
+			assertEquals(expected, dividend
+					.evaluate(new PumaVariableResolver() {
+
+						public Puma resolve(String variable) {
+
+							return resolved.get(variable);
+
+						}
+
+					}));
+
+			assertEquals("20", PumaExpression.compile("rate_2 * x1 + x1")
+					.evaluate(new Puma("3"), new Puma("5")).toString());
+
+			bindings.remove("S");
+
+			try {
+
+				dividend.evaluate(bindings);
+
+				fail();
+
+			} catch (IllegalArgumentException unbound) {
+
+			}
+
+			try {
+
+				dividend.evaluate(new Puma("1"));
+
+				fail();
+
+			} catch (IllegalArgumentException unbound) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that the compilation of Puma expressions that are not valid is
+	 * rejected.
+	 */
+	public void testInvalid() {
+
+		String[] expressions = { "", "   ", "1 +", "(1 + 2", "1 + 2)",
+				"1 $ 2", "- 1", "1 + -x", "1 2", "* 2" };
+
+		for (String expression : expressions) {
+
+			try {
+
+				PumaExpression.compile(expression);
+
+				fail(expression);
+
+			} catch (InvalidExpressionException expected) {
+
+				assertEquals(expression, expected.getExpression());
+
+			}
+
+		}
+
+		try {
+
+			PumaExpression.compile("1.2.3 + x");
+
+			fail();
+
+		} catch (NumberFormatException expected) {
+
+		} catch (InvalidExpressionException error) {
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the evaluation of very deeply nested and very long Puma
+	 * expressions.
+	 */
+	public void testLarge() {
+
+		try {
+
+			int depth = 100000;
+
+			StringBuilder nested = new StringBuilder();
+
+			for (int index = 0; index < depth; index++) {
+
+				nested.append("(1 + ");
+
+			}
+
+			nested.append("0");
+
+			for (int index = 0; index < depth; index++) {
+
+				nested.append(")");
+
+			}
+
+			assertEquals(String.valueOf(depth), new PumaExpression(nested
+					.toString()).evaluate().toString());
+
+			StringBuilder digits = new StringBuilder();
+
+			for (int index = 0; index < depth; index++) {
+
+				digits.append('7');
+
+			}
+
+			Puma number = new PumaExpression(digits + " - " + digits + ".5")
+					.evaluate();
+
+			assertEquals("-0.5", number.toString());
+
+			try {
+
+				new PumaExpression(nested.substring(1)).evaluate();
+
+				fail();
+
+			} catch (InvalidExpressionException expected) {
+
+			}
+
+			try {
+
+				new PumaExpression("1 + x").evaluate();
+
+				fail();
+
+			} catch (InvalidExpressionException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,336 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import com.zavazoo.puma.CalculationInterruptedException;
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaBatch;
+import com.zavazoo.puma.PumaBatchExecutor;
+import com.zavazoo.puma.PumaBatchResult;
+import com.zavazoo.puma.PumaColumn;
+import com.zavazoo.puma.PumaContext;
+import com.zavazoo.puma.PumaExpression;
+import com.zavazoo.puma.PumaExpressionCache;
+import com.zavazoo.puma.PumaLimitExceededException;
+import com.zavazoo.puma.PumaLimits;
+import com.zavazoo.puma.RoundedPumaDecorator;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests Puma calculations performed within Puma contexts.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class ContextPumaTest extends TestCase {
+
+	/**
+	 * Tests the settings of the default Puma context and of derived Puma
+	 * contexts.
+	 */
+	public void testSettings() {
+
+		try {
+
+			assertSame(PumaContext.DEFAULT, PumaContext.current());
+
+			assertEquals(10, PumaContext.DEFAULT.getPrecision());
+			assertEquals(RoundingMode.HALF_UP, PumaContext.DEFAULT
+					.getRounding());
+			assertNull(PumaContext.DEFAULT.getLimits());
+			assertNull(PumaContext.DEFAULT.getCache());
+			assertNull(PumaContext.DEFAULT.getTimeout());
+			assertSame(ForkJoinPool.commonPool(), PumaContext.DEFAULT
+					.getPool());
+
+			PumaContext context = PumaContext.DEFAULT.withPrecision(3)
+					.withRounding(RoundingMode.DOWN);
+
+			assertEquals(3, context.getPrecision());
+			assertEquals(RoundingMode.DOWN, context.getRounding());
+			assertEquals(10, PumaContext.DEFAULT.getPrecision());
+
+			try {
+
+				PumaContext.DEFAULT.withPrecision(-1);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			try {
+
+				PumaContext.DEFAULT.withRounding(null);
+
+				fail();
+
+			} catch (NullPointerException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that a Puma context applies to calculations passed the context
+	 * explicitly and to calculations performed within a scope of the context.
+	 */
+	public void testPrecisionAndRounding() {
+
+		try {
+
+			PumaContext context = PumaContext.DEFAULT.withPrecision(3)
+					.withRounding(RoundingMode.DOWN);
+
+			Puma third = new Puma("1/3");
+
+			assertEquals("0.333", new RoundedPumaDecorator(third)
+					.toRoundedString(context));
+			assertEquals("0.3333333333", new RoundedPumaDecorator(third)
+					.toRoundedString());
+
+			Puma root = Puma.TWO.root(Puma.TWO, context);
+
+			assertEquals("1.414", new RoundedPumaDecorator(root)
+					.toRoundedString(context));
+
+			PumaContext.Scope scope = context.enter();
+
+			try {
+
+				assertSame(context, PumaContext.current());
+
+				assertEquals("0.333", new RoundedPumaDecorator(third)
+						.toRoundedString());
+
+				assertEquals(root, Puma.TWO.root(Puma.TWO));
+
+				PumaContext.Scope nested = PumaContext.DEFAULT.enter();
+
+				try {
+
+					assertSame(PumaContext.DEFAULT, PumaContext.current());
+
+				} finally {
+
+					nested.close();
+
+				}
+
+				assertSame(context, PumaContext.current());
+
+			} finally {
+
+				scope.close();
+
+			}
+
+			scope.close();
+
+			assertSame(PumaContext.DEFAULT, PumaContext.current());
+
+			assertEquals("0.3333333333", new RoundedPumaDecorator(third)
+					.toRoundedString());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that the limits, expression cache and timeout of a Puma context
+	 * apply only within a scope of the context.
+	 */
+	public void testResources() {
+
+		try {
+
+			PumaExpressionCache cache = new PumaExpressionCache(8);
+
+			PumaContext context = PumaContext.DEFAULT.withLimits(
+					PumaLimits.UNLIMITED.withMaximumBitLength(64)).withCache(
+					cache);
+
+			PumaContext.Scope scope = context.enter();
+
+			try {
+
+				new Puma("123456789012345678901234567890");
+
+				fail();
+
+			} catch (PumaLimitExceededException expected) {
+
+			} finally {
+
+				scope.close();
+
+			}
+
+			assertEquals(new Puma("123456789012345678901234567890"), new Puma(
+					"123456789012345678901234567890"));
+
+			assertEquals(Puma.SIX, new PumaExpression("2 * 3")
+					.evaluate(context));
+			assertEquals(Puma.SIX, new PumaExpression("2 * 3")
+					.evaluate(context));
+
+			assertEquals(1, cache.size());
+			assertEquals(1, cache.getHitCount());
+
+			try {
+
+				new PumaExpression("2 ^ 0.5").evaluate(PumaContext.DEFAULT
+						.withTimeout(Duration.ZERO));
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertTrue(expected.deadlineExceeded());
+
+			}
+
+			assertSame(PumaContext.DEFAULT, PumaContext.current());
+
+			assertEquals(new Puma("0.5"), new PumaExpression("1 / 2")
+					.evaluate());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that the Puma context of the thread that starts a parallel
+	 * calculation applies to every thread that takes part in it.
+	 */
+	public void testParallel() {
+
+		try {
+
+			PumaContext precise = PumaContext.DEFAULT.withPrecision(20);
+
+			PumaContext bounded = PumaContext.DEFAULT
+					.withLimits(PumaLimits.UNLIMITED
+							.withMaximumDenominator(BigInteger.valueOf(1000)));
+
+			Puma root = Puma.TWO.root(Puma.TWO, 20);
+
+			CompiledPumaExpression divide = PumaExpression.compile("x / 1009");
+
+			int rows = 3 * PumaBatchTask.CHUNK_SIZE;
+
+			Puma[] ones = new Puma[rows];
+
+			Arrays.fill(ones, Puma.ONE);
+
+			Puma[] output = new Puma[rows];
+
+			PumaBatchExecutor executor = new PumaBatchExecutor(2);
+
+			PumaContext.Scope scope = precise.enter();
+
+			try {
+
+				Callable<Puma> task = new Callable<Puma>() {
+
+					public Puma call() {
+
+						return Puma.TWO.root(Puma.TWO);
+
+					}
+
+				};
+
+				PumaBatch batch = executor.submit(Arrays.asList(task, task));
+
+				for (PumaBatchResult result : batch.inSubmissionOrder()) {
+
+					assertEquals(root, result.getNumber());
+
+				}
+
+			} finally {
+
+				scope.close();
+
+				executor.close();
+
+			}
+
+			scope = bounded.enter();
+
+			try {
+
+				divide.evaluateBatch(new PumaColumn[] { PumaColumn
+						.valueOf(ones) }, output);
+
+			} finally {
+
+				scope.close();
+
+			}
+
+			for (Puma row : output) {
+
+				assertEquals(new Puma("1/1000"), row);
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
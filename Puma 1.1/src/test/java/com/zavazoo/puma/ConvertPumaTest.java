@@ -0,0 +1,343 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import com.zavazoo.puma.NegativeInfinityException;
+import com.zavazoo.puma.PositiveInfinityException;
+import com.zavazoo.puma.Puma;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the conversion of Puma numbers to the primitive numeric types.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class ConvertPumaTest extends TestCase {
+
+	/**
+	 * Tests the conversion of Puma numbers to the nearest double.
+	 */
+	public void testDoubleValue() {
+
+		try {
+
+			assertEquals(0.0, new Puma("0").doubleValue());
+
+			assertEquals(0.1, new Puma("0.1").doubleValue());
+
+			assertEquals(-1982.87326576, new Puma("-1982.87326576")
+					.doubleValue());
+
+			assertEquals(1.0 / 3.0, new Puma("1/3").doubleValue());
+
+			assertEquals(-2.0 / 3.0, new Puma("-2/3").doubleValue());
+
+			assertEquals(3333.3333333333335, new Puma("1/0.0003")
+					.doubleValue());
+
+			assertEquals(Double.POSITIVE_INFINITY, new Puma("1/0")
+					.doubleValue());
+
+			assertEquals(Double.NEGATIVE_INFINITY, new Puma("-1/0")
+					.doubleValue());
+
+			assertEquals(Double.POSITIVE_INFINITY, new Puma("1E+400")
+					.doubleValue());
+
+			assertEquals(Double.NEGATIVE_INFINITY, new Puma("-1E+400")
+					.doubleValue());
+
+			assertEquals(0.0, new Puma("1E-400").doubleValue());
+
+			assertEquals(Double.MAX_VALUE, new Puma("1.7976931348623157E+308")
+					.doubleValue());
+
+			assertEquals(Double.MIN_NORMAL, new Puma(
+					"2.2250738585072014E-308").doubleValue());
+
+			assertEquals(Double.MIN_VALUE, new Puma("4.9E-324").doubleValue());
+
+			assertEquals(Double.parseDouble("1E-323"), Puma.ONE.divide(
+					new Puma("1E+323")).doubleValue());
+
+			// ties are resolved to the double with an even significand
+
+			assertEquals(9007199254740992.0, new Puma("9007199254740993")
+					.doubleValue());
+
+			assertEquals(9007199254740996.0, new Puma("9007199254740995")
+					.doubleValue());
+
+			assertEquals(9007199254740994.0, new Puma(
+					"9007199254740993.0000000000000000001").doubleValue());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that the conversion of random decimals and fractions to a double
+	 * yields the nearest double.
+	 */
+	public void testDoubleValueRandom() {
+
+		try {
+
+			Random random = new Random(5);
+
+			for (int index = 0; index < 2000; index++) {
+
+				BigInteger numerator = new BigInteger(1 + random.nextInt(200),
+						random);
+				BigInteger denominator = new BigInteger(
+						1 + random.nextInt(200), random).add(BigInteger.ONE);
+
+				if (random.nextBoolean()) {
+
+					numerator = numerator.negate();
+
+				}
+
+				BigDecimal decimal = new BigDecimal(numerator, random
+						.nextInt(80) - 40);
+
+				assertEquals(Double.parseDouble(decimal.toString()), new Puma(
+						decimal.toString()).doubleValue());
+
+				Puma fraction = new Puma(numerator + "/" + denominator);
+
+				assertNearest(numerator, denominator, fraction.doubleValue());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the conversion of Puma numbers to the nearest float.
+	 */
+	public void testFloatValue() {
+
+		try {
+
+			assertEquals(0.1f, new Puma("0.1").floatValue());
+
+			assertEquals(1.0f / 3.0f, new Puma("1/3").floatValue());
+
+			assertEquals(-2.0f / 3.0f, new Puma("-2/3").floatValue());
+
+			assertEquals(Float.POSITIVE_INFINITY, new Puma("1E+39")
+					.floatValue());
+
+			assertEquals(Float.MIN_VALUE, new Puma("1.4E-45").floatValue());
+
+			assertEquals(16777216.0f, new Puma("16777217").floatValue());
+
+			assertEquals(Float.parseFloat("0.12345678901234567890123"),
+					new Puma("0.12345678901234567890123").floatValue());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the conversion of Puma numbers to integers by discarding any
+	 * fraction part.
+	 */
+	public void testIntegerValue() {
+
+		try {
+
+			assertEquals(3L, new Puma("7/2").longValue());
+
+			assertEquals(-3L, new Puma("-7/2").longValue());
+
+			assertEquals(12L, new Puma("12.9").longValue());
+
+			assertEquals(3333L, new Puma("1/0.0003").longValue());
+
+			assertEquals(Long.MAX_VALUE, new Puma("1/0").longValue());
+
+			assertEquals(Long.MIN_VALUE, new Puma("-1/0").longValue());
+
+			assertEquals(3, new Puma("10/3").intValue());
+
+			assertEquals(-12, new Puma("-12.9").intValue());
+
+			Number number = new Puma("2.5");
+
+			assertEquals(2.5, number.doubleValue());
+
+			assertEquals(2, number.intValue());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the exact conversion of Puma numbers to integers.
+	 */
+	public void testIntegerValueExact() {
+
+		try {
+
+			assertEquals(12L, new Puma("12").longValueExact());
+
+			assertEquals(4L, new Puma("12/3").longValueExact());
+
+			assertEquals(100L, new Puma("1E+2").longValueExact());
+
+			assertEquals(-9223372036854775808L, new Puma(
+					"-9223372036854775808").longValueExact());
+
+			assertEquals(2147483647, new Puma("2147483647").intValueExact());
+
+			assertInexact(new Puma("7/2"));
+
+			assertInexact(new Puma("12.5"));
+
+			assertInexact(new Puma("9223372036854775808"));
+
+			try {
+
+				new Puma("2147483648").intValueExact();
+
+				fail();
+
+			} catch (ArithmeticException expected) {
+
+			}
+
+			try {
+
+				new Puma("1/0").longValueExact();
+
+				fail();
+
+			} catch (PositiveInfinityException expected) {
+
+			}
+
+			try {
+
+				new Puma("-1/0").intValueExact();
+
+				fail();
+
+			} catch (NegativeInfinityException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Asserts that the specified Puma number cannot be converted to a long
+	 * without any loss of information.
+	 * 
+	 * @param number
+	 *            the number.
+	 */
+	private static void assertInexact(Puma number) {
+
+		try {
+
+			number.longValueExact();
+
+			fail(number.toString());
+
+		} catch (ArithmeticException expected) {
+
+		}
+
+	}
+
+	/**
+	 * Asserts that the specified double is nearest to the specified fraction
+	 * by comparing the fraction precisely with the midpoints between the double
+	 * and its neighbouring doubles.
+	 * 
+	 * @param numerator
+	 *            the numerator.
+	 * @param denominator
+	 *            the positive denominator.
+	 * @param approximation
+	 *            the double.
+	 */
+	private static void assertNearest(BigInteger numerator,
+			BigInteger denominator, double approximation) {
+
+		assertFalse(Double.isInfinite(approximation));
+
+		BigDecimal exact = new BigDecimal(approximation);
+		BigDecimal below = new BigDecimal(Math.nextDown(approximation));
+		BigDecimal above = new BigDecimal(Math.nextUp(approximation));
+
+		BigDecimal two = new BigDecimal(2);
+
+		BigDecimal lower = exact.add(below).divide(two);
+		BigDecimal upper = exact.add(above).divide(two);
+
+		BigDecimal scaledNumerator = new BigDecimal(numerator);
+		BigDecimal scaledDenominator = new BigDecimal(denominator);
+
+		assertTrue(scaledNumerator.compareTo(lower.multiply(scaledDenominator)) >= 0);
+		assertTrue(scaledNumerator.compareTo(upper.multiply(scaledDenominator)) <= 0);
+
+	}
+
+}
\ No newline at end of file
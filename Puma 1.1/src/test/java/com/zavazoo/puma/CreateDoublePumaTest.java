@@ -0,0 +1,220 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import com.zavazoo.puma.Puma;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the creation of Puma numbers from doubles.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class CreateDoublePumaTest extends TestCase {
+
+	/**
+	 * Tests the creation of Puma numbers equal to the exact binary value of
+	 * doubles.
+	 */
+	public void testValueOfExact() {
+
+		try {
+
+			assertEquals("0.1000000000000000055511151231257827021181583404541015625",
+					Puma.valueOfExact(0.1).toString());
+
+			assertEquals("-2.5", Puma.valueOfExact(-2.5).toString());
+
+			assertEquals("1024", Puma.valueOfExact(1024.0).toString());
+
+			assertEquals("0", Puma.valueOfExact(-0.0).toString());
+
+			assertSame(Puma.POSITIVE_INFINITY, Puma
+					.valueOfExact(Double.POSITIVE_INFINITY));
+
+			assertSame(Puma.NEGATIVE_INFINITY, Puma
+					.valueOfExact(Double.NEGATIVE_INFINITY));
+
+			double[] values = { Double.MAX_VALUE, -Double.MAX_VALUE,
+					Double.MIN_VALUE, Double.MIN_NORMAL, 1e300, 1e-300,
+					123456789.123456789, 4503599627370497.0, 1.0 / 3.0 };
+
+			for (double value : values) {
+
+				assertExact(value, Puma.valueOfExact(value));
+
+			}
+
+			Random random = new Random(13);
+
+			for (int index = 0; index < 2000; index++) {
+
+				double value = Double.longBitsToDouble(random.nextLong());
+
+				if (Double.isNaN(value) || Double.isInfinite(value)) {
+
+					continue;
+
+				}
+
+				assertExact(value, Puma.valueOfExact(value));
+
+			}
+
+			try {
+
+				Puma.valueOfExact(Double.NaN);
+
+				fail();
+
+			} catch (NumberFormatException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the creation of Puma numbers equal to the shortest decimals that
+	 * round to doubles.
+	 */
+	public void testValueOfDecimal() {
+
+		try {
+
+			assertEquals("0.1", Puma.valueOfDecimal(0.1).toString());
+
+			assertEquals("-1982.87326576", Puma.valueOfDecimal(-1982.87326576)
+					.toString());
+
+			assertEquals("0.3", Puma.valueOfDecimal(0.3).toString());
+
+			assertEquals("0.30000000000000004", Puma.valueOfDecimal(0.1 + 0.2)
+					.toString());
+
+			assertEquals("100", Puma.valueOfDecimal(100.0).toString());
+
+			assertEquals("0", Puma.valueOfDecimal(0.0).toString());
+
+			assertSame(Puma.POSITIVE_INFINITY, Puma
+					.valueOfDecimal(Double.POSITIVE_INFINITY));
+
+			Random random = new Random(17);
+
+			for (int index = 0; index < 2000; index++) {
+
+				double value = (random.nextDouble() - 0.5)
+						* Math.pow(10, random.nextInt(40) - 20);
+
+				Puma number = Puma.valueOfDecimal(value);
+
+				// the decimal rounds to the double and is no longer than the
+				// string representation of the double
+				assertEquals(value, Double.parseDouble(number.toString()));
+
+				assertTrue(new BigDecimal(number.toString())
+						.stripTrailingZeros().precision() <= BigDecimal.valueOf(
+						value).stripTrailingZeros().precision());
+
+			}
+
+			try {
+
+				Puma.valueOfDecimal(Double.NaN);
+
+				fail();
+
+			} catch (NumberFormatException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the creation of arrays of Puma numbers from arrays of doubles.
+	 */
+	public void testValueOfArray() {
+
+		try {
+
+			double[] values = { 0.1, -7.25, 1e-5 };
+
+			Puma[] exact = Puma.valueOfExact(values);
+			Puma[] decimal = Puma.valueOfDecimal(values);
+
+			assertEquals(values.length, exact.length);
+			assertEquals(values.length, decimal.length);
+
+			for (int index = 0; index < values.length; index++) {
+
+				assertExact(values[index], exact[index]);
+
+				assertEquals(values[index], decimal[index].doubleValue());
+
+			}
+
+			assertEquals("0.00001", decimal[2].toString());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Asserts that the specified Puma number is exactly equal to the specified
+	 * double.
+	 * 
+	 * @param value
+	 *            the double.
+	 * @param number
+	 *            the number.
+	 */
+	private static void assertExact(double value, Puma number) {
+
+		assertEquals(0, new BigDecimal(value).compareTo(new BigDecimal(number
+				.toString())));
+
+	}
+
+}
\ No newline at end of file
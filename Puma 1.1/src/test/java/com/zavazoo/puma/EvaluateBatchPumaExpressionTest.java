@@ -0,0 +1,283 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaColumn;
+import com.zavazoo.puma.PumaExpression;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the evaluation of compiled Puma expressions for batches of rows.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class EvaluateBatchPumaExpressionTest extends TestCase {
+
+	/**
+	 * Tests that a batch evaluation yields the same results as evaluating each
+	 * row individually, for columns of every type.
+	 */
+	public void testBatch() {
+
+		try {
+
+			CompiledPumaExpression compiled = PumaExpression
+					.compile("((((I * 1.1) - I) / 3) / S) * (s + r)");
+
+			int rows = 5000;
+
+			Random random = new Random(29);
+
+			Puma[] investments = new Puma[rows];
+			long[] shares = new long[rows];
+			double[] exactShares = new double[rows];
+			double[] decimalShares = new double[rows];
+
+			for (int row = 0; row < rows; row++) {
+
+				investments[row] = new Puma((random.nextInt(1000000) + 1)
+						+ "/" + (random.nextInt(7) + 1));
+				shares[row] = random.nextInt(1000) + 1;
+				exactShares[row] = random.nextInt(100) / 8.0;
+				decimalShares[row] = random.nextInt(100) / 10.0;
+
+			}
+
+			PumaColumn[] columns = { PumaColumn.valueOf(investments),
+					PumaColumn.valueOf(shares),
+					PumaColumn.valueOfExact(exactShares),
+					PumaColumn.valueOfDecimal(decimalShares) };
+
+			Puma[] output = new Puma[rows];
+
+			compiled.evaluateBatch(columns, output);
+
+			for (int row = 0; row < rows; row++) {
+
+				Puma expected = compiled.evaluate(investments[row], new Puma(
+						String.valueOf(shares[row])), Puma
+						.valueOfExact(exactShares[row]), new Puma(String
+						.valueOf(decimalShares[row])));
+
+				assertEquals(expected.toString(), output[row].toString());
+
+			}
+
+			Map<String, PumaColumn> named = new HashMap<String, PumaColumn>();
+
+			named.put("I", columns[0]);
+			named.put("S", columns[1]);
+			named.put("s", columns[2]);
+			named.put("r", columns[3]);
+
+			Puma[] namedOutput = new Puma[rows];
+
+			ForkJoinPool pool = new ForkJoinPool(3);
+
+			compiled.evaluateBatch(named, namedOutput, pool);
+
+			pool.shutdown();
+
+			for (int row = 0; row < rows; row++) {
+
+				assertEquals(output[row].toString(), namedOutput[row]
+						.toString());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the batch evaluation of a column that supplies its own rows.
+	 */
+	public void testCustomColumn() {
+
+		try {
+
+			PumaColumn sevenths = new PumaColumn() {
+
+				@Override
+				public int size() {
+
+					return 3000;
+
+				}
+
+				@Override
+				public Puma get(int row) {
+
+					return new Puma(row + "/7");
+
+				}
+
+			};
+
+			Puma[] output = new Puma[sevenths.size()];
+
+			PumaExpression.compile("x * 7").evaluateBatch(
+					new PumaColumn[] { sevenths }, output);
+
+			for (int row = 0; row < output.length; row++) {
+
+				assertEquals(String.valueOf(row), output[row].toString());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the batch evaluation of constant expressions and expressions that
+	 * yield a variable.
+	 */
+	public void testTrivial() {
+
+		try {
+
+			Puma[] output = new Puma[3000];
+
+			PumaExpression.compile("(1 + 2) * 3").evaluateBatch(
+					new PumaColumn[0], output);
+
+			for (Puma number : output) {
+
+				assertEquals("9", number.toString());
+
+			}
+
+			long[] values = new long[3000];
+
+			for (int row = 0; row < values.length; row++) {
+
+				values[row] = row - 1500;
+
+			}
+
+			PumaExpression.compile("x * 1").evaluateBatch(
+					new PumaColumn[] { PumaColumn.valueOf(values) }, output);
+
+			for (int row = 0; row < values.length; row++) {
+
+				assertEquals(String.valueOf(row - 1500), output[row]
+						.toString());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that invalid batches are rejected.
+	 */
+	public void testInvalid() {
+
+		try {
+
+			CompiledPumaExpression compiled = PumaExpression
+					.compile("x + y");
+
+			PumaColumn column = PumaColumn.valueOf(new long[] { 1, 2 });
+
+			try {
+
+				compiled.evaluateBatch(new PumaColumn[] { column },
+						new Puma[2]);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			try {
+
+				compiled.evaluateBatch(new PumaColumn[] { column, column },
+						new Puma[3]);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			try {
+
+				compiled.evaluateBatch(new PumaColumn[] { column,
+						PumaColumn.valueOf(new Puma[] { Puma.ONE, null }) },
+						new Puma[2]);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			try {
+
+				compiled.evaluateBatch(new HashMap<String, PumaColumn>(),
+						new Puma[2]);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
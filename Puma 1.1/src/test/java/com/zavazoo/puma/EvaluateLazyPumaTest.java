@@ -0,0 +1,209 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.Random;
+
+import com.zavazoo.puma.LazyPuma;
+import com.zavazoo.puma.Puma;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the evaluation of lazy Puma calculations.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class EvaluateLazyPumaTest extends TestCase {
+
+	/**
+	 * Tests that a lazy calculation equals the eager calculation.
+	 */
+	public void testEvaluate() {
+
+		try {
+
+			Puma investment = new Puma("1000000");
+			Puma shares = new Puma("1000");
+			Puma holding = new Puma("100");
+
+			Puma eager = investment.multiply(new Puma("1.1")).subtract(
+					investment).divide(Puma.THREE).divide(shares).multiply(
+					holding);
+
+			LazyPuma lazy = investment.lazy().multiply(new Puma("1.1"))
+					.subtract(investment).divide(Puma.THREE).divide(shares)
+					.multiply(holding);
+
+			assertEquals(eager, lazy.evaluate());
+
+			assertEquals(eager.toString(), lazy.toString());
+
+			assertSame(lazy.evaluate(), lazy.evaluate());
+
+			assertEquals(new Puma("-0.75"), LazyPuma.valueOf(3).divide(
+					new Puma("-4")).evaluate());
+
+			assertEquals(new Puma("-5"), LazyPuma.valueOf(5).negate()
+					.evaluate());
+
+			assertEquals(new Puma("3"), LazyPuma.valueOf(9).power(
+					new Puma("0.5").lazy()).evaluate());
+
+			assertEquals(new Puma("1"), LazyPuma.valueOf(11).modulus(
+					LazyPuma.valueOf(5)).evaluate());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that a long random chain of operations equals the eager chain for
+	 * several reduction thresholds, including a chain too long to evaluate
+	 * recursively.
+	 */
+	public void testChain() {
+
+		try {
+
+			Random random = new Random(39);
+
+			for (int threshold : new int[] { 1, 64, LazyPuma.DEFAULT_REDUCTION_THRESHOLD,
+					Integer.MAX_VALUE }) {
+
+				Puma eager = Puma.ONE;
+
+				LazyPuma lazy = LazyPuma.valueOf(1);
+
+				for (int index = 0; index < 200; index++) {
+
+					Puma number = new Puma((random.nextInt(199) - 99) + "."
+							+ random.nextInt(100));
+
+					if (number.zero()) {
+
+						number = Puma.SEVEN;
+
+					}
+
+					switch (random.nextInt(4)) {
+
+					case 0:
+
+						eager = eager.add(number);
+						lazy = lazy.add(number);
+
+						break;
+
+					case 1:
+
+						eager = eager.subtract(number);
+						lazy = lazy.subtract(number);
+
+						break;
+
+					case 2:
+
+						eager = eager.multiply(number);
+						lazy = lazy.multiply(number);
+
+						break;
+
+					default:
+
+						eager = eager.divide(number);
+						lazy = lazy.divide(number);
+
+						break;
+
+					}
+
+				}
+
+				assertEquals(eager, lazy.evaluate(threshold));
+
+			}
+
+			LazyPuma sum = LazyPuma.valueOf(0);
+
+			for (int index = 0; index < 200000; index++) {
+
+				sum = sum.add(new Puma("0.5"));
+
+			}
+
+			assertEquals(new Puma("100000"), sum.evaluate());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests calculations that involve infinity and division by zero, and
+	 * calculations that share operands.
+	 */
+	public void testInfinityAndSharing() {
+
+		try {
+
+			assertEquals(Puma.POSITIVE_INFINITY, LazyPuma.valueOf(5).divide(
+					Puma.ZERO).evaluate());
+
+			assertEquals(Puma.NEGATIVE_INFINITY, LazyPuma.valueOf(-5).divide(
+					Puma.ZERO).add(Puma.TEN).evaluate());
+
+			assertEquals(Puma.ZERO, LazyPuma.valueOf(Puma.POSITIVE_INFINITY)
+					.add(Puma.NEGATIVE_INFINITY).evaluate());
+
+			LazyPuma third = LazyPuma.valueOf(1).divide(Puma.THREE);
+
+			LazyPuma shared = third;
+
+			for (int index = 0; index < 30; index++) {
+
+				shared = shared.add(shared);
+
+			}
+
+			assertEquals(new Puma("1073741824/3"), shared.evaluate());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,236 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.zavazoo.puma.CalculationInterruptedException;
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaContext;
+import com.zavazoo.puma.PumaExpression;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the parallel evaluation of compiled Puma expressions.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class EvaluateParallelPumaExpressionTest extends TestCase {
+
+	/**
+	 * Tests that parallel evaluation yields the same results as sequential
+	 * evaluation for sums of independent products.
+	 */
+	public void testIndependent() {
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+
+			StringBuilder expression = new StringBuilder();
+
+			for (int index = 0; index < 24; index++) {
+
+				if (index > 0) {
+
+					expression.append(" + ");
+
+				}
+
+				expression.append("((a * ").append(index + 1).append(
+						") / (b + ").append(index).append(")) * (c ^ ")
+						.append(index % 3 + 1).append(")");
+
+			}
+
+			CompiledPumaExpression compiled = PumaExpression
+					.compile(expression.toString());
+
+			Random random = new Random(37);
+
+			for (int index = 0; index < 10; index++) {
+
+				Puma a = new Puma((random.nextInt(99999) + 1) + "/"
+						+ (random.nextInt(97) + 1));
+				Puma b = new Puma(String.valueOf(random.nextInt(1000) + 1));
+				Puma c = new Puma((random.nextInt(9) + 1) + "/7");
+
+				String expected = compiled.evaluate(a, b, c).toString();
+
+				// fork wherever possible
+				assertEquals(expected, compiled.evaluateParallel(pool, 0, a,
+						b, c).toString());
+
+				assertEquals(expected, compiled.evaluateParallel(pool, a, b, c)
+						.toString());
+
+				assertEquals(expected, compiled.evaluateParallel(a, b, c)
+						.toString());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			pool.shutdown();
+
+		}
+
+	}
+
+	/**
+	 * Tests the parallel evaluation of expressions comprising shared
+	 * sub-expressions, constants and long chains of operations.
+	 */
+	public void testShared() {
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+
+			CompiledPumaExpression shared = PumaExpression
+					.compile("((x / 7) * (x / 7)) + ((x / 7) * (x / 7)) - (x / 7)");
+
+			Puma x = new Puma("123456789.987654321");
+
+			assertEquals(shared.evaluate(x).toString(), shared
+					.evaluateParallel(pool, 0, x).toString());
+
+			assertEquals("9", PumaExpression.compile("(1 + 2) * 3")
+					.evaluateParallel(pool, 0).toString());
+
+			StringBuilder chain = new StringBuilder("x");
+
+			for (int index = 0; index < 2000; index++) {
+
+				chain.append(" + (x / ").append(index + 1).append(")");
+
+			}
+
+			CompiledPumaExpression compiled = PumaExpression.compile(chain
+					.toString());
+
+			Puma y = new Puma("3");
+
+			assertEquals(compiled.evaluate(y).toString(), compiled
+					.evaluateParallel(pool, 0, y).toString());
+
+			try {
+
+				shared.evaluateParallel(pool, (Puma) null);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			pool.shutdown();
+
+		}
+
+	}
+
+	/**
+	 * Tests that every part of a parallel evaluation observes the Puma
+	 * context of the thread that started it.
+	 */
+	public void testContext() {
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		try {
+
+			CompiledPumaExpression compiled = PumaExpression
+					.compile("(x ^ 0.5) + (y ^ 0.5)");
+
+			Puma expected = Puma.TWO.power(new Puma("0.5"), 20).add(
+					Puma.THREE.power(new Puma("0.5"), 20));
+
+			PumaContext.Scope scope = PumaContext.DEFAULT.withPrecision(20)
+					.enter();
+
+			try {
+
+				assertEquals(expected, compiled.evaluate(Puma.TWO, Puma.THREE));
+
+				for (int index = 0; index < 10; index++) {
+
+					assertEquals(expected, compiled.evaluateParallel(pool, 0,
+							Puma.TWO, Puma.THREE));
+
+				}
+
+			} finally {
+
+				scope.close();
+
+			}
+
+			scope = PumaContext.DEFAULT.withTimeout(Duration.ZERO).enter();
+
+			try {
+
+				compiled.evaluateParallel(pool, 0, Puma.TWO, Puma.THREE);
+
+				fail();
+
+			} catch (CalculationInterruptedException interrupted) {
+
+				assertTrue(interrupted.deadlineExceeded());
+
+			} finally {
+
+				scope.close();
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			pool.shutdown();
+
+		}
+
+	}
+
+}
\ No newline at end of file
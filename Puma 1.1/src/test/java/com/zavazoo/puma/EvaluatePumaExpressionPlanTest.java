@@ -0,0 +1,239 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaColumn;
+import com.zavazoo.puma.PumaExpression;
+import com.zavazoo.puma.PumaExpressionPlan;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the evaluation of Puma expression plans.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class EvaluatePumaExpressionPlanTest extends TestCase {
+
+	/**
+	 * Tests that a sub-expression common to every expression of a plan is
+	 * evaluated once and that the results equal those of the individual
+	 * expressions.
+	 */
+	public void testSharedSubexpression() {
+
+		try {
+
+			String[] expressions = new String[100];
+
+			for (int index = 0; index < expressions.length; index++) {
+
+				expressions[index] = "( ( ( (I * 1.1) - I) / 3) / S) * s"
+						+ index;
+
+			}
+
+			PumaExpressionPlan plan = PumaExpression.plan(expressions);
+
+			assertEquals(102, plan.getVariableCount());
+
+			assertEquals("I", plan.getVariables()[0]);
+			assertEquals("S", plan.getVariables()[1]);
+			assertEquals("s0", plan.getVariables()[2]);
+
+			// the shared prefix of 8 instructions plus a variable and a
+			// multiplication for each shareholder
+			assertEquals(8 + 2 * expressions.length, plan
+					.getInstructionCount());
+
+			Map<String, Puma> bindings = new HashMap<String, Puma>();
+
+			bindings.put("I", new Puma("1000000"));
+			bindings.put("S", new Puma("1000"));
+
+			for (int index = 0; index < expressions.length; index++) {
+
+				bindings.put("s" + index, new Puma(String.valueOf(index * 7)));
+
+			}
+
+			Puma[] results = plan.evaluate(bindings);
+
+			assertEquals(expressions.length, results.length);
+
+			for (int index = 0; index < expressions.length; index++) {
+
+				assertEquals(PumaExpression.compile(expressions[index])
+						.evaluate(bindings), results[index]);
+
+			}
+
+			assertEquals("700/3", results[1].toString());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests plans of expressions that are constant, identical or that yield a
+	 * variable.
+	 */
+	public void testTrivial() {
+
+		try {
+
+			PumaExpressionPlan plan = PumaExpression.plan("(1 + 2) * 3",
+					"x", "x * 1", "y + x", "x + y", "(1 + 2) * 3");
+
+			assertEquals(Arrays.asList("x", "y"), Arrays.asList(plan
+					.getVariables()));
+
+			assertEquals(5, plan.getInstructionCount());
+
+			Puma[] results = plan.evaluate(Puma.TWO, Puma.TEN);
+
+			assertEquals(Arrays.asList(new Puma("9"), Puma.TWO, Puma.TWO,
+					new Puma("12"), new Puma("12"), new Puma("9")), Arrays
+					.asList(results));
+
+			try {
+
+				plan.evaluate(Puma.TWO);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			try {
+
+				plan.evaluate(Puma.TWO, null);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			try {
+
+				PumaExpression.plan(new CompiledPumaExpression[0]);
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the batch evaluation of a plan against the evaluation of each
+	 * expression for each row.
+	 */
+	public void testBatch() {
+
+		try {
+
+			CompiledPumaExpression[] compiled = {
+					PumaExpression.compile("( ( (I * 1.1) - I) / 3) / S"),
+					PumaExpression.compile("( ( ( (I * 1.1) - I) / 3) / S) * s"),
+					PumaExpression.compile("(I * 1.1) - I") };
+
+			PumaExpressionPlan plan = PumaExpression.plan(compiled);
+
+			Random random = new Random(38);
+
+			int rows = 5000;
+
+			Puma[] investments = new Puma[rows];
+
+			long[] shares = new long[rows];
+
+			long[] holdings = new long[rows];
+
+			for (int row = 0; row < rows; row++) {
+
+				investments[row] = new Puma(String.valueOf(random
+						.nextInt(1000000) + 1));
+				shares[row] = random.nextInt(1000) + 1;
+				holdings[row] = random.nextInt(1000);
+
+			}
+
+			Map<String, PumaColumn> columns = new HashMap<String, PumaColumn>();
+
+			columns.put("I", PumaColumn.valueOf(investments));
+			columns.put("S", PumaColumn.valueOf(shares));
+			columns.put("s", PumaColumn.valueOf(holdings));
+
+			Puma[][] outputs = new Puma[compiled.length][rows];
+
+			ForkJoinPool pool = new ForkJoinPool(3);
+
+			plan.evaluateBatch(columns, outputs, pool);
+
+			pool.shutdown();
+
+			for (int index = 0; index < compiled.length; index++) {
+
+				Puma[] expected = new Puma[rows];
+
+				compiled[index].evaluateBatch(columns, expected);
+
+				assertEquals(Arrays.asList(expected), Arrays
+						.asList(outputs[index]));
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,382 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaBatch;
+import com.zavazoo.puma.PumaBatchExecutor;
+import com.zavazoo.puma.PumaBatchResult;
+import com.zavazoo.puma.PumaExpression;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the execution of batches of calculations by a Puma batch executor.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class ExecutePumaBatchExecutorTest extends TestCase {
+
+	/**
+	 * Tests the results of a batch of tasks in submission and completion
+	 * order.
+	 */
+	public void testSubmit() {
+
+		PumaBatchExecutor executor = new PumaBatchExecutor(4);
+
+		try {
+
+			List<Callable<Puma>> tasks = new ArrayList<Callable<Puma>>();
+
+			for (int index = 0; index < 1000; index++) {
+
+				final Puma number = new Puma(String.valueOf(index));
+
+				tasks.add(new Callable<Puma>() {
+
+					public Puma call() {
+
+						return number.divide(Puma.THREE);
+
+					}
+
+				});
+
+			}
+
+			PumaBatch batch = executor.submit(tasks);
+
+			assertEquals(1000, batch.size());
+
+			int index = 0;
+
+			for (PumaBatchResult result : batch.inSubmissionOrder()) {
+
+				assertEquals(index, result.getIndex());
+				assertTrue(result.successful());
+				assertEquals(new Puma(index + "/3"), result.getNumber());
+
+				index++;
+
+			}
+
+			assertTrue(batch.done());
+
+			BitSet indices = new BitSet();
+
+			for (PumaBatchResult result : batch.inCompletionOrder()) {
+
+				indices.set(result.getIndex());
+
+			}
+
+			assertEquals(1000, indices.cardinality());
+
+			try {
+
+				batch.inCompletionOrder();
+
+				fail();
+
+			} catch (IllegalStateException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			executor.close();
+
+		}
+
+	}
+
+	/**
+	 * Tests a batch of evaluations of a compiled Puma expression, one of which
+	 * fails because a variable is not bound.
+	 */
+	public void testSubmitExpression() {
+
+		PumaBatchExecutor executor = new PumaBatchExecutor();
+
+		try {
+
+			CompiledPumaExpression dividend = PumaExpression
+					.compile("(P / S) * s");
+
+			List<Map<String, Puma>> bindings = new ArrayList<Map<String, Puma>>();
+
+			for (int shares = 1; shares <= 50; shares++) {
+
+				Map<String, Puma> binding = new HashMap<String, Puma>();
+
+				binding.put("P", new Puma("1000000"));
+				binding.put("S", new Puma("3000"));
+				binding.put("s", new Puma(String.valueOf(shares)));
+
+				bindings.add(binding);
+
+			}
+
+			bindings.get(7).remove("s");
+
+			PumaBatch batch = executor.submit(dividend, bindings);
+
+			for (PumaBatchResult result : batch.inSubmissionOrder()) {
+
+				if (result.getIndex() == 7) {
+
+					assertFalse(result.successful());
+					assertTrue(result.getError() instanceof IllegalArgumentException);
+
+					try {
+
+						result.getNumber();
+
+						fail();
+
+					} catch (IllegalStateException expected) {
+
+					}
+
+				} else {
+
+					assertEquals(new Puma("1000/3").multiply(new Puma(String
+							.valueOf(result.getIndex() + 1))), result
+							.getNumber());
+
+				}
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			executor.close();
+
+		}
+
+	}
+
+	/**
+	 * Tests that calculations which do not complete within the timeout are
+	 * cancelled.
+	 */
+	public void testTimeout() {
+
+		PumaBatchExecutor executor = new PumaBatchExecutor(2);
+
+		try {
+
+			List<Callable<Puma>> tasks = new ArrayList<Callable<Puma>>();
+
+			tasks.add(new Callable<Puma>() {
+
+				public Puma call() throws Exception {
+
+					Thread.sleep(60000);
+
+					return Puma.ONE;
+
+				}
+
+			});
+
+			tasks.add(new Callable<Puma>() {
+
+				public Puma call() {
+
+					return Puma.TWO;
+
+				}
+
+			});
+
+			PumaBatch batch = executor.submit(tasks, 100,
+					TimeUnit.MILLISECONDS);
+
+			PumaBatchResult slow = batch.get(0);
+
+			assertTrue(slow.cancelled());
+			assertTrue(slow.timedOut());
+			assertEquals("timed out", slow.toString());
+
+			assertEquals(Puma.TWO, batch.get(1).getNumber());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			executor.close();
+
+		}
+
+	}
+
+	/**
+	 * Tests that a calculation which times out does not interrupt the
+	 * calculations performed after it by the same worker thread.
+	 */
+	public void testTimeoutInterrupt() {
+
+		PumaBatchExecutor executor = new PumaBatchExecutor(1);
+
+		try {
+
+			List<Callable<Puma>> tasks = new ArrayList<Callable<Puma>>();
+
+			tasks.add(new Callable<Puma>() {
+
+				public Puma call() {
+
+					return Puma.TWO.power(new Puma("1/7"), 2000);
+
+				}
+
+			});
+
+			for (int index = 0; index < 5; index++) {
+
+				tasks.add(new Callable<Puma>() {
+
+					public Puma call() {
+
+						return Puma.TWO.power(new Puma("1/2"), 10);
+
+					}
+
+				});
+
+			}
+
+			PumaBatch batch = executor.submit(tasks, 200,
+					TimeUnit.MILLISECONDS);
+
+			assertEquals("timed out", batch.get(0).toString());
+
+			for (int index = 1; index < tasks.size(); index++) {
+
+				assertEquals(Puma.TWO.power(new Puma("1/2"), 10), batch.get(
+						index).getNumber());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			executor.close();
+
+		}
+
+	}
+
+	/**
+	 * Tests that cancelling a batch cancels the running and waiting
+	 * calculations.
+	 */
+	public void testCancel() {
+
+		PumaBatchExecutor executor = new PumaBatchExecutor(1);
+
+		try {
+
+			final CountDownLatch started = new CountDownLatch(1);
+
+			List<Callable<Puma>> tasks = new ArrayList<Callable<Puma>>();
+
+			for (int index = 0; index < 10; index++) {
+
+				tasks.add(new Callable<Puma>() {
+
+					public Puma call() throws Exception {
+
+						started.countDown();
+
+						Thread.sleep(60000);
+
+						return Puma.ONE;
+
+					}
+
+				});
+
+			}
+
+			PumaBatch batch = executor.submit(tasks);
+
+			started.await();
+
+			batch.cancel();
+
+			for (PumaBatchResult result : batch.inCompletionOrder()) {
+
+				assertTrue(result.cancelled());
+				assertFalse(result.timedOut());
+
+			}
+
+			assertTrue(batch.done());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			executor.close();
+
+		}
+
+	}
+
+}
\ No newline at end of file
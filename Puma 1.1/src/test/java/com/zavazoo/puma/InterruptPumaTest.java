@@ -0,0 +1,312 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import com.zavazoo.puma.CalculationInterruptedException;
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaColumn;
+import com.zavazoo.puma.PumaExpression;
+import com.zavazoo.puma.PumaExpressionBackend;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the cooperative cancellation of long-running Puma calculations by
+ * interruption and by deadline.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class InterruptPumaTest extends TestCase {
+
+	/**
+	 * Tests that a root calculation is abandoned once its deadline passes,
+	 * carrying the latest estimate of the root.
+	 */
+	public void testPowerDeadline() {
+
+		try {
+
+			try {
+
+				Puma.TWO.power(new Puma("1/7"), 500, Duration.ofNanos(1));
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertTrue(expected.deadlineExceeded());
+				assertNotNull(expected.getPartialResult());
+
+			}
+
+			try {
+
+				// a timeout that has already elapsed is not a lack of timeout
+				Puma.TWO.power(new Puma("0.5"), 30, Duration.ofMillis(-1));
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertTrue(expected.deadlineExceeded());
+
+			}
+
+			// the deadline no longer applies once the call completes
+			assertEquals(Puma.TWO.power(new Puma("1/2"), 10), Puma.TWO.power(
+					new Puma("1/2"), 10, Duration.ofMinutes(1)));
+
+			assertEquals(Puma.THREE, new Puma("27").root(Puma.THREE, 10,
+					Duration.ofMinutes(1)));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that batch and plan evaluations are abandoned when the thread is
+	 * interrupted.
+	 */
+	public void testBatchInterrupt() {
+
+		try {
+
+			CompiledPumaExpression compiled = PumaExpression.compile("x * 2");
+
+			Puma[] output = new Puma[100];
+
+			Puma[] input = new Puma[output.length];
+
+			Arrays.fill(input, Puma.ONE);
+
+			Thread.currentThread().interrupt();
+
+			try {
+
+				compiled.evaluateBatch(
+						new PumaColumn[] { PumaColumn.valueOf(input) }, output);
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertFalse(expected.deadlineExceeded());
+
+			}
+
+			try {
+
+				PumaExpression.plan("x * 2", "x + 1").evaluate(Puma.ONE);
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertFalse(expected.deadlineExceeded());
+
+			}
+
+			assertTrue(Thread.interrupted());
+
+			compiled.evaluateBatch(
+					new PumaColumn[] { PumaColumn.valueOf(input) }, output);
+
+			assertEquals(Puma.TWO, output[99]);
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that root and fraction calculations are abandoned when the thread
+	 * is interrupted, leaving the interrupted status set.
+	 */
+	public void testInterrupt() {
+
+		try {
+
+			Thread.currentThread().interrupt();
+
+			try {
+
+				Puma.TWO.power(new Puma("1/3"));
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertFalse(expected.deadlineExceeded());
+
+			}
+
+			assertTrue(Thread.currentThread().isInterrupted());
+
+			try {
+
+				new Puma("0.0001234567").createFractionDecorator()
+						.toFractionPuma();
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertNotNull(expected.getPartialResult());
+
+			}
+
+			assertTrue(Thread.interrupted());
+
+			assertEquals(new Puma("0.25"), new Puma("0.25")
+					.createFractionDecorator().toFractionPuma(
+							Duration.ofMinutes(1)));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			Thread.interrupted();
+
+		}
+
+	}
+
+	/**
+	 * Tests that the evaluation of a Puma expression is abandoned once its
+	 * deadline passes.
+	 */
+	public void testExpressionDeadline() {
+
+		try {
+
+			CompiledPumaExpression compiled = PumaExpression
+					.compile("(x + 1) * (x + 2)");
+
+			try {
+
+				compiled.evaluate(Duration.ZERO, Puma.ONE);
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertTrue(expected.deadlineExceeded());
+
+			}
+
+			assertEquals(Puma.SIX, compiled.evaluate(Duration.ofMinutes(1),
+					Puma.ONE));
+
+			try {
+
+				new PumaExpression("2 ^ 0.5").evaluate(Duration.ZERO);
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertTrue(expected.deadlineExceeded());
+
+			}
+
+			assertEquals(Puma.FOUR, new PumaExpression("2 ^ 2")
+					.evaluate(Duration.ofMinutes(1)));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that the evaluation of a Puma expression by the method handle
+	 * backend is abandoned between operations once its deadline passes.
+	 */
+	public void testMethodHandleDeadline() {
+
+		try {
+
+			StringBuilder expression = new StringBuilder("x * y");
+
+			for (int index = 1; index < 40; index++) {
+
+				expression.append(" + (x * (y + ").append(index).append("))");
+
+			}
+
+			CompiledPumaExpression compiled = PumaExpression.compile(
+					expression.toString(), PumaExpressionBackend.METHOD_HANDLE);
+
+			assertEquals(PumaExpressionBackend.METHOD_HANDLE, compiled
+					.getBackend());
+
+			// each product of integers of half a million bits takes far
+			// longer than the deadline
+
+			Puma x = Puma.THREE.power(new Puma("300000"));
+			Puma y = Puma.SEVEN.power(new Puma("200000"));
+
+			try {
+
+				compiled.evaluate(Duration.ofMillis(5), x, y);
+
+				fail();
+
+			} catch (CalculationInterruptedException expected) {
+
+				assertTrue(expected.deadlineExceeded());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
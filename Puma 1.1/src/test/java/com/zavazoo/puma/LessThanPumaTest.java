@@ -201,4 +201,52 @@ public class LessThanPumaTest extends AbstractPumaTest {
 
 	}
 
+	/**
+	 * Tests the less than operation on Puma numbers that share the same nearest
+	 * double and therefore must be compared precisely.
+	 */
+	public void testNearestDouble() {
+
+		try {
+
+			Puma lower = new Puma("1.00000000000000000001");
+			Puma upper = new Puma("1.00000000000000000002");
+
+			assertEquals(lower.doubleValue(), upper.doubleValue());
+
+			assertTrue(lower.lessThan(upper));
+
+			assertTrue(lower.lessThanOrEqualTo(upper));
+
+			assertFalse(upper.lessThan(lower));
+
+			assertTrue(upper.greaterThan(lower));
+
+			assertTrue(lower.compareTo(upper) < 0);
+
+			assertFalse(lower.equals(upper));
+
+			assertTrue(new Puma("1/3").lessThan(new Puma(
+					"0.33333333333333333333333333333333333334")));
+
+			assertTrue(new Puma("1/3").equals(new Puma("2/6")));
+
+			assertTrue(new Puma("0.1").lessThan(new Puma("1/0")));
+
+			assertTrue(new Puma("-1E+400").greaterThan(new Puma("-1/0")));
+
+			assertTrue(new Puma("-1E-400").lessThan(new Puma("0")));
+
+			assertTrue(new Puma("0").lessThan(new Puma("1E-400")));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
 }
\ No newline at end of file
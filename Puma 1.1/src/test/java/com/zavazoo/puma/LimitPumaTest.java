@@ -0,0 +1,319 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaExpression;
+import com.zavazoo.puma.PumaExpressionCache;
+import com.zavazoo.puma.PumaLimitExceededException;
+import com.zavazoo.puma.PumaLimits;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the enforcement of the default Puma limits.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class LimitPumaTest extends TestCase {
+
+	/**
+	 * Removes the default limits after each test.
+	 */
+	@Override
+	protected void tearDown() {
+
+		PumaLimits.setDefault(null);
+
+	}
+
+	/**
+	 * Tests that Puma numbers that exceed the maximum bit length are refused.
+	 */
+	public void testRefuseBitLength() {
+
+		try {
+
+			Puma large = Puma.TWO.power(new Puma("200"));
+
+			PumaLimits.setDefault(PumaLimits.UNLIMITED
+					.withMaximumBitLength(128));
+
+			assertEquals(new Puma("1/3"), Puma.ONE.divide(Puma.THREE));
+
+			try {
+
+				large.multiply(Puma.THREE);
+
+				fail();
+
+			} catch (PumaLimitExceededException expected) {
+
+				assertEquals("bit length", expected.getLimit());
+				assertEquals(128, expected.getMaximum());
+				assertTrue(expected.getActual() > 128);
+
+			}
+
+			try {
+
+				new Puma("0." + repeat('3', 50));
+
+				fail();
+
+			} catch (PumaLimitExceededException expected) {
+
+			}
+
+			// infinities are always within the limit
+			assertEquals(Puma.POSITIVE_INFINITY, large.divide(Puma.ZERO));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that Puma numbers that exceed the maximum bit length are
+	 * approximated.
+	 */
+	public void testApproximateBitLength() {
+
+		try {
+
+			Puma numerator = new Puma("123456789012345678901234567");
+			Puma denominator = new Puma("98765432109876543210987");
+
+			Puma exact = numerator.divide(denominator);
+
+			PumaLimits.setDefault(PumaLimits.UNLIMITED.withMaximumBitLength(
+					64).withApproximation(true));
+
+			Puma approximation = numerator.divide(denominator);
+
+			assertNull(approximation.getDenominator());
+			assertTrue(approximation.getNumerator().unscaledValue()
+					.bitLength() < 64);
+
+			// a number too small to be distinguished from zero within the
+			// limit is approximated as zero
+			assertEquals(Puma.ZERO, Puma.ONE.divide(numerator));
+
+			PumaLimits.setDefault(null);
+
+			assertTrue(exact.subtract(approximation).absolute().lessThan(
+					new Puma("0.0000001")));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that powers with large exponents or large estimated results are
+	 * refused before they are calculated.
+	 */
+	public void testPower() {
+
+		try {
+
+			PumaLimits.setDefault(PumaLimits.UNLIMITED.withMaximumExponent(
+					1000).withMaximumBitLength(4096));
+
+			assertEquals(new Puma("1024"), Puma.TWO.power(Puma.TEN));
+
+			try {
+
+				Puma.TWO.power(new Puma("100000"));
+
+				fail();
+
+			} catch (PumaLimitExceededException expected) {
+
+				assertEquals("exponent", expected.getLimit());
+				assertEquals(100000, expected.getActual());
+
+			}
+
+			try {
+
+				new Puma("123456789").power(new Puma("999"));
+
+				fail();
+
+			} catch (PumaLimitExceededException expected) {
+
+				assertEquals("estimated bit length", expected.getLimit());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that Puma expressions that are too long or too deeply nested are
+	 * refused as they are parsed.
+	 */
+	public void testExpression() {
+
+		try {
+
+			PumaLimits.setDefault(PumaLimits.UNLIMITED
+					.withMaximumExpressionLength(40)
+					.withMaximumExpressionDepth(3));
+
+			assertEquals(Puma.SIX, new PumaExpression("((1 + 2) * 2)")
+					.evaluate());
+
+			try {
+
+				new PumaExpression("((((1))))").evaluate();
+
+				fail();
+
+			} catch (PumaLimitExceededException expected) {
+
+				assertEquals("expression depth", expected.getLimit());
+
+			}
+
+			try {
+
+				PumaExpression.compile(repeat('1', 41));
+
+				fail();
+
+			} catch (PumaLimitExceededException expected) {
+
+				assertEquals("expression length", expected.getLimit());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that Puma expressions retrieved from the cache are checked against
+	 * the limits in force, even if they were compiled under looser limits.
+	 */
+	public void testCachedExpression() {
+
+		try {
+
+			PumaExpressionCache.setDefault(new PumaExpressionCache(16));
+
+			String deep = "((((1))))";
+			String wide = "1 + " + repeat('1', 40);
+
+			assertEquals(Puma.ONE, new PumaExpression(deep).evaluate());
+			assertNotNull(new PumaExpression(wide).evaluate());
+
+			PumaLimits.setDefault(PumaLimits.UNLIMITED
+					.withMaximumExpressionLength(40)
+					.withMaximumExpressionDepth(3));
+
+			try {
+
+				new PumaExpression(deep).evaluate();
+
+				fail();
+
+			} catch (PumaLimitExceededException expected) {
+
+				assertEquals("expression depth", expected.getLimit());
+
+			}
+
+			try {
+
+				new PumaExpression(wide).evaluate();
+
+				fail();
+
+			} catch (PumaLimitExceededException expected) {
+
+				assertEquals("expression length", expected.getLimit());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			PumaExpressionCache.setDefault(null);
+
+		}
+
+	}
+
+	/**
+	 * Yields a string of the specified character repeated the specified
+	 * number of times.
+	 * 
+	 * @param character
+	 *            the character.
+	 * @param count
+	 *            the count.
+	 * @return the string.
+	 */
+	private static String repeat(char character, int count) {
+
+		StringBuilder builder = new StringBuilder();
+
+		for (int index = 0; index < count; index++) {
+
+			builder.append(character);
+
+		}
+
+		return builder.toString();
+
+	}
+
+}
\ No newline at end of file
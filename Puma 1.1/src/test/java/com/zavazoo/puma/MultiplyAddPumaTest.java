@@ -0,0 +1,158 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import com.zavazoo.puma.Puma;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the fused multiply-add, multiply-divide and dot product operations on
+ * Puma numbers.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class MultiplyAddPumaTest extends TestCase {
+
+	/** The numbers, including fractions, negatives and zero. */
+	private static final String[] NUMBERS = { "0", "1", "-3", "0.25",
+			"-12.125", "1/3", "-2/7", "10/0.3", "1234567.891", "-0.0006" };
+
+	/**
+	 * Tests that the fused operations yield the same values as the equivalent
+	 * sequences of operations.
+	 */
+	public void testFused() {
+
+		try {
+
+			for (String first : NUMBERS) {
+
+				for (String second : NUMBERS) {
+
+					for (String third : NUMBERS) {
+
+						Puma a = new Puma(first);
+						Puma b = new Puma(second);
+						Puma c = new Puma(third);
+
+						assertEquals(a.multiply(b).add(c), a.multiplyAdd(b,
+								c));
+
+						if (c.notZero()) {
+
+							assertEquals(a.multiply(b).divide(c), a
+									.multiplyDivide(b, c));
+
+						}
+
+					}
+
+				}
+
+			}
+
+			assertEquals(Puma.POSITIVE_INFINITY, Puma.TWO.multiplyAdd(
+					Puma.POSITIVE_INFINITY, Puma.ONE));
+			assertEquals(Puma.TWO.multiply(Puma.THREE).divide(Puma.ZERO),
+					Puma.TWO.multiplyDivide(Puma.THREE, Puma.ZERO));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that the dot product yields the same value as the sum of the
+	 * products.
+	 */
+	public void testDot() {
+
+		try {
+
+			Puma[] multiplicands = new Puma[NUMBERS.length];
+			Puma[] multipliers = new Puma[NUMBERS.length];
+
+			Puma expected = Puma.ZERO;
+
+			for (int index = 0; index < NUMBERS.length; index++) {
+
+				multiplicands[index] = new Puma(NUMBERS[index]);
+				multipliers[index] = new Puma(NUMBERS[NUMBERS.length - index
+						- 1]);
+
+				expected = expected.add(multiplicands[index]
+						.multiply(multipliers[index]));
+
+			}
+
+			assertEquals(expected, Puma.dot(multiplicands, multipliers));
+
+			assertEquals(Puma.ZERO, Puma.dot(new Puma[0], new Puma[0]));
+
+			// the products of decimals are summed exactly
+
+			Puma[] decimals = { new Puma("0.25"), new Puma("-12.125"),
+					new Puma("1234567.891"), new Puma("-0.0006") };
+
+			Puma squares = Puma.ZERO;
+
+			for (Puma decimal : decimals) {
+
+				squares = squares.add(decimal.multiply(decimal));
+
+			}
+
+			assertEquals(squares, Puma.dot(decimals, decimals));
+
+			assertNull(Puma.dot(decimals, decimals).getDenominator());
+
+			multipliers[2] = Puma.NEGATIVE_INFINITY;
+
+			assertEquals(Puma.POSITIVE_INFINITY, Puma.dot(multiplicands,
+					multipliers));
+
+			try {
+
+				Puma.dot(multiplicands, new Puma[1]);
+
+				fail();
+
+			} catch (IllegalArgumentException expectedError) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
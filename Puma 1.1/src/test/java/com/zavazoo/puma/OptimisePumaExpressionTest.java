@@ -0,0 +1,229 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.Random;
+
+import com.zavazoo.puma.CompiledPumaExpression;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaContext;
+import com.zavazoo.puma.PumaExpression;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the optimisation of compiled Puma expressions.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class OptimisePumaExpressionTest extends TestCase {
+
+	/**
+	 * Tests that constant sub-expressions are folded into single constants.
+	 */
+	public void testConstantFolding() {
+
+		try {
+
+			assertInstructions(1, "( ( ( (1000000 * 1.1) - 1000000) / 3) / 1000) * 100");
+
+			assertInstructions(3, "(2 * 3) + x");
+
+			assertInstructions(3, "x + (2 * 3)");
+
+			CompiledPumaExpression compiled = PumaExpression
+					.compile("(10 / 4) * x");
+
+			assertEquals("5", compiled.evaluate(Puma.TWO).toString());
+
+			// integer powers are exact therefore folded, but other powers
+			// depend upon the precision in force upon evaluation
+
+			assertInstructions(1, "2 ^ 10");
+
+			assertInstructions(3, "2 ^ 0.5");
+
+			compiled = PumaExpression.compile("2 ^ 0.5");
+
+			PumaContext.Scope scope = PumaContext.DEFAULT.withPrecision(20)
+					.enter();
+
+			try {
+
+				assertEquals(Puma.TWO.power(new Puma("0.5"), 20), compiled
+						.evaluate());
+
+			} finally {
+
+				scope.close();
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that algebraic identities are collapsed.
+	 */
+	public void testIdentities() {
+
+		try {
+
+			assertInstructions(1, "x * 1");
+
+			assertInstructions(1, "1 * x");
+
+			assertInstructions(1, "x + 0");
+
+			assertInstructions(1, "0 + x");
+
+			assertInstructions(1, "x - 0");
+
+			assertInstructions(1, "x / 1");
+
+			assertInstructions(1, "x ^ 1");
+
+			assertInstructions(1, "((1 * (x ^ 1.0)) / 1) - (5 - 5)");
+
+			// not identities
+			assertInstructions(3, "0 - x");
+
+			assertInstructions(3, "1 / x");
+
+			assertInstructions(3, "x * 0");
+
+			String[] values = { "1/3", "-2.5", "1/0", "-1/0", "0" };
+
+			CompiledPumaExpression compiled = PumaExpression
+					.compile("((1 * (x ^ 1)) / 1) - 0");
+
+			for (String value : values) {
+
+				Puma number = new Puma(value);
+
+				assertEquals(number.toString(), compiled.evaluate(number)
+						.toString());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that identical sub-expressions are evaluated only once.
+	 */
+	public void testCommonSubexpressions() {
+
+		try {
+
+			assertInstructions(4, "(I * 1.1) - I");
+
+			assertInstructions(5, "((a + b) * (a + b)) + ((a + b) * (a + b))");
+
+			// not commutative therefore not identical
+			assertInstructions(5, "(a - b) * (b - a)");
+
+			CompiledPumaExpression compiled = PumaExpression
+					.compile("((a + b) * (a + b)) + ((a + b) * (a + b))");
+
+			assertEquals("50", compiled.evaluate(Puma.TWO, Puma.THREE)
+					.toString());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that optimised expressions yield the same results as the
+	 * equivalent chain of Puma operations for random operands.
+	 */
+	public void testRandom() {
+
+		try {
+
+			CompiledPumaExpression compiled = PumaExpression
+					.compile("((((x * 1.1) - x) / 3) / (y + 0)) * (x % (y * 1))");
+
+			Random random = new Random(23);
+
+			for (int index = 0; index < 200; index++) {
+
+				Puma x = new Puma((random.nextInt(2001) - 1000) + "/"
+						+ (random.nextInt(50) + 1));
+				Puma y = new Puma(String.valueOf(random.nextInt(100) + 1));
+
+				Puma expected = x.multiply(new Puma("1.1")).subtract(x)
+						.divide(Puma.THREE).divide(y).multiply(x.modulus(y));
+
+				assertEquals(expected.toString(), compiled.evaluate(x, y)
+						.toString());
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Asserts that the specified expression compiles to the specified number of
+	 * instructions.
+	 * 
+	 * @param expected
+	 *            the number of instructions.
+	 * @param expression
+	 *            the expression.
+	 * @exception Exception
+	 *                if the expression cannot be compiled.
+	 */
+	private static void assertInstructions(int expected, String expression)
+			throws Exception {
+
+		assertEquals(expression, expected, PumaExpression.compile(expression)
+				.getInstructions().length);
+
+	}
+
+}
\ No newline at end of file
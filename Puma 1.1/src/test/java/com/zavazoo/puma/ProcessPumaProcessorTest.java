@@ -0,0 +1,490 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.zavazoo.puma;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaFlow;
+import com.zavazoo.puma.PumaProcessor;
+import com.zavazoo.puma.RatioPumaProcessor;
+import com.zavazoo.puma.RunningSumPumaProcessor;
+import com.zavazoo.puma.WindowedPumaProcessor;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the processing of streams of Puma numbers by Puma processors.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class ProcessPumaProcessorTest extends TestCase {
+
+	/**
+	 * Tests the running sum of Puma numbers requested in small batches.
+	 */
+	public void testRunningSum() {
+
+		try {
+
+			List<Puma> numbers = new ArrayList<Puma>();
+
+			List<Puma> expected = new ArrayList<Puma>();
+
+			Puma sum = Puma.ZERO;
+
+			for (int index = 1; index <= 100; index++) {
+
+				Puma number = new Puma("1/" + index);
+
+				numbers.add(number);
+
+				sum = sum.add(number);
+
+				expected.add(sum);
+
+			}
+
+			Publisher<Puma> publisher = new Publisher<Puma>(numbers);
+
+			PumaProcessor<Puma> processor = new RunningSumPumaProcessor(16);
+
+			Subscriber subscriber = new Subscriber(7, Long.MAX_VALUE);
+
+			processor.subscribe(subscriber);
+			publisher.subscribe(processor);
+
+			assertEquals(expected, subscriber.received);
+			assertTrue(subscriber.completed);
+			assertNull(subscriber.error);
+
+			// the items are requested in batches rather than one at a time
+			for (long count : publisher.requests) {
+
+				assertTrue(count <= 16);
+
+			}
+
+			assertTrue(publisher.requests.size() < numbers.size() / 2);
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that no more Puma numbers are requested than the subscriber
+	 * requests.
+	 */
+	public void testBackpressure() {
+
+		try {
+
+			List<Puma> numbers = new ArrayList<Puma>();
+
+			for (int index = 0; index < 100; index++) {
+
+				numbers.add(Puma.ONE);
+
+			}
+
+			Publisher<Puma> publisher = new Publisher<Puma>(numbers);
+
+			Subscriber subscriber = new Subscriber(5, 5);
+
+			RunningSumPumaProcessor processor = new RunningSumPumaProcessor();
+
+			processor.subscribe(subscriber);
+			publisher.subscribe(processor);
+
+			assertEquals(5, subscriber.received.size());
+			assertEquals(Puma.FIVE, subscriber.received.get(4));
+			assertEquals(5, publisher.published);
+			assertFalse(subscriber.completed);
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the sum and average of windows bounded by count and by duration.
+	 */
+	public void testWindow() {
+
+		try {
+
+			List<Puma> numbers = Arrays.asList(new Puma("1/3"), Puma.TWO,
+					new Puma("0.5"), Puma.POSITIVE_INFINITY, Puma.ONE,
+					Puma.THREE, new Puma("-1/6"));
+
+			Subscriber subscriber = new Subscriber(2, Long.MAX_VALUE);
+
+			WindowedPumaProcessor average = WindowedPumaProcessor
+					.averageOfLast(3);
+
+			average.subscribe(subscriber);
+
+			new Publisher<Puma>(numbers).subscribe(average);
+
+			assertEquals(Arrays.asList(new Puma("1/3"), new Puma("7/6"),
+					new Puma("17/18"), Puma.POSITIVE_INFINITY,
+					Puma.POSITIVE_INFINITY, Puma.POSITIVE_INFINITY,
+					new Puma("23/18")), subscriber.received);
+
+			// the numbers are received 10ns apart within a 15ns window
+
+			LongSupplier ticker = new LongSupplier() {
+
+				private long time;
+
+				public long getAsLong() {
+
+					return time += 10;
+
+				}
+
+			};
+
+			subscriber = new Subscriber(3, Long.MAX_VALUE);
+
+			WindowedPumaProcessor sum = new WindowedPumaProcessor(
+					Integer.MAX_VALUE, 15, false, ticker, 4);
+
+			sum.subscribe(subscriber);
+
+			new Publisher<Puma>(numbers).subscribe(sum);
+
+			assertEquals(Arrays.asList(new Puma("1/3"), new Puma("7/3"),
+					new Puma("2.5"), Puma.POSITIVE_INFINITY,
+					Puma.POSITIVE_INFINITY, Puma.FOUR,
+					new Puma("17/6")), subscriber.received);
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the volume weighted average price of a series of trades, over
+	 * every trade and over the most recent trades.
+	 */
+	public void testRatio() {
+
+		try {
+
+			List<Puma[]> trades = Arrays.asList(new Puma[] { new Puma("10.5"),
+					new Puma("100") }, new Puma[] { new Puma("10.75"),
+					new Puma("300") }, new Puma[] { new Puma("10.25"),
+					new Puma("200") });
+
+			Function<Puma[], Puma> value = new Function<Puma[], Puma>() {
+
+				public Puma apply(Puma[] trade) {
+
+					return trade[0].multiply(trade[1]);
+
+				}
+
+			};
+
+			Function<Puma[], Puma> volume = new Function<Puma[], Puma>() {
+
+				public Puma apply(Puma[] trade) {
+
+					return trade[1];
+
+				}
+
+			};
+
+			Subscriber subscriber = new Subscriber(1, Long.MAX_VALUE);
+
+			RatioPumaProcessor<Puma[]> processor = new RatioPumaProcessor<Puma[]>(
+					value, volume);
+
+			processor.subscribe(subscriber);
+
+			new Publisher<Puma[]>(trades).subscribe(processor);
+
+			assertEquals(Arrays.asList(new Puma("10.5"), new Puma("10.6875"),
+					new Puma("6325/600")), subscriber.received);
+
+			subscriber = new Subscriber(1, Long.MAX_VALUE);
+
+			processor = new RatioPumaProcessor<Puma[]>(value, volume, 2);
+
+			processor.subscribe(subscriber);
+
+			new Publisher<Puma[]>(trades).subscribe(processor);
+
+			assertEquals(new Puma("5275/500"), subscriber.received.get(2));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that a failure to process an item cancels the publisher and
+	 * passes the error to the subscriber.
+	 */
+	public void testError() {
+
+		try {
+
+			Publisher<Puma> publisher = new Publisher<Puma>(Arrays.asList(
+					Puma.ONE, null, Puma.TWO));
+
+			Subscriber subscriber = new Subscriber(10, Long.MAX_VALUE);
+
+			RunningSumPumaProcessor processor = new RunningSumPumaProcessor();
+
+			processor.subscribe(subscriber);
+			publisher.subscribe(processor);
+
+			assertEquals(Arrays.asList(Puma.ONE), subscriber.received);
+			assertTrue(subscriber.error instanceof NullPointerException);
+			assertFalse(subscriber.completed);
+			assertTrue(publisher.cancelled);
+
+			Subscriber second = new Subscriber(1, Long.MAX_VALUE);
+
+			processor.subscribe(second);
+
+			assertTrue(second.error instanceof IllegalStateException);
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Publishes the items of a list synchronously, no faster than requested.
+	 */
+	private static final class Publisher<T> implements PumaFlow.Publisher<T> {
+
+		/** The items. */
+		private final Iterator<T> items;
+
+		/** The count of each request. */
+		private final List<Long> requests = new ArrayList<Long>();
+
+		/** The number of items published. */
+		private int published;
+
+		/** The number of items requested but not yet published. */
+		private long demand;
+
+		/** Asserts that items are being published. */
+		private boolean publishing;
+
+		/** Asserts that the subscription was cancelled. */
+		private boolean cancelled;
+
+		/**
+		 * Creates a publisher of the specified items.
+		 * 
+		 * @param items
+		 *            the items.
+		 */
+		private Publisher(List<T> items) {
+
+			this.items = items.iterator();
+
+		}
+
+		public void subscribe(final PumaFlow.Subscriber<? super T> subscriber) {
+
+			subscriber.onSubscribe(new PumaFlow.Subscription() {
+
+				public void request(long count) {
+
+					requests.add(count);
+
+					demand += count;
+
+					if (publishing) {
+
+						return;
+
+					}
+
+					publishing = true;
+
+					while (demand > 0 && !cancelled && items.hasNext()) {
+
+						demand--;
+
+						published++;
+
+						subscriber.onNext(items.next());
+
+					}
+
+					if (!cancelled && !items.hasNext()) {
+
+						cancelled = true;
+
+						subscriber.onComplete();
+
+					}
+
+					publishing = false;
+
+				}
+
+				public void cancel() {
+
+					cancelled = true;
+
+				}
+
+			});
+
+		}
+
+	}
+
+	/**
+	 * Receives Puma numbers, requesting them in batches up to a limit.
+	 */
+	private static final class Subscriber implements
+			PumaFlow.Subscriber<Puma> {
+
+		/** The number of Puma numbers requested at a time. */
+		private final int batchSize;
+
+		/** The maximum number of Puma numbers to request. */
+		private final long limit;
+
+		/** The Puma numbers received. */
+		private final List<Puma> received = new ArrayList<Puma>();
+
+		/** The subscription. */
+		private PumaFlow.Subscription subscription;
+
+		/** The number of Puma numbers requested. */
+		private long requested;
+
+		/** The error received, or null. */
+		private Throwable error;
+
+		/** Asserts that the completion was received. */
+		private boolean completed;
+
+		/**
+		 * Creates a subscriber.
+		 * 
+		 * @param batchSize
+		 *            the number of Puma numbers requested at a time.
+		 * @param limit
+		 *            the maximum number of Puma numbers to request.
+		 */
+		private Subscriber(int batchSize, long limit) {
+
+			this.batchSize = batchSize;
+			this.limit = limit;
+
+		}
+
+		public void onSubscribe(PumaFlow.Subscription subscription) {
+
+			this.subscription = subscription;
+
+			request();
+
+		}
+
+		public void onNext(Puma item) {
+
+			received.add(item);
+
+			if (received.size() == requested) {
+
+				request();
+
+			}
+
+		}
+
+		public void onError(Throwable error) {
+
+			this.error = error;
+
+		}
+
+		public void onComplete() {
+
+			completed = true;
+
+		}
+
+		/**
+		 * Requests the next batch of Puma numbers, up to the limit.
+		 */
+		private void request() {
+
+			long count = Math.min(batchSize, limit - requested);
+
+			if (count > 0) {
+
+				requested += count;
+
+				subscription.request(count);
+
+			}
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,373 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+
+import com.zavazoo.puma.CyclicDependencyException;
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaCalculationGraph;
+import com.zavazoo.puma.PumaLimitExceededException;
+import com.zavazoo.puma.PumaLimits;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the incremental recalculation of a Puma calculation graph.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class RecalculatePumaCalculationGraphTest extends TestCase {
+
+	/**
+	 * Tests that dependent nodes are recalculated when an input changes.
+	 */
+	public void testRecalculate() {
+
+		try {
+
+			PumaCalculationGraph graph = new PumaCalculationGraph();
+
+			graph.setValue("price", new Puma("12.5"));
+			graph.setValue("quantity", new Puma("3"));
+			graph.setValue("rate", new Puma("1/3"));
+
+			graph.setExpression("net", "price * quantity");
+			graph.setExpression("tax", "net * rate");
+			graph.setExpression("gross", "net + tax");
+
+			assertEquals(new Puma("50"), graph.getValue("gross"));
+
+			assertEquals(0, graph.getDirtyCount());
+
+			graph.setValue("quantity", new Puma("6"));
+
+			assertEquals(3, graph.getDirtyCount());
+
+			assertEquals(new Puma("75"), graph.getValue("net"));
+			assertEquals(new Puma("100"), graph.getValue("gross"));
+
+			graph.setExpression("tax", "net * rate * 2");
+
+			assertEquals(2, graph.getDirtyCount());
+
+			assertEquals(new Puma("125"), graph.getValue("gross"));
+
+			assertEquals(new HashSet<String>(Arrays.asList("net", "rate")),
+					graph.getDependencies("tax"));
+
+			assertEquals(new HashSet<String>(Arrays.asList("tax", "gross")),
+					graph.getDependents("net"));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that only the dirty nodes are recalculated, such that the values
+	 * of clean nodes are retained.
+	 */
+	public void testRecalculateDirtyOnly() {
+
+		try {
+
+			PumaCalculationGraph graph = new PumaCalculationGraph();
+
+			graph.setValue("a", new Puma("1"));
+			graph.setValue("b", new Puma("2"));
+
+			graph.setExpression("c", "a + 1");
+			graph.setExpression("d", "b + 1");
+
+			Puma c = graph.getValue("c");
+			Puma d = graph.getValue("d");
+
+			graph.setValue("b", new Puma("5"));
+
+			assertEquals(1, graph.getDirtyCount());
+
+			assertSame(c, graph.getValue("c"));
+
+			assertNotSame(d, graph.getValue("d"));
+
+			assertEquals(new Puma("6"), graph.getValue("d"));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that a definition causing a cyclic dependency is rejected without
+	 * altering the graph.
+	 */
+	public void testCyclicDependency() {
+
+		try {
+
+			PumaCalculationGraph graph = new PumaCalculationGraph();
+
+			graph.setValue("a", new Puma("1"));
+
+			graph.setExpression("b", "a + 1");
+			graph.setExpression("c", "b * 2");
+
+			try {
+
+				graph.setExpression("a", "c - 1");
+
+				fail();
+
+			} catch (CyclicDependencyException expected) {
+
+				assertEquals(Arrays.asList("a", "c", "b", "a"),
+						expected.getCycle());
+
+			}
+
+			try {
+
+				graph.setExpression("d", "d + 1");
+
+				fail();
+
+			} catch (CyclicDependencyException expected) {
+
+				assertEquals(Arrays.asList("d", "d"), expected.getCycle());
+
+			}
+
+			assertEquals(new Puma("4"), graph.getValue("c"));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests nodes that depend upon nodes that are not defined.
+	 */
+	public void testUndefined() {
+
+		try {
+
+			PumaCalculationGraph graph = new PumaCalculationGraph();
+
+			graph.setValue("a", new Puma("1"));
+
+			graph.setExpression("b", "a + x");
+			graph.setExpression("c", "b + 1");
+			graph.setExpression("d", "a + 1");
+
+			assertEquals(new Puma("2"), graph.getValue("d"));
+
+			try {
+
+				graph.getValue("c");
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			try {
+
+				graph.getValue("x");
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			graph.setValue("x", new Puma("10"));
+
+			assertEquals(new Puma("12"), graph.getValue("c"));
+
+			graph.remove("a");
+
+			try {
+
+				graph.getValue("c");
+
+				fail();
+
+			} catch (IllegalArgumentException expected) {
+
+			}
+
+			graph.setValue("a", new Puma("2"));
+
+			assertEquals(new Puma("13"), graph.getValue("c"));
+			assertEquals(new Puma("3"), graph.getValue("d"));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that a node whose calculation fails remains dirty, as do its
+	 * dependents, without preventing the other nodes from being calculated.
+	 */
+	public void testFailure() {
+
+		try {
+
+			PumaCalculationGraph graph = new PumaCalculationGraph();
+
+			graph.setValue("x", Puma.TWO.power(new Puma("100")));
+			graph.setValue("y", Puma.ONE);
+
+			PumaLimits.setDefault(PumaLimits.UNLIMITED
+					.withMaximumBitLength(128));
+
+			graph.setExpression("big", "x * x");
+			graph.setExpression("next", "big + 1");
+			graph.setExpression("other", "y + 1");
+
+			assertEquals(Puma.TWO, graph.getValue("other"));
+
+			for (String name : new String[] { "big", "next" }) {
+
+				try {
+
+					graph.getValue(name);
+
+					fail();
+
+				} catch (PumaLimitExceededException expected) {
+
+				}
+
+			}
+
+			assertEquals(2, graph.getDirtyCount());
+
+			graph.setExpression("big", "y * 2");
+
+			assertEquals(Puma.THREE, graph.getValue("next"));
+
+			assertEquals(0, graph.getDirtyCount());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		} finally {
+
+			PumaLimits.setDefault(null);
+
+		}
+
+	}
+
+	/**
+	 * Tests the recalculation of a wide and deep graph in parallel.
+	 */
+	public void testRecalculateParallel() {
+
+		try {
+
+			ForkJoinPool pool = new ForkJoinPool(4);
+
+			try {
+
+				PumaCalculationGraph graph = new PumaCalculationGraph(pool);
+
+				graph.setValue("x", new Puma("1"));
+
+				for (int row = 0; row < 50; row++) {
+
+					for (int column = 0; column < 20; column++) {
+
+						String dependency = row == 0 ? "x" : "n" + (row - 1)
+								+ "_" + column;
+
+						graph.setExpression("n" + row + "_" + column,
+								dependency + " + " + column);
+
+					}
+
+				}
+
+				graph.recalculate();
+
+				for (int column = 0; column < 20; column++) {
+
+					assertEquals(new Puma(String.valueOf(1 + 50 * column)),
+							graph.getValue("n49_" + column));
+
+				}
+
+				graph.setValue("x", new Puma("2"));
+
+				assertEquals(1000, graph.getDirtyCount());
+
+				graph.recalculate();
+
+				assertEquals(0, graph.getDirtyCount());
+
+				assertEquals(new Puma("2"), graph.getValue("n49_0"));
+				assertEquals(new Puma("952"), graph.getValue("n49_19"));
+
+			} finally {
+
+				pool.shutdown();
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -18,8 +18,11 @@
 
 package com.zavazoo.puma;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.Random;
 
 import com.zavazoo.puma.NegativeInfinityException;
 import com.zavazoo.puma.PositiveInfinityException;
@@ -259,4 +262,66 @@ public class RoundedPumaDecoratorTest extends TestCase {
 
 	}
 
+	/**
+	 * Tests that rounding random Puma numbers to a given scale yields the
+	 * precisely rounded number in every rounding mode, including numbers that
+	 * lie on or very close to a rounding boundary.
+	 */
+	public void testRoundedPumaRandom() {
+
+		try {
+
+			Random random = new Random(19);
+
+			RoundingMode[] modes = { RoundingMode.UP, RoundingMode.DOWN,
+					RoundingMode.CEILING, RoundingMode.FLOOR,
+					RoundingMode.HALF_UP, RoundingMode.HALF_DOWN,
+					RoundingMode.HALF_EVEN };
+
+			for (int index = 0; index < 3000; index++) {
+
+				int decimalPlaces = random.nextInt(25);
+
+				BigDecimal numerator = new BigDecimal(BigInteger.valueOf(random
+						.nextInt(2000001) - 1000000), random.nextInt(8));
+				BigDecimal denominator = new BigDecimal(random.nextInt(999) + 1);
+
+				if (random.nextInt(3) == 0) {
+
+					// a rounding boundary plus or minus a tiny offset
+					numerator = new BigDecimal(BigInteger.valueOf(random
+							.nextInt(2001) - 1000), 1).movePointLeft(
+							decimalPlaces).add(
+							new BigDecimal(BigInteger.ONE, 30).multiply(BigDecimal
+									.valueOf(random.nextInt(3) - 1)));
+					denominator = BigDecimal.ONE;
+
+				}
+
+				Puma number = new Puma(numerator.toPlainString() + "/"
+						+ denominator.toPlainString());
+
+				for (RoundingMode mode : modes) {
+
+					BigDecimal expected = numerator.divide(denominator,
+							decimalPlaces, mode);
+
+					assertEquals(new Puma(expected.toPlainString()).toString(),
+							number.createRoundedDecorator().toRoundedString(
+									decimalPlaces, mode));
+
+				}
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.zavazoo.puma.Puma;
+import com.zavazoo.puma.PumaSorter;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the sorting of Puma numbers using a Puma sorter.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class SortPumaSorterTest extends TestCase {
+
+	/**
+	 * The Puma numbers in ascending order, including numbers whose nearest
+	 * doubles collide.
+	 */
+	private static final String[] SORTED = { "-1/0",
+			"-2873709840398409859832745983742598045", "-1982.9",
+			"-1982.87326576", "-19.87328729837982739827987290800326576",
+			"-10", "-1.0000000000001", "-2/3", "-0.1", "0",
+			"0.33333333333333333333333333333333333333333", "1/3",
+			"0.333333333333333333333333333333333333333334", "0.67", "1",
+			"1.00000000000000000000000000000000000001",
+			"1.87829792787287636", "20.0000000000001", "20.000000001",
+			"1987987.62898", "2879487453658735973205987349857360987908",
+			"1/0" };
+
+	/**
+	 * Tests the sorting of an array of Puma numbers.
+	 */
+	public void testSortArray() {
+
+		try {
+
+			Puma[] numbers = createShuffledNumbers();
+
+			PumaSorter.sort(numbers);
+
+			assertSorted(numbers);
+
+			numbers = createShuffledNumbers();
+
+			PumaSorter.parallelSort(numbers);
+
+			assertSorted(numbers);
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests the sorting of a list of Puma numbers.
+	 */
+	public void testSortList() {
+
+		try {
+
+			List<Puma> numbers = new ArrayList<Puma>();
+
+			Collections.addAll(numbers, createShuffledNumbers());
+
+			PumaSorter.sort(numbers);
+
+			assertSorted(numbers.toArray(new Puma[numbers.size()]));
+
+			Collections.shuffle(numbers, new Random(7));
+
+			PumaSorter.parallelSort(numbers);
+
+			assertSorted(numbers.toArray(new Puma[numbers.size()]));
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that a Puma sorter yields the same order as the natural order of
+	 * Puma numbers for a large number of random fractions.
+	 */
+	public void testSortRandom() {
+
+		try {
+
+			Random random = new Random(11);
+
+			Puma[] numbers = new Puma[2000];
+
+			for (int index = 0; index < numbers.length; index++) {
+
+				// small numerators and denominators give rise to many equal
+				// numbers expressed differently
+				numbers[index] = new Puma((random.nextInt(41) - 20) + "/"
+						+ (random.nextInt(12) + 1));
+
+			}
+
+			Puma[] expected = numbers.clone();
+
+			List<Puma> naturallySorted = new ArrayList<Puma>();
+
+			Collections.addAll(naturallySorted, expected);
+
+			Collections.sort(naturallySorted);
+
+			PumaSorter.parallelSort(numbers);
+
+			for (int index = 0; index < numbers.length; index++) {
+
+				assertSame(naturallySorted.get(index), numbers[index]);
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Creates the Puma numbers in a shuffled order.
+	 * 
+	 * @return the numbers.
+	 */
+	private static Puma[] createShuffledNumbers() {
+
+		List<Puma> numbers = new ArrayList<Puma>();
+
+		for (String number : SORTED) {
+
+			numbers.add(new Puma(number));
+
+		}
+
+		Collections.shuffle(numbers, new Random(3));
+
+		return numbers.toArray(new Puma[numbers.size()]);
+
+	}
+
+	/**
+	 * Asserts that the specified Puma numbers are in ascending order.
+	 * 
+	 * @param numbers
+	 *            the numbers.
+	 */
+	private static void assertSorted(Puma[] numbers) {
+
+		assertEquals(SORTED.length, numbers.length);
+
+		for (int index = 0; index < SORTED.length; index++) {
+
+			assertEquals(new Puma(SORTED[index]).toString(),
+					numbers[index].toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,209 @@
+/*
+ * Zavazoo Puma 1.1 - Java API for Precise Unbounded MAthematics 
+ * Copyright (C) 2011-2013 Chris White <chriswhitelondon@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.zavazoo.puma;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+import com.zavazoo.puma.AtomicPuma;
+import com.zavazoo.puma.Puma;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the atomic updates of an atomic Puma number.
+ * 
+ * @author Chris White <chriswhitelondon@gmail.com>
+ * @since JDK6
+ */
+public class UpdateAtomicPumaTest extends TestCase {
+
+	/**
+	 * Tests the atomic updates of an atomic Puma number by a single thread.
+	 */
+	public void testUpdate() {
+
+		try {
+
+			AtomicPuma balance = new AtomicPuma();
+
+			assertSame(Puma.ZERO, balance.get());
+
+			assertEquals(Puma.ZERO, balance.getAndAdd(Puma.TEN));
+
+			assertEquals(new Puma("10.5"), balance.addAndGet(new Puma("0.5")));
+
+			Puma current = balance.get();
+
+			assertTrue(balance.compareAndSet(current, Puma.ONE));
+
+			// compared by value rather than by reference
+			assertTrue(balance.compareAndSet(new Puma("1.0"), Puma.TWO));
+
+			assertFalse(balance.compareAndSet(Puma.ONE, Puma.THREE));
+
+			assertFalse(balance.compareAndSet(null, Puma.THREE));
+
+			assertSame(Puma.TWO, balance.get());
+
+			UnaryOperator<Puma> halve = new UnaryOperator<Puma>() {
+
+				public Puma apply(Puma number) {
+
+					return number.halve();
+
+				}
+
+			};
+
+			assertEquals(Puma.TWO, balance.getAndUpdate(halve));
+			assertEquals(new Puma("0.5"), balance.updateAndGet(halve));
+
+			BinaryOperator<Puma> multiply = new BinaryOperator<Puma>() {
+
+				public Puma apply(Puma left, Puma right) {
+
+					return left.multiply(right);
+
+				}
+
+			};
+
+			assertEquals(new Puma("0.5"), balance.getAndAccumulate(
+					new Puma("1/3"), multiply));
+			assertEquals(new Puma("1/2"), balance.accumulateAndGet(Puma.THREE,
+					multiply));
+
+			assertEquals(new Puma("0.5"), balance.getAndSet(Puma.SEVEN));
+
+			assertEquals(7, balance.intValue());
+			assertEquals(7.0, balance.doubleValue());
+			assertEquals("7", balance.toString());
+
+			try {
+
+				balance.set(null);
+
+				fail();
+
+			} catch (NullPointerException expected) {
+
+			}
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+	/**
+	 * Tests that concurrent updates by many threads are not lost.
+	 */
+	public void testConcurrentUpdate() {
+
+		try {
+
+			final AtomicPuma balance = new AtomicPuma();
+
+			final int threads = 8;
+
+			final int updates = 2000;
+
+			final CountDownLatch start = new CountDownLatch(1);
+
+			final List<Throwable> errors = new ArrayList<Throwable>();
+
+			List<Thread> started = new ArrayList<Thread>();
+
+			for (int thread = 0; thread < threads; thread++) {
+
+				Thread updating = new Thread(new Runnable() {
+
+					public void run() {
+
+						try {
+
+							start.await();
+
+							for (int index = 0; index < updates; index++) {
+
+								if ((index & 1) == 0) {
+
+									balance.addAndGet(new Puma("0.01"));
+
+								} else {
+
+									balance.getAndAdd(new Puma("1/4"));
+
+								}
+
+							}
+
+						} catch (Throwable error) {
+
+							synchronized (errors) {
+
+								errors.add(error);
+
+							}
+
+						}
+
+					}
+
+				});
+
+				updating.start();
+
+				started.add(updating);
+
+			}
+
+			start.countDown();
+
+			for (Thread updating : started) {
+
+				updating.join();
+
+			}
+
+			assertTrue(errors.toString(), errors.isEmpty());
+
+			assertEquals(new Puma("0.26").multiply(
+					new Puma(String.valueOf(threads * updates / 2))), balance
+					.get());
+
+		} catch (Exception error) {
+
+			error.printStackTrace();
+
+			fail(error.toString());
+
+		}
+
+	}
+
+}
\ No newline at end of file